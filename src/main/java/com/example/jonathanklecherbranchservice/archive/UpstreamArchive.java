@@ -0,0 +1,631 @@
+package com.example.jonathanklecherbranchservice.archive;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * Local archive of real GitHub API responses, used to run the service without a network.
+ * <p>
+ * The archive is a directory with two files:
+ * <ul>
+ *   <li>{@code responses.log}: an append-only log of records
+ *       {@code [length][crc32][keyLength][key][status][headersLength][headers][bodyLength][body]}, where
+ *       the key is the request method, URL and body, and the headers are the response headers</li>
+ *   <li>{@code responses.idx}: a memory-mapped open-addressing hash table from the 64-bit hash of a
+ *       key to the offset of its latest record, probed linearly and kept at most half full, so a
+ *       lookup costs one or two slot reads plus one positional read of the log</li>
+ * </ul>
+ * The index is derived data: its header records how much of the log it covers, and on startup any
+ * records appended after that point are indexed again. A record torn by a crash fails its checksum
+ * and is cut off the log. Recording a key again appends a new record and repoints its slot, so the
+ * latest response wins; older records stay in the log.
+ * <p>
+ * {@code github.archive.mode} selects what {@code GitHubService} does with the archive:
+ * <ul>
+ *   <li>{@code off} (default): nothing, no files are opened</li>
+ *   <li>{@code record}: every successful GitHub response, and every 404 Not Found, is appended</li>
+ *   <li>{@code replay}: every call is answered from the archive and the network is never used,
+ *       which makes the archive a deterministic dataset for tests and benchmarks</li>
+ *   <li>{@code fallback}: responses are recorded, and when GitHub is unavailable or rate limited
+ *       the last archived success is served instead</li>
+ * </ul>
+ * Request headers, and so API tokens, are never archived. Appends are not forced to disk one by
+ * one; the log is forced when the archive is closed.
+ */
+@Component
+public class UpstreamArchive implements MeterBinder {
+
+    private static final String LOG_FILE = "responses.log";
+    private static final String INDEX_FILE = "responses.idx";
+    private static final int INDEX_MAGIC = 0x47484158;
+    private static final int INDEX_VERSION = 1;
+    private static final int INDEX_HEADER_BYTES = 32;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int SIZE_OFFSET = 12;
+    private static final int INDEXED_LENGTH_OFFSET = 16;
+    private static final int SLOT_BYTES = 2 * Long.BYTES;
+    private static final int RECORD_HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int MIN_CAPACITY = 16;
+    private static final long EMPTY = 0L;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * What the service does with the archive.
+     */
+    public enum Mode {
+        /** The archive is not used. */
+        OFF,
+        /** GitHub responses are appended to the archive. */
+        RECORD,
+        /** Calls are answered from the archive only. */
+        REPLAY,
+        /** Responses are recorded and served from the archive while GitHub is unavailable. */
+        FALLBACK
+    }
+
+    private final Mode mode;
+    private final FileChannel log;
+    private final Path indexPath;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder appends = new LongAdder();
+    private FileChannel indexChannel;
+    private MappedByteBuffer index;
+    private int capacity;
+    private int size;
+    private long logLength;
+
+    /**
+     * Opens the archive configured for the service.
+     *
+     * @param mode            {@code off}, {@code record}, {@code replay} or {@code fallback}
+     * @param directory       the directory holding the archive files, created if missing
+     * @param initialCapacity the number of index slots of a new archive; grows as needed
+     * @throws IllegalArgumentException if the mode is unknown
+     * @throws UncheckedIOException     if the archive cannot be opened
+     */
+    @Autowired
+    public UpstreamArchive(@Value("${github.archive.mode:off}") final String mode,
+                           @Value("${github.archive.directory:upstream-archive}") final String directory,
+                           @Value("${github.archive.initial-capacity:4096}") final int initialCapacity) {
+        this(parseMode(mode), Path.of(directory), initialCapacity);
+    }
+
+    /**
+     * Opens an archive, creating it if it does not exist.
+     *
+     * @param mode            what the service does with the archive
+     * @param directory       the directory holding the archive files, created if missing
+     * @param initialCapacity the number of index slots of a new archive; grows as needed
+     * @throws UncheckedIOException if the archive cannot be opened
+     */
+    public UpstreamArchive(final Mode mode, final Path directory, final int initialCapacity) {
+        this.mode = mode;
+        this.indexPath = directory.resolve(INDEX_FILE);
+        if (mode == Mode.OFF) {
+            this.log = null;
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            this.log = FileChannel.open(directory.resolve(LOG_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            open(initialCapacity);
+        } catch (final IOException exception) {
+            throw new UncheckedIOException("Failed to open the upstream archive in " + directory, exception);
+        }
+    }
+
+    // ========== PUBLIC METHODS ==========
+
+    /**
+     * Returns the configured mode.
+     *
+     * @return the mode
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Returns whether GitHub responses should be appended to the archive.
+     *
+     * @return {@code true} in record and fallback mode
+     */
+    public boolean isRecording() {
+        return mode == Mode.RECORD || mode == Mode.FALLBACK;
+    }
+
+    /**
+     * Appends a response to the archive, replacing any earlier response to the same request.
+     *
+     * @param method      the request method
+     * @param url         the request URL
+     * @param requestBody the request body, or {@code null}
+     * @param status      the response status code
+     * @param headers     the response headers, may be {@code null}
+     * @param body        the response body, may be {@code null}
+     * @throws UncheckedIOException if the archive cannot be written
+     */
+    public void record(final HttpMethod method, final String url, final String requestBody, final int status,
+                       final HttpHeaders headers, final String body) {
+        if (mode == Mode.OFF) {
+            return;
+        }
+        final byte[] key = key(method, url, requestBody);
+        final ByteBuffer record = encode(key, status, headers, body);
+        lock.writeLock().lock();
+        try {
+            final long offset = logLength;
+            writeFully(record, offset);
+            logLength += record.capacity();
+            insert(hash(key), key, offset);
+            index.putLong(INDEXED_LENGTH_OFFSET, logLength);
+            appends.increment();
+        } catch (final IOException exception) {
+            throw new UncheckedIOException("Failed to append to the upstream archive", exception);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Looks up the latest archived response to a request.
+     *
+     * @param method      the request method
+     * @param url         the request URL
+     * @param requestBody the request body, or {@code null}
+     * @return the archived response, or {@code null} if the request was never recorded
+     * @throws UncheckedIOException if the archive cannot be read
+     */
+    public ArchivedResponse lookup(final HttpMethod method, final String url, final String requestBody) {
+        if (mode == Mode.OFF) {
+            return null;
+        }
+        final byte[] key = key(method, url, requestBody);
+        final long hash = hash(key);
+        lock.readLock().lock();
+        try {
+            final int mask = capacity - 1;
+            for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+                final int position = INDEX_HEADER_BYTES + slot * SLOT_BYTES;
+                final long slotHash = index.getLong(position);
+                if (slotHash == EMPTY) {
+                    misses.increment();
+                    return null;
+                }
+                if (slotHash == hash) {
+                    final ArchivedResponse response = decode(readRecord(index.getLong(position + Long.BYTES)), key);
+                    if (response != null) {
+                        hits.increment();
+                        return response;
+                    }
+                }
+            }
+        } catch (final IOException exception) {
+            throw new UncheckedIOException("Failed to read the upstream archive", exception);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of distinct requests in the archive.
+     *
+     * @return the entry count
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Forces the archive to disk and closes its files.
+     */
+    @PreDestroy
+    public void close() {
+        if (log == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!log.isOpen()) {
+                return;
+            }
+            index.force();
+            log.force(true);
+            log.close();
+            indexChannel.close();
+        } catch (final IOException exception) {
+            throw new UncheckedIOException("Failed to close the upstream archive", exception);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Registers {@code github.archive.lookups{result=hit|miss}}, {@code github.archive.appends} and
+     * {@code github.archive.entries}.
+     *
+     * @param registry the meter registry
+     */
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        FunctionCounter.builder("github.archive.lookups", hits, LongAdder::sum)
+                .description("Upstream archive lookups")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("github.archive.lookups", misses, LongAdder::sum)
+                .description("Upstream archive lookups")
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("github.archive.appends", appends, LongAdder::sum)
+                .description("GitHub responses appended to the upstream archive")
+                .register(registry);
+        Gauge.builder("github.archive.entries", this, UpstreamArchive::size)
+                .description("Distinct requests in the upstream archive")
+                .register(registry);
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    /**
+     * Maps the index, creating or rebuilding it if it does not match the log, and indexes any
+     * records appended after the point the index covers.
+     *
+     * @param initialCapacity the number of slots of a new index
+     * @throws IOException if a file cannot be read or written
+     */
+    private void open(final int initialCapacity) throws IOException {
+        logLength = log.size();
+        long indexed = -1;
+        if (Files.exists(indexPath) && Files.size(indexPath) >= INDEX_HEADER_BYTES) {
+            map(indexPath, -1);
+            indexed = indexedLength();
+            if (indexed < 0) {
+                indexChannel.close();
+            }
+        }
+        if (indexed < 0) {
+            Files.deleteIfExists(indexPath);
+            map(indexPath, tableSize(initialCapacity));
+            indexed = 0;
+        }
+        capacity = index.getInt(CAPACITY_OFFSET);
+        size = index.getInt(SIZE_OFFSET);
+
+        long offset = indexed;
+        while (offset < logLength) {
+            final ByteBuffer record = readRecord(offset);
+            if (record == null) {
+                log.truncate(offset);
+                break;
+            }
+            final byte[] key = key(record);
+            insert(hash(key), key, offset);
+            offset += RECORD_HEADER_BYTES + record.capacity();
+        }
+        logLength = offset;
+        index.putLong(INDEXED_LENGTH_OFFSET, logLength);
+    }
+
+    /**
+     * Returns how much of the log the mapped index covers, after checking that the index is intact.
+     *
+     * @return the indexed log length, or {@code -1} if the index is unusable and must be rebuilt
+     * @throws IOException if the index file size cannot be read
+     */
+    private long indexedLength() throws IOException {
+        final int slots = index.getInt(CAPACITY_OFFSET);
+        final long indexed = index.getLong(INDEXED_LENGTH_OFFSET);
+        final boolean intact = index.getInt(0) == INDEX_MAGIC
+                && index.getInt(Integer.BYTES) == INDEX_VERSION
+                && slots >= MIN_CAPACITY && Integer.bitCount(slots) == 1
+                && indexChannel.size() == INDEX_HEADER_BYTES + (long) slots * SLOT_BYTES
+                && indexed >= 0 && indexed <= logLength;
+        return intact ? indexed : -1;
+    }
+
+    /**
+     * Opens and maps an index file, writing a fresh header if a capacity is given.
+     *
+     * @param path     the index file
+     * @param capacity the number of slots of a new index, or {@code -1} to map an existing one
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    private void map(final Path path, final int capacity) throws IOException {
+        indexChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        final long bytes = capacity < 0 ? indexChannel.size() : INDEX_HEADER_BYTES + (long) capacity * SLOT_BYTES;
+        index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+        if (capacity >= 0) {
+            index.putInt(0, INDEX_MAGIC);
+            index.putInt(Integer.BYTES, INDEX_VERSION);
+            index.putInt(CAPACITY_OFFSET, capacity);
+            index.putInt(SIZE_OFFSET, 0);
+            index.putLong(INDEXED_LENGTH_OFFSET, 0);
+        }
+    }
+
+    /**
+     * Points the slot of a hash at a record, claiming an empty slot if the key is new. Doubles the
+     * table first if the insert could take it past half full.
+     *
+     * @param hash   the key hash
+     * @param key    the key
+     * @param offset the log offset of the record
+     * @throws IOException if the log cannot be read or the index cannot be grown
+     */
+    private void insert(final long hash, final byte[] key, final long offset) throws IOException {
+        if ((size + 1) * 2L > capacity) {
+            grow();
+        }
+        final int mask = capacity - 1;
+        for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+            final int position = INDEX_HEADER_BYTES + slot * SLOT_BYTES;
+            final long slotHash = index.getLong(position);
+            if (slotHash == EMPTY) {
+                index.putLong(position + Long.BYTES, offset);
+                index.putLong(position, hash);
+                index.putInt(SIZE_OFFSET, ++size);
+                return;
+            }
+            if (slotHash == hash && Arrays.equals(key(readRecord(index.getLong(position + Long.BYTES))), key)) {
+                index.putLong(position + Long.BYTES, offset);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Rehashes the index into a table of twice the size, written to a temporary file that then
+     * replaces the index file.
+     *
+     * @throws IOException if the new table cannot be written
+     */
+    private void grow() throws IOException {
+        final MappedByteBuffer previous = index;
+        final FileChannel previousChannel = indexChannel;
+        final int previousCapacity = capacity;
+        final Path grown = indexPath.resolveSibling(INDEX_FILE + ".tmp");
+        Files.deleteIfExists(grown);
+        map(grown, previousCapacity * 2);
+        capacity = previousCapacity * 2;
+        final int mask = capacity - 1;
+        for (int from = 0; from < previousCapacity; from++) {
+            final int source = INDEX_HEADER_BYTES + from * SLOT_BYTES;
+            final long hash = previous.getLong(source);
+            if (hash == EMPTY) {
+                continue;
+            }
+            int slot = (int) hash & mask;
+            while (index.getLong(INDEX_HEADER_BYTES + slot * SLOT_BYTES) != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            index.putLong(INDEX_HEADER_BYTES + slot * SLOT_BYTES + Long.BYTES, previous.getLong(source + Long.BYTES));
+            index.putLong(INDEX_HEADER_BYTES + slot * SLOT_BYTES, hash);
+        }
+        index.putInt(SIZE_OFFSET, size);
+        index.putLong(INDEXED_LENGTH_OFFSET, previous.getLong(INDEXED_LENGTH_OFFSET));
+        index.force();
+        previousChannel.close();
+        indexChannel.close();
+        Files.move(grown, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        map(indexPath, -1);
+    }
+
+    /**
+     * Reads the payload of the record at an offset and checks it against its checksum.
+     *
+     * @param offset the log offset of the record
+     * @return the payload, or {@code null} if the record is torn or corrupt
+     * @throws IOException if the log cannot be read
+     */
+    private ByteBuffer readRecord(final long offset) throws IOException {
+        if (offset + RECORD_HEADER_BYTES > logLength) {
+            return null;
+        }
+        final ByteBuffer header = readFully(RECORD_HEADER_BYTES, offset);
+        final int length = header.getInt();
+        final int checksum = header.getInt();
+        if (length < Integer.BYTES || offset + RECORD_HEADER_BYTES + length > logLength) {
+            return null;
+        }
+        final ByteBuffer payload = readFully(length, offset + RECORD_HEADER_BYTES);
+        final CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        return (int) crc.getValue() == checksum ? payload : null;
+    }
+
+    private ByteBuffer readFully(final int length, final long offset) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (log.read(buffer, offset + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of the upstream archive at " + offset);
+            }
+        }
+        return buffer.flip();
+    }
+
+    private void writeFully(final ByteBuffer buffer, final long offset) throws IOException {
+        while (buffer.hasRemaining()) {
+            log.write(buffer, offset + buffer.position());
+        }
+    }
+
+    /**
+     * Encodes a response as a log record, checksum included.
+     */
+    private static ByteBuffer encode(final byte[] key, final int status, final HttpHeaders headers, final String body) {
+        final StringBuilder headerLines = new StringBuilder();
+        if (headers != null) {
+            for (final Map.Entry<String, List<String>> header : headers.headerSet()) {
+                for (final String value : header.getValue()) {
+                    headerLines.append(header.getKey()).append(": ").append(value).append('\n');
+                }
+            }
+        }
+        final byte[] headerBytes = headerLines.toString().getBytes(StandardCharsets.UTF_8);
+        final byte[] bodyBytes = body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8);
+        final int length = 4 * Integer.BYTES + key.length + headerBytes.length + bodyBytes.length;
+        final ByteBuffer payload = ByteBuffer.allocate(length)
+                .putInt(key.length).put(key)
+                .putInt(status)
+                .putInt(headerBytes.length).put(headerBytes)
+                .putInt(bodyBytes.length).put(bodyBytes)
+                .flip();
+        final CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        return ByteBuffer.allocate(RECORD_HEADER_BYTES + length)
+                .putInt(length)
+                .putInt((int) crc.getValue())
+                .put(payload)
+                .flip();
+    }
+
+    /**
+     * Decodes a record payload if it belongs to the given key.
+     *
+     * @return the response, or {@code null} if the record is missing or belongs to another key
+     */
+    private static ArchivedResponse decode(final ByteBuffer payload, final byte[] key) {
+        if (payload == null || !Arrays.equals(key(payload), key)) {
+            return null;
+        }
+        final ByteBuffer buffer = payload.duplicate();
+        buffer.position(Integer.BYTES + key.length);
+        final int status = buffer.getInt();
+        final HttpHeaders headers = new HttpHeaders();
+        for (final String line : string(buffer).split("\n")) {
+            final int colon = line.indexOf(": ");
+            if (colon > 0) {
+                headers.add(line.substring(0, colon), line.substring(colon + 2));
+            }
+        }
+        return new ArchivedResponse(status, headers, string(buffer));
+    }
+
+    private static String string(final ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] key(final ByteBuffer payload) {
+        if (payload == null) {
+            return new byte[0];
+        }
+        final ByteBuffer buffer = payload.duplicate();
+        final byte[] key = new byte[buffer.getInt()];
+        buffer.get(key);
+        return key;
+    }
+
+    private static byte[] key(final HttpMethod method, final String url, final String requestBody) {
+        final String key = method.name() + ' ' + url + (requestBody == null ? "" : '\n' + requestBody);
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 64-bit FNV-1a of the key, finalized with the MurmurHash3 mixer so the low bits used to pick a
+     * slot depend on every byte. Never {@code 0}, which marks an empty slot.
+     */
+    private static long hash(final byte[] key) {
+        long hash = FNV_OFFSET;
+        for (final byte b : key) {
+            hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash == EMPTY ? 1 : hash;
+    }
+
+    private static int tableSize(final int initialCapacity) {
+        return Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, initialCapacity - 1)) << 1);
+    }
+
+    private static Mode parseMode(final String mode) {
+        try {
+            return Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        } catch (final IllegalArgumentException exception) {
+            throw new IllegalArgumentException("Unknown github.archive.mode: " + mode, exception);
+        }
+    }
+
+    /**
+     * A response read back from the archive.
+     */
+    public static final class ArchivedResponse {
+
+        private final int status;
+        private final HttpHeaders headers;
+        private final String body;
+
+        ArchivedResponse(final int status, final HttpHeaders headers, final String body) {
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        /**
+         * Returns the response status code.
+         *
+         * @return the status code
+         */
+        public int getStatus() {
+            return status;
+        }
+
+        /**
+         * Returns the response headers.
+         *
+         * @return the headers
+         */
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        /**
+         * Returns the response body.
+         *
+         * @return the body, empty if the response had none
+         */
+        public String getBody() {
+            return body;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.jonathanklecherbranchservice.cache;
+
+import com.example.jonathanklecherbranchservice.codec.BinaryFormat;
+import com.example.jonathanklecherbranchservice.entity.GitHubInfo;
+import com.example.jonathanklecherbranchservice.entity.GitHubRepository;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A cached {@link GitHubInfo} together with the times its profile and its repository list were
+ * fetched from GitHub.
+ * <p>
+ * The two parts are fetched from different endpoints and go stale independently, so each keeps its
+ * own fetch time and can be refreshed without the other (see {@link #withProfile} and
+ * {@link #withRepositories}). They are combined into one info, the response body, when the entry is built.
+ * <p>
+ * Entries are immutable snapshots: updating a user replaces the whole entry, so anything derived
+ * from an entry can safely be memoized on it.
+ */
+public final class CacheEntry {
+
+    // Rough per-object costs on a 64-bit JVM with compressed oops and compact strings
+    private static final long ENTRY_OVERHEAD_BYTES = 128;
+    private static final long REPOSITORY_OVERHEAD_BYTES = 48;
+    private static final long STRING_OVERHEAD_BYTES = 40;
+
+    private final GitHubInfo info;
+    private final long profileFetchedAtMillis;
+    private final long repositoriesFetchedAtMillis;
+    private final long estimatedBytes;
+    private final AtomicReferenceArray<byte[]> encodings = new AtomicReferenceArray<>(BinaryFormat.values().length);
+    private volatile String contentHash;
+    private volatile String repositoriesHash;
+    private volatile RepositoryIndex repositoryIndex;
+
+    /**
+     * Creates an entry whose profile and repositories were fetched together.
+     *
+     * @param info            the cached user info
+     * @param fetchedAtMillis when the info was fetched, in epoch milliseconds
+     */
+    public CacheEntry(final GitHubInfo info, final long fetchedAtMillis) {
+        this(info, fetchedAtMillis, fetchedAtMillis);
+    }
+
+    /**
+     * Creates an entry whose profile and repositories were fetched at different times.
+     *
+     * @param info                        the cached user info
+     * @param profileFetchedAtMillis      when the profile was fetched, in epoch milliseconds
+     * @param repositoriesFetchedAtMillis when the repository list was fetched, in epoch milliseconds
+     */
+    public CacheEntry(final GitHubInfo info, final long profileFetchedAtMillis, final long repositoriesFetchedAtMillis) {
+        this.info = info;
+        this.profileFetchedAtMillis = profileFetchedAtMillis;
+        this.repositoriesFetchedAtMillis = repositoriesFetchedAtMillis;
+        this.estimatedBytes = estimateBytes(info);
+    }
+
+    /**
+     * Returns the cached user info.
+     *
+     * @return the user info
+     */
+    public GitHubInfo getInfo() {
+        return info;
+    }
+
+    /**
+     * Returns when the older of the two parts was fetched from GitHub.
+     *
+     * @return the fetch time in epoch milliseconds
+     */
+    public long getFetchedAtMillis() {
+        return Math.min(profileFetchedAtMillis, repositoriesFetchedAtMillis);
+    }
+
+    /**
+     * Returns when the profile was fetched from GitHub.
+     *
+     * @return the fetch time in epoch milliseconds
+     */
+    public long getProfileFetchedAtMillis() {
+        return profileFetchedAtMillis;
+    }
+
+    /**
+     * Returns when the repository list was fetched from GitHub.
+     *
+     * @return the fetch time in epoch milliseconds
+     */
+    public long getRepositoriesFetchedAtMillis() {
+        return repositoriesFetchedAtMillis;
+    }
+
+    /**
+     * Returns an entry with a freshly fetched profile and this entry's repositories.
+     *
+     * @param profile         the fetched profile; its repositories are ignored
+     * @param fetchedAtMillis when the profile was fetched, in epoch milliseconds
+     * @return the new entry
+     */
+    public CacheEntry withProfile(final GitHubInfo profile, final long fetchedAtMillis) {
+        return new CacheEntry(profile.withRepositories(info.getRepositories()), fetchedAtMillis, repositoriesFetchedAtMillis);
+    }
+
+    /**
+     * Returns an entry with a freshly fetched repository list and this entry's profile.
+     *
+     * @param repositories    the fetched repositories
+     * @param fetchedAtMillis when the repositories were fetched, in epoch milliseconds
+     * @return the new entry
+     */
+    public CacheEntry withRepositories(final List<GitHubRepository> repositories, final long fetchedAtMillis) {
+        return new CacheEntry(info.withRepositories(repositories), profileFetchedAtMillis, fetchedAtMillis);
+    }
+
+    /**
+     * Returns an entry with derived info, e.g. a repository query or enrichment, and this entry's
+     * fetch times.
+     *
+     * @param derived the info to hold
+     * @return the new entry
+     */
+    public CacheEntry withInfo(final GitHubInfo derived) {
+        return new CacheEntry(derived, profileFetchedAtMillis, repositoriesFetchedAtMillis);
+    }
+
+    /**
+     * Returns a rough estimate of the heap this entry's info takes, computed once when it is created.
+     *
+     * @return estimated bytes
+     */
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    /**
+     * Returns the info encoded in a binary format, encoding it on first use.
+     * <p>
+     * The encoding is memoized, so repeated requests for a cached user reuse the same bytes.
+     * Concurrent first calls may both encode; the results are identical and one of them wins.
+     * The returned array is shared and must not be modified.
+     *
+     * @param format the binary format
+     * @return the encoded info
+     */
+    public byte[] getEncoding(final BinaryFormat format) {
+        byte[] encoded = encodings.get(format.ordinal());
+        if (encoded == null) {
+            encoded = format.encode(info);
+            if (!encodings.compareAndSet(format.ordinal(), null, encoded)) {
+                encoded = encodings.get(format.ordinal());
+            }
+        }
+        return encoded;
+    }
+
+    /**
+     * Returns the strong {@code ETag} of this entry's representation in a format.
+     * <p>
+     * The tag is a SHA-256 of the info's canonical JSON, computed once per entry. Each format is a
+     * different byte representation, so binary formats get a suffix to keep the tags distinct.
+     *
+     * @param format the binary format, or {@code null} for JSON
+     * @return the quoted entity tag
+     */
+    public String getETag(final BinaryFormat format) {
+        String hash = contentHash;
+        if (hash == null) {
+            hash = ContentHash.of(info);
+            contentHash = hash;
+        }
+        return eTag(hash, format);
+    }
+
+    /**
+     * Returns the strong {@code ETag} of the representation of this entry's repository list alone,
+     * as served to requests that ask only for the repositories.
+     * <p>
+     * Only the repositories are hashed, so a profile change does not invalidate clients' copies of
+     * the list. Like {@link #getETag(BinaryFormat)}, the hash is computed once per entry.
+     *
+     * @param format the binary format, or {@code null} for JSON
+     * @return the quoted entity tag
+     */
+    public String getRepositoriesETag(final BinaryFormat format) {
+        String hash = repositoriesHash;
+        if (hash == null) {
+            hash = ContentHash.of(info.getRepositories());
+            repositoriesHash = hash;
+        }
+        return eTag(hash, format);
+    }
+
+    /**
+     * Returns the indexes over this entry's repositories, building them on first use.
+     * <p>
+     * Like the encodings, the index is memoized, so every prefix, sort or top-N query on a cached
+     * user after the first one skips the build. Concurrent first calls may both build; either result is fine.
+     *
+     * @return the repository index
+     */
+    public RepositoryIndex getRepositoryIndex() {
+        RepositoryIndex index = repositoryIndex;
+        if (index == null) {
+            index = new RepositoryIndex(info.getRepositories());
+            repositoryIndex = index;
+        }
+        return index;
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    private static String eTag(final String hash, final BinaryFormat format) {
+        return format == null
+                ? '"' + hash + '"'
+                : '"' + hash + '-' + format.name().toLowerCase(Locale.ROOT) + '"';
+    }
+
+    private static long estimateBytes(final GitHubInfo info) {
+        long bytes = ENTRY_OVERHEAD_BYTES
+                + stringBytes(info.getUserName()) + stringBytes(info.getDisplayName())
+                + stringBytes(info.getAvatar()) + stringBytes(info.getGeoLocation())
+                + stringBytes(info.getEmail()) + stringBytes(info.getUrl()) + stringBytes(info.getCreatedAt());
+        final List<GitHubRepository> repositories = info.getRepositories();
+        if (repositories != null) {
+            for (final GitHubRepository repository : repositories) {
+                bytes += REPOSITORY_OVERHEAD_BYTES + stringBytes(repository.getName()) + stringBytes(repository.getUrl())
+                        + stringBytes(repository.getLanguage()) + stringBytes(repository.getUpdatedAt());
+            }
+        }
+        return bytes;
+    }
+
+    private static long stringBytes(final String value) {
+        return value == null ? 0 : STRING_OVERHEAD_BYTES + value.length();
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.jonathanklecherbranchservice.cache;
+
+import tools.jackson.databind.MapperFeature;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Stable content hash of a cached value, used as the basis of its {@code ETag}.
+ * <p>
+ * The value is serialized as canonical JSON (properties in alphabetical order) and hashed with
+ * SHA-256, so equal content always yields the same hash, across entries and across restarts.
+ */
+final class ContentHash {
+
+    private static final ObjectMapper CANONICAL = JsonMapper.builder()
+            .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+            .build();
+
+    private ContentHash() {
+    }
+
+    /**
+     * Hashes a value.
+     *
+     * @param value the value to hash
+     * @return the URL-safe Base64 SHA-256 of the value's canonical JSON, without padding
+     */
+    static String of(final Object value) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest(CANONICAL.writeValueAsBytes(value));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (final NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 is not available", exception);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.jonathanklecherbranchservice.cache;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LZ4-compresses serialized cache entries and keeps count of the ratio achieved and the time spent.
+ * <p>
+ * A compressed entry is {@code [header][uncompressedLength][LZ4 block]}: the first
+ * {@code headerBytes} are copied as they are, so fields such as fetch times can still be read
+ * without decompressing, and the rest is an {@link Lz4Codec} block. Counters are cumulative since
+ * startup and updated without locks.
+ */
+final class EntryCompressor {
+
+    private final int headerBytes;
+    private final LongAdder uncompressedBytes = new LongAdder();
+    private final LongAdder compressedBytes = new LongAdder();
+    private final LongAdder compressions = new LongAdder();
+    private final LongAdder compressNanos = new LongAdder();
+    private final LongAdder decompressions = new LongAdder();
+    private final LongAdder decompressNanos = new LongAdder();
+
+    /**
+     * Creates a compressor.
+     *
+     * @param headerBytes the number of leading bytes stored uncompressed
+     */
+    EntryCompressor(final int headerBytes) {
+        this.headerBytes = headerBytes;
+    }
+
+    /**
+     * Compresses a serialized entry.
+     *
+     * @param serialized the entry, starting with its uncompressed header
+     * @return the compressed entry
+     */
+    byte[] compress(final byte[] serialized) {
+        final long start = System.nanoTime();
+        final int length = serialized.length - headerBytes;
+        final byte[] block = new byte[headerBytes + Integer.BYTES + Lz4Codec.maxCompressedLength(length)];
+        System.arraycopy(serialized, 0, block, 0, headerBytes);
+        ByteBuffer.wrap(block).putInt(headerBytes, length);
+        final int blockLength = Lz4Codec.compress(serialized, headerBytes, length, block, headerBytes + Integer.BYTES);
+        final byte[] compressed = Arrays.copyOf(block, headerBytes + Integer.BYTES + blockLength);
+        compressNanos.add(System.nanoTime() - start);
+        compressions.increment();
+        uncompressedBytes.add(serialized.length);
+        compressedBytes.add(compressed.length);
+        return compressed;
+    }
+
+    /**
+     * Decompresses an entry produced by {@link #compress(byte[])}.
+     *
+     * @param compressed the compressed entry
+     * @return the serialized entry
+     * @throws IllegalArgumentException if the entry is corrupt
+     */
+    byte[] decompress(final byte[] compressed) {
+        final long start = System.nanoTime();
+        final int length = ByteBuffer.wrap(compressed).getInt(headerBytes);
+        final byte[] serialized = new byte[headerBytes + length];
+        System.arraycopy(compressed, 0, serialized, 0, headerBytes);
+        final int blockStart = headerBytes + Integer.BYTES;
+        Lz4Codec.decompress(compressed, blockStart, compressed.length - blockStart, serialized, headerBytes, length);
+        decompressNanos.add(System.nanoTime() - start);
+        decompressions.increment();
+        return serialized;
+    }
+
+    // ========== STATISTICS ==========
+
+    /**
+     * Returns the ratio of uncompressed to compressed bytes over every entry compressed so far.
+     *
+     * @return the compression ratio, or 1 before the first entry
+     */
+    double getRatio() {
+        final long compressed = compressedBytes.sum();
+        return compressed == 0 ? 1 : (double) uncompressedBytes.sum() / compressed;
+    }
+
+    /**
+     * Returns the number of entries compressed so far.
+     *
+     * @return the compression count
+     */
+    long getCompressions() {
+        return compressions.sum();
+    }
+
+    /**
+     * Returns the total time spent compressing.
+     *
+     * @return nanoseconds
+     */
+    double getCompressNanos() {
+        return compressNanos.sum();
+    }
+
+    /**
+     * Returns the number of entries decompressed so far.
+     *
+     * @return the decompression count
+     */
+    long getDecompressions() {
+        return decompressions.sum();
+    }
+
+    /**
+     * Returns the total time spent decompressing.
+     *
+     * @return nanoseconds
+     */
+    double getDecompressNanos() {
+        return decompressNanos.sum();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.jonathanklecherbranchservice.cache;
+
+import java.util.NavigableSet;
+
+/**
+ * The second tier of {@link GitHubInfoCache}: serialized entries by username, with their keys in
+ * sorted order. Implemented by {@link OffHeapSlabStore} (direct memory) and {@link HeapBlobStore}
+ * (compressed blobs on the heap).
+ */
+interface EntryStore {
+
+    /**
+     * Returns the value stored for a key.
+     *
+     * @param key the key
+     * @return a copy of the value, or {@code null} if absent
+     */
+    byte[] get(String key);
+
+    /**
+     * Stores a value, replacing any previous one.
+     *
+     * @param key   the key
+     * @param value the value
+     * @return {@code false} if the value cannot be stored, e.g. because it is too large
+     */
+    boolean put(String key, byte[] value);
+
+    /**
+     * Removes a key.
+     *
+     * @param key the key
+     * @return {@code true} if the key was present
+     */
+    boolean remove(String key);
+
+    /**
+     * Returns whether a key is present.
+     *
+     * @param key the key
+     * @return {@code true} if the key is present
+     */
+    boolean contains(String key);
+
+    /**
+     * Returns a read-only, sorted, weakly consistent view of the stored keys.
+     *
+     * @return the keys
+     */
+    NavigableSet<String> keys();
+
+    /**
+     * Returns the number of keys stored.
+     *
+     * @return the entry count
+     */
+    int size();
+
+    /**
+     * Returns the number of entries the store dropped on its own to make room.
+     *
+     * @return the eviction count
+     */
+    long getEvictions();
+
+    /**
+     * Returns the number of bytes taken by stored values.
+     *
+     * @return live bytes
+     */
+    long getLiveBytes();
+}
@@ -0,0 +1,202 @@
+package com.example.jonathanklecherbranchservice.cache;
+
+import com.example.jonathanklecherbranchservice.service.GitHubService;
+import com.example.jonathanklecherbranchservice.service.GitHubServiceException;
+import com.example.jonathanklecherbranchservice.service.UpstreamLane;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Actuator endpoint for inspecting and managing the user cache, at {@code /actuator/gitcache}.
+ * <p>
+ * Operations:
+ * <ul>
+ *   <li>{@code GET /actuator/gitcache}: size, estimated memory, hit/miss/eviction counts, the
+ *       compression ratio in compressed mode, a sampled entry age distribution and the sampled
+ *       top-N hottest users</li>
+ *   <li>{@code GET /actuator/gitcache/{userName}}: one entry's age, freshness and ETag</li>
+ *   <li>{@code DELETE /actuator/gitcache/{userName}}: invalidate one user</li>
+ *   <li>{@code DELETE /actuator/gitcache?prefix=...}: invalidate every user with a name prefix</li>
+ *   <li>{@code POST /actuator/gitcache/{userName}}: refresh one user from GitHub in the background</li>
+ * </ul>
+ * Every operation is O(1), bounded by a sample size, or proportional to the number of entries it
+ * changes, so none of them stalls live traffic. Refreshes run in the background upstream lane,
+ * behind regular requests.
+ * <p>
+ * The {@code DELETE} and {@code POST} operations are unauthenticated, so the endpoint ships with
+ * {@code management.endpoint.gitcache.access=read-only}; enable them only on a private
+ * {@code management.server.port}.
+ */
+@Component
+@Endpoint(id = "gitcache")
+public class GitHubCacheEndpoint {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GitHubCacheEndpoint.class);
+    private static final double MILLIS_PER_SECOND = 1000.0;
+
+    private final GitHubInfoCache cache;
+    private final GitHubService gitHubService;
+    private final int topKeys;
+    private final int ageSamples;
+    private final ExecutorService refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Creates the endpoint.
+     *
+     * @param cache         the user cache
+     * @param gitHubService the service used to refresh entries
+     * @param topKeys       how many of the hottest users to report
+     * @param ageSamples    how many entries to sample for the age distribution
+     */
+    public GitHubCacheEndpoint(
+            final GitHubInfoCache cache,
+            final GitHubService gitHubService,
+            @Value("${github.cache.stats.top-keys:10}") final int topKeys,
+            @Value("${github.cache.stats.age-samples:1000}") final int ageSamples) {
+        this.cache = cache;
+        this.gitHubService = gitHubService;
+        this.topKeys = topKeys;
+        this.ageSamples = ageSamples;
+    }
+
+    // ========== READ OPERATIONS ==========
+
+    /**
+     * Reports cache statistics.
+     *
+     * @return the statistics
+     */
+    @ReadOperation
+    public Map<String, Object> stats() {
+        final long hits = cache.getHits();
+        final long misses = cache.getMisses();
+        final Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", cache.size());
+        stats.put("offHeap", cache.isOffHeap());
+        stats.put("estimatedBytes", cache.getEstimatedBytes());
+        stats.put("offHeapAllocatedBytes", cache.getOffHeapBytes());
+        if (cache.isCompressed()) {
+            stats.put("compressionRatio", cache.getCompressionRatio());
+        }
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hitRatio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        stats.put("evictions", cache.getEvictions());
+        stats.put("ageSeconds", ageDistribution(cache.sampleAgesMillis(ageSamples)));
+        stats.put("hotKeys", cache.getHotKeys(topKeys));
+        return stats;
+    }
+
+    /**
+     * Reports a single cached user.
+     *
+     * @param userName the GitHub username
+     * @return the entry details, or {@code null} (404) if the user is not cached
+     */
+    @ReadOperation
+    @SuppressWarnings("PMD.ReturnEmptyCollectionRatherThanNull")
+    public Map<String, Object> entry(@Selector final String userName) {
+        final CacheEntry entry = cache.peek(userName);
+        if (entry == null) {
+            return null;
+        }
+        final Map<String, Object> details = new LinkedHashMap<>();
+        details.put("fetchedAtMillis", entry.getFetchedAtMillis());
+        details.put("ageSeconds", (System.currentTimeMillis() - entry.getFetchedAtMillis()) / MILLIS_PER_SECOND);
+        details.put("fresh", cache.isFresh(entry));
+        details.put("profileFresh", cache.isProfileFresh(entry));
+        details.put("repositoriesFresh", cache.isRepositoriesFresh(entry));
+        details.put("estimatedBytes", entry.getEstimatedBytes());
+        details.put("etag", entry.getETag(null));
+        return details;
+    }
+
+    // ========== MANAGEMENT OPERATIONS ==========
+
+    /**
+     * Invalidates a single user.
+     *
+     * @param userName the GitHub username
+     * @return how many users were invalidated (0 or 1)
+     */
+    @DeleteOperation
+    public Map<String, Object> invalidate(@Selector final String userName) {
+        return Map.of("invalidated", cache.remove(userName) ? 1 : 0);
+    }
+
+    /**
+     * Invalidates every user whose name starts with a prefix.
+     *
+     * @param prefix the username prefix, which must not be empty
+     * @return how many users were invalidated
+     */
+    @DeleteOperation
+    public Map<String, Object> invalidateByPrefix(final String prefix) {
+        if (prefix.isEmpty()) {
+            throw new InvalidEndpointRequestException("Prefix must not be empty", "Prefix must not be empty");
+        }
+        return Map.of("invalidated", cache.removeByPrefix(prefix));
+    }
+
+    /**
+     * Refreshes a user from GitHub in the background, replacing the cached entry on success.
+     *
+     * @param userName the GitHub username
+     * @return an acknowledgement; the refresh itself completes asynchronously
+     */
+    @WriteOperation
+    public Map<String, Object> refresh(@Selector final String userName) {
+        refreshExecutor.execute(() -> {
+            try {
+                cache.put(userName, gitHubService.getGitInfoWithRepos(userName, UpstreamLane.BACKGROUND));
+            } catch (final GitHubServiceException exception) {
+                LOGGER.warn("Cache refresh of {} failed: {}", userName, exception.getMessage());
+            }
+        });
+        return Map.of("refresh", "scheduled");
+    }
+
+    /**
+     * Stops accepting refreshes and interrupts those still running.
+     */
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    /**
+     * Summarizes sorted age samples as percentiles in seconds.
+     */
+    private static Map<String, Object> ageDistribution(final long[] sortedAgesMillis) {
+        final Map<String, Object> distribution = new LinkedHashMap<>();
+        distribution.put("samples", sortedAgesMillis.length);
+        if (sortedAgesMillis.length > 0) {
+            distribution.put("p50", percentileSeconds(sortedAgesMillis, 0.50));
+            distribution.put("p90", percentileSeconds(sortedAgesMillis, 0.90));
+            distribution.put("p99", percentileSeconds(sortedAgesMillis, 0.99));
+            distribution.put("max", sortedAgesMillis[sortedAgesMillis.length - 1] / MILLIS_PER_SECOND);
+        }
+        return distribution;
+    }
+
+    private static double percentileSeconds(final long[] sortedAgesMillis, final double percentile) {
+        final int index = (int) Math.ceil(percentile * sortedAgesMillis.length) - 1;
+        return sortedAgesMillis[Math.max(0, index)] / MILLIS_PER_SECOND;
+    }
+}
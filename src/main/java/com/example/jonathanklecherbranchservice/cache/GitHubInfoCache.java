@@ -0,0 +1,950 @@
+package com.example.jonathanklecherbranchservice.cache;
+
+import com.example.jonathanklecherbranchservice.entity.GitHubInfo;
+import com.example.jonathanklecherbranchservice.entity.GitHubRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Cache of the last successfully fetched {@link GitHubInfo} per username.
+ * <p>
+ * GitHub usernames are case-insensitive, so keys are normalized to lower case: {@code Octocat}
+ * and {@code octocat} share an entry, and webhook events match however a user was requested.
+ * <p>
+ * By default entries live in a {@link ConcurrentHashMap}. With {@code github.cache.off-heap.enabled=true}
+ * the cache becomes two-tiered, so that millions of entries do not make GC pauses grow with cache size:
+ * <ul>
+ *   <li>L1: a small on-heap {@link HotEntryCache} of hot {@link CacheEntry} objects with CLOCK
+ *       recency, served without deserialization or locking</li>
+ *   <li>L2: an {@link OffHeapSlabStore} holding the entries that fell out of the L1, serialized as
+ *       {@code [profileFetchedAtMillis][repositoriesFetchedAtMillis][JSON]} in direct-memory slabs</li>
+ * </ul>
+ * The tiers are exclusive, so every entry is held and counted once. Writes go to the L1 only; an
+ * entry is serialized into L2 when the L1's clock demotes it, and an L1 miss that hits L2
+ * deserializes the entry and moves it back to the L1. An entry too large for a slab is dropped when
+ * it is demoted. Writes, patches, removals, demotions and promotions of a user hold one of a fixed
+ * set of striped locks, chosen by the user's key, so that a webhook patch or a promotion of older
+ * data can never overwrite a concurrent write; L1 hits take no lock.
+ * <p>
+ * With {@code github.cache.compression.enabled=true} the cache is two-tiered as well, and L2 entries
+ * are stored with their JSON LZ4-compressed by an {@link EntryCompressor}; their fetch times stay
+ * uncompressed. Entries are compressed once, on demotion, so writes of hot users never pay for it.
+ * Without off-heap slabs, L2 is then a {@link HeapBlobStore} of compressed blobs on the heap: hot
+ * users stay objects in the L1, and cold users take a fraction of the heap they would take as
+ * objects, at the cost of a decompression when they are read. With slabs, compression fits more
+ * users in the same direct memory. The compression ratio and the time spent compressing and
+ * decompressing are published as metrics.
+ * <p>
+ * An entry's repository list is fresh for {@code github.cache.ttl} after it was fetched and its
+ * profile for {@code github.cache.profile-ttl}; fresh parts are served without calling GitHub, and a
+ * stale part can be refreshed on its own with {@link #putProfile} or {@link #putRepositories}.
+ * Clients and CDNs may additionally reuse a response for {@code github.cache.stale-while-revalidate}
+ * after it goes stale while they revalidate it.
+ * <p>
+ * For introspection the cache counts hits, misses and evictions, keeps a running estimate of the
+ * memory its entries take, samples reads to find hot keys and keeps its keys in sorted order so
+ * they can be invalidated by prefix. None of these take a lock on the read path, and reports on
+ * entry age and hot keys are computed from bounded samples, never by walking the whole cache.
+ * Counters are also published as Micrometer metrics.
+ * <p>
+ * Unless {@code github.search.enabled=false}, every write also updates a {@link RepositoryNameIndex}
+ * over the repository names of all cached users, for type-ahead search. Removals, invalidations and
+ * off-heap evictions take users out of it again.
+ * <p>
+ * The heap taken by entries (the whole map on-heap, the L1 and the compressed blobs in compressed
+ * mode, the L1 off-heap) can be capped with {@link #setTargetWeight(long)}, which
+ * {@link HeapPressureGovernor} moves with old-gen occupancy. Writes that push the weight over the
+ * target evict at once: the L1 demotes the entries its clock picks to L2, and the on-heap map or blob
+ * store drops the entry with the oldest fetch time out of a small random sample of keys, repeated
+ * until the weight is back under the target.
+ */
+@Component
+public class GitHubInfoCache implements MeterBinder {
+
+    private static final int HOT_KEY_SAMPLE_EVERY = 16;
+    private static final int HOT_KEY_CAPACITY = 1024;
+    private static final String KEY_ALPHABET = "0123456789abcdefghijklmnopqrstuvwxyz";
+    private static final int HEADER_BYTES = 2 * Long.BYTES;
+    private static final int EVICTION_SAMPLE = 8;
+    private static final int WRITE_LOCK_STRIPES = 64;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Duration ttl;
+    private final Duration profileTtl;
+    private final Duration staleWhileRevalidate;
+    private final Map<String, CacheEntry> onHeap;
+    private final NavigableSet<String> keyIndex = new ConcurrentSkipListSet<>();
+    private final AtomicLong onHeapBytes = new AtomicLong();
+    private final HotEntryCache hot;
+    private final EntryStore cold;
+    private final EntryCompressor compressor;
+    private final ReentrantLock[] writeLocks;
+    private final HotKeySampler hotKeys = new HotKeySampler(HOT_KEY_SAMPLE_EVERY, HOT_KEY_CAPACITY);
+    private final RepositoryNameIndex nameIndex;
+    private final Queue<String> evictedKeys = new ConcurrentLinkedQueue<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private volatile long targetWeight = Long.MAX_VALUE;
+
+    /**
+     * Creates the cache with repository search enabled and one TTL for profiles and repositories.
+     *
+     * @param ttl                  how long an entry is fresh after it was fetched
+     * @param staleWhileRevalidate how long clients may keep using a stale response while revalidating
+     * @param offHeapEnabled       whether to use the two-tier off-heap layout
+     * @param slabSize             the size of each off-heap slab
+     * @param maxSlabs             the maximum number of off-heap slabs
+     * @param compactionThreshold  the live ratio at or below which a slab is compacted instead of evicted
+     * @param l1MaxEntries         the maximum number of hot entries kept on-heap in front of the slabs
+     */
+    public GitHubInfoCache(final Duration ttl, final Duration staleWhileRevalidate, final boolean offHeapEnabled,
+                           final DataSize slabSize, final int maxSlabs, final double compactionThreshold,
+                           final int l1MaxEntries) {
+        this(ttl, ttl, staleWhileRevalidate, offHeapEnabled, slabSize, maxSlabs, compactionThreshold, l1MaxEntries, true);
+    }
+
+    /**
+     * Creates the cache.
+     *
+     * @param ttl                  how long a repository list is fresh after it was fetched
+     * @param profileTtl           how long a profile is fresh after it was fetched
+     * @param staleWhileRevalidate how long clients may keep using a stale response while revalidating
+     * @param offHeapEnabled       whether to use the two-tier off-heap layout
+     * @param slabSize             the size of each off-heap slab
+     * @param maxSlabs             the maximum number of off-heap slabs
+     * @param compactionThreshold  the live ratio at or below which a slab is compacted instead of evicted
+     * @param l1MaxEntries         the maximum number of hot entries kept on-heap in front of the slabs
+     * @param searchEnabled        whether to maintain the cross-user repository name index
+     */
+    public GitHubInfoCache(final Duration ttl, final Duration profileTtl, final Duration staleWhileRevalidate,
+                           final boolean offHeapEnabled, final DataSize slabSize, final int maxSlabs,
+                           final double compactionThreshold, final int l1MaxEntries, final boolean searchEnabled) {
+        this(ttl, profileTtl, staleWhileRevalidate, offHeapEnabled, slabSize, maxSlabs, compactionThreshold,
+                l1MaxEntries, searchEnabled, false);
+    }
+
+    /**
+     * Creates the cache.
+     *
+     * @param ttl                  how long a repository list is fresh after it was fetched
+     * @param profileTtl           how long a profile is fresh after it was fetched
+     * @param staleWhileRevalidate how long clients may keep using a stale response while revalidating
+     * @param offHeapEnabled       whether to keep cold entries in off-heap slabs
+     * @param slabSize             the size of each off-heap slab
+     * @param maxSlabs             the maximum number of off-heap slabs
+     * @param compactionThreshold  the live ratio at or below which a slab is compacted instead of evicted
+     * @param l1MaxEntries         the maximum number of hot entries kept as objects in front of the cold tier
+     * @param searchEnabled        whether to maintain the cross-user repository name index
+     * @param compressionEnabled   whether to keep cold entries LZ4-compressed
+     */
+    @Autowired
+    public GitHubInfoCache(
+            @Value("${github.cache.ttl:60s}") final Duration ttl,
+            @Value("${github.cache.profile-ttl:10m}") final Duration profileTtl,
+            @Value("${github.cache.stale-while-revalidate:5m}") final Duration staleWhileRevalidate,
+            @Value("${github.cache.off-heap.enabled:false}") final boolean offHeapEnabled,
+            @Value("${github.cache.off-heap.slab-size:64MB}") final DataSize slabSize,
+            @Value("${github.cache.off-heap.max-slabs:16}") final int maxSlabs,
+            @Value("${github.cache.off-heap.compaction-threshold:0.5}") final double compactionThreshold,
+            @Value("${github.cache.l1.max-entries:10000}") final int l1MaxEntries,
+            @Value("${github.search.enabled:true}") final boolean searchEnabled,
+            @Value("${github.cache.compression.enabled:false}") final boolean compressionEnabled) {
+        this.ttl = ttl;
+        this.profileTtl = profileTtl;
+        this.staleWhileRevalidate = staleWhileRevalidate;
+        this.nameIndex = searchEnabled ? new RepositoryNameIndex() : null;
+        this.compressor = compressionEnabled ? new EntryCompressor(HEADER_BYTES) : null;
+        if (offHeapEnabled || compressionEnabled) {
+            this.onHeap = null;
+            this.hot = new HotEntryCache(l1MaxEntries);
+            // Keys the slabs evict are queued and forgotten after each demotion, outside the locks
+            this.cold = offHeapEnabled
+                    ? new OffHeapSlabStore(Math.toIntExact(slabSize.toBytes()), maxSlabs, compactionThreshold,
+                            evictedKeys::add)
+                    : new HeapBlobStore();
+            this.writeLocks = new ReentrantLock[WRITE_LOCK_STRIPES];
+            for (int i = 0; i < WRITE_LOCK_STRIPES; i++) {
+                writeLocks[i] = new ReentrantLock();
+            }
+        } else {
+            this.onHeap = new ConcurrentHashMap<>();
+            this.hot = null;
+            this.cold = null;
+            this.writeLocks = null;
+        }
+    }
+
+    // ========== PUBLIC METHODS ==========
+
+    /**
+     * Returns the cached entry for a user.
+     *
+     * @param userName the GitHub username
+     * @return the entry, or {@code null} if the user is not cached
+     */
+    public CacheEntry get(final String userName) {
+        final String key = normalize(userName);
+        final CacheEntry entry = peek(key);
+        if (entry == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+            hotKeys.record(key);
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the cached entry for a user without counting a hit or miss, for introspection.
+     *
+     * @param userName the GitHub username
+     * @return the entry, or {@code null} if the user is not cached
+     */
+    public CacheEntry peek(final String userName) {
+        final String key = normalize(userName);
+        return cold == null ? onHeap.get(key) : getTiered(key);
+    }
+
+    /**
+     * Caches freshly fetched info for a user, replacing any previous entry.
+     *
+     * @param userName the GitHub username
+     * @param info     the fetched info
+     * @return the new entry
+     */
+    public CacheEntry put(final String userName, final GitHubInfo info) {
+        return store(userName, new CacheEntry(info, System.currentTimeMillis()));
+    }
+
+    /**
+     * Caches an entry fetched elsewhere with its own fetch times, e.g. a copy of the entry of the
+     * replica that owns the user, replacing any previous entry. The entry goes stale when the
+     * original does.
+     *
+     * @param userName the GitHub username
+     * @param entry    the entry to cache
+     * @return the entry
+     */
+    public CacheEntry putEntry(final String userName, final CacheEntry entry) {
+        return store(userName, entry);
+    }
+
+    /**
+     * Caches a freshly fetched profile for a user, keeping the repositories and their fetch time
+     * of a previous entry.
+     *
+     * @param userName the GitHub username
+     * @param previous the entry the repositories are taken from
+     * @param profile  the fetched profile
+     * @return the new entry
+     */
+    public CacheEntry putProfile(final String userName, final CacheEntry previous, final GitHubInfo profile) {
+        return store(userName, previous.withProfile(profile, System.currentTimeMillis()));
+    }
+
+    /**
+     * Caches a freshly fetched repository list for a user, keeping the profile and its fetch time
+     * of a previous entry.
+     *
+     * @param userName     the GitHub username
+     * @param previous     the entry the profile is taken from
+     * @param repositories the fetched repositories
+     * @return the new entry
+     */
+    public CacheEntry putRepositories(final String userName, final CacheEntry previous,
+                                      final List<GitHubRepository> repositories) {
+        return store(userName, previous.withRepositories(repositories, System.currentTimeMillis()));
+    }
+
+    /**
+     * Patches the repository list of a cached user in place, e.g. from a webhook event.
+     * <p>
+     * The entry is replaced by a patched copy that keeps the original fetch time, so patching
+     * never extends an entry's TTL. Users that are not cached are left alone.
+     *
+     * @param userName the GitHub username
+     * @param patch    the change to apply to the repository list
+     * @return {@code true} if the user was cached and patched
+     */
+    public boolean patchRepositories(final String userName, final UnaryOperator<List<GitHubRepository>> patch) {
+        if (cold == null) {
+            return onHeap.computeIfPresent(normalize(userName), (key, previous) -> {
+                final CacheEntry patched = patched(previous, patch);
+                onHeapBytes.addAndGet(patched.getEstimatedBytes() - previous.getEstimatedBytes());
+                indexRepositories(key, patched);
+                return patched;
+            }) != null;
+        }
+        final String key = normalize(userName);
+        final ReentrantLock lock = writeLock(key);
+        lock.lock();
+        try {
+            final CacheEntry previous = loadTiered(key);
+            if (previous == null) {
+                return false;
+            }
+            writeTiered(key, patched(previous, patch));
+        } finally {
+            lock.unlock();
+        }
+        trimHot(Long.MAX_VALUE);
+        return true;
+    }
+
+    /**
+     * Removes a user from the cache.
+     *
+     * @param userName the GitHub username
+     * @return {@code true} if the user was cached
+     */
+    public boolean remove(final String userName) {
+        final String normalized = normalize(userName);
+        hotKeys.forget(normalized);
+        if (cold == null) {
+            final boolean[] removed = new boolean[1];
+            onHeap.computeIfPresent(normalized, (key, previous) -> {
+                keyIndex.remove(key);
+                onHeapBytes.addAndGet(-previous.getEstimatedBytes());
+                unindexRepositories(key);
+                removed[0] = true;
+                return null;
+            });
+            return removed[0];
+        }
+        final ReentrantLock lock = writeLock(normalized);
+        lock.lock();
+        try {
+            final boolean wasHot = hot.remove(normalized);
+            final boolean wasStored = cold.remove(normalized);
+            keyIndex.remove(normalized);
+            unindexRepositories(normalized);
+            return wasStored || wasHot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes every user whose name starts with a prefix.
+     * <p>
+     * Walks only the matching range of the sorted key index, removing entries one at a time, so
+     * concurrent reads and writes are never blocked. Users added while the walk is in progress may
+     * or may not be removed.
+     *
+     * @param prefix the username prefix
+     * @return the number of users removed
+     */
+    public int removeByPrefix(final String prefix) {
+        final String normalized = normalize(prefix);
+        int removed = 0;
+        for (final String userName : keyIndex.subSet(normalized, true, normalized + Character.MAX_VALUE, false)) {
+            if (remove(userName)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Returns the number of cached users. In two-tier mode this is the sum of both tiers, which
+     * never hold the same user for longer than a demotion or promotion takes.
+     *
+     * @return the entry count
+     */
+    public int size() {
+        return cold == null ? onHeap.size() : hot.size() + cold.size();
+    }
+
+    /**
+     * Finds cached repositories whose name starts with a prefix, across all cached users.
+     *
+     * @param prefix the case-insensitive name prefix; must not be empty
+     * @param limit  the maximum number of results
+     * @return {@code owner/name} of the matching repositories, ordered by name, then owner;
+     *         empty if repository search is disabled
+     */
+    public List<String> searchRepositories(final String prefix, final int limit) {
+        return nameIndex == null ? List.of() : nameIndex.search(prefix, limit);
+    }
+
+    /**
+     * Returns whether the cross-user repository name index is maintained.
+     *
+     * @return {@code true} unless {@code github.search.enabled=false}
+     */
+    public boolean isRepositorySearchEnabled() {
+        return nameIndex != null;
+    }
+
+    // ========== STATISTICS ==========
+
+    /**
+     * Returns the number of lookups that found an entry.
+     *
+     * @return the hit count
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that found no entry.
+     *
+     * @return the miss count
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of entries evicted to make room for others: by the off-heap tier when its
+     * slabs are full, from the heap to stay under the target weight, and from the L1 when the cold
+     * tier cannot hold them.
+     *
+     * @return the eviction count
+     */
+    public long getEvictions() {
+        return evictions.sum() + (cold == null ? 0 : cold.getEvictions());
+    }
+
+    /**
+     * Returns an estimate of the memory taken by cached entries: their estimated heap size in
+     * on-heap mode, or the L1's estimated heap size plus the live bytes of the compressed blobs or
+     * the slabs.
+     *
+     * @return estimated bytes
+     */
+    public long getEstimatedBytes() {
+        return cold == null ? onHeapBytes.get() : hot.getEstimatedBytes() + cold.getLiveBytes();
+    }
+
+    /**
+     * Returns the hottest users, estimated from a sample of cache hits.
+     *
+     * @param limit the maximum number of users to return
+     * @return username to estimated hit count, hottest first
+     */
+    public Map<String, Long> getHotKeys(final int limit) {
+        return hotKeys.top(limit);
+    }
+
+    /**
+     * Samples the age of cached entries.
+     * <p>
+     * Reads up to {@code sampleSize} consecutive keys of the sorted index, starting at a random
+     * position, and returns their ages. The cost is bounded by the sample size, not the cache size.
+     *
+     * @param sampleSize the maximum number of entries to sample
+     * @return the sampled ages in milliseconds, sorted ascending
+     */
+    public long[] sampleAgesMillis(final int sampleSize) {
+        final long now = System.currentTimeMillis();
+        final long[] ages = new long[Math.min(sampleSize, size())];
+        final int[] sampled = new int[1];
+        sampleKeys(ages.length, userName -> {
+            final long fetchedAtMillis = peekFetchedAtMillis(userName);
+            if (fetchedAtMillis < 0) {
+                return false;
+            }
+            ages[sampled[0]++] = now - fetchedAtMillis;
+            return true;
+        });
+        final long[] sample = Arrays.copyOf(ages, sampled[0]);
+        Arrays.sort(sample);
+        return sample;
+    }
+
+    /**
+     * Publishes the cache's gauges and counters.
+     *
+     * @param registry the registry to bind to
+     */
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("users.cache.size", this, GitHubInfoCache::size)
+                .description("Cached GitHub users")
+                .register(registry);
+        Gauge.builder("users.cache.estimated.bytes", this, GitHubInfoCache::getEstimatedBytes)
+                .description("Estimated memory taken by cached GitHub users")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("users.cache.gets", hits, LongAdder::sum)
+                .description("User cache lookups")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("users.cache.gets", misses, LongAdder::sum)
+                .description("User cache lookups")
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("users.cache.evictions", this, GitHubInfoCache::getEvictions)
+                .description("Users evicted from the cache to make room")
+                .register(registry);
+        if (nameIndex != null) {
+            Gauge.builder("users.cache.search.repositories", nameIndex, RepositoryNameIndex::size)
+                    .description("Repository names in the cross-user search index")
+                    .register(registry);
+        }
+        if (compressor != null) {
+            Gauge.builder("users.cache.compression.ratio", compressor, EntryCompressor::getRatio)
+                    .description("Serialized bytes per compressed byte of cold cache entries")
+                    .register(registry);
+            FunctionTimer.builder("users.cache.compression.time", compressor, EntryCompressor::getCompressions,
+                            EntryCompressor::getCompressNanos, TimeUnit.NANOSECONDS)
+                    .description("Time spent LZ4-compressing and decompressing cold cache entries")
+                    .tag("operation", "compress")
+                    .register(registry);
+            FunctionTimer.builder("users.cache.compression.time", compressor, EntryCompressor::getDecompressions,
+                            EntryCompressor::getDecompressNanos, TimeUnit.NANOSECONDS)
+                    .description("Time spent LZ4-compressing and decompressing cold cache entries")
+                    .tag("operation", "decompress")
+                    .register(registry);
+        }
+    }
+
+    // ========== HEAP WEIGHT ==========
+
+    /**
+     * Caps the heap the cache's entries may take, evicting at once if they take more.
+     *
+     * @param bytes the target weight in bytes; {@link Long#MAX_VALUE} for no cap
+     */
+    public void setTargetWeight(final long bytes) {
+        targetWeight = bytes;
+        enforceTargetWeight();
+    }
+
+    /**
+     * Returns the heap the cache's entries may take.
+     *
+     * @return the target weight in bytes, {@link Long#MAX_VALUE} if uncapped
+     */
+    public long getTargetWeight() {
+        return targetWeight;
+    }
+
+    /**
+     * Returns the estimated heap taken by entries: every entry on-heap, the L1 and the blobs in
+     * compressed mode, the L1 off-heap.
+     *
+     * @return the weight in bytes
+     */
+    public long getHeapWeight() {
+        if (cold == null) {
+            return onHeapBytes.get();
+        }
+        return hot.getEstimatedBytes() + (isOffHeap() ? 0 : cold.getLiveBytes());
+    }
+
+    // ========== FRESHNESS ==========
+
+    /**
+     * Returns whether both parts of an entry are still within their TTLs.
+     *
+     * @param entry the entry
+     * @return {@code true} if the entry may be served without calling GitHub
+     */
+    public boolean isFresh(final CacheEntry entry) {
+        return getRemainingTtl(entry).isPositive();
+    }
+
+    /**
+     * Returns whether an entry's profile is still within {@code github.cache.profile-ttl}.
+     *
+     * @param entry the entry
+     * @return {@code true} if the profile need not be refetched
+     */
+    public boolean isProfileFresh(final CacheEntry entry) {
+        return remainingMillis(entry.getProfileFetchedAtMillis(), profileTtl) > 0;
+    }
+
+    /**
+     * Returns whether an entry's repository list is still within {@code github.cache.ttl}.
+     *
+     * @param entry the entry
+     * @return {@code true} if the repositories need not be refetched
+     */
+    public boolean isRepositoriesFresh(final CacheEntry entry) {
+        return getRemainingRepositoriesTtl(entry).isPositive();
+    }
+
+    /**
+     * Returns how long both parts of an entry stay fresh.
+     *
+     * @param entry the entry
+     * @return the shorter remaining TTL, or {@link Duration#ZERO} if either part is stale
+     */
+    public Duration getRemainingTtl(final CacheEntry entry) {
+        return Duration.ofMillis(Math.min(remainingMillis(entry.getProfileFetchedAtMillis(), profileTtl),
+                remainingMillis(entry.getRepositoriesFetchedAtMillis(), ttl)));
+    }
+
+    /**
+     * Returns how long an entry's repository list stays fresh, for responses without the profile.
+     *
+     * @param entry the entry
+     * @return the remaining TTL, or {@link Duration#ZERO} if the repositories are stale
+     */
+    public Duration getRemainingRepositoriesTtl(final CacheEntry entry) {
+        return Duration.ofMillis(remainingMillis(entry.getRepositoriesFetchedAtMillis(), ttl));
+    }
+
+    /**
+     * Returns how long clients may keep using a stale response while they revalidate it.
+     *
+     * @return the stale-while-revalidate window
+     */
+    public Duration getStaleWhileRevalidate() {
+        return staleWhileRevalidate;
+    }
+
+    /**
+     * Returns whether entries are stored off-heap.
+     *
+     * @return {@code true} in two-tier off-heap mode
+     */
+    public boolean isOffHeap() {
+        return cold instanceof OffHeapSlabStore;
+    }
+
+    /**
+     * Returns the direct memory allocated for slabs, or 0 when entries are stored on-heap.
+     *
+     * @return allocated off-heap bytes
+     */
+    public long getOffHeapBytes() {
+        return cold instanceof OffHeapSlabStore slabs ? slabs.getAllocatedBytes() : 0;
+    }
+
+    /**
+     * Returns whether cold entries are stored LZ4-compressed.
+     *
+     * @return {@code true} if {@code github.cache.compression.enabled=true}
+     */
+    public boolean isCompressed() {
+        return compressor != null;
+    }
+
+    /**
+     * Returns the ratio of serialized to compressed bytes over every entry compressed so far.
+     *
+     * @return the compression ratio, 1 when compression is off or nothing was compressed yet
+     */
+    public double getCompressionRatio() {
+        return compressor == null ? 1 : compressor.getRatio();
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    private static String normalize(final String userName) {
+        return userName.toLowerCase(Locale.ROOT);
+    }
+
+    private static long remainingMillis(final long fetchedAtMillis, final Duration partTtl) {
+        return Math.max(0, partTtl.toMillis() - (System.currentTimeMillis() - fetchedAtMillis));
+    }
+
+    private CacheEntry store(final String userName, final CacheEntry entry) {
+        if (cold == null) {
+            onHeap.compute(normalize(userName), (key, previous) -> {
+                keyIndex.add(key);
+                onHeapBytes.addAndGet(entry.getEstimatedBytes() - (previous == null ? 0 : previous.getEstimatedBytes()));
+                indexRepositories(key, entry);
+                return entry;
+            });
+        } else {
+            storeTiered(normalize(userName), entry);
+        }
+        if (getHeapWeight() > targetWeight) {
+            enforceTargetWeight();
+        }
+        return entry;
+    }
+
+    private void enforceTargetWeight() {
+        if (cold != null) {
+            // Entries trimmed from the L1 move to the cold tier, so they are not counted as evictions
+            final long coldWeight = isOffHeap() ? 0 : cold.getLiveBytes();
+            trimHot(Math.max(0, targetWeight - coldWeight));
+            if (isOffHeap()) {
+                return;
+            }
+        }
+        while (getHeapWeight() > targetWeight && evictOldestSampled()) {
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Removes the entry with the oldest fetch time among a few consecutive keys from a
+     * random position: an approximation of evicting the oldest entry that costs O(log n).
+     *
+     * @return {@code true} if an entry was removed
+     */
+    private boolean evictOldestSampled() {
+        final String[] oldest = new String[1];
+        final long[] oldestFetchedAtMillis = {Long.MAX_VALUE};
+        sampleKeys(EVICTION_SAMPLE, userName -> {
+            final long fetchedAtMillis = peekFetchedAtMillis(userName);
+            if (fetchedAtMillis < 0) {
+                return false;
+            }
+            if (fetchedAtMillis < oldestFetchedAtMillis[0]) {
+                oldest[0] = userName;
+                oldestFetchedAtMillis[0] = fetchedAtMillis;
+            }
+            return true;
+        });
+        return oldest[0] != null && remove(oldest[0]);
+    }
+
+    /**
+     * Walks the sorted key index from a random position, wrapping around once, until a visitor has
+     * accepted {@code sampleSize} keys or every key was visited.
+     *
+     * @param sampleSize the number of keys to accept
+     * @param visitor    called with each key; returns whether the key counts towards the sample
+     */
+    private void sampleKeys(final int sampleSize, final Predicate<String> visitor) {
+        final NavigableSet<String> keys = keyIndex;
+        final String start = String.valueOf(KEY_ALPHABET.charAt(ThreadLocalRandom.current().nextInt(KEY_ALPHABET.length())));
+        Iterator<String> iterator = keys.tailSet(start, true).iterator();
+        boolean wrapped = false;
+        int sampled = 0;
+        while (sampled < sampleSize) {
+            if (!iterator.hasNext()) {
+                if (wrapped) {
+                    break;
+                }
+                iterator = keys.headSet(start, false).iterator();
+                wrapped = true;
+                continue;
+            }
+            if (visitor.test(iterator.next())) {
+                sampled++;
+            }
+        }
+    }
+
+    private void storeTiered(final String userName, final CacheEntry entry) {
+        final ReentrantLock lock = writeLock(userName);
+        lock.lock();
+        try {
+            writeTiered(userName, entry);
+        } finally {
+            lock.unlock();
+        }
+        trimHot(Long.MAX_VALUE);
+    }
+
+    /**
+     * Writes an entry to the L1, dropping any older copy from the cold tier. Nothing is serialized
+     * until the entry is demoted. The caller holds the user's write lock.
+     */
+    private void writeTiered(final String userName, final CacheEntry entry) {
+        hot.put(userName, entry);
+        cold.remove(userName);
+        keyIndex.add(userName);
+        indexRepositories(userName, entry);
+    }
+
+    /**
+     * Demotes the L1 entries its clock picks to the cold tier while the L1 holds more than its
+     * maximum number of entries or more than {@code maxBytes}. Each victim is demoted under its own
+     * write lock, so this must be called without holding one. Demoted entries stay cached, so
+     * trimming the L1 does not count as an eviction.
+     */
+    private void trimHot(final long maxBytes) {
+        while (hot.overflow() > 0 || hot.getEstimatedBytes() > maxBytes) {
+            final String victim = hot.victim();
+            if (victim == null) {
+                break;
+            }
+            final ReentrantLock lock = writeLock(victim);
+            lock.lock();
+            try {
+                demote(victim);
+            } finally {
+                lock.unlock();
+            }
+        }
+        forgetEvicted();
+    }
+
+    /**
+     * Moves an entry from the L1 to the cold tier, serializing and, in compressed mode, compressing
+     * it. An entry the cold tier cannot hold, e.g. one too large for a slab, is dropped and counted
+     * as an eviction. The caller holds the user's write lock.
+     */
+    private void demote(final String userName) {
+        final CacheEntry entry = hot.peek(userName);
+        if (entry == null) {
+            return;
+        }
+        if (!cold.put(userName, serialize(entry))) {
+            cold.remove(userName);
+            evictions.increment();
+            evictedKeys.add(userName);
+        }
+        hot.remove(userName);
+    }
+
+    private ReentrantLock writeLock(final String userName) {
+        return writeLocks[Math.floorMod(userName.hashCode(), WRITE_LOCK_STRIPES)];
+    }
+
+    private void indexRepositories(final String userName, final CacheEntry entry) {
+        if (nameIndex != null) {
+            nameIndex.index(userName, entry.getInfo());
+        }
+    }
+
+    private void unindexRepositories(final String userName) {
+        if (nameIndex != null) {
+            nameIndex.remove(userName);
+        }
+    }
+
+    /**
+     * Takes users that the slabs evicted, or that could not be demoted, out of the key and name
+     * indexes, unless they were cached again since.
+     */
+    private void forgetEvicted() {
+        String evicted = evictedKeys.poll();
+        while (evicted != null) {
+            final ReentrantLock lock = writeLock(evicted);
+            lock.lock();
+            try {
+                if (!hot.contains(evicted) && !cold.contains(evicted)) {
+                    keyIndex.remove(evicted);
+                    unindexRepositories(evicted);
+                }
+            } finally {
+                lock.unlock();
+            }
+            evicted = evictedKeys.poll();
+        }
+    }
+
+    private static CacheEntry patched(final CacheEntry previous, final UnaryOperator<List<GitHubRepository>> patch) {
+        final GitHubInfo info = previous.getInfo();
+        final List<GitHubRepository> repositories = info.getRepositories();
+        final GitHubInfo patched = new GitHubInfo(info.getUserName(), info.getDisplayName(), info.getAvatar(),
+                info.getGeoLocation(), info.getEmail(), info.getUrl(), info.getCreatedAt(),
+                patch.apply(repositories == null ? List.of() : repositories));
+        return new CacheEntry(patched, previous.getProfileFetchedAtMillis(), previous.getRepositoriesFetchedAtMillis());
+    }
+
+    private CacheEntry getTiered(final String userName) {
+        CacheEntry entry = hot.get(userName);
+        if (entry != null) {
+            return entry;
+        }
+        // Promote under the user's lock, so a concurrent write cannot be overwritten with older data
+        final ReentrantLock lock = writeLock(userName);
+        lock.lock();
+        try {
+            entry = loadTiered(userName);
+        } finally {
+            lock.unlock();
+        }
+        if (entry != null) {
+            trimHot(Long.MAX_VALUE);
+        }
+        return entry;
+    }
+
+    /**
+     * Returns an entry from the L1, or moves it there from the cold tier. The caller holds the
+     * user's write lock.
+     */
+    private CacheEntry loadTiered(final String userName) {
+        CacheEntry entry = hot.get(userName);
+        if (entry == null) {
+            final byte[] bytes = cold.get(userName);
+            if (bytes != null) {
+                entry = deserialize(bytes);
+                hot.put(userName, entry);
+                cold.remove(userName);
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Reads the older of an entry's fetch times without counting a hit or promoting it to the L1.
+     *
+     * @return the fetch time, or -1 if the entry is gone
+     */
+    private long peekFetchedAtMillis(final String userName) {
+        if (cold == null) {
+            final CacheEntry entry = onHeap.get(userName);
+            return entry == null ? -1 : entry.getFetchedAtMillis();
+        }
+        final CacheEntry hotEntry = hot.peek(userName);
+        if (hotEntry != null) {
+            return hotEntry.getFetchedAtMillis();
+        }
+        final byte[] bytes = cold.get(userName);
+        if (bytes == null) {
+            return -1;
+        }
+        final ByteBuffer header = ByteBuffer.wrap(bytes);
+        return Math.min(header.getLong(0), header.getLong(Long.BYTES));
+    }
+
+    private byte[] serialize(final CacheEntry entry) {
+        try {
+            final byte[] json = objectMapper.writeValueAsBytes(entry.getInfo());
+            final byte[] serialized = ByteBuffer.allocate(HEADER_BYTES + json.length)
+                    .putLong(entry.getProfileFetchedAtMillis())
+                    .putLong(entry.getRepositoriesFetchedAtMillis())
+                    .put(json)
+                    .array();
+            return compressor == null ? serialized : compressor.compress(serialized);
+        } catch (final IOException exception) {
+            throw new UncheckedIOException("Failed to serialize cache entry", exception);
+        }
+    }
+
+    private CacheEntry deserialize(final byte[] stored) {
+        final byte[] bytes = compressor == null ? stored : compressor.decompress(stored);
+        try {
+            final ByteBuffer header = ByteBuffer.wrap(bytes);
+            final GitHubInfo info = objectMapper.readValue(bytes, HEADER_BYTES, bytes.length - HEADER_BYTES, GitHubInfo.class);
+            return new CacheEntry(info, header.getLong(), header.getLong());
+        } catch (final IOException exception) {
+            throw new UncheckedIOException("Failed to deserialize cache entry", exception);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.jonathanklecherbranchservice.cache;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * On-heap {@link EntryStore} of byte arrays, for cold entries kept compressed instead of as objects.
+ * <p>
+ * A blob is a single array, so the GC traces one object per cold entry instead of a
+ * {@code GitHubInfo} with a string per field of every repository. Values live in a
+ * {@link ConcurrentHashMap} with a sorted key index beside it, as in the cache's plain on-heap mode.
+ * The store never evicts on its own; its size is bounded by the cache's target weight.
+ */
+final class HeapBlobStore implements EntryStore {
+
+    /** Rough heap taken per entry besides the value bytes: map node, key string and array header. */
+    private static final long ENTRY_OVERHEAD_BYTES = 112;
+
+    private final Map<String, byte[]> blobs = new ConcurrentHashMap<>();
+    private final NavigableSet<String> keys = new ConcurrentSkipListSet<>();
+    private final AtomicLong liveBytes = new AtomicLong();
+
+    @Override
+    public byte[] get(final String key) {
+        return blobs.get(key);
+    }
+
+    @Override
+    public boolean put(final String key, final byte[] value) {
+        blobs.compute(key, (ignored, previous) -> {
+            keys.add(key);
+            liveBytes.addAndGet(bytesOf(value) - (previous == null ? 0 : bytesOf(previous)));
+            return value;
+        });
+        return true;
+    }
+
+    @Override
+    public boolean remove(final String key) {
+        final boolean[] removed = new boolean[1];
+        blobs.computeIfPresent(key, (ignored, previous) -> {
+            keys.remove(key);
+            liveBytes.addAndGet(-bytesOf(previous));
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    @Override
+    public boolean contains(final String key) {
+        return blobs.containsKey(key);
+    }
+
+    @Override
+    public NavigableSet<String> keys() {
+        return Collections.unmodifiableNavigableSet(keys);
+    }
+
+    @Override
+    public int size() {
+        return blobs.size();
+    }
+
+    @Override
+    public long getEvictions() {
+        return 0;
+    }
+
+    /**
+     * Returns the estimated heap taken by the blobs, including per-entry overhead.
+     *
+     * @return live bytes
+     */
+    @Override
+    public long getLiveBytes() {
+        return liveBytes.get();
+    }
+
+    private static long bytesOf(final byte[] value) {
+        return ENTRY_OVERHEAD_BYTES + value.length;
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.jonathanklecherbranchservice.cache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sizes the {@link GitHubInfoCache} to the heap that is actually free, instead of a fixed maximum.
+ * <p>
+ * The cache's target weight starts at {@code github.cache.memory.max-heap-fraction} of the maximum
+ * heap and moves with the occupancy of the old generation, the pool that holds long-lived entries:
+ * <ul>
+ *   <li>At or above {@code high-water}, the target drops to three quarters of the cache's current
+ *       weight (never below {@code min-weight}) and the cache evicts down to it at once</li>
+ *   <li>At or below {@code low-water}, the target grows back by an eighth of the maximum, up to the
+ *       maximum</li>
+ *   <li>In between, the target is left alone</li>
+ * </ul>
+ * Like the concurrency limiter, this backs off multiplicatively and recovers additively, so a
+ * pressure spike frees memory fast and the cache regrows gradually once the heap settles.
+ * <p>
+ * Occupancy is the old generation's usage after its last collection, read when the JVM reports
+ * it, never polled: the old generation's collection usage threshold is set to the high-water mark,
+ * so crossing it sends a notification, and every garbage collection sends another, which is what
+ * lets the target grow again. Both are handled on the JMX notification thread. The listeners are
+ * removed when the application shuts down.
+ * <p>
+ * The target and the cache's actual weight are published as Micrometer metrics.
+ */
+@Component
+public class HeapPressureGovernor implements MeterBinder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HeapPressureGovernor.class);
+    private static final int GROWTH_STEPS = 8;
+
+    private final GitHubInfoCache cache;
+    private final boolean enabled;
+    private final double highWater;
+    private final double lowWater;
+    private final long maxWeight;
+    private final long minWeight;
+    private final MemoryPoolMXBean oldGeneration;
+    private final NotificationListener listener = this::handleNotification;
+    private final List<NotificationEmitter> emitters = new ArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Creates the governor and starts listening for memory notifications.
+     *
+     * @param cache           the cache to size
+     * @param enabled         whether the cache is sized to the heap at all
+     * @param highWater       the old-gen occupancy at or above which the cache shrinks
+     * @param lowWater        the old-gen occupancy at or below which the cache may grow
+     * @param maxHeapFraction the share of the maximum heap the cache may take at most
+     * @param minWeight       the weight the cache is never shrunk below
+     */
+    @Autowired
+    public HeapPressureGovernor(final GitHubInfoCache cache,
+                                @Value("${github.cache.memory.enabled:true}") final boolean enabled,
+                                @Value("${github.cache.memory.high-water:0.8}") final double highWater,
+                                @Value("${github.cache.memory.low-water:0.6}") final double lowWater,
+                                @Value("${github.cache.memory.max-heap-fraction:0.25}") final double maxHeapFraction,
+                                @Value("${github.cache.memory.min-weight:8MB}") final DataSize minWeight) {
+        this(cache, enabled, highWater, lowWater, (long) (Runtime.getRuntime().maxMemory() * maxHeapFraction),
+                minWeight.toBytes(), enabled ? oldGenerationPool() : null);
+    }
+
+    /**
+     * Creates the governor with explicit limits, for tests.
+     *
+     * @param cache         the cache to size
+     * @param enabled       whether the cache is sized to the heap at all
+     * @param highWater     the old-gen occupancy at or above which the cache shrinks
+     * @param lowWater      the old-gen occupancy at or below which the cache may grow
+     * @param maxWeight     the most the cache may take, in bytes
+     * @param minWeight     the weight the cache is never shrunk below, in bytes
+     * @param oldGeneration the pool to watch, or {@code null} to only react to {@link #evaluate(double)}
+     */
+    HeapPressureGovernor(final GitHubInfoCache cache, final boolean enabled, final double highWater,
+                         final double lowWater, final long maxWeight, final long minWeight,
+                         final MemoryPoolMXBean oldGeneration) {
+        if (lowWater <= 0 || lowWater >= highWater || highWater >= 1 || minWeight < 0 || minWeight > maxWeight) {
+            throw new IllegalArgumentException(
+                    "Cache memory limits must satisfy 0 < low-water < high-water < 1 and min-weight <= max weight");
+        }
+        this.cache = cache;
+        this.enabled = enabled;
+        this.highWater = highWater;
+        this.lowWater = lowWater;
+        this.maxWeight = maxWeight;
+        this.minWeight = minWeight;
+        this.oldGeneration = oldGeneration;
+        if (!enabled) {
+            return;
+        }
+        cache.setTargetWeight(maxWeight);
+        if (oldGeneration == null) {
+            LOGGER.warn("No old generation memory pool found; the user cache will not adapt to heap pressure");
+            return;
+        }
+        final long max = oldGeneration.getUsage().getMax();
+        if (max > 0 && oldGeneration.isCollectionUsageThresholdSupported()) {
+            oldGeneration.setCollectionUsageThreshold((long) (max * highWater));
+        }
+        listenTo(ManagementFactory.getMemoryMXBean());
+        for (final GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            listenTo(collector);
+        }
+    }
+
+    // ========== PUBLIC METHODS ==========
+
+    /**
+     * Returns whether the cache is sized to the heap.
+     *
+     * @return {@code true} unless {@code github.cache.memory.enabled=false}
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Publishes {@code users.cache.weight} and, when enabled, {@code users.cache.weight.target}.
+     *
+     * @param registry the registry to bind to
+     */
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("users.cache.weight", cache, GitHubInfoCache::getHeapWeight)
+                .description("Estimated heap taken by cached GitHub users")
+                .baseUnit("bytes")
+                .register(registry);
+        if (enabled) {
+            Gauge.builder("users.cache.weight.target", cache, GitHubInfoCache::getTargetWeight)
+                    .description("Heap the user cache may take under the current memory pressure")
+                    .baseUnit("bytes")
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Stops listening for memory notifications.
+     */
+    @PreDestroy
+    public void close() {
+        for (final NotificationEmitter emitter : emitters) {
+            try {
+                emitter.removeNotificationListener(listener);
+            } catch (final ListenerNotFoundException exception) {
+                // Already removed
+            }
+        }
+        emitters.clear();
+    }
+
+    // ========== ADAPTATION ==========
+
+    /**
+     * Moves the cache's target weight for an observed old-gen occupancy.
+     *
+     * @param occupancy the used share of the old generation, between 0 and 1
+     */
+    void evaluate(final double occupancy) {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            final long target = cache.getTargetWeight();
+            if (occupancy >= highWater) {
+                final long shrunk = Math.max(minWeight, Math.min(target, cache.getHeapWeight()) / 4 * 3);
+                if (shrunk < target) {
+                    LOGGER.info("Old generation {}% full; shrinking the user cache to {} bytes",
+                            Math.round(occupancy * 100), shrunk);
+                    cache.setTargetWeight(shrunk);
+                }
+            } else if (occupancy <= lowWater && target < maxWeight) {
+                cache.setTargetWeight(Math.min(maxWeight, target + maxWeight / GROWTH_STEPS));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    /**
+     * Evaluates the old generation's occupancy after its last collection. The current usage would
+     * also count garbage not collected yet, which grows between collections and would shrink the
+     * cache for memory that is about to be freed.
+     */
+    private void handleNotification(final Notification notification, final Object handback) {
+        final MemoryUsage usage = oldGeneration.getCollectionUsage();
+        if (usage != null && usage.getMax() > 0) {
+            evaluate((double) usage.getUsed() / usage.getMax());
+        }
+    }
+
+    private void listenTo(final Object bean) {
+        if (bean instanceof NotificationEmitter emitter) {
+            emitter.addNotificationListener(listener, null, null);
+            emitters.add(emitter);
+        }
+    }
+
+    /**
+     * Finds the heap pool that holds long-lived objects: young-generation pools do not support
+     * usage thresholds, so this is the largest heap pool that does.
+     */
+    private static MemoryPoolMXBean oldGenerationPool() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP && pool.isUsageThresholdSupported())
+                .max(Comparator.comparingLong(pool -> pool.getUsage().getMax()))
+                .orElse(null);
+    }
+}
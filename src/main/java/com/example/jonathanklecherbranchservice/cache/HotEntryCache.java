@@ -0,0 +1,213 @@
+package com.example.jonathanklecherbranchservice.cache;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Small, bounded on-heap cache of hot entries with CLOCK (second-chance) recency.
+ * <p>
+ * Sits in front of the cold tier so the most frequently requested users are served without
+ * deserialization. Every cache hit in two-tier mode is an L1 read, so reads never lock: entries
+ * live in a {@link ConcurrentHashMap}, and a read only sets the entry's reference bit. Writes add
+ * the entry to the tail of a lock-free ring. Choosing a victim to evict is the only step that
+ * takes a lock: the clock hand walks the ring from the head, giving referenced entries a second
+ * chance by clearing their bit and moving them to the tail, and stops at the first unreferenced
+ * entry. This approximates least-recently-used order without reordering anything on reads.
+ * <p>
+ * The cache does not evict by itself: its owner asks for a {@link #victim()} when the cache holds
+ * more than {@code maxEntries} entries or more heap than it should, and removes it, so that it can
+ * first move the entry to the cold tier under its own per-key lock. Entries that were removed or
+ * replaced stay in the ring until the hand reaches them or a purge drops them. It keeps a running
+ * estimate of the heap its entries take.
+ */
+class HotEntryCache {
+
+    private final int maxEntries;
+    private final Map<String, Node> entries = new ConcurrentHashMap<>();
+    private final Queue<Node> ring = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock handLock = new ReentrantLock();
+    private final AtomicInteger retired = new AtomicInteger();
+    private final AtomicLong estimatedBytes = new AtomicLong();
+
+    /**
+     * Creates an L1 cache meant to hold at most {@code maxEntries} entries.
+     *
+     * @param maxEntries the maximum number of entries
+     */
+    HotEntryCache(final int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns the entry for a key, marking it recently used. Never locks.
+     *
+     * @param key the key
+     * @return the entry, or {@code null} if not present
+     */
+    CacheEntry get(final String key) {
+        final Node node = entries.get(key);
+        if (node == null) {
+            return null;
+        }
+        // Skip the volatile write when the bit is already set, to keep hot lines shared across cores
+        if (!node.referenced) {
+            node.referenced = true;
+        }
+        return node.entry;
+    }
+
+    /**
+     * Returns the entry for a key without marking it as used.
+     *
+     * @param key the key
+     * @return the entry, or {@code null} if not present
+     */
+    CacheEntry peek(final String key) {
+        final Node node = entries.get(key);
+        return node == null ? null : node.entry;
+    }
+
+    /**
+     * Returns whether a key is present, without marking it as used.
+     *
+     * @param key the key
+     * @return {@code true} if the key is present
+     */
+    boolean contains(final String key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Stores an entry, replacing any previous one. Never evicts; see {@link #overflow()}.
+     *
+     * @param key   the key
+     * @param entry the entry
+     */
+    void put(final String key, final CacheEntry entry) {
+        final Node node = new Node(key, entry);
+        final Node previous = entries.put(key, node);
+        estimatedBytes.addAndGet(entry.getEstimatedBytes() - estimatedBytesOf(previous));
+        ring.add(node);
+        retire(previous);
+    }
+
+    /**
+     * Removes an entry.
+     *
+     * @param key the key
+     * @return {@code true} if an entry was removed
+     */
+    boolean remove(final String key) {
+        final Node previous = entries.remove(key);
+        estimatedBytes.addAndGet(-estimatedBytesOf(previous));
+        retire(previous);
+        return previous != null;
+    }
+
+    /**
+     * Picks the entry to evict next: the first one the clock hand reaches that was not read since
+     * the hand last passed it. The entry is not removed; the caller removes it.
+     *
+     * @return the victim's key, or {@code null} if the cache is empty
+     */
+    String victim() {
+        handLock.lock();
+        try {
+            Node node = ring.poll();
+            while (node != null) {
+                if (!node.live) {
+                    retired.decrementAndGet();
+                } else if (node.referenced) {
+                    node.referenced = false;
+                    ring.add(node);
+                } else {
+                    ring.add(node);
+                    return node.key;
+                }
+                node = ring.poll();
+            }
+            return null;
+        } finally {
+            handLock.unlock();
+        }
+    }
+
+    /**
+     * Returns how many entries the cache holds beyond its maximum.
+     *
+     * @return the number of entries to evict, 0 if none
+     */
+    int overflow() {
+        return Math.max(0, entries.size() - maxEntries);
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return the entry count
+     */
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the estimated heap taken by the cached entries.
+     *
+     * @return estimated bytes
+     */
+    long getEstimatedBytes() {
+        return estimatedBytes.get();
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    /**
+     * Marks a node that left the map as dead, and drops dead nodes from the ring once they could
+     * outnumber the live ones, so replacing and removing entries cannot grow the ring without bound.
+     */
+    private void retire(final Node node) {
+        if (node == null) {
+            return;
+        }
+        node.live = false;
+        if (retired.incrementAndGet() > Math.max(maxEntries, entries.size()) && handLock.tryLock()) {
+            try {
+                final Iterator<Node> iterator = ring.iterator();
+                while (iterator.hasNext()) {
+                    if (!iterator.next().live) {
+                        iterator.remove();
+                        retired.decrementAndGet();
+                    }
+                }
+            } finally {
+                handLock.unlock();
+            }
+        }
+    }
+
+    private static long estimatedBytesOf(final Node node) {
+        return node == null ? 0 : node.entry.getEstimatedBytes();
+    }
+
+    /**
+     * One slot of the ring.
+     */
+    private static final class Node {
+
+        private final String key;
+        private final CacheEntry entry;
+        private volatile boolean referenced;
+        private volatile boolean live = true;
+
+        private Node(final String key, final CacheEntry entry) {
+            this.key = key;
+            this.entry = entry;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.jonathanklecherbranchservice.cache;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Approximate top-N of the most frequently read keys, built from a sample of reads.
+ * <p>
+ * Only one read in {@code sampleEvery} is counted, so recording is almost always a single random
+ * number draw. Counters live in a map of at most {@code capacity} keys; when it fills up, one
+ * thread halves every counter and drops those that reach zero, so keys that stop being read fade
+ * out while hot keys keep their rank. Reporting sorts that bounded map, never the whole cache.
+ */
+class HotKeySampler {
+
+    private final int sampleEvery;
+    private final int capacity;
+    private final Map<String, AtomicLong> counts = new ConcurrentHashMap<>();
+    private final ReentrantLock decayLock = new ReentrantLock();
+
+    /**
+     * Creates a sampler.
+     *
+     * @param sampleEvery count one read in this many
+     * @param capacity    the maximum number of keys tracked at once
+     */
+    HotKeySampler(final int sampleEvery, final int capacity) {
+        this.sampleEvery = sampleEvery;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Records a read of a key, if it is sampled.
+     *
+     * @param key the key read
+     */
+    void record(final String key) {
+        if (ThreadLocalRandom.current().nextInt(sampleEvery) != 0) {
+            return;
+        }
+        if (counts.size() >= capacity && !counts.containsKey(key)) {
+            decay();
+        }
+        counts.computeIfAbsent(key, ignored -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Returns the hottest keys with their estimated read counts, hottest first.
+     *
+     * @param limit the maximum number of keys to return
+     * @return key to estimated read count, in descending order
+     */
+    Map<String, Long> top(final int limit) {
+        final List<Map.Entry<String, Long>> snapshot = new ArrayList<>(counts.size());
+        counts.forEach((key, count) -> snapshot.add(Map.entry(key, count.get() * sampleEvery)));
+        snapshot.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()));
+        final Map<String, Long> top = new LinkedHashMap<>();
+        for (final Map.Entry<String, Long> entry : snapshot.subList(0, Math.min(limit, snapshot.size()))) {
+            top.put(entry.getKey(), entry.getValue());
+        }
+        return top;
+    }
+
+    /**
+     * Forgets a key, e.g. after it was invalidated.
+     *
+     * @param key the key
+     */
+    void forget(final String key) {
+        counts.remove(key);
+    }
+
+    /**
+     * Halves every counter and drops the ones that reach zero. Only one thread decays at a time;
+     * others record anyway, briefly overshooting the capacity.
+     */
+    private void decay() {
+        if (!decayLock.tryLock()) {
+            return;
+        }
+        try {
+            counts.values().forEach(count -> count.updateAndGet(value -> value >> 1));
+            counts.values().removeIf(count -> count.get() == 0);
+        } finally {
+            decayLock.unlock();
+        }
+    }
+}
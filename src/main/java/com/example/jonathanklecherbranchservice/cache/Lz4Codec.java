@@ -0,0 +1,233 @@
+package com.example.jonathanklecherbranchservice.cache;
+
+import java.util.Arrays;
+
+/**
+ * Compressor and decompressor for the LZ4 block format.
+ * <p>
+ * A block is a series of sequences, each {@code [token][literal length...][literals][offset][match
+ * length...]}: the token's high nibble is the literal count and its low nibble the match length
+ * minus four, each extended by bytes of 255 when it is 15; the offset is two little-endian bytes
+ * pointing back at most 64KB into the output. The last sequence has literals only, and the last five
+ * bytes of a block are always literals, as the format requires.
+ * <p>
+ * The compressor is the greedy single-pass one of the reference implementation: a 4096-slot table
+ * maps a hash of the next four bytes to where they were last seen, and a hit is extended forwards
+ * and backwards into a match. It skips faster through data that does not compress. Blocks are
+ * therefore readable by any LZ4 decoder, and vice versa. The decompressor checks every length and
+ * offset against both buffers, so a corrupt block fails with an exception instead of reading or
+ * writing out of bounds.
+ */
+final class Lz4Codec {
+
+    private static final int MIN_MATCH = 4;
+    private static final int LAST_LITERALS = 5;
+    private static final int MATCH_FIND_LIMIT = 12;
+    private static final int MAX_OFFSET = 65_535;
+    private static final int HASH_LOG = 12;
+    private static final int SKIP_TRIGGER = 6;
+    private static final int RUN_MASK = 15;
+    private static final int RUN_EXTENSION = 255;
+
+    private Lz4Codec() {
+    }
+
+    /**
+     * Returns the largest block {@link #compress} can produce for an input length.
+     *
+     * @param length the input length
+     * @return the worst-case compressed length
+     */
+    static int maxCompressedLength(final int length) {
+        return length + length / RUN_EXTENSION + 16;
+    }
+
+    /**
+     * Compresses bytes into a block.
+     *
+     * @param source       the input
+     * @param sourceOffset where the input starts
+     * @param length       the input length
+     * @param target       the output, with at least {@link #maxCompressedLength(int)} bytes free
+     * @param targetOffset where the block is written
+     * @return the block length
+     */
+    static int compress(final byte[] source, final int sourceOffset, final int length,
+                        final byte[] target, final int targetOffset) {
+        final int end = sourceOffset + length;
+        final int matchLimit = end - LAST_LITERALS;
+        final int findLimit = end - MATCH_FIND_LIMIT;
+        // Positions are stored relative to the input and plus one, so that 0 means empty
+        final int[] table = new int[1 << HASH_LOG];
+        int anchor = sourceOffset;
+        int input = sourceOffset;
+        int output = targetOffset;
+        int searches = 1 << SKIP_TRIGGER;
+        while (input < findLimit) {
+            final int sequence = readInt(source, input);
+            final int slot = hash(sequence);
+            int reference = sourceOffset + table[slot] - 1;
+            table[slot] = input - sourceOffset + 1;
+            if (reference < sourceOffset || input - reference > MAX_OFFSET || readInt(source, reference) != sequence) {
+                input += searches++ >>> SKIP_TRIGGER;
+                continue;
+            }
+            searches = 1 << SKIP_TRIGGER;
+            while (input > anchor && reference > sourceOffset && source[input - 1] == source[reference - 1]) {
+                input--;
+                reference--;
+            }
+            int matchLength = MIN_MATCH;
+            while (input + matchLength < matchLimit && source[input + matchLength] == source[reference + matchLength]) {
+                matchLength++;
+            }
+            output = writeSequence(source, anchor, input - anchor, input - reference, matchLength, target, output);
+            input += matchLength;
+            anchor = input;
+        }
+        final int literals = end - anchor;
+        target[output++] = (byte) (Math.min(literals, RUN_MASK) << 4);
+        if (literals >= RUN_MASK) {
+            output = writeLength(literals - RUN_MASK, target, output);
+        }
+        System.arraycopy(source, anchor, target, output, literals);
+        return output + literals - targetOffset;
+    }
+
+    /**
+     * Compresses bytes into a new array holding just the block.
+     *
+     * @param source the input
+     * @return the block
+     */
+    static byte[] compress(final byte[] source) {
+        final byte[] target = new byte[maxCompressedLength(source.length)];
+        return Arrays.copyOf(target, compress(source, 0, source.length, target, 0));
+    }
+
+    /**
+     * Decompresses a block whose decompressed length is known.
+     *
+     * @param source       the block
+     * @param sourceOffset where the block starts
+     * @param length       the block length
+     * @param target       the output
+     * @param targetOffset where the output is written
+     * @param targetLength the decompressed length
+     * @throws IllegalArgumentException if the block is malformed or does not decompress to exactly
+     *                                  {@code targetLength} bytes
+     */
+    static void decompress(final byte[] source, final int sourceOffset, final int length,
+                           final byte[] target, final int targetOffset, final int targetLength) {
+        final int end = sourceOffset + length;
+        final int targetEnd = targetOffset + targetLength;
+        int input = sourceOffset;
+        int output = targetOffset;
+        while (true) {
+            check(input < end);
+            final int token = source[input++] & 0xff;
+            int literals = token >>> 4;
+            if (literals == RUN_MASK) {
+                int extension;
+                do {
+                    check(input < end);
+                    extension = source[input++] & 0xff;
+                    literals += extension;
+                } while (extension == RUN_EXTENSION);
+            }
+            check(literals <= end - input && literals <= targetEnd - output);
+            System.arraycopy(source, input, target, output, literals);
+            input += literals;
+            output += literals;
+            if (input == end) {
+                break;
+            }
+            check(end - input >= 2);
+            final int offset = (source[input] & 0xff) | (source[input + 1] & 0xff) << 8;
+            input += 2;
+            check(offset > 0 && offset <= output - targetOffset);
+            int matchLength = token & RUN_MASK;
+            if (matchLength == RUN_MASK) {
+                int extension;
+                do {
+                    check(input < end);
+                    extension = source[input++] & 0xff;
+                    matchLength += extension;
+                } while (extension == RUN_EXTENSION);
+            }
+            matchLength += MIN_MATCH;
+            check(matchLength <= targetEnd - output);
+            final int reference = output - offset;
+            if (offset >= matchLength) {
+                System.arraycopy(target, reference, target, output, matchLength);
+            } else {
+                // Overlapping match: a repeated run, copied byte by byte
+                for (int i = 0; i < matchLength; i++) {
+                    target[output + i] = target[reference + i];
+                }
+            }
+            output += matchLength;
+        }
+        check(output == targetEnd);
+    }
+
+    /**
+     * Decompresses a whole block into a new array.
+     *
+     * @param source       the block
+     * @param targetLength the decompressed length
+     * @return the decompressed bytes
+     * @throws IllegalArgumentException if the block is malformed
+     */
+    static byte[] decompress(final byte[] source, final int targetLength) {
+        final byte[] target = new byte[targetLength];
+        decompress(source, 0, source.length, target, 0, targetLength);
+        return target;
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    private static int writeSequence(final byte[] source, final int literalStart, final int literals, final int offset,
+                                     final int matchLength, final byte[] target, final int targetOffset) {
+        final int extraMatch = matchLength - MIN_MATCH;
+        int output = targetOffset;
+        target[output++] = (byte) (Math.min(literals, RUN_MASK) << 4 | Math.min(extraMatch, RUN_MASK));
+        if (literals >= RUN_MASK) {
+            output = writeLength(literals - RUN_MASK, target, output);
+        }
+        System.arraycopy(source, literalStart, target, output, literals);
+        output += literals;
+        target[output++] = (byte) offset;
+        target[output++] = (byte) (offset >>> 8);
+        if (extraMatch >= RUN_MASK) {
+            output = writeLength(extraMatch - RUN_MASK, target, output);
+        }
+        return output;
+    }
+
+    private static int writeLength(final int length, final byte[] target, final int targetOffset) {
+        int remaining = length;
+        int output = targetOffset;
+        while (remaining >= RUN_EXTENSION) {
+            target[output++] = (byte) RUN_EXTENSION;
+            remaining -= RUN_EXTENSION;
+        }
+        target[output++] = (byte) remaining;
+        return output;
+    }
+
+    private static int readInt(final byte[] bytes, final int offset) {
+        return (bytes[offset] & 0xff) | (bytes[offset + 1] & 0xff) << 8
+                | (bytes[offset + 2] & 0xff) << 16 | (bytes[offset + 3] & 0xff) << 24;
+    }
+
+    private static int hash(final int sequence) {
+        return (sequence * -1_640_531_535) >>> (Integer.SIZE - HASH_LOG);
+    }
+
+    private static void check(final boolean condition) {
+        if (!condition) {
+            throw new IllegalArgumentException("Malformed LZ4 block");
+        }
+    }
+}
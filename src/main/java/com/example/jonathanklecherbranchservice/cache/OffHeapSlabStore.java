@@ -0,0 +1,441 @@
+package com.example.jonathanklecherbranchservice.cache;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+/**
+ * Key-value store that keeps values outside the Java heap in fixed-size direct {@link ByteBuffer} slabs.
+ * <p>
+ * Records are appended to the active slab as {@code [recordLength][keyLength][key][value]}. The only
+ * on-heap state per entry is the index from key to a packed {@code long} location
+ * ({@code slab << 32 | offset}), so the garbage collector never traces cached values, no matter
+ * how many there are. The index is sorted, so keys can be scanned by prefix.
+ * <p>
+ * Space is reclaimed when the active slab fills up:
+ * <ul>
+ *   <li>Compaction: if some sealed slab's live ratio is at or below {@code compactionThreshold},
+ *       its live records are slid to the front of the slab in place and it becomes the active slab</li>
+ *   <li>Eviction: otherwise the oldest sealed slab is dropped wholesale (FIFO), together with every
+ *       index entry that still points into it</li>
+ * </ul>
+ * Writes, compaction and eviction hold the write lock of a {@link StampedLock}. Reads are
+ * optimistic: they copy the record without locking and validate the stamp afterwards, falling back
+ * to the read lock only if a writer interfered.
+ */
+final class OffHeapSlabStore implements EntryStore {
+
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int MIN_SLABS = 2;
+    private static final byte[] TORN_READ = new byte[0];
+
+    private final int slabSize;
+    private final double compactionThreshold;
+    private final Slab[] slabs;
+    private final Deque<Integer> sealed = new ArrayDeque<>();
+    private final Deque<Integer> free = new ArrayDeque<>();
+    private final ConcurrentNavigableMap<String, Long> index = new ConcurrentSkipListMap<>();
+    private final StampedLock lock = new StampedLock();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder compactions = new LongAdder();
+    private final Consumer<String> evictionListener;
+    private int active = -1;
+
+    /**
+     * Creates an empty store. Slabs are allocated lazily, the first time they are needed.
+     *
+     * @param slabSize            the size of each slab in bytes
+     * @param maxSlabs            the maximum number of slabs (at least 2)
+     * @param compactionThreshold the live ratio at or below which a slab is compacted instead of evicted
+     */
+    OffHeapSlabStore(final int slabSize, final int maxSlabs, final double compactionThreshold) {
+        this(slabSize, maxSlabs, compactionThreshold, key -> { });
+    }
+
+    /**
+     * Creates an empty store that reports the keys it evicts.
+     * <p>
+     * The listener runs under the store's write lock, so it must be cheap and must not call back
+     * into the store; typically it just queues the key.
+     *
+     * @param slabSize            the size of each slab in bytes
+     * @param maxSlabs            the maximum number of slabs (at least 2)
+     * @param compactionThreshold the live ratio at or below which a slab is compacted instead of evicted
+     * @param evictionListener    called with each key dropped by slab eviction
+     */
+    OffHeapSlabStore(final int slabSize, final int maxSlabs, final double compactionThreshold,
+                     final Consumer<String> evictionListener) {
+        if (maxSlabs < MIN_SLABS) {
+            throw new IllegalArgumentException("The off-heap tier needs at least " + MIN_SLABS + " slabs");
+        }
+        this.slabSize = slabSize;
+        this.compactionThreshold = compactionThreshold;
+        this.evictionListener = evictionListener;
+        this.slabs = new Slab[maxSlabs];
+        for (int i = 0; i < maxSlabs; i++) {
+            free.add(i);
+        }
+    }
+
+    // ========== PUBLIC OPERATIONS ==========
+
+    /**
+     * Returns a copy of the value stored for a key.
+     *
+     * @param key the key
+     * @return the value bytes, or {@code null} if the key is not present
+     */
+    @SuppressWarnings({"PMD.ReturnEmptyCollectionRatherThanNull", "PMD.CompareObjectsWithEquals"})
+    @Override
+    public byte[] get(final String key) {
+        final long optimistic = lock.tryOptimisticRead();
+        if (optimistic != 0) {
+            final byte[] value = readOptimistically(key);
+            if (value != TORN_READ && lock.validate(optimistic)) {
+                return value;
+            }
+        }
+        // A writer moved records while we were copying; retry under the read lock
+        final long stamp = lock.readLock();
+        try {
+            return read(key);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Stores a value, replacing any previous value for the key.
+     *
+     * @param key   the key
+     * @param value the value bytes
+     * @return {@code false} if the record is larger than a slab and was not stored
+     */
+    @Override
+    public boolean put(final String key, final byte[] value) {
+        final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        final int recordLength = HEADER_BYTES + keyBytes.length + value.length;
+        if (recordLength > slabSize) {
+            return false;
+        }
+        final long stamp = lock.writeLock();
+        try {
+            ensureRoom(recordLength);
+            final Slab slab = slabs[active];
+            final int offset = slab.writeOffset;
+            slab.buffer.putInt(offset, recordLength);
+            slab.buffer.putInt(offset + Integer.BYTES, keyBytes.length);
+            slab.buffer.put(offset + HEADER_BYTES, keyBytes);
+            slab.buffer.put(offset + HEADER_BYTES + keyBytes.length, value);
+            slab.writeOffset += recordLength;
+            slab.liveBytes += recordLength;
+            final Long previous = index.put(key, location(active, offset));
+            if (previous != null) {
+                release(previous);
+            }
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes the value for a key.
+     *
+     * @param key the key
+     * @return {@code true} if a value was removed
+     */
+    @Override
+    public boolean remove(final String key) {
+        final long stamp = lock.writeLock();
+        try {
+            final Long previous = index.remove(key);
+            if (previous != null) {
+                release(previous);
+            }
+            return previous != null;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns whether a key is stored, without copying its value.
+     *
+     * @param key the key
+     * @return {@code true} if the key is present
+     */
+    @Override
+    public boolean contains(final String key) {
+        return index.containsKey(key);
+    }
+
+    /**
+     * Returns a read-only, sorted, weakly consistent view of the stored keys.
+     *
+     * @return the keys
+     */
+    @Override
+    public NavigableSet<String> keys() {
+        return Collections.unmodifiableNavigableSet(index.navigableKeySet());
+    }
+
+    // ========== STATISTICS ==========
+
+    /**
+     * Returns the number of keys stored.
+     *
+     * @return the entry count
+     */
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Returns the number of entries dropped by slab eviction.
+     *
+     * @return the eviction count
+     */
+    @Override
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the number of in-place slab compactions performed.
+     *
+     * @return the compaction count
+     */
+    long getCompactions() {
+        return compactions.sum();
+    }
+
+    /**
+     * Returns the number of bytes taken by live records, excluding dead space awaiting compaction.
+     *
+     * @return live off-heap bytes
+     */
+    @Override
+    public long getLiveBytes() {
+        final long stamp = lock.readLock();
+        try {
+            long live = 0;
+            for (final Slab slab : slabs) {
+                if (slab != null) {
+                    live += slab.liveBytes;
+                }
+            }
+            return live;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the number of bytes of direct memory allocated for slabs.
+     *
+     * @return allocated off-heap bytes
+     */
+    long getAllocatedBytes() {
+        final long stamp = lock.readLock();
+        try {
+            long allocated = 0;
+            for (final Slab slab : slabs) {
+                if (slab != null) {
+                    allocated += slabSize;
+                }
+            }
+            return allocated;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    /**
+     * Reads a value without holding the lock; a concurrent writer may tear the record.
+     *
+     * @return the value, {@code null} if absent, or {@link #TORN_READ} if the record was torn
+     */
+    @SuppressWarnings("PMD.ReturnEmptyCollectionRatherThanNull")
+    private byte[] readOptimistically(final String key) {
+        try {
+            return read(key);
+        } catch (final IndexOutOfBoundsException | NegativeArraySizeException torn) {
+            return TORN_READ;
+        }
+    }
+
+    /**
+     * Copies the value for a key out of its slab. Validates lengths so that a torn optimistic read
+     * fails with an exception instead of allocating or copying garbage.
+     */
+    @SuppressWarnings("PMD.ReturnEmptyCollectionRatherThanNull")
+    private byte[] read(final String key) {
+        final Long location = index.get(key);
+        if (location == null) {
+            return null;
+        }
+        final ByteBuffer buffer = slabs[slabOf(location)].buffer;
+        final int offset = offsetOf(location);
+        final int recordLength = buffer.getInt(offset);
+        final int keyLength = buffer.getInt(offset + Integer.BYTES);
+        final int valueLength = recordLength - HEADER_BYTES - keyLength;
+        if (recordLength < HEADER_BYTES || recordLength > slabSize - offset || keyLength < 0 || valueLength < 0) {
+            throw new IndexOutOfBoundsException("Torn record at offset " + offset);
+        }
+        final byte[] value = new byte[valueLength];
+        buffer.get(offset + HEADER_BYTES + keyLength, value);
+        return value;
+    }
+
+    /**
+     * Makes sure the active slab has room for a record, compacting or evicting sealed slabs as needed.
+     * Must be called with the write lock held.
+     */
+    private void ensureRoom(final int recordLength) {
+        while (active < 0 || slabs[active].remaining() < recordLength) {
+            if (active >= 0) {
+                sealed.addLast(active);
+            }
+            active = nextWritableSlab(recordLength);
+        }
+    }
+
+    /**
+     * Picks the next slab to write to: a free one, a compacted sparse one, or the evicted oldest one.
+     * A sparse slab is only compacted if that frees enough room for the pending record.
+     */
+    private int nextWritableSlab(final int recordLength) {
+        final Integer freeSlab = free.pollFirst();
+        if (freeSlab != null) {
+            slabs[freeSlab] = new Slab(ByteBuffer.allocateDirect(slabSize));
+            return freeSlab;
+        }
+        final int sparsest = sparsestSealedSlab();
+        final long sparsestLive = slabs[sparsest].liveBytes;
+        if (sparsestLive <= compactionThreshold * slabSize && slabSize - sparsestLive >= recordLength) {
+            sealed.remove(sparsest);
+            compact(sparsest);
+            return sparsest;
+        }
+        final int oldest = sealed.pollFirst();
+        evict(oldest);
+        return oldest;
+    }
+
+    /**
+     * Returns the sealed slab with the fewest live bytes.
+     */
+    private int sparsestSealedSlab() {
+        int sparsest = sealed.peekFirst();
+        for (final int candidate : sealed) {
+            if (slabs[candidate].liveBytes < slabs[sparsest].liveBytes) {
+                sparsest = candidate;
+            }
+        }
+        return sparsest;
+    }
+
+    /**
+     * Slides the live records of a slab to its front, updating their index locations.
+     */
+    private void compact(final int slabIndex) {
+        final Slab slab = slabs[slabIndex];
+        final ByteBuffer buffer = slab.buffer;
+        int readOffset = 0;
+        int writeOffset = 0;
+        while (readOffset < slab.writeOffset) {
+            final int recordLength = buffer.getInt(readOffset);
+            final String key = keyAt(buffer, readOffset);
+            final Long current = index.get(key);
+            if (current != null && current == location(slabIndex, readOffset)) {
+                if (writeOffset != readOffset) {
+                    buffer.put(writeOffset, buffer, readOffset, recordLength);
+                    index.put(key, location(slabIndex, writeOffset));
+                }
+                writeOffset += recordLength;
+            }
+            readOffset += recordLength;
+        }
+        slab.writeOffset = writeOffset;
+        slab.liveBytes = writeOffset;
+        compactions.increment();
+    }
+
+    /**
+     * Drops every live record of a slab from the index and resets the slab for reuse.
+     */
+    private void evict(final int slabIndex) {
+        final Slab slab = slabs[slabIndex];
+        int readOffset = 0;
+        while (readOffset < slab.writeOffset) {
+            final int recordLength = slab.buffer.getInt(readOffset);
+            final String key = keyAt(slab.buffer, readOffset);
+            if (index.remove(key, location(slabIndex, readOffset))) {
+                evictions.increment();
+                evictionListener.accept(key);
+            }
+            readOffset += recordLength;
+        }
+        slab.writeOffset = 0;
+        slab.liveBytes = 0;
+    }
+
+    /**
+     * Marks the record at a location as dead so its slab's live ratio drops.
+     */
+    private void release(final long location) {
+        final Slab slab = slabs[slabOf(location)];
+        slab.liveBytes -= slab.buffer.getInt(offsetOf(location));
+    }
+
+    /**
+     * Decodes the key of the record at an offset.
+     */
+    private static String keyAt(final ByteBuffer buffer, final int offset) {
+        final byte[] key = new byte[buffer.getInt(offset + Integer.BYTES)];
+        buffer.get(offset + HEADER_BYTES, key);
+        return new String(key, StandardCharsets.UTF_8);
+    }
+
+    private static long location(final int slabIndex, final int offset) {
+        return (long) slabIndex << 32 | offset;
+    }
+
+    private static int slabOf(final long location) {
+        return (int) (location >>> 32);
+    }
+
+    private static int offsetOf(final long location) {
+        return (int) location;
+    }
+
+    /**
+     * One direct-memory slab and its bookkeeping, guarded by the store's write lock.
+     */
+    private static final class Slab {
+
+        private final ByteBuffer buffer;
+        private int writeOffset;
+        private long liveBytes;
+
+        private Slab(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        private int remaining() {
+            return buffer.capacity() - writeOffset;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.jonathanklecherbranchservice.cache;
+
+import com.example.jonathanklecherbranchservice.entity.GitHubRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+
+/**
+ * Read-only indexes over one user's repositories, answering prefix, sort and top-N queries
+ * without scanning or copying the whole list.
+ * <p>
+ * Repositories are kept in an array sorted by lower-case name, so a name prefix is a contiguous
+ * range found with two binary searches. For every other order ({@link Sort#STARS}, {@link Sort#UPDATED}
+ * and the original GitHub order) the index precomputes a permutation of that array and its inverse, so:
+ * <ul>
+ *   <li>top-N without a prefix, or a prefix in name order, costs O(log n + k);</li>
+ *   <li>a prefix in another order walks the precomputed order and keeps the hits, which is
+ *       O(k &middot; n / m) for a range of m repositories, or selects from the range with a
+ *       bounded heap in O(m log k) when the range is too sparse for that to pay off.</li>
+ * </ul>
+ * Indexes are built once per {@link CacheEntry} and, like the entry, never change.
+ */
+public final class RepositoryIndex {
+
+    /**
+     * Orders a query can ask for. The original GitHub order is used when no sort is given.
+     */
+    public enum Sort {
+        /** Case-insensitive name, ascending. */
+        NAME,
+        /** Stars, most first; ties by name. */
+        STARS,
+        /** Last update, most recent first; repositories without a date last, ties by name. */
+        UPDATED;
+
+        /**
+         * Parses a {@code sort} query parameter.
+         *
+         * @param value the parameter value, case-insensitive
+         * @return the sort
+         * @throws IllegalArgumentException if the value names no sort
+         */
+        public static Sort parse(final String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    // A dense range is cheaper to find by walking a precomputed order than by selecting from it
+    private static final int DENSE_RANGE_FACTOR = 4;
+
+    private final GitHubRepository[] byName;
+    private final String[] names;
+    private final int[] originalOrder;
+    private final int[] originalRanks;
+    private final int[] starsOrder;
+    private final int[] starsRanks;
+    private final int[] updatedOrder;
+    private final int[] updatedRanks;
+
+    /**
+     * Builds the indexes for a repository list.
+     *
+     * @param repositories the repositories, in GitHub's order; {@code null} means none
+     */
+    public RepositoryIndex(final List<GitHubRepository> repositories) {
+        final List<GitHubRepository> source = repositories == null ? List.of() : repositories;
+        final int size = source.size();
+        final Integer[] positions = new Integer[size];
+        final String[] lowerNames = new String[size];
+        for (int i = 0; i < size; i++) {
+            positions[i] = i;
+            lowerNames[i] = lowerName(source.get(i));
+        }
+        Arrays.sort(positions, Comparator.comparing((Integer i) -> lowerNames[i]));
+
+        this.byName = new GitHubRepository[size];
+        this.names = new String[size];
+        this.originalOrder = new int[size];
+        for (int rank = 0; rank < size; rank++) {
+            final int original = positions[rank];
+            byName[rank] = source.get(original);
+            names[rank] = lowerNames[original];
+            originalOrder[original] = rank;
+        }
+        this.originalRanks = invert(originalOrder);
+        this.starsOrder = orderBy(Comparator.comparingInt((Integer i) -> byName[i].getStars()).reversed());
+        this.starsRanks = invert(starsOrder);
+        this.updatedOrder = orderBy(Comparator.comparing((Integer i) -> byName[i].getUpdatedAt(),
+                Comparator.nullsLast(Comparator.<String>reverseOrder())));
+        this.updatedRanks = invert(updatedOrder);
+    }
+
+    // ========== PUBLIC METHODS ==========
+
+    /**
+     * Returns the repositories matching a name prefix, in the requested order, at most {@code limit} of them.
+     *
+     * @param prefix the case-insensitive name prefix, or {@code null} for all repositories
+     * @param sort   the order, or {@code null} for GitHub's original order
+     * @param limit  the maximum number of repositories, or {@code 0} for no limit
+     * @return the matching repositories
+     */
+    public List<GitHubRepository> query(final String prefix, final Sort sort, final int limit) {
+        int from = 0;
+        int to = byName.length;
+        if (prefix != null && !prefix.isEmpty()) {
+            final String lowerPrefix = prefix.toLowerCase(Locale.ROOT);
+            from = lowerBound(lowerPrefix);
+            to = lowerBound(lowerPrefix + Character.MAX_VALUE);
+        }
+        final int matches = to - from;
+        final int count = limit > 0 ? Math.min(limit, matches) : matches;
+        final List<GitHubRepository> result = new ArrayList<>(count);
+        if (sort == Sort.NAME) {
+            result.addAll(Arrays.asList(byName).subList(from, from + count));
+        } else if ((long) matches * DENSE_RANGE_FACTOR >= byName.length) {
+            collectFromOrder(order(sort), from, to, count, result);
+        } else {
+            collectFromRange(ranks(sort), from, to, count, result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of indexed repositories.
+     *
+     * @return the repository count
+     */
+    public int size() {
+        return byName.length;
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    private int[] orderBy(final Comparator<Integer> comparator) {
+        final Integer[] positions = new Integer[byName.length];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i;
+        }
+        // byName is already in name order, so a stable sort breaks ties by name
+        Arrays.sort(positions, comparator);
+        final int[] order = new int[positions.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = positions[i];
+        }
+        return order;
+    }
+
+    private static int[] invert(final int[] order) {
+        final int[] ranks = new int[order.length];
+        for (int rank = 0; rank < order.length; rank++) {
+            ranks[order[rank]] = rank;
+        }
+        return ranks;
+    }
+
+    private int[] order(final Sort sort) {
+        if (sort == null) {
+            return originalOrder;
+        }
+        return sort == Sort.STARS ? starsOrder : updatedOrder;
+    }
+
+    private int[] ranks(final Sort sort) {
+        if (sort == null) {
+            return originalRanks;
+        }
+        return sort == Sort.STARS ? starsRanks : updatedRanks;
+    }
+
+    /**
+     * Walks an order and keeps the positions inside the range, stopping after {@code count} hits.
+     */
+    private void collectFromOrder(final int[] order, final int from, final int to, final int count,
+                                  final List<GitHubRepository> result) {
+        for (int i = 0; i < order.length && result.size() < count; i++) {
+            final int position = order[i];
+            if (position >= from && position < to) {
+                result.add(byName[position]);
+            }
+        }
+    }
+
+    /**
+     * Selects the {@code count} positions of the range that rank first in an order, using a bounded heap.
+     */
+    private void collectFromRange(final int[] ranks, final int from, final int to, final int count,
+                                  final List<GitHubRepository> result) {
+        if (count == 0) {
+            return;
+        }
+        // Max-heap on rank, so the worst of the current best is evicted first
+        final PriorityQueue<Integer> best = new PriorityQueue<>(count + 1,
+                Comparator.comparingInt((Integer position) -> ranks[position]).reversed());
+        for (int position = from; position < to; position++) {
+            best.add(position);
+            if (best.size() > count) {
+                best.poll();
+            }
+        }
+        final Integer[] selected = best.toArray(new Integer[0]);
+        Arrays.sort(selected, Comparator.comparingInt((Integer position) -> ranks[position]));
+        for (final Integer position : selected) {
+            result.add(byName[position]);
+        }
+    }
+
+    private int lowerBound(final String key) {
+        int low = 0;
+        int high = names.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (names[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static String lowerName(final GitHubRepository repository) {
+        return repository.getName() == null ? "" : repository.getName().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.jonathanklecherbranchservice.cache;
+
+import com.example.jonathanklecherbranchservice.entity.GitHubInfo;
+import com.example.jonathanklecherbranchservice.entity.GitHubRepository;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prefix index over the names of every cached user's repositories, for type-ahead search.
+ * <p>
+ * Each repository is one key {@code lowercase-name NUL owner/name} in a {@link ConcurrentSkipListSet},
+ * so a prefix search is a range scan that costs O(log n + k) and never takes a lock. Keys are
+ * compact Latin-1 strings that carry the result themselves, so nothing else is stored per repository.
+ * <p>
+ * The keys of each user are also remembered per user, so re-indexing a user only adds and removes
+ * the difference. Updates of one user run inside {@link ConcurrentHashMap#compute}, which serializes
+ * them per hash bin (striped locking); updates of different users and all searches run concurrently.
+ * A search that overlaps an update may see either version of that user's repositories.
+ */
+class RepositoryNameIndex {
+
+    private static final char SEPARATOR = '\u0000';
+    private static final String[] NO_KEYS = new String[0];
+
+    private final NavigableSet<String> keys = new ConcurrentSkipListSet<>();
+    private final Map<String, String[]> keysByUser = new ConcurrentHashMap<>();
+    private final AtomicLong size = new AtomicLong();
+
+    /**
+     * Indexes a user's repositories, replacing whatever was indexed for the user before.
+     *
+     * @param userKey the normalized cache key of the user
+     * @param info    the user's cached info
+     */
+    void index(final String userKey, final GitHubInfo info) {
+        final String[] updated = keysOf(info);
+        keysByUser.compute(userKey, (key, previous) -> {
+            final Set<String> retained = new HashSet<>(List.of(updated));
+            for (final String added : updated) {
+                if (keys.add(added)) {
+                    size.incrementAndGet();
+                }
+            }
+            if (previous != null) {
+                for (final String stale : previous) {
+                    if (!retained.contains(stale) && keys.remove(stale)) {
+                        size.decrementAndGet();
+                    }
+                }
+            }
+            return updated.length == 0 ? null : updated;
+        });
+    }
+
+    /**
+     * Removes a user's repositories from the index.
+     *
+     * @param userKey the normalized cache key of the user
+     */
+    void remove(final String userKey) {
+        keysByUser.computeIfPresent(userKey, (key, previous) -> {
+            for (final String stale : previous) {
+                if (keys.remove(stale)) {
+                    size.decrementAndGet();
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Finds repositories whose name starts with a prefix.
+     *
+     * @param prefix the case-insensitive name prefix; must not be empty
+     * @param limit  the maximum number of results
+     * @return {@code owner/name} of the matching repositories, ordered by name, then owner
+     */
+    List<String> search(final String prefix, final int limit) {
+        final String lowerPrefix = prefix.toLowerCase(Locale.ROOT);
+        final List<String> results = new ArrayList<>(Math.min(limit, 64));
+        for (final String key : keys.subSet(lowerPrefix, true, lowerPrefix + Character.MAX_VALUE, false)) {
+            if (results.size() >= limit) {
+                break;
+            }
+            results.add(key.substring(key.indexOf(SEPARATOR) + 1));
+        }
+        return results;
+    }
+
+    /**
+     * Returns the number of indexed repositories.
+     *
+     * @return the key count
+     */
+    long size() {
+        return size.get();
+    }
+
+    private static String[] keysOf(final GitHubInfo info) {
+        final List<GitHubRepository> repositories = info.getRepositories();
+        if (repositories == null || repositories.isEmpty() || info.getUserName() == null) {
+            return NO_KEYS;
+        }
+        final List<String> result = new ArrayList<>(repositories.size());
+        for (final GitHubRepository repository : repositories) {
+            final String name = repository.getName();
+            if (name != null && !name.isEmpty()) {
+                result.add(name.toLowerCase(Locale.ROOT) + SEPARATOR + info.getUserName() + '/' + name);
+            }
+        }
+        return result.toArray(NO_KEYS);
+    }
+}
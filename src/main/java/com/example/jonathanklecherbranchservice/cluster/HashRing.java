@@ -0,0 +1,83 @@
+package com.example.jonathanklecherbranchservice.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Consistent-hash ring that assigns every username to one member.
+ * <p>
+ * Each member is placed on a 64-bit ring at {@code virtualNodes} points, hashed from
+ * {@code member#i}; a key belongs to the member of the first point at or after the key's hash,
+ * wrapping around. Virtual nodes even out the share of each member, and adding or removing a
+ * member moves only the keys next to its points, about {@code 1/n} of them. Every instance given
+ * the same members builds the same ring.
+ * <p>
+ * The ring is immutable: points are a sorted {@code long[]} searched by bisection, with the owner of
+ * each point in a parallel array. Keys are compared case-insensitively, as GitHub usernames are.
+ */
+final class HashRing {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final long[] points;
+    private final String[] owners;
+
+    /**
+     * Builds the ring.
+     *
+     * @param members      the members, in any order
+     * @param virtualNodes the number of points per member
+     * @throws IllegalArgumentException if there are no members or no points per member
+     */
+    HashRing(final List<String> members, final int virtualNodes) {
+        if (members.isEmpty() || virtualNodes < 1) {
+            throw new IllegalArgumentException("A hash ring needs at least one member and one virtual node");
+        }
+        final long[][] entries = new long[members.size() * virtualNodes][];
+        final List<String> sorted = members.stream().sorted().toList();
+        for (int m = 0; m < sorted.size(); m++) {
+            for (int v = 0; v < virtualNodes; v++) {
+                entries[m * virtualNodes + v] = new long[] {hash(sorted.get(m) + '#' + v), m};
+            }
+        }
+        Arrays.sort(entries, (a, b) -> Long.compare(a[0], b[0]));
+        this.points = new long[entries.length];
+        this.owners = new String[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            points[i] = entries[i][0];
+            owners[i] = sorted.get((int) entries[i][1]);
+        }
+    }
+
+    /**
+     * Returns the member that owns a key.
+     *
+     * @param key the key, compared case-insensitively
+     * @return the owning member
+     */
+    String owner(final String key) {
+        final int found = Arrays.binarySearch(points, hash(key.toLowerCase(Locale.ROOT)));
+        final int index = found >= 0 ? found : -found - 1;
+        return owners[index == points.length ? 0 : index];
+    }
+
+    /**
+     * 64-bit FNV-1a of the UTF-8 bytes, finalized with the MurmurHash3 mixer so that similar
+     * strings land far apart on the ring.
+     */
+    private static long hash(final String value) {
+        long hash = FNV_OFFSET;
+        for (final byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
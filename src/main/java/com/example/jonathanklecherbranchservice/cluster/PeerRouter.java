@@ -0,0 +1,235 @@
+package com.example.jonathanklecherbranchservice.cluster;
+
+import com.example.jonathanklecherbranchservice.cache.CacheEntry;
+import com.example.jonathanklecherbranchservice.entity.GitHubInfo;
+import com.example.jonathanklecherbranchservice.service.GitHubServiceException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Routes cache misses to the replica that owns the username, so that a user is fetched from GitHub
+ * by one replica instead of by each of them.
+ * <p>
+ * With {@code github.cluster.enabled=true}, every replica is given the same static member list
+ * ({@code github.cluster.peers}, base URLs) and its own URL ({@code github.cluster.self}). Usernames
+ * are assigned to members by a {@link HashRing}. A replica that needs a user it does not own asks
+ * the owner with {@code GET <owner>/users/{userName}}, and caches the answer locally, which makes
+ * its own cache a near-cache of the owner's. The owner serves the request from its cache or GitHub
+ * as usual, but never forwards it again. Its response carries when it fetched the profile and the
+ * repositories ({@value #PROFILE_FETCHED_AT_HEADER}, {@value #REPOSITORIES_FETCHED_AT_HEADER}), and
+ * the copy keeps those times, so it expires when the owner's entry does.
+ * <p>
+ * Forwarded requests carry the shared {@code github.cluster.secret} in the {@value #PEER_HEADER}
+ * header. Requests with a valid secret are never forwarded and are not charged to client quotas,
+ * since the replica that forwarded them already charged the client. If the owner cannot be
+ * reached or fails, the replica falls back to fetching from GitHub itself, so a down replica costs
+ * extra upstream calls rather than errors.
+ */
+@Component
+public class PeerRouter implements MeterBinder {
+
+    /**
+     * The header that marks, and authenticates, a request forwarded by another replica.
+     */
+    public static final String PEER_HEADER = "X-GitHub-Info-Peer";
+
+    /**
+     * The response header with when the served profile was fetched from GitHub, in epoch milliseconds.
+     */
+    public static final String PROFILE_FETCHED_AT_HEADER = "X-GitHub-Info-Profile-Fetched-At";
+
+    /**
+     * The response header with when the served repository list was fetched from GitHub, in epoch milliseconds.
+     */
+    public static final String REPOSITORIES_FETCHED_AT_HEADER = "X-GitHub-Info-Repositories-Fetched-At";
+
+    private static final String USERS_PATH = "/users/";
+
+    private final boolean enabled;
+    private final String self;
+    private final HashRing ring;
+    private final byte[] secret;
+    private final RestTemplate restTemplate;
+    private final LongAdder forwarded = new LongAdder();
+    private final LongAdder notFound = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    /**
+     * Creates the router.
+     *
+     * @param enabled      whether peer mode is enabled
+     * @param self         this replica's base URL, as it appears in {@code peers}
+     * @param peers        comma-separated base URLs of all replicas; this one is added if missing
+     * @param virtualNodes the number of ring points per replica
+     * @param secret       the shared secret that authenticates forwarded requests; required when enabled
+     * @param timeout      the connect and read timeout for forwarded requests
+     * @throws IllegalArgumentException if peer mode is enabled without its own URL or a secret
+     */
+    @Autowired
+    public PeerRouter(@Value("${github.cluster.enabled:false}") final boolean enabled,
+                      @Value("${github.cluster.self:}") final String self,
+                      @Value("${github.cluster.peers:}") final String peers,
+                      @Value("${github.cluster.virtual-nodes:128}") final int virtualNodes,
+                      @Value("${github.cluster.secret:}") final String secret,
+                      @Value("${github.cluster.timeout:2s}") final Duration timeout) {
+        this.enabled = enabled;
+        this.self = normalize(self);
+        if (!enabled) {
+            this.ring = null;
+            this.secret = new byte[0];
+            this.restTemplate = null;
+            return;
+        }
+        if (this.self.isEmpty() || secret.isBlank()) {
+            throw new IllegalArgumentException("github.cluster.self and github.cluster.secret are required in peer mode");
+        }
+        final List<String> members = new ArrayList<>();
+        for (final String peer : peers.split(",")) {
+            final String member = normalize(peer);
+            if (!member.isEmpty() && !members.contains(member)) {
+                members.add(member);
+            }
+        }
+        if (!members.contains(this.self)) {
+            members.add(this.self);
+        }
+        this.ring = new HashRing(members, virtualNodes);
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        final JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(
+                HttpClient.newBuilder().connectTimeout(timeout).build());
+        requestFactory.setReadTimeout(timeout);
+        this.restTemplate = new RestTemplate(requestFactory);
+    }
+
+    // ========== PUBLIC METHODS ==========
+
+    /**
+     * Returns whether a request was forwarded by another replica with the shared secret.
+     *
+     * @param request the request
+     * @return {@code true} for an authenticated forwarded request
+     */
+    public boolean isPeerRequest(final HttpServletRequest request) {
+        if (!enabled) {
+            return false;
+        }
+        final String header = request.getHeader(PEER_HEADER);
+        return header != null && MessageDigest.isEqual(secret, header.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the replica a user's misses should be forwarded to.
+     *
+     * @param userName the GitHub username
+     * @return the owner's base URL, or {@code null} if peer mode is off or this replica owns the user
+     */
+    public String ownerOf(final String userName) {
+        if (!enabled) {
+            return null;
+        }
+        final String owner = ring.owner(userName);
+        return self.equals(owner) ? null : owner;
+    }
+
+    /**
+     * Fetches a user's profile and repositories from the replica that owns it.
+     * <p>
+     * The entry keeps the owner's fetch times. A time the owner did not send, or one ahead of this
+     * replica's clock, is taken as now.
+     *
+     * @param owner    the owner's base URL, from {@link #ownerOf(String)}
+     * @param userName the GitHub username
+     * @return the user with the owner's fetch times, or {@code null} if the owner could not answer
+     *         and the caller should fetch from GitHub itself
+     * @throws GitHubServiceException with {@code 404} if the owner reports that the user does not exist
+     */
+    public CacheEntry fetchFromOwner(final String owner, final String userName) throws GitHubServiceException {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.set(PEER_HEADER, new String(secret, StandardCharsets.UTF_8));
+        try {
+            final ResponseEntity<GitHubInfo> response = restTemplate.exchange(owner + USERS_PATH + userName,
+                    HttpMethod.GET, new HttpEntity<>(headers), GitHubInfo.class);
+            final GitHubInfo info = response.getBody();
+            if (info == null) {
+                failed.increment();
+                return null;
+            }
+            forwarded.increment();
+            final long now = System.currentTimeMillis();
+            return new CacheEntry(info,
+                    fetchedAt(response.getHeaders(), PROFILE_FETCHED_AT_HEADER, now),
+                    fetchedAt(response.getHeaders(), REPOSITORIES_FETCHED_AT_HEADER, now));
+        } catch (final HttpClientErrorException.NotFound exception) {
+            notFound.increment();
+            throw new GitHubServiceException("GitHub user not found", HttpStatus.NOT_FOUND, exception);
+        } catch (final RestClientException exception) {
+            failed.increment();
+            return null;
+        }
+    }
+
+    /**
+     * Registers {@code github.cluster.forwards{outcome=ok|not_found|failed}}.
+     *
+     * @param registry the meter registry
+     */
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        FunctionCounter.builder("github.cluster.forwards", forwarded, LongAdder::sum)
+                .description("Cache misses forwarded to the owning replica")
+                .tag("outcome", "ok")
+                .register(registry);
+        FunctionCounter.builder("github.cluster.forwards", notFound, LongAdder::sum)
+                .description("Cache misses forwarded to the owning replica")
+                .tag("outcome", "not_found")
+                .register(registry);
+        FunctionCounter.builder("github.cluster.forwards", failed, LongAdder::sum)
+                .description("Cache misses forwarded to the owning replica")
+                .tag("outcome", "failed")
+                .register(registry);
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    private static long fetchedAt(final HttpHeaders headers, final String name, final long now) {
+        final String value = headers.getFirst(name);
+        if (value == null) {
+            return now;
+        }
+        try {
+            return Math.min(now, Long.parseLong(value.trim()));
+        } catch (final NumberFormatException invalid) {
+            return now;
+        }
+    }
+
+    private static String normalize(final String url) {
+        String trimmed = url.trim();
+        while (trimmed.endsWith("/")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1);
+        }
+        return trimmed;
+    }
+}
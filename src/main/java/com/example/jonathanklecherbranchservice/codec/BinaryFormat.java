@@ -0,0 +1,85 @@
+package com.example.jonathanklecherbranchservice.codec;
+
+import org.springframework.http.MediaType;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Binary response formats offered to internal callers as an alternative to JSON text.
+ * <p>
+ * Each format encodes the same Jackson data model as the JSON response, so the schema is identical;
+ * only the wire encoding differs. Callers opt in with an {@code Accept} header naming the format.
+ */
+public enum BinaryFormat {
+
+    /** Jackson Smile, a binary JSON encoding with back-references for repeated names and values. */
+    SMILE(new MediaType("application", "x-jackson-smile"), SmileMapper.builder().build()),
+
+    /** CBOR (RFC 8949), the IETF standard binary JSON-like encoding. */
+    CBOR(MediaType.APPLICATION_CBOR, CBORMapper.builder().build());
+
+    private final MediaType mediaType;
+    private final ObjectMapper mapper;
+
+    BinaryFormat(final MediaType mediaType, final ObjectMapper mapper) {
+        this.mediaType = mediaType;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Returns the media type of this format.
+     *
+     * @return the media type
+     */
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Serializes a value in this format.
+     *
+     * @param value the value to encode
+     * @return the encoded bytes
+     */
+    public byte[] encode(final Object value) {
+        return mapper.writeValueAsBytes(value);
+    }
+
+    /**
+     * Picks the binary format a caller prefers, if any.
+     * <p>
+     * Accepted media types are ranked by quality; the first that is either a binary format or
+     * JSON-compatible (including wildcards) decides. Missing or malformed headers mean JSON.
+     *
+     * @param accept the raw {@code Accept} header, may be {@code null}
+     * @return the preferred binary format, or {@code null} if the caller should get JSON
+     */
+    public static BinaryFormat negotiate(final String accept) {
+        if (accept == null || accept.isBlank()) {
+            return null;
+        }
+        final List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (final IllegalArgumentException malformed) {
+            return null;
+        }
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (final MediaType candidate : accepted) {
+            if (candidate.getQualityValue() <= 0 || candidate.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return null;
+            }
+            for (final BinaryFormat format : values()) {
+                if (format.mediaType.equalsTypeAndSubtype(candidate)) {
+                    return format;
+                }
+            }
+        }
+        return null;
+    }
+}
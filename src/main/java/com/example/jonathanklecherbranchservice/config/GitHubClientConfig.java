@@ -0,0 +1,46 @@
+package com.example.jonathanklecherbranchservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+/**
+ * HTTP client configuration for calls to the GitHub API.
+ * <p>
+ * The {@link RestTemplate} is backed by the JDK {@link HttpClient} rather than
+ * {@code HttpURLConnection}. The JDK client blocks by parking, so a virtual thread waiting on
+ * GitHub unmounts from its carrier instead of pinning it, and a blocked call can be cancelled by
+ * interrupting the calling thread. When {@code spring.threads.virtual.enabled} is set, the client's
+ * own internal tasks also run on virtual threads.
+ */
+@Configuration
+public class GitHubClientConfig {
+
+    /**
+     * Creates the {@code RestTemplate} used by {@code GitHubService} for upstream calls.
+     *
+     * @param virtualThreads whether the application runs in virtual-thread mode
+     * @param connectTimeout the TCP connect timeout for GitHub API calls
+     * @param readTimeout    the response timeout for GitHub API calls
+     * @return the configured {@code RestTemplate}
+     */
+    @Bean
+    public RestTemplate gitHubRestTemplate(
+            @Value("${spring.threads.virtual.enabled:false}") final boolean virtualThreads,
+            @Value("${github.upstream.connect-timeout:5s}") final Duration connectTimeout,
+            @Value("${github.upstream.read-timeout:10s}") final Duration readTimeout) {
+        final HttpClient.Builder builder = HttpClient.newBuilder().connectTimeout(connectTimeout);
+        if (virtualThreads) {
+            builder.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+        final JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(builder.build());
+        requestFactory.setReadTimeout(readTimeout);
+        return new RestTemplate(requestFactory);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.jonathanklecherbranchservice.config;
+
+import com.example.jonathanklecherbranchservice.entity.GitHubInfo;
+import com.example.jonathanklecherbranchservice.entity.GitHubRepository;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.info.Contact;
+import io.swagger.v3.oas.models.info.Info;
+import io.swagger.v3.oas.models.info.License;
+import io.swagger.v3.oas.models.servers.Server;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * GraalVM native-image hints for types that are only reached through reflection.
+ * <p>
+ * Spring AOT discovers beans on its own, but it cannot see that Jackson serializes
+ * {@link GitHubInfo} and {@link GitHubRepository} reflectively, or that springdoc walks the
+ * OpenAPI model built in {@link OpenAPIConfig}. Without these hints the native image would
+ * return empty JSON objects and an empty API document. The hints are ignored on the JVM.
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeHintsConfig.GitHubRuntimeHints.class)
+public class NativeHintsConfig {
+
+    /**
+     * Registers reflection and resource hints for JSON binding and the Swagger UI.
+     */
+    static class GitHubRuntimeHints implements RuntimeHintsRegistrar {
+
+        private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+        /**
+         * Registers the hints.
+         *
+         * @param hints       the hints to contribute to
+         * @param classLoader the class loader used by the AOT engine
+         */
+        @Override
+        public void registerHints(final RuntimeHints hints, final ClassLoader classLoader) {
+            bindingRegistrar.registerReflectionHints(hints.reflection(),
+                    GitHubInfo.class, GitHubRepository.class,
+                    OpenAPI.class, Info.class, Contact.class, License.class, Server.class);
+            hints.reflection().registerType(OpenAPIConfig.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+            hints.resources().registerPattern("META-INF/resources/webjars/swagger-ui/**");
+        }
+    }
+}
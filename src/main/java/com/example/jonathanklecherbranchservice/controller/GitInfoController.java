@@ -1,34 +1,87 @@
 package com.example.jonathanklecherbranchservice.controller;
 
+import com.example.jonathanklecherbranchservice.cache.CacheEntry;
+import com.example.jonathanklecherbranchservice.cache.GitHubInfoCache;
+import com.example.jonathanklecherbranchservice.cache.RepositoryIndex;
+import com.example.jonathanklecherbranchservice.cluster.PeerRouter;
+import com.example.jonathanklecherbranchservice.codec.BinaryFormat;
+import com.example.jonathanklecherbranchservice.enrichment.RepositoryEnricher;
 import com.example.jonathanklecherbranchservice.entity.GitHubInfo;
+import com.example.jonathanklecherbranchservice.entity.GitHubRepository;
+import com.example.jonathanklecherbranchservice.limiter.AdaptiveConcurrencyLimiter;
+import com.example.jonathanklecherbranchservice.limiter.ClientQuotas;
 import com.example.jonathanklecherbranchservice.service.GitHubService;
 import com.example.jonathanklecherbranchservice.service.GitHubServiceException;
+import com.example.jonathanklecherbranchservice.service.UpstreamLane;
+import com.example.jonathanklecherbranchservice.timing.RequestTimings;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * REST controller for GitHub user information endpoints.
  * <p>
  * This controller handles HTTP requests to retrieve GitHub user profile information and repositories.
  * It validates usernames before making API calls and maintains a local cache to provide cached results
- * when the GitHub API is unavailable. The cache is thread-safe using {@link ConcurrentHashMap}.
+ * when the GitHub API is unavailable. The cache is a thread-safe {@link GitHubInfoCache}.
  * <p>
- * Endpoint: GET /users/{userName} - Retrieve GitHub user profile and repositories
+ * Valid requests pass through an {@link AdaptiveConcurrencyLimiter}. When the limit is reached the
+ * request is shed at once: answered from the cache if an entry exists, otherwise rejected with
+ * {@code 503 Service Unavailable} and a {@code Retry-After} header.
+ * <p>
+ * Requests that cannot be answered from a fresh cache entry are first charged to their client's
+ * {@link ClientQuotas} bucket. Over-quota clients still get stale cached entries, and otherwise
+ * {@code 429 Too Many Requests} with a {@code Retry-After} header; fresh cache hits are never charged.
+ * <p>
+ * In peer mode the {@link PeerRouter} assigns every username to one replica. Other replicas fetch
+ * the user from its owner instead of GitHub and cache the answer with the owner's fetch times, which
+ * every successful response carries in headers; requests forwarded by a peer are served locally and
+ * are not charged to a client quota.
+ * <p>
+ * Successful responses are JSON by default. Callers that send {@code Accept: application/x-jackson-smile}
+ * or {@code Accept: application/cbor} get the same schema in that {@link BinaryFormat}; the encoding is
+ * memoized on the cache entry and reused across requests.
+ * <p>
+ * Fresh cache entries are served without calling GitHub. The profile and the repository list have
+ * separate TTLs ({@code github.cache.profile-ttl} and {@code github.cache.ttl}); when one goes stale
+ * only that part is refetched, and {@code /users/{userName}/repos} ignores the profile's age.
+ * User data carries a strong {@code ETag} (a content hash of the entry) and a {@code Cache-Control}
+ * header derived from the cache TTL, so a conditional {@code If-None-Match} request for unchanged
+ * data is answered with {@code 304 Not Modified} and no body.
+ * <p>
+ * With {@code ?enrich=languages} each repository also carries its languages, looked up by the
+ * {@link RepositoryEnricher} within a per-request deadline. Enrichment is skipped for shed requests.
+ * <p>
+ * {@code prefix}, {@code sort} and {@code limit} select repositories server-side. They are answered
+ * from the {@link RepositoryIndex} memoized on the cache entry, so a top-N query costs O(log n + k)
+ * instead of filtering and serializing the whole list. Filtering happens before enrichment, so only
+ * the selected repositories are enriched.
+ * <p>
+ * Endpoints:
+ * <ul>
+ *   <li>GET /users/{userName} - Retrieve GitHub user profile and repositories</li>
+ *   <li>GET /users/{userName}/repos - Retrieve only the repositories</li>
+ * </ul>
  */
 @RestController
 @RequestMapping("/users")
@@ -38,11 +91,25 @@ public class GitInfoController {
     private static final String ERROR = "error";
     private static final String STATUS = "status";
     private static final String CACHED = "cached";
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
 
     @Autowired
     private GitHubService gitHubService;
 
-    private final Map<String, GitHubInfo> cache = new ConcurrentHashMap<>();
+    @Autowired
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    @Autowired
+    private GitHubInfoCache cache;
+
+    @Autowired
+    private RepositoryEnricher enricher;
+
+    @Autowired
+    private ClientQuotas clientQuotas;
+
+    @Autowired
+    private PeerRouter peerRouter;
 
     // ========== PUBLIC METHODS ==========
 
@@ -51,11 +118,25 @@ public class GitInfoController {
      * <p>
      * This endpoint performs the following:
      * 1. Validates the username format against GitHub username rules
-     * 2. Fetches user data and repositories from GitHub API (via GitHubService)
-     * 3. Returns cached data if available and the API call fails
-     * 4. Returns appropriate HTTP status codes based on the result
+     * 2. Returns the cached entry if it is still fresh
+     * 3. Otherwise fetches user data and repositories from GitHub API (via GitHubService)
+     * 4. Returns cached data if available and the API call fails
+     * 5. Returns appropriate HTTP status codes based on the result
+     * <p>
+     * If too many requests are already in flight, the request is shed: cached data is returned
+     * if available, otherwise 503 with a {@code Retry-After} header.
+     * <p>
+     * User data is returned as Smile or CBOR instead of JSON when the {@code Accept} header prefers it,
+     * or as 304 Not Modified when {@code If-None-Match} names its current {@code ETag}.
      *
      * @param userName the GitHub username to look up (must be 1-39 chars, alphanumeric + hyphens)
+     * @param enrich optional enrichments to add to each repository; only {@code languages} is supported
+     * @param prefix optional case-insensitive repository name prefix
+     * @param sort optional repository order: {@code stars}, {@code updated} or {@code name}
+     * @param limit optional maximum number of repositories
+     * @param accept the {@code Accept} header, used to pick a binary format for user data
+     * @param ifNoneMatch the entity tags from {@code If-None-Match}, if any
+     * @param request the request, used to identify the client for its quota
      * @return {@code ResponseEntity} with GitHubInfo on success (200 OK),
      *         cached data if available (with error and 404),
      *         or error message if invalid username (400 Bad Request)
@@ -70,20 +151,35 @@ public class GitInfoController {
         @ApiResponse(
             responseCode = "200",
             description = "User found successfully with profile and repositories",
-            content = @Content(schema = @Schema(implementation = GitHubInfo.class))
+            content = {
+                @Content(mediaType = "application/json", schema = @Schema(implementation = GitHubInfo.class)),
+                @Content(mediaType = "application/x-jackson-smile", schema = @Schema(implementation = GitHubInfo.class)),
+                @Content(mediaType = "application/cbor", schema = @Schema(implementation = GitHubInfo.class))
+            }
+        ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "User data unchanged since the ETag given in If-None-Match"
         ),
         @ApiResponse(
             responseCode = "400",
-            description = "Invalid GitHub username format. Username must be 1-39 characters, " +
-                         "alphanumeric + hyphens, no leading/trailing hyphens, no consecutive hyphens"
+            description = "Invalid GitHub username format (username must be 1-39 characters, " +
+                         "alphanumeric + hyphens, no leading/trailing hyphens, no consecutive hyphens), " +
+                         "or invalid enrich, sort or limit parameter"
         ),
         @ApiResponse(
             responseCode = "404",
             description = "User not found on GitHub. Returns cached data if available."
         ),
+        @ApiResponse(
+            responseCode = "429",
+            description = "Client quota for uncached lookups exceeded (with Retry-After). " +
+                          "Returns cached data if available."
+        ),
         @ApiResponse(
             responseCode = "503",
-            description = "GitHub API service unavailable. Returns cached data if available."
+            description = "GitHub API service unavailable, or too many requests in flight (with Retry-After). " +
+                          "Returns cached data if available."
         )
     })
     public ResponseEntity<?> getGitInfo(
@@ -94,21 +190,231 @@ public class GitInfoController {
             required = true,
             example = "octocat"
         )
-        @PathVariable final String userName) {
+        @PathVariable final String userName,
+        @Parameter(
+            name = "enrich",
+            description = "Optional per-repository enrichments. Supported: 'languages'. " +
+                         "Repositories not enriched before the deadline are returned without them.",
+            example = "languages"
+        )
+        @RequestParam(name = "enrich", required = false) final List<String> enrich,
+        @Parameter(name = "prefix", description = "Only repositories whose name starts with this (case-insensitive)")
+        @RequestParam(name = "prefix", required = false) final String prefix,
+        @Parameter(name = "sort", description = "Repository order: 'stars', 'updated' or 'name'. Default: GitHub's order")
+        @RequestParam(name = "sort", required = false) final String sort,
+        @Parameter(name = "limit", description = "Maximum number of repositories returned", example = "10")
+        @RequestParam(name = "limit", required = false) final Integer limit,
+        @Parameter(hidden = true)
+        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) final String accept,
+        @Parameter(hidden = true)
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final List<String> ifNoneMatch,
+        final HttpServletRequest request) {
+        return serve(userName, enrich, prefix, sort, limit, false, accept, ifNoneMatch, request);
+    }
+
+    /**
+     * Retrieves only the repositories of a GitHub user, optionally filtered, sorted and limited.
+     * <p>
+     * Served exactly like {@code GET /users/{userName}} (cache, concurrency limit, formats and
+     * {@code ETag}s), but the body is the repository array alone.
+     *
+     * @param userName the GitHub username to look up (must be 1-39 chars, alphanumeric + hyphens)
+     * @param enrich optional enrichments to add to each repository; only {@code languages} is supported
+     * @param prefix optional case-insensitive repository name prefix
+     * @param sort optional repository order: {@code stars}, {@code updated} or {@code name}
+     * @param limit optional maximum number of repositories
+     * @param accept the {@code Accept} header, used to pick a binary format for user data
+     * @param ifNoneMatch the entity tags from {@code If-None-Match}, if any
+     * @param request the request, used to identify the client for its quota
+     * @return {@code ResponseEntity} with the repositories on success, otherwise as for the user endpoint
+     */
+    @GetMapping("/{userName}/repos")
+    @Operation(
+        summary = "Get a GitHub user's repositories",
+        description = "Retrieves a user's repositories, optionally filtered by name prefix, sorted and limited " +
+                      "server-side from per-user indexes."
+    )
+    @ApiResponses({
+        @ApiResponse(
+            responseCode = "200",
+            description = "Repositories of the user",
+            content = @Content(mediaType = "application/json",
+                    array = @ArraySchema(schema = @Schema(implementation = GitHubRepository.class)))
+        ),
+        @ApiResponse(responseCode = "304", description = "Repositories unchanged since the ETag given in If-None-Match"),
+        @ApiResponse(responseCode = "400", description = "Invalid username or invalid enrich, sort or limit parameter"),
+        @ApiResponse(responseCode = "404", description = "User not found on GitHub"),
+        @ApiResponse(responseCode = "429", description = "Client quota for uncached lookups exceeded"),
+        @ApiResponse(responseCode = "503", description = "GitHub API unavailable or too many requests in flight")
+    })
+    public ResponseEntity<?> getRepositories(
+        @Parameter(name = "userName", description = "GitHub username (login)", required = true, example = "octocat")
+        @PathVariable final String userName,
+        @Parameter(name = "enrich", description = "Optional per-repository enrichments. Supported: 'languages'.")
+        @RequestParam(name = "enrich", required = false) final List<String> enrich,
+        @Parameter(name = "prefix", description = "Only repositories whose name starts with this (case-insensitive)")
+        @RequestParam(name = "prefix", required = false) final String prefix,
+        @Parameter(name = "sort", description = "Repository order: 'stars', 'updated' or 'name'. Default: GitHub's order")
+        @RequestParam(name = "sort", required = false) final String sort,
+        @Parameter(name = "limit", description = "Maximum number of repositories returned", example = "10")
+        @RequestParam(name = "limit", required = false) final Integer limit,
+        @Parameter(hidden = true)
+        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) final String accept,
+        @Parameter(hidden = true)
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final List<String> ifNoneMatch,
+        final HttpServletRequest request) {
+        return serve(userName, enrich, prefix, sort, limit, true, accept, ifNoneMatch, request);
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    /**
+     * Validates a request and serves it from the cache, the upstream, the over-quota or the shed path.
+     *
+     * @param userName the GitHub username to look up
+     * @param enrich the {@code enrich} parameter values, if any
+     * @param prefix the {@code prefix} parameter, if any
+     * @param sort the {@code sort} parameter, if any
+     * @param limit the {@code limit} parameter, if any
+     * @param repositoriesOnly whether the body is the repository list alone
+     * @param accept the {@code Accept} header, if any
+     * @param ifNoneMatch the entity tags from {@code If-None-Match}, if any
+     * @param request the request, used to identify the client for its quota
+     * @return {@code ResponseEntity} with appropriate status and body
+     */
+    private ResponseEntity<?> serve(final String userName, final List<String> enrich, final String prefix,
+                                    final String sort, final Integer limit, final boolean repositoriesOnly,
+                                    final String accept, final List<String> ifNoneMatch,
+                                    final HttpServletRequest request) {
         final ResponseEntity<?> result;
-        if (isValidGitHubUserName(userName)) {
-            result = processValidUserName(userName);
+        final boolean valid;
+        try (RequestTimings.Span ignored = RequestTimings.start("validate")) {
+            valid = isValidGitHubUserName(userName);
+        }
+        if (!valid) {
+            return ResponseEntity.badRequest().body(Map.of(ERROR, "Invalid GitHub username"));
+        }
+        final ResponseView view;
+        try {
+            view = ResponseView.parse(enrich, prefix, sort, limit, repositoriesOnly);
+        } catch (final IllegalArgumentException invalid) {
+            return ResponseEntity.badRequest().body(Map.of(ERROR, invalid.getMessage()));
+        }
+        final BinaryFormat format = BinaryFormat.negotiate(accept);
+        final CacheEntry cached;
+        try (RequestTimings.Span ignored = RequestTimings.start("cache")) {
+            cached = cache.get(userName);
+        }
+        if (cached != null && isFresh(cached, view)) {
+            return ok(cached, view, format, ifNoneMatch);
+        }
+        final boolean peerRequest = peerRouter.isPeerRequest(request);
+        final long quotaWaitNanos = peerRequest ? 0 : clientQuotas.tryAcquire(clientQuotas.identify(request));
+        if (quotaWaitNanos > 0) {
+            result = overQuota(cached, view, format, ifNoneMatch, quotaWaitNanos);
+        } else if (concurrencyLimiter.tryAcquire()) {
+            final String owner = peerRequest ? null : peerRouter.ownerOf(userName);
+            result = processWithinLimit(userName, cached, owner, view, format, ifNoneMatch);
         } else {
-            result = ResponseEntity.badRequest().body(Map.of(ERROR, "Invalid GitHub username"));
+            result = shedRequest(cached, view, format, ifNoneMatch);
         }
         return result;
     }
 
-    // ========== PRIVATE HELPER METHODS ==========
+    /**
+     * Processes an admitted request and reports its outcome to the concurrency limiter.
+     * <p>
+     * Server errors (5xx, e.g. upstream failures or timeouts) count as dropped requests and shrink
+     * the limit; every other outcome feeds its latency into the limit calculation.
+     *
+     * @param userName the validated GitHub username
+     * @param cached the stale cached entry for the user, or {@code null}
+     * @param owner the peer replica that owns the user, or {@code null} to fetch locally
+     * @param view what the request asks to see of the user
+     * @param format the negotiated binary format, or {@code null} for JSON
+     * @param ifNoneMatch the entity tags from {@code If-None-Match}, if any
+     * @return {@code ResponseEntity} with appropriate status and body
+     */
+    private ResponseEntity<?> processWithinLimit(final String userName, final CacheEntry cached, final String owner,
+                                                 final ResponseView view, final BinaryFormat format,
+                                                 final List<String> ifNoneMatch) {
+        final long start = System.nanoTime();
+        ResponseEntity<?> result = null;
+        try {
+            result = processValidUserName(userName, cached, owner, view, format, ifNoneMatch);
+            return result;
+        } finally {
+            if (result == null || result.getStatusCode().is5xxServerError()) {
+                concurrencyLimiter.onDropped();
+            } else {
+                concurrencyLimiter.onSuccess(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Sheds a request that exceeded the concurrency limit without touching the upstream.
+     * <p>
+     * Returns the (stale) cached entry if one exists, otherwise 503 with a {@code Retry-After} header.
+     * Requested enrichments are skipped, since they would mean more upstream calls under overload.
+     *
+     * @param cached the cached entry for the user, or {@code null}
+     * @param view what the request asks to see of the user
+     * @param format the negotiated binary format, or {@code null} for JSON
+     * @param ifNoneMatch the entity tags from {@code If-None-Match}, if any
+     * @return {@code ResponseEntity} with cached data (200 or 304) or an overload error (503)
+     */
+    private ResponseEntity<?> shedRequest(final CacheEntry cached, final ResponseView view,
+                                          final BinaryFormat format, final List<String> ifNoneMatch) {
+        if (cached != null) {
+            concurrencyLimiter.recordServedFromCache();
+            return ok(cached, view.withoutEnrichment(), format, ifNoneMatch);
+        }
+        concurrencyLimiter.recordRejected();
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, concurrencyLimiter.getRetryAfter().toSeconds())))
+                .body(Map.of(
+                        ERROR, "Too many requests in flight, try again later",
+                        STATUS, HttpStatus.SERVICE_UNAVAILABLE.value(),
+                        CACHED, false
+                ));
+    }
+
+    /**
+     * Answers a request whose client is over its quota without touching the upstream.
+     * <p>
+     * Returns the stale cached entry if one exists, without enrichment, otherwise 429 with a
+     * {@code Retry-After} header for when the client's next token is due.
+     *
+     * @param cached the cached entry for the user, or {@code null}
+     * @param view what the request asks to see of the user
+     * @param format the negotiated binary format, or {@code null} for JSON
+     * @param ifNoneMatch the entity tags from {@code If-None-Match}, if any
+     * @param waitNanos the time until the client's next token
+     * @return {@code ResponseEntity} with cached data (200 or 304) or a quota error (429)
+     */
+    private ResponseEntity<?> overQuota(final CacheEntry cached, final ResponseView view, final BinaryFormat format,
+                                        final List<String> ifNoneMatch, final long waitNanos) {
+        if (cached != null) {
+            clientQuotas.recordServedFromCache();
+            return ok(cached, view.withoutEnrichment(), format, ifNoneMatch);
+        }
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.ceilDiv(waitNanos, NANOS_PER_SECOND)))
+                .body(Map.of(
+                        ERROR, "Client quota exceeded, try again later",
+                        STATUS, HttpStatus.TOO_MANY_REQUESTS.value(),
+                        CACHED, false
+                ));
+    }
 
     /**
      * Processes a valid GitHub username by fetching user data from the service.
      * <p>
+     * A stale cached entry is refreshed part by part: only the stale ones of its profile and
+     * repository list are fetched, and repositories only as far as they were updated since they were
+     * cached (see {@link GitHubService#refreshGitRepoInfo}).
+     * <p>
      * Handles both successful API calls and exceptions:
 
      * - Success: Caches the data and returns 200 OK
@@ -116,24 +422,188 @@ public class GitInfoController {
      * - Other errors: Returns cached data if available with error message and appropriate status
      *
      * @param userName the validated GitHub username
+     * @param cached the stale cached entry for the user, or {@code null}
+     * @param owner the peer replica that owns the user, or {@code null} to fetch locally
+     * @param view what the request asks to see of the user
+     * @param format the negotiated binary format, or {@code null} for JSON
+     * @param ifNoneMatch the entity tags from {@code If-None-Match}, if any
      * @return {@code ResponseEntity} with appropriate status and body
      */
-    private ResponseEntity<?> processValidUserName(final String userName) {
+    private ResponseEntity<?> processValidUserName(final String userName, final CacheEntry cached, final String owner,
+                                                   final ResponseView view, final BinaryFormat format,
+                                                   final List<String> ifNoneMatch) {
         ResponseEntity<?> result;
         try {
-            final GitHubInfo info = gitHubService.getGitInfoWithRepos(userName);
-            cache.put(userName, info);
-            result = ResponseEntity.ok(info);
+            result = ok(refresh(userName, cached, owner, view), view, format, ifNoneMatch);
         } catch (final GitHubServiceException exception) {
             if (exception.getStatus() == HttpStatus.NOT_FOUND) {
                 result = handleNotFound();
             } else {
-                result = handleServiceException(userName, exception);
+                result = handleServiceException(cached, exception);
             }
         }
         return result;
     }
 
+    /**
+     * Fetches what a request needs that is missing or stale in the cache and caches it.
+     * <p>
+     * A user owned by a peer replica is fetched whole from that replica; if it cannot answer, or
+     * this replica owns the user, it is fetched from GitHub. Responses with only the repository
+     * list never refetch the profile from GitHub.
+     *
+     * @param userName the validated GitHub username
+     * @param cached the stale cached entry for the user, or {@code null}
+     * @param owner the peer replica that owns the user, or {@code null} to fetch locally
+     * @param view what the request asks to see of the user
+     * @return the new cache entry
+     * @throws GitHubServiceException if an upstream call fails
+     */
+    private CacheEntry refresh(final String userName, final CacheEntry cached, final String owner, final ResponseView view)
+            throws GitHubServiceException {
+        if (owner != null) {
+            final CacheEntry fromOwner;
+            try (RequestTimings.Span ignored = RequestTimings.start("peer")) {
+                fromOwner = peerRouter.fetchFromOwner(owner, userName);
+            }
+            if (fromOwner != null) {
+                try (RequestTimings.Span ignored = RequestTimings.start("cache")) {
+                    return cache.putEntry(userName, fromOwner);
+                }
+            }
+        }
+        if (cached == null) {
+            final GitHubInfo info = gitHubService.getGitInfoWithRepos(userName);
+            try (RequestTimings.Span ignored = RequestTimings.start("cache")) {
+                return cache.put(userName, info);
+            }
+        }
+        final boolean profileStale = !view.isRepositoriesOnly() && !cache.isProfileFresh(cached);
+        final boolean repositoriesStale = !cache.isRepositoriesFresh(cached);
+        if (profileStale && repositoriesStale) {
+            final GitHubInfo info = gitHubService.refreshGitInfoWithRepos(userName, cached.getInfo(),
+                    cached.getRepositoriesFetchedAtMillis(), UpstreamLane.INTERACTIVE);
+            try (RequestTimings.Span ignored = RequestTimings.start("cache")) {
+                return cache.put(userName, info);
+            }
+        }
+        if (profileStale) {
+            final GitHubInfo profile = gitHubService.getGitInfo(userName);
+            try (RequestTimings.Span ignored = RequestTimings.start("cache")) {
+                return cache.putProfile(userName, cached, profile);
+            }
+        }
+        final List<GitHubRepository> repositories = gitHubService.refreshGitRepoInfo(userName,
+                cached.getInfo().getRepositories(), cached.getRepositoriesFetchedAtMillis(), UpstreamLane.INTERACTIVE);
+        try (RequestTimings.Span ignored = RequestTimings.start("cache")) {
+            return cache.putRepositories(userName, cached, repositories);
+        }
+    }
+
+    /**
+     * Returns whether a cached entry can answer a request without calling GitHub.
+     *
+     * @param cached the cached entry
+     * @param view what the request asks to see of the user
+     * @return {@code true} if every part the view needs is fresh
+     */
+    private boolean isFresh(final CacheEntry cached, final ResponseView view) {
+        return view.isRepositoriesOnly() ? cache.isRepositoriesFresh(cached) : cache.isFresh(cached);
+    }
+
+    /**
+     * Builds the response for a cache entry in the negotiated format.
+     * <p>
+     * Responses carry the {@code ETag} of what they hold (the entry, or only its repository list),
+     * {@code Cache-Control} with the remaining TTL as {@code max-age}, and {@code Vary: Accept}. If
+     * {@code If-None-Match} names the current tag the response is 304 Not Modified and nothing is
+     * serialized. Full responses also carry the entry's fetch times, which replicas forwarding to the
+     * owner of the user cache the entry with. Otherwise JSON is left to Spring's
+     * message converters and binary formats reuse the entry's memoized encoding.
+     * <p>
+     * A queried or enriched response is built on a copy of the entry, so it gets its own {@code ETag}
+     * and never changes what is cached for the base listing. Repositories are selected before they
+     * are enriched, so only the selected ones cost upstream calls.
+     *
+     * @param cachedEntry the cache entry to return
+     * @param view what the request asks to see of the user
+     * @param format the negotiated binary format, or {@code null} for JSON
+     * @param ifNoneMatch the entity tags from {@code If-None-Match}, if any
+     * @return {@code ResponseEntity} with the user info (200) or without a body (304)
+     */
+    private ResponseEntity<?> ok(final CacheEntry cachedEntry, final ResponseView view, final BinaryFormat format,
+                                 final List<String> ifNoneMatch) {
+        final CacheEntry entry = view(cachedEntry, view);
+        final String eTag = view.isRepositoriesOnly() ? entry.getRepositoriesETag(format) : entry.getETag(format);
+        final CacheControl cacheControl = CacheControl.maxAge(view.isRepositoriesOnly()
+                        ? cache.getRemainingRepositoriesTtl(entry)
+                        : cache.getRemainingTtl(entry))
+                .staleWhileRevalidate(cache.getStaleWhileRevalidate());
+        if (matchesAny(ifNoneMatch, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag).cacheControl(cacheControl).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        final ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(eTag).cacheControl(cacheControl).varyBy(HttpHeaders.ACCEPT)
+                .header(PeerRouter.PROFILE_FETCHED_AT_HEADER, Long.toString(entry.getProfileFetchedAtMillis()))
+                .header(PeerRouter.REPOSITORIES_FETCHED_AT_HEADER, Long.toString(entry.getRepositoriesFetchedAtMillis()));
+        if (format == null) {
+            return response.body(view.isRepositoriesOnly() ? entry.getInfo().getRepositories() : entry.getInfo());
+        }
+        final byte[] body;
+        try (RequestTimings.Span ignored = RequestTimings.start("encode")) {
+            body = view.isRepositoriesOnly() ? format.encode(entry.getInfo().getRepositories()) : entry.getEncoding(format);
+        }
+        return response.contentType(format.getMediaType()).body(body);
+    }
+
+    /**
+     * Applies a view's repository query and enrichments to a cache entry.
+     * <p>
+     * Returns the entry itself when the view asks for neither, so plain requests keep using its
+     * memoized {@code ETag} and encodings.
+     *
+     * @param cachedEntry the cached entry
+     * @param view what the request asks to see of the user
+     * @return the entry to respond with
+     */
+    private CacheEntry view(final CacheEntry cachedEntry, final ResponseView view) {
+        CacheEntry entry = cachedEntry;
+        if (view.queriesRepositories()) {
+            try (RequestTimings.Span ignored = RequestTimings.start("query")) {
+                final List<GitHubRepository> selected = cachedEntry.getRepositoryIndex()
+                        .query(view.getPrefix(), view.getSort(), view.getLimit());
+                entry = cachedEntry.withInfo(cachedEntry.getInfo().withRepositories(selected));
+            }
+        }
+        if (view.isWithLanguages()) {
+            try (RequestTimings.Span ignored = RequestTimings.start("enrich")) {
+                entry = entry.withInfo(enricher.withLanguages(entry.getInfo()));
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Checks {@code If-None-Match} against an entity tag using weak comparison, as RFC 9110 requires.
+     *
+     * @param ifNoneMatch the entity tags from {@code If-None-Match}, may be {@code null}
+     * @param eTag the current strong entity tag
+     * @return {@code true} if the client's copy is current
+     */
+    private static boolean matchesAny(final List<String> ifNoneMatch, final String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (final String candidate : ifNoneMatch) {
+            final String tag = candidate.trim();
+            if ("*".equals(tag) || eTag.equals(tag.startsWith("W/") ? tag.substring(2) : tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Handles 404 NOT_FOUND responses from the GitHub API.
      * <p>
@@ -158,16 +628,16 @@ public class GitInfoController {
      * the error message and HTTP status. If no cached data exists, returns only
      * the error details with the appropriate status code.
      *
-     * @param userName the GitHub username
+     * @param cached the stale cached entry the request already looked up, or {@code null}; the cache
+     *        is not read again, so the failed request counts as one cache lookup
      * @param exception the caught {@code GitHubServiceException}
      * @return {@code ResponseEntity} with cached data (if available) and error details
      */
-    private ResponseEntity<?> handleServiceException(final String userName, final GitHubServiceException exception) {
-        final GitHubInfo cached = cache.get(userName);
+    private ResponseEntity<?> handleServiceException(final CacheEntry cached, final GitHubServiceException exception) {
         if (cached != null) {
             return ResponseEntity.status(exception.getStatus()).body(
                     Map.of(
-                            "data", cached,
+                            "data", cached.getInfo(),
                             ERROR, exception.getMessage(),
                             STATUS, exception.getStatus().value(),
                             CACHED, true
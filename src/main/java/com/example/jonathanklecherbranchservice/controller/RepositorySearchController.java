@@ -0,0 +1,86 @@
+package com.example.jonathanklecherbranchservice.controller;
+
+import com.example.jonathanklecherbranchservice.cache.GitHubInfoCache;
+import com.example.jonathanklecherbranchservice.timing.RequestTimings;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Type-ahead search over the repository names of every cached user.
+ * <p>
+ * Searches are answered from the cache's in-memory name index only and never call GitHub, so
+ * results cover the users this service has seen, not all of GitHub. They are not admission
+ * controlled: a search is a lock-free range scan of at most {@code limit} keys.
+ * <p>
+ * Endpoint: GET /repos/search?q={prefix} - Find cached repositories by name prefix
+ */
+@RestController
+@RequestMapping("/repos")
+@Tag(name = "Repository Search", description = "Type-ahead search over cached repository names")
+public class RepositorySearchController {
+
+    private static final String ERROR = "error";
+    private static final int MAX_LIMIT = 100;
+
+    private final GitHubInfoCache cache;
+
+    /**
+     * Creates the controller.
+     *
+     * @param cache the user cache holding the name index
+     */
+    public RepositorySearchController(final GitHubInfoCache cache) {
+        this.cache = cache;
+    }
+
+    // ========== PUBLIC METHODS ==========
+
+    /**
+     * Finds cached repositories whose name starts with a prefix.
+     *
+     * @param query the case-insensitive name prefix
+     * @param limit the maximum number of results, 1 to 100
+     * @return 200 with {@code owner/name} of the matches ordered by name, 400 for an empty query or
+     *         bad limit, or 404 if repository search is disabled
+     */
+    @GetMapping("/search")
+    @Operation(summary = "Search cached repositories by name prefix",
+            description = "Type-ahead lookup over the repository names of all cached users; never calls GitHub")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "owner/name of the matching repositories, ordered by name"),
+        @ApiResponse(responseCode = "400", description = "Empty query or limit outside 1-100"),
+        @ApiResponse(responseCode = "404", description = "Repository search is disabled")
+    })
+    public ResponseEntity<?> search(
+        @Parameter(name = "q", description = "Repository name prefix (case-insensitive)", required = true, example = "spr")
+        @RequestParam(name = "q") final String query,
+        @Parameter(name = "limit", description = "Maximum number of results (1-100)", example = "10")
+        @RequestParam(name = "limit", defaultValue = "10") final int limit) {
+        if (!cache.isRepositorySearchEnabled()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(ERROR, "Repository search is disabled"));
+        }
+        if (query.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of(ERROR, "q must not be empty"));
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            return ResponseEntity.badRequest().body(Map.of(ERROR, "limit must be between 1 and " + MAX_LIMIT));
+        }
+        final List<String> results;
+        try (RequestTimings.Span ignored = RequestTimings.start("search")) {
+            results = cache.searchRepositories(query.trim(), limit);
+        }
+        return ResponseEntity.ok(results);
+    }
+}
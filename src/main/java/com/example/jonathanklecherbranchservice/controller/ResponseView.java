@@ -0,0 +1,99 @@
+package com.example.jonathanklecherbranchservice.controller;
+
+import com.example.jonathanklecherbranchservice.cache.RepositoryIndex;
+
+import java.util.List;
+
+/**
+ * What a request asks to see of a cached user: which repositories, in what order, with which
+ * enrichments, and whether only the repository list is returned.
+ * <p>
+ * Views are parsed once from the query parameters and threaded through the controller, so the
+ * fresh, admitted and shed paths all shape their responses the same way.
+ */
+final class ResponseView {
+
+    private static final String ENRICH_LANGUAGES = "languages";
+
+    private final String prefix;
+    private final RepositoryIndex.Sort sort;
+    private final int limit;
+    private final boolean withLanguages;
+    private final boolean repositoriesOnly;
+
+    private ResponseView(final String prefix, final RepositoryIndex.Sort sort, final int limit,
+                         final boolean withLanguages, final boolean repositoriesOnly) {
+        this.prefix = prefix;
+        this.sort = sort;
+        this.limit = limit;
+        this.withLanguages = withLanguages;
+        this.repositoriesOnly = repositoriesOnly;
+    }
+
+    /**
+     * Parses a view from request parameters.
+     *
+     * @param enrich           the {@code enrich} values, or {@code null}
+     * @param prefix           the {@code prefix} value, or {@code null}
+     * @param sort             the {@code sort} value, or {@code null}
+     * @param limit            the {@code limit} value, or {@code null}
+     * @param repositoriesOnly whether only the repository list is returned
+     * @return the view
+     * @throws IllegalArgumentException with a client-facing message if a parameter is invalid
+     */
+    static ResponseView parse(final List<String> enrich, final String prefix, final String sort, final Integer limit,
+                              final boolean repositoriesOnly) {
+        if (enrich != null && !enrich.stream().allMatch(ENRICH_LANGUAGES::equals)) {
+            throw new IllegalArgumentException("Unsupported enrichment, expected 'languages'");
+        }
+        if (limit != null && limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        final RepositoryIndex.Sort parsedSort;
+        try {
+            parsedSort = sort == null || sort.isBlank() ? null : RepositoryIndex.Sort.parse(sort);
+        } catch (final IllegalArgumentException unknown) {
+            throw new IllegalArgumentException("Unsupported sort, expected 'stars', 'updated' or 'name'", unknown);
+        }
+        return new ResponseView(prefix == null || prefix.isEmpty() ? null : prefix, parsedSort,
+                limit == null ? 0 : limit, enrich != null && !enrich.isEmpty(), repositoriesOnly);
+    }
+
+    /**
+     * Returns the same view without enrichments, for requests shed under overload.
+     *
+     * @return a view that makes no upstream calls
+     */
+    ResponseView withoutEnrichment() {
+        return withLanguages ? new ResponseView(prefix, sort, limit, false, repositoriesOnly) : this;
+    }
+
+    /**
+     * Returns whether the view selects or reorders repositories.
+     *
+     * @return {@code true} if a prefix, sort or limit was given
+     */
+    boolean queriesRepositories() {
+        return prefix != null || sort != null || limit > 0;
+    }
+
+    String getPrefix() {
+        return prefix;
+    }
+
+    RepositoryIndex.Sort getSort() {
+        return sort;
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    boolean isWithLanguages() {
+        return withLanguages;
+    }
+
+    boolean isRepositoriesOnly() {
+        return repositoriesOnly;
+    }
+}
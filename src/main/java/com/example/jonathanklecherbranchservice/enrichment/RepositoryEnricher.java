@@ -0,0 +1,209 @@
+package com.example.jonathanklecherbranchservice.enrichment;
+
+import com.example.jonathanklecherbranchservice.entity.GitHubInfo;
+import com.example.jonathanklecherbranchservice.entity.GitHubRepository;
+import com.example.jonathanklecherbranchservice.service.GitHubService;
+import com.example.jonathanklecherbranchservice.service.UpstreamLane;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adds per-repository details that GitHub's repository listing does not carry.
+ * <p>
+ * The only enrichment so far is {@link GitHubRepository#getLanguages() languages}, which costs one
+ * upstream call per repository. Those calls are fanned out on virtual threads, but at most
+ * {@code github.enrichment.max-parallel} of them run at once for a single request, and they go
+ * through the {@link UpstreamLane#BATCH BATCH} lane so a large account cannot crowd out plain
+ * profile lookups. The whole fan-out shares one deadline ({@code github.enrichment.deadline}):
+ * repositories whose languages are not back by then are returned without them, and their calls
+ * are cancelled.
+ * <p>
+ * Languages are cached in a {@link RepositoryLanguagesCache} of their own, separate from the base
+ * user cache and with a longer TTL, so refreshing a user does not refetch every repository's languages.
+ */
+@Component
+public class RepositoryEnricher implements MeterBinder {
+
+    private final GitHubService gitHubService;
+    private final int maxParallel;
+    private final long deadlineNanos;
+    private final RepositoryLanguagesCache languagesCache;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final LongAdder cachedLookups = new LongAdder();
+    private final LongAdder fetchedLookups = new LongAdder();
+    private final LongAdder failedLookups = new LongAdder();
+    private final LongAdder timedOutLookups = new LongAdder();
+
+    /**
+     * Creates the enricher.
+     *
+     * @param gitHubService   the service used to fetch repository languages
+     * @param maxParallel     the maximum number of concurrent upstream calls per request
+     * @param deadline        how long a request waits for its enrichment calls in total
+     * @param cacheTtl        how long fetched languages are reused
+     * @param cacheMaxEntries the maximum number of repositories whose languages are cached
+     */
+    @Autowired
+    public RepositoryEnricher(
+            final GitHubService gitHubService,
+            @Value("${github.enrichment.max-parallel:8}") final int maxParallel,
+            @Value("${github.enrichment.deadline:2s}") final Duration deadline,
+            @Value("${github.enrichment.cache.ttl:6h}") final Duration cacheTtl,
+            @Value("${github.enrichment.cache.max-entries:50000}") final int cacheMaxEntries) {
+        this(gitHubService, maxParallel, deadline,
+                new RepositoryLanguagesCache(cacheMaxEntries, cacheTtl.toMillis(), System::currentTimeMillis));
+    }
+
+    /**
+     * Creates an enricher with an explicit languages cache, for tests.
+     *
+     * @param gitHubService  the service used to fetch repository languages
+     * @param maxParallel    the maximum number of concurrent upstream calls per request
+     * @param deadline       how long a request waits for its enrichment calls in total
+     * @param languagesCache the languages cache
+     */
+    RepositoryEnricher(final GitHubService gitHubService, final int maxParallel, final Duration deadline,
+                       final RepositoryLanguagesCache languagesCache) {
+        if (maxParallel < 1) {
+            throw new IllegalArgumentException("github.enrichment.max-parallel must be at least 1");
+        }
+        this.gitHubService = gitHubService;
+        this.maxParallel = maxParallel;
+        this.deadlineNanos = deadline.toNanos();
+        this.languagesCache = languagesCache;
+    }
+
+    // ========== PUBLIC METHODS ==========
+
+    /**
+     * Returns a copy of the info whose repositories carry their languages.
+     * <p>
+     * The given info is not modified, since it may be shared through the cache. Repositories whose
+     * languages could not be fetched before the deadline, or whose lookup failed, have no languages.
+     *
+     * @param info the user info to enrich
+     * @return an enriched copy, or the info itself if it has no repositories
+     */
+    public GitHubInfo withLanguages(final GitHubInfo info) {
+        final List<GitHubRepository> repositories = info.getRepositories();
+        if (repositories == null || repositories.isEmpty()) {
+            return info;
+        }
+        final long deadline = System.nanoTime() + deadlineNanos;
+        final List<GitHubRepository> enriched = new ArrayList<>(repositories.size());
+        final List<Future<Map<String, Long>>> lookups = new ArrayList<>(repositories.size());
+        final Semaphore permits = new Semaphore(maxParallel);
+        for (final GitHubRepository repository : repositories) {
+            final GitHubRepository copy = new GitHubRepository(repository);
+            final String fullName = info.getUserName() + "/" + copy.getName();
+            final Map<String, Long> cached = languagesCache.get(fullName);
+            if (cached != null) {
+                cachedLookups.increment();
+                copy.setLanguages(cached);
+                lookups.add(null);
+            } else {
+                lookups.add(executor.submit(() -> fetchLanguages(permits, info.getUserName(), copy.getName(), fullName)));
+            }
+            enriched.add(copy);
+        }
+        awaitLookups(enriched, lookups, deadline);
+        return info.withRepositories(enriched);
+    }
+
+    /**
+     * Stops the fan-out threads on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Publishes enrichment lookups by outcome and the size of the languages cache.
+     *
+     * @param registry the meter registry
+     */
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        bindLookups(registry, "cached", cachedLookups);
+        bindLookups(registry, "fetched", fetchedLookups);
+        bindLookups(registry, "failed", failedLookups);
+        bindLookups(registry, "timed_out", timedOutLookups);
+        Gauge.builder("github.enrichment.cache.size", languagesCache, RepositoryLanguagesCache::size)
+                .description("Repositories whose languages are cached")
+                .register(registry);
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    private Map<String, Long> fetchLanguages(final Semaphore permits, final String owner, final String name,
+                                             final String fullName) throws Exception {
+        permits.acquire();
+        try {
+            final Map<String, Long> languages = gitHubService.getRepoLanguages(owner, name, UpstreamLane.BATCH);
+            languagesCache.put(fullName, languages);
+            return languages;
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Collects the lookups into the copies until the deadline, then cancels whatever is left.
+     */
+    private void awaitLookups(final List<GitHubRepository> enriched, final List<Future<Map<String, Long>>> lookups,
+                              final long deadline) {
+        boolean interrupted = false;
+        for (int i = 0; i < lookups.size(); i++) {
+            final Future<Map<String, Long>> lookup = lookups.get(i);
+            if (lookup == null) {
+                continue;
+            }
+            // Lookups that finished by the deadline are still collected with a zero wait
+            final long remaining = interrupted ? 0 : Math.max(0, deadline - System.nanoTime());
+            try {
+                enriched.get(i).setLanguages(lookup.get(remaining, TimeUnit.NANOSECONDS));
+                fetchedLookups.increment();
+            } catch (final TimeoutException | CancellationException timedOut) {
+                lookup.cancel(true);
+                timedOutLookups.increment();
+            } catch (final ExecutionException failed) {
+                failedLookups.increment();
+            } catch (final InterruptedException interruptedWait) {
+                lookup.cancel(true);
+                timedOutLookups.increment();
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void bindLookups(final MeterRegistry registry, final String outcome, final LongAdder counter) {
+        FunctionCounter.builder("github.enrichment.lookups", counter, LongAdder::sum)
+                .description("Repository enrichment lookups by outcome")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
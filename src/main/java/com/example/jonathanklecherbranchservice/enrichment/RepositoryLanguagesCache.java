@@ -0,0 +1,107 @@
+package com.example.jonathanklecherbranchservice.enrichment;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded, least-recently-used cache of repository languages, keyed by {@code owner/name}.
+ * <p>
+ * Languages change far less often than a user's repository list and cost one upstream call per
+ * repository, so they are cached separately from {@code GitHubInfoCache} with their own, longer TTL.
+ * A single lock around an access-ordered {@link LinkedHashMap} is enough: lookups are short and the
+ * lock is never held across I/O.
+ */
+class RepositoryLanguagesCache {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Cached> entries;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxEntries the maximum number of repositories kept
+     * @param ttlMillis  how long languages are reused after they were fetched
+     * @param clock      the source of the current time in epoch milliseconds
+     */
+    RepositoryLanguagesCache(final int maxEntries, final long ttlMillis, final LongSupplier clock) {
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Cached> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the languages of a repository if they are cached and not expired.
+     *
+     * @param fullName the repository's {@code owner/name}
+     * @return the languages, or {@code null} if not cached or expired
+     */
+    Map<String, Long> get(final String fullName) {
+        final String key = fullName.toLowerCase(Locale.ROOT);
+        lock.lock();
+        try {
+            final Cached cached = entries.get(key);
+            if (cached == null) {
+                return null;
+            }
+            if (clock.getAsLong() - cached.fetchedAtMillis >= ttlMillis) {
+                entries.remove(key);
+                return null;
+            }
+            return cached.languages;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stores the languages of a repository, evicting the least recently used one if full.
+     *
+     * @param fullName  the repository's {@code owner/name}
+     * @param languages the languages; must not be modified afterwards
+     */
+    void put(final String fullName, final Map<String, Long> languages) {
+        final Cached cached = new Cached(languages, clock.getAsLong());
+        lock.lock();
+        try {
+            entries.put(fullName.toLowerCase(Locale.ROOT), cached);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of cached repositories, including expired ones not yet looked up again.
+     *
+     * @return the entry count
+     */
+    int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Cached {
+        private final Map<String, Long> languages;
+        private final long fetchedAtMillis;
+
+        private Cached(final Map<String, Long> languages, final long fetchedAtMillis) {
+            this.languages = languages;
+            this.fetchedAtMillis = fetchedAtMillis;
+        }
+    }
+}
@@ -78,6 +78,18 @@ public class GitHubInfo {
         this.repositories = Optional.ofNullable(repositories).map(ArrayList::new).orElse(null);
     }
 
+    /**
+     * Returns a copy of this info with a different repositories list, e.g. a filtered or enriched one.
+     * <p>
+     * Cached infos are shared between requests, so per-request views are built as copies.
+     *
+     * @param replacement the repositories of the copy (will be defensively copied)
+     * @return a new GitHubInfo with the same profile fields
+     */
+    public GitHubInfo withRepositories(final List<GitHubRepository> replacement) {
+        return new GitHubInfo(userName, displayName, avatar, geoLocation, email, url, createdAt, replacement);
+    }
+
     // ========== GETTER AND SETTER METHODS ==========
 
     /**
@@ -1,15 +1,28 @@
 package com.example.jonathanklecherbranchservice.entity;
 
+import com.fasterxml.jackson.annotation.JsonAlias;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
 /**
  * Domain entity representing a GitHub repository with basic information.
  * <p>
- * This class holds minimal repository data retrieved from the GitHub API:
+ * This class holds repository data retrieved from the GitHub API:
  * <ul>
  *   <li>name: The repository name</li>
  *   <li>url: The API URL for this repository</li>
+ *   <li>stars, forks: The stargazer and fork counts (read from {@code stargazers_count} and
+ *       {@code forks_count})</li>
+ *   <li>language: The primary language, may be null</li>
+ *   <li>updated_at: When the repository was last updated, as ISO 8601</li>
+ *   <li>archived: Whether the repository is archived</li>
+ *   <li>languages: Bytes of code per language; only present when the response was enriched
+ *       with languages, since it costs one extra upstream call per repository</li>
  * </ul>
  * <p>
  * The {@code @JsonIgnoreProperties} annotation allows this class to be deserialized from
@@ -27,6 +40,27 @@ public class GitHubRepository {
     @JsonProperty("url")
     private String url;
 
+    @JsonProperty("stars")
+    @JsonAlias("stargazers_count")
+    private int stars;
+
+    @JsonProperty("forks")
+    @JsonAlias("forks_count")
+    private int forks;
+
+    @JsonProperty("language")
+    private String language;
+
+    @JsonProperty("updated_at")
+    private String updatedAt;
+
+    @JsonProperty("archived")
+    private boolean archived;
+
+    @JsonProperty("languages")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, Long> languages;
+
     /**
      * Default constructor. Initializes both fields to null.
      * <p>
@@ -50,6 +84,23 @@ public class GitHubRepository {
         this.url = url;
     }
 
+    /**
+     * Constructs a copy of another repository, so that a cached instance can be enriched
+     * without being modified.
+     *
+     * @param source the repository to copy
+     */
+    public GitHubRepository(final GitHubRepository source) {
+        this.name = source.name;
+        this.url = source.url;
+        this.stars = source.stars;
+        this.forks = source.forks;
+        this.language = source.language;
+        this.updatedAt = source.updatedAt;
+        this.archived = source.archived;
+        setLanguages(source.languages);
+    }
+
     // ========== GETTER AND SETTER METHODS ==========
 
     /**
@@ -87,4 +138,116 @@ public class GitHubRepository {
     public void setUrl(final String url) {
         this.url = url;
     }
+
+    /**
+     * Gets the number of stargazers.
+     *
+     * @return the star count
+     */
+    public int getStars() {
+        return stars;
+    }
+
+    /**
+     * Sets the number of stargazers.
+     *
+     * @param stars the star count to set
+     */
+    public void setStars(final int stars) {
+        this.stars = stars;
+    }
+
+    /**
+     * Gets the number of forks.
+     *
+     * @return the fork count
+     */
+    public int getForks() {
+        return forks;
+    }
+
+    /**
+     * Sets the number of forks.
+     *
+     * @param forks the fork count to set
+     */
+    public void setForks(final int forks) {
+        this.forks = forks;
+    }
+
+    /**
+     * Gets the primary language.
+     *
+     * @return the primary language, or null if GitHub detected none
+     */
+    public String getLanguage() {
+        return language;
+    }
+
+    /**
+     * Sets the primary language.
+     *
+     * @param language the primary language to set
+     */
+    public void setLanguage(final String language) {
+        this.language = language;
+    }
+
+    /**
+     * Gets when the repository was last updated.
+     *
+     * @return the update time as ISO 8601, e.g. "2011-01-26T19:14:43Z"
+     */
+    public String getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * Sets when the repository was last updated.
+     *
+     * @param updatedAt the update time as ISO 8601
+     */
+    public void setUpdatedAt(final String updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * Gets whether the repository is archived.
+     *
+     * @return true if archived
+     */
+    public boolean isArchived() {
+        return archived;
+    }
+
+    /**
+     * Sets whether the repository is archived.
+     *
+     * @param archived the archived flag to set
+     */
+    public void setArchived(final boolean archived) {
+        this.archived = archived;
+    }
+
+    /**
+     * Gets the bytes of code per language, if the repository was enriched with languages.
+     * <p>
+     * Returns a defensive copy to prevent external modification of the internal map.
+     *
+     * @return language to bytes of code, or null if not enriched
+     */
+    public Map<String, Long> getLanguages() {
+        return Optional.ofNullable(languages).map(LinkedHashMap::new).orElse(null);
+    }
+
+    /**
+     * Sets the bytes of code per language.
+     * <p>
+     * Creates a defensive copy to prevent external modification of the internal map.
+     *
+     * @param languages language to bytes of code, or null
+     */
+    public void setLanguages(final Map<String, Long> languages) {
+        this.languages = Optional.ofNullable(languages).map(LinkedHashMap::new).orElse(null);
+    }
 }
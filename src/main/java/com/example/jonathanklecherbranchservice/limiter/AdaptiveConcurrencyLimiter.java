@@ -0,0 +1,231 @@
+package com.example.jonathanklecherbranchservice.limiter;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptive limit on concurrent {@code /users} requests, driven by observed latency.
+ * <p>
+ * Without a limit, a degraded upstream makes requests pile up inside Tomcat until everything
+ * times out. This limiter admits a request only while fewer than {@code limit} requests are in
+ * flight, and adjusts the limit with a gradient algorithm (in the style of Netflix's Gradient2):
+ * <ul>
+ *   <li>A long-term exponentially weighted average of latency acts as the no-load baseline</li>
+ *   <li>{@code gradient = clamp(tolerance * baseline / sample, 0.5, 1.0)} shrinks the limit as
+ *       latency rises above the tolerated baseline</li>
+ *   <li>{@code newLimit = limit * gradient + sqrt(limit)} leaves headroom to probe for more
+ *       capacity while latency is healthy</li>
+ *   <li>Upstream failures (5xx, timeouts) cut the limit by {@code backoff-ratio}</li>
+ * </ul>
+ * Admission is a lock-free CAS on the in-flight counter; limit updates take a short lock that is
+ * never held across I/O. Callers that are not admitted should be shed immediately.
+ * <p>
+ * The limit, in-flight count and shed counts are published as Micrometer metrics.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter implements MeterBinder {
+
+    private static final double LONG_RTT_ALPHA = 2.0 / (600 + 1);
+    private static final double SMOOTHING = 0.2;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoffRatio;
+    private final Duration retryAfter;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder servedFromCache = new LongAdder();
+    private final ReentrantLock updateLock = new ReentrantLock();
+    private volatile double limit;
+    private double longRttNanos;
+
+    /**
+     * Creates the limiter.
+     *
+     * @param enabled      whether requests are limited at all
+     * @param initialLimit the limit to start with
+     * @param minLimit     the lowest the limit may fall to
+     * @param maxLimit     the highest the limit may grow to
+     * @param tolerance    how much latency may exceed the baseline before the limit shrinks
+     * @param backoffRatio the factor applied to the limit when an upstream call fails
+     * @param retryAfter   the {@code Retry-After} hint sent with rejected requests
+     */
+    public AdaptiveConcurrencyLimiter(
+            @Value("${github.concurrency.enabled:false}") final boolean enabled,
+            @Value("${github.concurrency.initial-limit:200}") final int initialLimit,
+            @Value("${github.concurrency.min-limit:4}") final int minLimit,
+            @Value("${github.concurrency.max-limit:500}") final int maxLimit,
+            @Value("${github.concurrency.tolerance:2.0}") final double tolerance,
+            @Value("${github.concurrency.backoff-ratio:0.9}") final double backoffRatio,
+            @Value("${github.concurrency.retry-after:1s}") final Duration retryAfter) {
+        if (minLimit < 1 || minLimit > maxLimit) {
+            throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min-limit <= max-limit");
+        }
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+        this.retryAfter = retryAfter;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+    }
+
+    // ========== ADMISSION ==========
+
+    /**
+     * Admits a request if the in-flight count is below the current limit.
+     * <p>
+     * Every successful acquire must be followed by exactly one {@link #onSuccess(long)} or
+     * {@link #onDropped()}.
+     *
+     * @return {@code true} if the request may proceed, {@code false} if it should be shed
+     */
+    public boolean tryAcquire() {
+        if (!enabled) {
+            return true;
+        }
+        int current = inFlight.get();
+        while (current < (int) limit) {
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+            current = inFlight.get();
+        }
+        return false;
+    }
+
+    /**
+     * Releases an admitted request that completed normally and feeds its latency to the algorithm.
+     *
+     * @param rttNanos the request latency in nanoseconds
+     */
+    public void onSuccess(final long rttNanos) {
+        if (!enabled) {
+            return;
+        }
+        final int concurrent = inFlight.getAndDecrement();
+        updateLock.lock();
+        try {
+            longRttNanos = longRttNanos == 0 ? rttNanos : longRttNanos + LONG_RTT_ALPHA * (rttNanos - longRttNanos);
+            // Let the baseline recover quickly once latency drops back down
+            if (longRttNanos > 2.0 * rttNanos) {
+                longRttNanos *= 0.95;
+            }
+            final double current = limit;
+            // An under-used limit says nothing about capacity; don't let it drift upwards
+            if (concurrent < current / 2) {
+                return;
+            }
+            final double gradient = Math.clamp(tolerance * longRttNanos / Math.max(1, rttNanos), MIN_GRADIENT, 1.0);
+            final double target = current * gradient + Math.sqrt(current);
+            limit = clampLimit((1 - SMOOTHING) * current + SMOOTHING * target);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    /**
+     * Releases an admitted request whose upstream call failed or timed out, backing off the limit.
+     */
+    public void onDropped() {
+        if (!enabled) {
+            return;
+        }
+        inFlight.decrementAndGet();
+        updateLock.lock();
+        try {
+            limit = clampLimit(limit * backoffRatio);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    // ========== SHED ACCOUNTING ==========
+
+    /**
+     * Records a shed request that was rejected with {@code 503}.
+     */
+    public void recordRejected() {
+        rejected.increment();
+    }
+
+    /**
+     * Records a shed request that was answered from the cache instead.
+     */
+    public void recordServedFromCache() {
+        servedFromCache.increment();
+    }
+
+    // ========== ACCESSORS ==========
+
+    /**
+     * Returns the current concurrency limit.
+     *
+     * @return the limit, rounded down
+     */
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Returns the number of admitted requests still in flight.
+     *
+     * @return the in-flight count
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Returns the {@code Retry-After} hint for rejected requests.
+     *
+     * @return the retry delay
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * Publishes the limiter's gauges and counters.
+     *
+     * @param registry the registry to bind to
+     */
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("users.concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit for /users requests")
+                .register(registry);
+        Gauge.builder("users.concurrency.in.flight", this, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Admitted /users requests currently in flight")
+                .register(registry);
+        FunctionCounter.builder("users.concurrency.shed", rejected, LongAdder::sum)
+                .description("Requests shed by the concurrency limiter")
+                .tag("outcome", "rejected")
+                .register(registry);
+        FunctionCounter.builder("users.concurrency.shed", servedFromCache, LongAdder::sum)
+                .description("Requests shed by the concurrency limiter")
+                .tag("outcome", "cache")
+                .register(registry);
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    /**
+     * Clamps a candidate limit into the configured range.
+     */
+    private double clampLimit(final double candidate) {
+        return Math.clamp(candidate, minLimit, maxLimit);
+    }
+}
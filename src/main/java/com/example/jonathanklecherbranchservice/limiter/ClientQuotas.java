@@ -0,0 +1,213 @@
+package com.example.jonathanklecherbranchservice.limiter;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-client token-bucket quotas on requests that need GitHub, so that one noisy caller cannot
+ * spend the whole upstream rate limit.
+ * <p>
+ * Callers are identified by the API key in {@code github.quota.client-header} if it is one of the
+ * configured {@code github.quota.api-keys}, and by their IP address otherwise; unknown keys are
+ * ignored so that rotating keys cannot escape the IP quota. Only cache misses and stale entries
+ * are charged: requests answered from fresh cache entries never reach this class.
+ * <p>
+ * Each client gets a bucket of {@code burst} tokens refilled at {@code requests-per-minute}.
+ * A bucket is stored as a single {@code long}, its theoretical arrival time (the generic cell rate
+ * algorithm, equivalent to a token bucket): a request is admitted if pushing that time one refill
+ * interval further keeps it within {@code burst} intervals of now, and charged with one CAS.
+ * Buckets live in a fixed array of {@code max-clients} slots indexed by a seeded hash of the
+ * client, so memory is bounded however many clients there are. Clients whose hashes collide
+ * share a bucket, which errs on the strict side.
+ * <p>
+ * Admitted, rejected and cache-served counts are published as Micrometer metrics.
+ */
+@Component
+public class ClientQuotas implements MeterBinder {
+
+    private static final long NANOS_PER_MINUTE = Duration.ofMinutes(1).toNanos();
+    private static final String KEY_PREFIX = "key:";
+    private static final String IP_PREFIX = "ip:";
+
+    private final boolean enabled;
+    private final String clientHeader;
+    private final Set<String> apiKeys;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLongArray buckets;
+    private final int mask;
+    private final int seed = ThreadLocalRandom.current().nextInt();
+    private final LongSupplier nanoClock;
+    private final long origin;
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder servedFromCache = new LongAdder();
+
+    /**
+     * Creates the quotas.
+     *
+     * @param enabled           whether quotas are enforced at all
+     * @param clientHeader      the request header carrying a client's API key
+     * @param apiKeys           comma-separated API keys that identify a client on their own, may be empty
+     * @param requestsPerMinute the sustained rate of cache misses allowed per client
+     * @param burst             the number of cache misses a client may make at once
+     * @param maxClients        the number of buckets, rounded up to a power of two
+     */
+    @Autowired
+    public ClientQuotas(@Value("${github.quota.enabled:false}") final boolean enabled,
+                        @Value("${github.quota.client-header:X-API-Key}") final String clientHeader,
+                        @Value("${github.quota.api-keys:}") final String apiKeys,
+                        @Value("${github.quota.requests-per-minute:60}") final int requestsPerMinute,
+                        @Value("${github.quota.burst:20}") final int burst,
+                        @Value("${github.quota.max-clients:4096}") final int maxClients) {
+        this(enabled, clientHeader, List.of(apiKeys.split(",")), requestsPerMinute, burst, maxClients, System::nanoTime);
+    }
+
+    /**
+     * Creates the quotas with an explicit clock, for tests.
+     *
+     * @param enabled           whether quotas are enforced at all
+     * @param clientHeader      the request header carrying a client's API key
+     * @param apiKeys           the API keys that identify a client on their own
+     * @param requestsPerMinute the sustained rate of cache misses allowed per client
+     * @param burst             the number of cache misses a client may make at once
+     * @param maxClients        the number of buckets, rounded up to a power of two
+     * @param nanoClock         supplies the current time in nanoseconds
+     */
+    ClientQuotas(final boolean enabled, final String clientHeader, final List<String> apiKeys,
+                 final int requestsPerMinute, final int burst, final int maxClients, final LongSupplier nanoClock) {
+        if (requestsPerMinute < 1 || burst < 1 || maxClients < 1) {
+            throw new IllegalArgumentException("Client quotas need a positive rate, burst and number of clients");
+        }
+        this.enabled = enabled;
+        this.clientHeader = clientHeader;
+        this.apiKeys = Set.copyOf(apiKeys.stream().map(String::trim).filter(key -> !key.isEmpty()).toList());
+        this.intervalNanos = NANOS_PER_MINUTE / requestsPerMinute;
+        this.burstNanos = burst * intervalNanos;
+        final int slots = Integer.highestOneBit(Math.max(1, maxClients - 1)) << 1;
+        this.buckets = new AtomicLongArray(enabled ? slots : 1);
+        this.mask = buckets.length() - 1;
+        this.nanoClock = nanoClock;
+        this.origin = nanoClock.getAsLong();
+    }
+
+    // ========== ADMISSION ==========
+
+    /**
+     * Identifies the client that sent a request.
+     *
+     * @param request the request
+     * @return {@code key:<api key>} for a configured API key, otherwise {@code ip:<address>}
+     */
+    public String identify(final HttpServletRequest request) {
+        final String key = request.getHeader(clientHeader);
+        if (key != null && apiKeys.contains(key)) {
+            return KEY_PREFIX + key;
+        }
+        return IP_PREFIX + request.getRemoteAddr();
+    }
+
+    /**
+     * Charges a client one token if it has one.
+     *
+     * @param client the client, as returned by {@link #identify(HttpServletRequest)}
+     * @return {@code 0} if the request is admitted, otherwise the nanoseconds until the client's
+     *         next token
+     */
+    public long tryAcquire(final String client) {
+        if (!enabled) {
+            return 0;
+        }
+        final int slot = slot(client);
+        while (true) {
+            final long arrival = buckets.get(slot);
+            final long now = nanoClock.getAsLong() - origin;
+            final long next = Math.max(arrival, now) + intervalNanos;
+            if (next - now > burstNanos) {
+                rejected.increment();
+                return next - now - burstNanos;
+            }
+            if (buckets.compareAndSet(slot, arrival, next)) {
+                admitted.increment();
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Records an over-quota request that was answered from a stale cache entry instead.
+     */
+    public void recordServedFromCache() {
+        servedFromCache.increment();
+    }
+
+    // ========== ACCESSORS ==========
+
+    /**
+     * Returns the number of requests admitted so far.
+     *
+     * @return the admitted count
+     */
+    public long getAdmitted() {
+        return admitted.sum();
+    }
+
+    /**
+     * Returns the number of requests found over quota so far.
+     *
+     * @return the rejected count
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Publishes the quota counters.
+     *
+     * @param registry the registry to bind to
+     */
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        FunctionCounter.builder("users.quota.requests", admitted, LongAdder::sum)
+                .description("Cache-miss requests checked against client quotas")
+                .tag("outcome", "admitted")
+                .register(registry);
+        FunctionCounter.builder("users.quota.requests", rejected, LongAdder::sum)
+                .description("Cache-miss requests checked against client quotas")
+                .tag("outcome", "rejected")
+                .register(registry);
+        FunctionCounter.builder("users.quota.requests", servedFromCache, LongAdder::sum)
+                .description("Cache-miss requests checked against client quotas")
+                .tag("outcome", "cache")
+                .register(registry);
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    /**
+     * Picks a client's bucket with a hash seeded per process, so collisions cannot be planned.
+     */
+    private int slot(final String client) {
+        int hash = seed;
+        for (int i = 0; i < client.length(); i++) {
+            hash = (hash ^ client.charAt(i)) * 0x01000193;
+        }
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        return hash & mask;
+    }
+}
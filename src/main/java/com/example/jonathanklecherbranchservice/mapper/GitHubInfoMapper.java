@@ -1,10 +1,13 @@
 package com.example.jonathanklecherbranchservice.mapper;
 
 import com.example.jonathanklecherbranchservice.entity.GitHubInfo;
+import com.example.jonathanklecherbranchservice.entity.GitHubRepository;
 import com.fasterxml.jackson.databind.JsonNode;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
 import java.util.TimeZone;
 
@@ -65,6 +68,62 @@ public final class GitHubInfoMapper {
         return info;
     }
 
+    /**
+     * Maps the {@code user} object of a GitHub GraphQL response to a GitHubInfo entity.
+     * <p>
+     * The result matches what {@link #fromJsonNode(JsonNode)} produces for the REST API:
+     * <ul>
+     *   <li>login, name, location → userName, displayName, geoLocation</li>
+     *   <li>avatarUrl → avatar</li>
+     *   <li>email → email (GraphQL returns an empty string for a private email; mapped to null)</li>
+     *   <li>url → the REST API user URL, since GraphQL only exposes the HTML profile URL</li>
+     *   <li>createdAt → createdAt (formatted from ISO 8601 to RFC 1123)</li>
+     * </ul>
+     * Repositories are not mapped; see {@link #repositoriesFromGraphQlNodes(JsonNode, String)}.
+     *
+     * @param user       the GraphQL {@code user} object
+     * @param apiBaseUrl the REST API base URL used to build the user URL
+     * @return a populated GitHubInfo entity without repositories
+     */
+    public static GitHubInfo fromGraphQlUser(final JsonNode user, final String apiBaseUrl) {
+        final GitHubInfo info = new GitHubInfo();
+        final String login = user.path("login").asText(null);
+        info.setUserName(login);
+        info.setDisplayName(user.path("name").asText(null));
+        info.setAvatar(user.path("avatarUrl").asText(null));
+        info.setGeoLocation(user.path("location").asText(null));
+        final String email = user.path("email").asText(null);
+        info.setEmail(email == null || email.isEmpty() ? null : email);
+        info.setUrl(apiBaseUrl + "/users/" + login);
+        info.setCreatedAt(formatCreatedAt(user.path("createdAt").asText(null)));
+        return info;
+    }
+
+    /**
+     * Maps the {@code nodes} of a GraphQL repository connection page to GitHubRepository entities,
+     * using the REST API repository URL ({@code /repos/{owner}/{name}}) as the REST API does.
+     * stargazerCount, forkCount, primaryLanguage.name and isArchived map to stars, forks, language
+     * and archived.
+     *
+     * @param nodes      the {@code nodes} array of a repository connection
+     * @param apiBaseUrl the REST API base URL used to build repository URLs
+     * @return the repositories, in connection order
+     */
+    public static List<GitHubRepository> repositoriesFromGraphQlNodes(final JsonNode nodes, final String apiBaseUrl) {
+        final List<GitHubRepository> repositories = new ArrayList<>(nodes.size());
+        for (final JsonNode node : nodes) {
+            final GitHubRepository repository = new GitHubRepository(node.path("name").asText(null),
+                    apiBaseUrl + "/repos/" + node.path("nameWithOwner").asText(null));
+            repository.setStars(node.path("stargazerCount").asInt());
+            repository.setForks(node.path("forkCount").asInt());
+            repository.setLanguage(node.path("primaryLanguage").path("name").asText(null));
+            repository.setUpdatedAt(node.path("updatedAt").asText(null));
+            repository.setArchived(node.path("isArchived").asBoolean());
+            repositories.add(repository);
+        }
+        return repositories;
+    }
+
     // ========== PRIVATE HELPER METHODS ==========
 
     /**
@@ -1,16 +1,34 @@
 package com.example.jonathanklecherbranchservice.service;
 
+import com.example.jonathanklecherbranchservice.archive.UpstreamArchive;
 import com.example.jonathanklecherbranchservice.entity.GitHubInfo;
 import com.example.jonathanklecherbranchservice.entity.GitHubRepository;
 import com.example.jonathanklecherbranchservice.mapper.GitHubInfoMapper;
+import com.example.jonathanklecherbranchservice.timing.RequestTimings;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 /**
  * Service for fetching GitHub user and repository information from the GitHub API.
@@ -20,6 +38,8 @@ import java.util.List;
  *   <li>Fetch user profile information by username</li>
  *   <li>Fetch a user's public repositories</li>
  *   <li>Fetch combined user info and repositories in a single call</li>
+ *   <li>Refresh a cached user's profile or repositories on their own, the repositories incrementally</li>
+ *   <li>Fetch a repository's languages, for optional response enrichment</li>
  * </ul>
  * <p>
  * This service is stateless and does not perform any caching (caching is handled at the
@@ -32,16 +52,123 @@ import java.util.List;
  *   <li>Provide context-specific error information</li>
  *   <li>Give controllers flexible error handling capabilities</li>
  * </ul>
+ * <p>
+ * Every upstream call runs through the {@link UpstreamConcurrencyLimiter}, which bounds the number
+ * of GitHub calls in flight independently of the request thread model (platform or virtual threads),
+ * and through the {@link HedgingExecutor}, which can race a second request against a slow first one.
+ * Failed calls that are likely to succeed on a second try are retried by the {@link RetryPolicy}.
+ * <p>
+ * {@link #getGitInfoWithRepos(String)} has two upstream strategies, selected with
+ * {@code github.api.strategy}:
+ * <ul>
+ *   <li>{@code rest} (default): one REST call for the profile and one for the repositories</li>
+ *   <li>{@code graphql}: one GraphQL v4 query returning the profile and the first page of
+ *       repositories together, plus one cursor-paged query per further page of repositories.
+ *       GitHub requires a token for GraphQL.</li>
+ * </ul>
+ * Both strategies produce the same {@link GitHubInfo}; see {@link GitHubInfoMapper}.
+ * <p>
+ * {@link #refreshGitRepoInfo(String, List, long, UpstreamLane)} refreshes a previously fetched
+ * repository list by paging the REST repositories endpoint most recently updated first and stopping at
+ * the first repository older than the previous list, so a mostly idle account costs one repository
+ * page however many repositories it has. Once per resync interval a refresh lists every repository
+ * instead, so repositories that left the listing leave the cache too.
+ * <p>
+ * Every call is authenticated with a token from the {@link TokenPool}, chosen by remaining
+ * rate-limit budget, and reports the response's rate-limit headers back to the pool.
+ * <p>
+ * Responses can be recorded into, replayed from, or fall back to an {@link UpstreamArchive}; in
+ * replay mode no call reaches the network.
  */
 @Service
 public class GitHubService {
 
-    private static final String API_BASE_URL = "https://api.github.com/users/";
+    private static final String USERS_PATH = "/users/";
     private static final String REPOS_ENDPOINT = "/repos";
+    private static final String LANGUAGES_ENDPOINT = "/languages";
+    private static final String GRAPHQL_ENDPOINT = "/graphql";
+    private static final String GRAPHQL_STRATEGY = "graphql";
+    private static final String REPOSITORIES = "repositories";
+    private static final int REPOS_PAGE_SIZE = 100;
+    private static final String FULL_QUERY = "?per_page=" + REPOS_PAGE_SIZE + "&page=";
+    private static final String INCREMENTAL_QUERY = "?sort=updated&direction=desc&per_page=" + REPOS_PAGE_SIZE + "&page=";
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    /**
+     * Profile plus one page of the user's own public repositories, ordered by name as the REST
+     * {@code /users/{user}/repos} endpoint orders them.
+     */
+    private static final String USER_QUERY = """
+            query($login: String!, $first: Int!, $after: String) {
+              user(login: $login) {
+                login name avatarUrl location email createdAt
+                repositories(first: $first, after: $after, privacy: PUBLIC, ownerAffiliations: OWNER,
+                             orderBy: {field: NAME, direction: ASC}) {
+                  pageInfo { hasNextPage endCursor }
+                  nodes { name nameWithOwner stargazerCount forkCount primaryLanguage { name } updatedAt isArchived }
+                }
+              }
+            }
+            """;
+
+    private final RestTemplate restTemplate;
+    private final UpstreamConcurrencyLimiter upstreamLimiter;
+    private final HedgingExecutor hedgingExecutor;
+    private final RetryPolicy retryPolicy;
+    private final UpstreamArchive archive;
+    private final String apiBaseUrl;
+    private final String usersBaseUrl;
+    private final boolean graphQl;
+    private final TokenPool tokenPool;
+    private final int graphQlPageSize;
+    private final boolean incrementalRefresh;
+    private final long fullResyncIntervalMillis;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    /**
+     * Creates the service with its upstream HTTP client and concurrency limiter.
+     *
+     * @param gitHubRestTemplate the {@code RestTemplate} configured for GitHub API calls
+     * @param upstreamLimiter    bounds the number of GitHub API calls in flight at once
+     * @param hedgingExecutor    hedges slow upstream GETs with a second request
+     * @param retryPolicy        retries transient upstream failures with backoff
+     * @param archive            records, replays or falls back to archived GitHub responses
+     * @param apiBaseUrl         the GitHub API base URL (overridable to point at a local stub)
+     * @param strategy           {@code rest} or {@code graphql}
+     * @param tokenPool          the API tokens to authenticate calls with
+     * @param graphQlPageSize    how many repositories to request per GraphQL page (at most 100)
+     * @param incrementalRefresh whether refreshes of cached users fetch only recently updated repositories
+     * @param fullResyncInterval how often an incrementally refreshed user is listed in full again, 0 for never
+     * @throws IllegalArgumentException if the strategy is unknown
+     */
+    public GitHubService(final RestTemplate gitHubRestTemplate,
+                         final UpstreamConcurrencyLimiter upstreamLimiter,
+                         final HedgingExecutor hedgingExecutor,
+                         final RetryPolicy retryPolicy,
+                         final UpstreamArchive archive,
+                         @Value("${github.api.base-url:https://api.github.com}") final String apiBaseUrl,
+                         @Value("${github.api.strategy:rest}") final String strategy,
+                         final TokenPool tokenPool,
+                         @Value("${github.api.graphql.page-size:100}") final int graphQlPageSize,
+                         @Value("${github.refresh.incremental:true}") final boolean incrementalRefresh,
+                         @Value("${github.refresh.full-resync-interval:24h}") final Duration fullResyncInterval) {
+        final String normalizedStrategy = strategy.trim().toLowerCase(Locale.ROOT);
+        if (!"rest".equals(normalizedStrategy) && !GRAPHQL_STRATEGY.equals(normalizedStrategy)) {
+            throw new IllegalArgumentException("Unknown github.api.strategy: " + strategy);
+        }
+        this.restTemplate = gitHubRestTemplate;
+        this.upstreamLimiter = upstreamLimiter;
+        this.hedgingExecutor = hedgingExecutor;
+        this.retryPolicy = retryPolicy;
+        this.archive = archive;
+        this.apiBaseUrl = apiBaseUrl;
+        this.usersBaseUrl = apiBaseUrl + USERS_PATH;
+        this.graphQl = GRAPHQL_STRATEGY.equals(normalizedStrategy);
+        this.tokenPool = tokenPool;
+        this.graphQlPageSize = graphQlPageSize;
+        this.incrementalRefresh = incrementalRefresh;
+        this.fullResyncIntervalMillis = fullResyncInterval.toMillis();
+    }
+
     // ========== PUBLIC SERVICE METHODS ==========
 
     /**
@@ -57,22 +184,14 @@ public class GitHubService {
      *                                 response cannot be parsed
      */
     public GitHubInfo getGitInfo(final String userName) throws GitHubServiceException {
-        final String url = API_BASE_URL + userName;
-        final String json = getJsonFromUrl(url);
-
-        final JsonNode node;
-        try {
-            node = objectMapper.readTree(json);
-        } catch (final com.fasterxml.jackson.core.JsonProcessingException parseEx) {
-            throw new GitHubServiceException("Failed to parse GitHub user info response", HttpStatus.BAD_GATEWAY, parseEx);
-        }
-        return GitHubInfoMapper.fromJsonNode(node);
+        return fetchGitInfo(userName, UpstreamLane.INTERACTIVE);
     }
 
     /**
      * Fetches the list of public repositories for the given GitHub username.
      * <p>
-     * Retrieves repository metadata including repository names and API URLs.
+     * Retrieves repository metadata including repository names and API URLs, paging through the
+     * whole listing 100 repositories at a time.
      * This method only fetches repositories, not user profile data; use
      * {@link #getGitInfo(String)} or {@link #getGitInfoWithRepos(String)} for user data.
      *
@@ -82,42 +201,463 @@ public class GitHubService {
      *                                 response cannot be parsed
      */
     public List<GitHubRepository> getGitRepoInfo(final String userName) throws GitHubServiceException {
-        final String url = API_BASE_URL + userName + REPOS_ENDPOINT;
-        final String json = getJsonFromUrl(url);
-
-        final List<GitHubRepository> repos;
-        try {
-            repos = objectMapper.readValue(json,
-                    objectMapper.getTypeFactory().constructCollectionType(List.class, GitHubRepository.class));
-        } catch (final com.fasterxml.jackson.core.JsonProcessingException parseEx) {
-            throw new GitHubServiceException("Failed to parse GitHub repository list response", HttpStatus.BAD_GATEWAY, parseEx);
-        }
-        return repos;
+        return fetchGitRepoInfo(userName, UpstreamLane.INTERACTIVE);
     }
 
     /**
      * Fetches combined GitHub user profile and repositories in a single logical operation.
      * <p>
-     * This method calls both {@link #getGitInfo(String)} and {@link #getGitRepoInfo(String)}
-     * and combines the results into a single GitHubInfo entity with populated repositories.
-     * If either call fails, an exception is thrown immediately.
+     * With the REST strategy this method calls both {@link #getGitInfo(String)} and
+     * {@link #getGitRepoInfo(String)} and combines the results into a single GitHubInfo entity
+     * with populated repositories. With the GraphQL strategy the profile and repositories come
+     * from one query per repository page. If any call fails, an exception is thrown immediately.
      *
      * @param userName the GitHub username for which to fetch user info and repositories
      * @return GitHubInfo entity with repositories list populated
      * @throws GitHubServiceException if either the user info or repositories API calls fail
      */
     public GitHubInfo getGitInfoWithRepos(final String userName) throws GitHubServiceException {
-        final GitHubInfo info = getGitInfo(userName);
-        final List<GitHubRepository> repos = getGitRepoInfo(userName);
+        return getGitInfoWithRepos(userName, UpstreamLane.INTERACTIVE);
+    }
+
+    /**
+     * Fetches combined GitHub user profile and repositories with the upstream calls queued in the
+     * given lane, e.g. {@link UpstreamLane#BACKGROUND} for cache refreshes nobody is waiting for.
+     * Only interactive calls are hedged.
+     *
+     * @param userName the GitHub username for which to fetch user info and repositories
+     * @param lane     the priority class of the upstream calls
+     * @return GitHubInfo entity with repositories list populated
+     * @throws GitHubServiceException if either the user info or repositories API calls fail
+     * @see #getGitInfoWithRepos(String)
+     */
+    public GitHubInfo getGitInfoWithRepos(final String userName, final UpstreamLane lane) throws GitHubServiceException {
+        if (graphQl) {
+            return getGitInfoWithReposGraphQl(userName, lane);
+        }
+        final GitHubInfo info = fetchGitInfo(userName, lane);
+        final List<GitHubRepository> repos = fetchGitRepoInfo(userName, lane);
         info.setRepositories(repos);
         return info;
     }
 
+    /**
+     * Refreshes a previously fetched user, fetching only the repositories updated since then.
+     * The profile is always fetched again; see {@link #refreshGitRepoInfo} for how the repositories
+     * are refreshed.
+     *
+     * @param userName                the GitHub username
+     * @param previous                the user's previously fetched info, or {@code null}
+     * @param previousFetchedAtMillis when the previous repositories were fetched, in epoch milliseconds
+     * @param lane                    the priority class of the upstream calls
+     * @return GitHubInfo entity with a fresh profile and the merged repositories list
+     * @throws GitHubServiceException if a user info or repositories API call fails
+     */
+    public GitHubInfo refreshGitInfoWithRepos(final String userName, final GitHubInfo previous,
+                                              final long previousFetchedAtMillis, final UpstreamLane lane)
+            throws GitHubServiceException {
+        if (graphQl) {
+            return getGitInfoWithRepos(userName, lane);
+        }
+        final GitHubInfo info = fetchGitInfo(userName, lane);
+        info.setRepositories(refreshGitRepoInfo(userName, previous == null ? null : previous.getRepositories(),
+                previousFetchedAtMillis, lane));
+        return info;
+    }
+
+    /**
+     * Refreshes a previously fetched repository list, fetching only the repositories updated since then.
+     * <p>
+     * The previous list's newest {@code updated_at} is its high-water mark. Repositories are paged
+     * with {@code sort=updated&direction=desc} and paging stops at the first repository updated before
+     * the mark; everything seen up to there replaces or joins the previous list by name. Repositories
+     * updated in the same second as the mark are fetched again, so no change in that second is missed.
+     * <p>
+     * Deleted, renamed-away and made-private repositories do not show up in this listing, so they stay
+     * in the merged list until the next full fetch. Time is cut into windows of the resync interval,
+     * offset per user so that users do not all resync at once, and the first refresh of a user in a
+     * new window is a full fetch; a user refreshed at least once per interval is thus listed in full
+     * once per interval. This also falls back to a full fetch if incremental refresh is disabled, the
+     * GraphQL strategy is selected, or the previous list is empty or has a repository without an
+     * update time.
+     *
+     * @param userName                the GitHub username
+     * @param previous                the previously fetched repositories, or {@code null}
+     * @param previousFetchedAtMillis when the previous repositories were fetched, in epoch milliseconds
+     * @param lane                    the priority class of the upstream calls
+     * @return the merged repositories list
+     * @throws GitHubServiceException if a repositories API call fails
+     */
+    public List<GitHubRepository> refreshGitRepoInfo(final String userName, final List<GitHubRepository> previous,
+                                                     final long previousFetchedAtMillis, final UpstreamLane lane)
+            throws GitHubServiceException {
+        if (graphQl) {
+            return getGitInfoWithReposGraphQl(userName, lane).getRepositories();
+        }
+        final String highWaterMark = incrementalRefresh && !isResyncDue(userName, previousFetchedAtMillis)
+                ? highWaterMark(previous) : null;
+        if (highWaterMark == null) {
+            return fetchGitRepoInfo(userName, lane);
+        }
+        return merge(previous, fetchUpdatedSince(userName, highWaterMark, lane));
+    }
+
+    /**
+     * Fetches the bytes of code per language of one repository, for response enrichment.
+     *
+     * @param owner          the repository owner's login
+     * @param repositoryName the repository name
+     * @param lane           the priority class of the upstream call
+     * @return language to bytes of code, largest first as GitHub orders them
+     * @throws GitHubServiceException if the repository is not found, the API call fails, or the
+     *                                response cannot be parsed
+     */
+    public Map<String, Long> getRepoLanguages(final String owner, final String repositoryName, final UpstreamLane lane)
+            throws GitHubServiceException {
+        final String url = apiBaseUrl + REPOS_ENDPOINT + "/" + owner + "/" + repositoryName + LANGUAGES_ENDPOINT;
+        final String json;
+        try (RequestTimings.Span ignored = RequestTimings.start("languages")) {
+            json = getJsonFromUrl(url, lane);
+        }
+
+        try (RequestTimings.Span ignored = RequestTimings.start("parse")) {
+            return objectMapper.readValue(json,
+                    objectMapper.getTypeFactory().constructMapType(LinkedHashMap.class, String.class, Long.class));
+        } catch (final com.fasterxml.jackson.core.JsonProcessingException parseEx) {
+            throw new GitHubServiceException("Failed to parse GitHub repository languages response", HttpStatus.BAD_GATEWAY, parseEx);
+        }
+    }
+
     // ========== PRIVATE HELPER METHODS ==========
 
+    /**
+     * Fetches a user profile with the upstream call queued in the given lane.
+     *
+     * @see #getGitInfo(String)
+     */
+    private GitHubInfo fetchGitInfo(final String userName, final UpstreamLane lane) throws GitHubServiceException {
+        final String url = usersBaseUrl + userName;
+        final String json;
+        try (RequestTimings.Span ignored = RequestTimings.start("profile")) {
+            json = getJsonFromUrl(url, lane);
+        }
+
+        try (RequestTimings.Span ignored = RequestTimings.start("parse")) {
+            final JsonNode node = objectMapper.readTree(json);
+            return GitHubInfoMapper.fromJsonNode(node);
+        } catch (final com.fasterxml.jackson.core.JsonProcessingException parseEx) {
+            throw new GitHubServiceException("Failed to parse GitHub user info response", HttpStatus.BAD_GATEWAY, parseEx);
+        }
+    }
+
+    /**
+     * Fetches every page of a user's repositories, in name order, with the upstream calls queued in
+     * the given lane. Pages are as large as the incremental refresh's, so both see the same listing.
+     *
+     * @see #getGitRepoInfo(String)
+     */
+    private List<GitHubRepository> fetchGitRepoInfo(final String userName, final UpstreamLane lane)
+            throws GitHubServiceException {
+        final List<GitHubRepository> all = new ArrayList<>();
+        for (int page = 1; ; page++) {
+            final List<GitHubRepository> repos = fetchRepoPage(userName, FULL_QUERY, page, lane);
+            all.addAll(repos);
+            if (repos.size() < REPOS_PAGE_SIZE) {
+                return all;
+            }
+        }
+    }
+
+    /**
+     * Fetches and parses one page of a user's repositories.
+     *
+     * @param userName the GitHub username
+     * @param query    the listing's query string, up to the page number
+     * @param page     the page number, from 1
+     * @param lane     the priority class of the upstream call
+     * @return the page's repositories
+     * @throws GitHubServiceException if the page cannot be fetched or parsed
+     */
+    private List<GitHubRepository> fetchRepoPage(final String userName, final String query, final int page,
+                                                 final UpstreamLane lane) throws GitHubServiceException {
+        final String url = usersBaseUrl + userName + REPOS_ENDPOINT + query + page;
+        final String json;
+        try (RequestTimings.Span ignored = RequestTimings.start("repos")) {
+            json = getJsonFromUrl(url, lane);
+        }
+
+        try (RequestTimings.Span ignored = RequestTimings.start("parse")) {
+            return objectMapper.readValue(json,
+                    objectMapper.getTypeFactory().constructCollectionType(List.class, GitHubRepository.class));
+        } catch (final com.fasterxml.jackson.core.JsonProcessingException parseEx) {
+            throw new GitHubServiceException("Failed to parse GitHub repository list response", HttpStatus.BAD_GATEWAY, parseEx);
+        }
+    }
+
+    /**
+     * Pages a user's repositories most recently updated first until one was updated before the
+     * high-water mark or the listing ends.
+     *
+     * @param userName      the GitHub username
+     * @param highWaterMark the newest {@code updated_at} of the previous snapshot
+     * @param lane          the priority class of the upstream calls
+     * @return the repositories updated at or after the mark, most recent first
+     * @throws GitHubServiceException if a page cannot be fetched or parsed
+     */
+    private List<GitHubRepository> fetchUpdatedSince(final String userName, final String highWaterMark,
+                                                     final UpstreamLane lane) throws GitHubServiceException {
+        final List<GitHubRepository> updated = new ArrayList<>();
+        for (int page = 1; ; page++) {
+            final List<GitHubRepository> repos = fetchRepoPage(userName, INCREMENTAL_QUERY, page, lane);
+            for (final GitHubRepository repo : repos) {
+                if (repo.getUpdatedAt() != null && repo.getUpdatedAt().compareTo(highWaterMark) < 0) {
+                    return updated;
+                }
+                updated.add(repo);
+            }
+            if (repos.size() < REPOS_PAGE_SIZE) {
+                return updated;
+            }
+        }
+    }
+
+    /**
+     * Returns whether a refresh must list every repository: whether the previous repositories were
+     * fetched in an earlier resync window than now. Each user's windows are offset by a hash of the
+     * name, spreading full resyncs over the interval.
+     *
+     * @param userName                the GitHub username
+     * @param previousFetchedAtMillis when the previous repositories were fetched, in epoch milliseconds
+     * @return {@code true} if the refresh must be a full fetch; never if the interval is 0
+     */
+    private boolean isResyncDue(final String userName, final long previousFetchedAtMillis) {
+        if (fullResyncIntervalMillis <= 0) {
+            return false;
+        }
+        final long offset = Math.floorMod(userName.hashCode(), fullResyncIntervalMillis);
+        return Math.floorDiv(System.currentTimeMillis() - offset, fullResyncIntervalMillis)
+                != Math.floorDiv(previousFetchedAtMillis - offset, fullResyncIntervalMillis);
+    }
+
+    /**
+     * Returns the newest update time of a repository list. GitHub formats update times as
+     * ISO-8601 UTC instants of fixed width, so they order as strings.
+     *
+     * @param repos the previously fetched repositories, or {@code null}
+     * @return the newest {@code updated_at}, or {@code null} if the list is empty or a repository
+     *         has no update time (e.g. it was cached before update times were kept)
+     */
+    private static String highWaterMark(final List<GitHubRepository> repos) {
+        if (repos == null || repos.isEmpty()) {
+            return null;
+        }
+        String newest = null;
+        for (final GitHubRepository repo : repos) {
+            final String updatedAt = repo.getUpdatedAt();
+            if (updatedAt == null) {
+                return null;
+            }
+            if (newest == null || updatedAt.compareTo(newest) > 0) {
+                newest = updatedAt;
+            }
+        }
+        return newest;
+    }
+
+    /**
+     * Merges updated repositories into a previous list by name. Updated repositories replace their
+     * previous version in place; new ones are added and the list is re-sorted by name, the order
+     * GitHub lists repositories in by default.
+     *
+     * @param previous the previously fetched repositories
+     * @param updated  the repositories updated since
+     * @return the merged list
+     */
+    private static List<GitHubRepository> merge(final List<GitHubRepository> previous,
+                                                final List<GitHubRepository> updated) {
+        final Map<String, GitHubRepository> byName = new LinkedHashMap<>();
+        for (final GitHubRepository repo : previous) {
+            byName.put(repo.getName(), repo);
+        }
+        boolean added = false;
+        for (final GitHubRepository repo : updated) {
+            added |= byName.put(repo.getName(), repo) == null;
+        }
+        final List<GitHubRepository> merged = new ArrayList<>(byName.values());
+        if (added) {
+            merged.sort(Comparator.comparing(GitHubRepository::getName, String.CASE_INSENSITIVE_ORDER));
+        }
+        return merged;
+    }
+
+    /**
+     * Fetches the profile and every repository page with GraphQL queries, following the
+     * repository connection's {@code endCursor} until {@code hasNextPage} is false.
+     *
+     * @param userName the GitHub username
+     * @param lane     the priority class of the queries
+     * @return GitHubInfo entity with repositories list populated
+     * @throws GitHubServiceException if a query fails, the user does not exist, or a response
+     *                                cannot be parsed
+     */
+    private GitHubInfo getGitInfoWithReposGraphQl(final String userName, final UpstreamLane lane)
+            throws GitHubServiceException {
+        GitHubInfo info = null;
+        final List<GitHubRepository> repos = new ArrayList<>();
+        String cursor = null;
+        do {
+            final JsonNode user = queryUser(userName, cursor, lane);
+            if (info == null) {
+                info = GitHubInfoMapper.fromGraphQlUser(user, apiBaseUrl);
+            }
+            final JsonNode connection = user.path(REPOSITORIES);
+            repos.addAll(GitHubInfoMapper.repositoriesFromGraphQlNodes(connection.path("nodes"), apiBaseUrl));
+            final JsonNode pageInfo = connection.path("pageInfo");
+            cursor = pageInfo.path("hasNextPage").asBoolean(false) ? pageInfo.path("endCursor").asText(null) : null;
+        } while (cursor != null);
+        info.setRepositories(repos);
+        return info;
+    }
+
+    /**
+     * Runs one GraphQL user query and returns its {@code user} object.
+     * <p>
+     * GraphQL reports most failures, including unknown users, with HTTP 200 and an
+     * {@code errors} array; these are translated to the same statuses the REST strategy uses.
+     *
+     * @param userName the GitHub username
+     * @param cursor   the repository cursor to continue after, or {@code null} for the first page
+     * @param lane     the priority class of the query
+     * @return the {@code data.user} object
+     * @throws GitHubServiceException if the query fails or the user does not exist
+     */
+    private JsonNode queryUser(final String userName, final String cursor, final UpstreamLane lane)
+            throws GitHubServiceException {
+        final ObjectNode request = objectMapper.createObjectNode();
+        request.put("query", USER_QUERY);
+        request.putObject("variables").put("login", userName).put("first", graphQlPageSize).put("after", cursor);
+        final String body = request.toString();
+        final String json;
+        try (RequestTimings.Span ignored = RequestTimings.start(GRAPHQL_STRATEGY)) {
+            final String url = apiBaseUrl + GRAPHQL_ENDPOINT;
+            json = withFallback(HttpMethod.POST, url, body, () -> upstream(lane, () -> postJson(url, body)));
+        }
+
+        final JsonNode response;
+        try (RequestTimings.Span ignored = RequestTimings.start("parse")) {
+            response = objectMapper.readTree(json);
+        } catch (final com.fasterxml.jackson.core.JsonProcessingException parseEx) {
+            throw new GitHubServiceException("Failed to parse GitHub GraphQL response", HttpStatus.BAD_GATEWAY, parseEx);
+        }
+        final JsonNode user = response.path("data").path("user");
+        if (!user.isObject()) {
+            final JsonNode error = response.path("errors").path(0);
+            if ("NOT_FOUND".equals(error.path("type").asText()) || error.isMissingNode()) {
+                throw new GitHubServiceException("GitHub user not found", HttpStatus.NOT_FOUND, null);
+            }
+            throw new GitHubServiceException("GitHub GraphQL query failed: " + error.path("message").asText(),
+                    HttpStatus.BAD_GATEWAY, null);
+        }
+        return user;
+    }
+
+    /**
+     * Performs a single POST request against the GitHub API, translating HTTP errors as
+     * {@link #fetchJson(String)} does.
+     *
+     * @param url  the GitHub API endpoint URL
+     * @param body the JSON request body
+     * @return the JSON response as a String
+     * @throws GitHubServiceException if the HTTP request fails or returns an error status
+     */
+    private String postJson(final String url, final String body) throws GitHubServiceException {
+        try {
+            return exchange(url, HttpMethod.POST, body);
+        } catch (final HttpClientErrorException exception) {
+            throw new GitHubServiceException("GitHub GraphQL request failed: " + exception.getStatusCode(),
+                    HttpStatus.valueOf(exception.getStatusCode().value()), exception);
+        }
+    }
+
     /**
      * Fetches JSON data from a specified GitHub API URL.
      * <p>
+     * Each attempt holds an upstream permit for its whole duration (see
+     * {@link UpstreamConcurrencyLimiter}); if hedging is enabled a slow attempt may be raced by a
+     * second identical one (see {@link HedgingExecutor}).
+     *
+     * @param url  the GitHub API endpoint URL to fetch data from
+     * @param lane the priority class of the call
+     * @return the JSON response as a String
+     * @throws GitHubServiceException if the HTTP request fails, returns an error status, or no
+     *                                upstream permit becomes available in time
+     */
+    private String getJsonFromUrl(final String url, final UpstreamLane lane) throws GitHubServiceException {
+        return withFallback(HttpMethod.GET, url, null, () -> upstream(lane, () -> fetchJson(url)));
+    }
+
+    /**
+     * Runs an upstream call and, in archive fallback mode, answers with the last archived success
+     * for the same request if GitHub is unavailable, rate limited or unreachable. Definitive answers
+     * such as 404 Not Found are passed through.
+     *
+     * @param method the request method
+     * @param url    the request URL
+     * @param body   the request body, or {@code null}
+     * @param call   the upstream call, with its retries
+     * @return the result of the call, or the archived response body
+     * @throws GitHubServiceException if the call fails and no archived success exists
+     */
+    private String withFallback(final HttpMethod method, final String url, final String body,
+                                final UpstreamCall<String> call) throws GitHubServiceException {
+        if (archive.getMode() != UpstreamArchive.Mode.FALLBACK) {
+            return call.call();
+        }
+        try {
+            return call.call();
+        } catch (final GitHubServiceException exception) {
+            final HttpStatus status = exception.getStatus();
+            final boolean unavailable = status.is5xxServerError()
+                    || status == HttpStatus.TOO_MANY_REQUESTS || status == HttpStatus.FORBIDDEN;
+            final String archived = unavailable ? archivedSuccess(method, url, body) : null;
+            if (archived == null) {
+                throw exception;
+            }
+            return archived;
+        } catch (final RestClientException exception) {
+            final String archived = archivedSuccess(method, url, body);
+            if (archived == null) {
+                throw exception;
+            }
+            return archived;
+        }
+    }
+
+    private String archivedSuccess(final HttpMethod method, final String url, final String body) {
+        final UpstreamArchive.ArchivedResponse archived = archive.lookup(method, url, body);
+        return archived != null && HttpStatusCode.valueOf(archived.getStatus()).is2xxSuccessful() ? archived.getBody() : null;
+    }
+
+    /**
+     * Runs an upstream call in a lane of the {@link UpstreamConcurrencyLimiter}. Interactive calls
+     * are also hedged; background and batch calls are not, so they never spend the hedge budget.
+     * Transient failures are retried around the limiter, so backoff waits hold no upstream permit.
+     *
+     * @param lane the priority class of the call
+     * @param call the upstream call
+     * @return the result of the call
+     * @throws GitHubServiceException if the call fails or no upstream permit becomes available in time
+     */
+    private String upstream(final UpstreamLane lane, final UpstreamCall<String> call) throws GitHubServiceException {
+        if (lane == UpstreamLane.INTERACTIVE) {
+            return retryPolicy.execute(() -> hedgingExecutor.execute(call, attempt -> () -> upstreamLimiter.call(lane, attempt)));
+        }
+        return retryPolicy.execute(() -> upstreamLimiter.call(lane, call));
+    }
+
+    /**
+     * Performs a single GET request against the GitHub API.
+     * <p>
      * Handles HTTP errors by converting them to GitHubServiceException instances with
      * appropriate HTTP status codes. Provides clear error messages for different scenarios:
      * <ul>
@@ -129,9 +669,9 @@ public class GitHubService {
      * @return the JSON response as a String
      * @throws GitHubServiceException if the HTTP request fails or returns an error status
      */
-    private String getJsonFromUrl(final String url) throws GitHubServiceException {
+    private String fetchJson(final String url) throws GitHubServiceException {
         try {
-            return restTemplate.getForObject(url, String.class);
+            return exchange(url, HttpMethod.GET, null);
         } catch (final HttpClientErrorException exception) {
             if (exception.getStatusCode() == HttpStatus.NOT_FOUND) {
                 throw new GitHubServiceException("GitHub user not found", HttpStatus.NOT_FOUND, exception);
@@ -140,5 +680,71 @@ public class GitHubService {
                     HttpStatus.valueOf(exception.getStatusCode().value()), exception);
         }
     }
-}
 
+    /**
+     * Sends one request authenticated with a pooled token and feeds the response's rate-limit
+     * headers, including those of error responses, back to the {@link TokenPool}. When the archive
+     * is recording, successes and 404 Not Found answers are appended to it; in replay mode the
+     * request is answered from the archive instead.
+     *
+     * @param url    the GitHub API endpoint URL
+     * @param method the HTTP method
+     * @param body   the JSON request body, or {@code null}
+     * @return the response body
+     * @throws GitHubServiceException if every pooled token is rate limited, or the request is
+     *                                missing from the archive in replay mode
+     * @throws HttpClientErrorException if GitHub answers with a 4xx status
+     */
+    private String exchange(final String url, final HttpMethod method, final String body) throws GitHubServiceException {
+        if (archive.getMode() == UpstreamArchive.Mode.REPLAY) {
+            return replay(url, method, body);
+        }
+        final TokenPool.Token token = tokenPool.acquire();
+        final HttpHeaders headers = new HttpHeaders();
+        if (token != null) {
+            headers.setBearerAuth(token.getSecret());
+        }
+        if (body != null) {
+            headers.setContentType(MediaType.APPLICATION_JSON);
+        }
+        try {
+            final ResponseEntity<String> response = restTemplate.exchange(url, method, new HttpEntity<>(body, headers), String.class);
+            tokenPool.record(token, response.getHeaders());
+            if (archive.isRecording()) {
+                archive.record(method, url, body, response.getStatusCode().value(), response.getHeaders(), response.getBody());
+            }
+            return response.getBody();
+        } catch (final HttpClientErrorException exception) {
+            tokenPool.record(token, exception.getResponseHeaders());
+            if (archive.isRecording() && exception.getStatusCode() == HttpStatus.NOT_FOUND) {
+                archive.record(method, url, body, exception.getStatusCode().value(), exception.getResponseHeaders(),
+                        exception.getResponseBodyAsString());
+            }
+            throw exception;
+        }
+    }
+
+    /**
+     * Answers a request from the archive, raising archived error responses as GitHub would have.
+     *
+     * @param url    the GitHub API endpoint URL
+     * @param method the HTTP method
+     * @param body   the JSON request body, or {@code null}
+     * @return the archived response body
+     * @throws GitHubServiceException if the request was never archived
+     * @throws HttpClientErrorException if the archived response is a 4xx
+     */
+    private String replay(final String url, final HttpMethod method, final String body) throws GitHubServiceException {
+        final UpstreamArchive.ArchivedResponse archived = archive.lookup(method, url, body);
+        if (archived == null) {
+            throw new GitHubServiceException("No archived GitHub response for " + method + " " + url,
+                    HttpStatus.SERVICE_UNAVAILABLE, null);
+        }
+        final HttpStatusCode status = HttpStatusCode.valueOf(archived.getStatus());
+        if (status.is4xxClientError()) {
+            throw HttpClientErrorException.create(status, "Archived " + status.value(), archived.getHeaders(),
+                    archived.getBody().getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+        }
+        return archived.getBody();
+    }
+}
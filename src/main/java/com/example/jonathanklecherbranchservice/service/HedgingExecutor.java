@@ -0,0 +1,293 @@
+package com.example.jonathanklecherbranchservice.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * Sends a second, identical upstream request when the first one is slower than usual.
+ * <p>
+ * GitHub's tail latency is many times its median. When hedging is enabled, the first attempt of
+ * every call starts immediately; if it has not answered after the configured percentile of recent
+ * latency (never less than {@code min-delay}), a hedge attempt is started and whichever succeeds
+ * first wins. The loser is cancelled by interrupting its thread, which aborts the JDK
+ * {@code HttpClient} exchange.
+ * <p>
+ * Hedges are paid for from a global budget: every call earns {@code budget-ratio} of a hedge token
+ * (capped at a small burst), and every hedge spends one whole token. With the default ratio of
+ * 0.05, hedging adds at most about 5% extra GitHub calls, so it cannot eat the rate limit.
+ * Failures are not hedged: an attempt that fails before the hedge delay is reported immediately.
+ * <p>
+ * The percentile is computed from attempts that got an HTTP response from GitHub, successful or
+ * not, timed from when the attempt was admitted upstream so that queueing for a permit does not
+ * count. A primary attempt cancelled because its hedge won is recorded too, since it ran for at
+ * least the hedge delay; a cancelled hedge is not, as it started late and would bias the percentile
+ * low. Failures raised before a request reaches GitHub, such as an exhausted token pool, are not
+ * recorded either.
+ */
+@Component
+public class HedgingExecutor {
+
+    private static final long TOKEN_SCALE = 1_000;
+    private static final long MAX_TOKENS = 10 * TOKEN_SCALE;
+
+    private final boolean enabled;
+    private final long minDelayNanos;
+    private final long earnPerCall;
+    private final LatencyTracker latencyTracker;
+    private final AtomicLong budget = new AtomicLong(MAX_TOKENS);
+    private final LongAdder hedgesSent = new LongAdder();
+    private final LongAdder hedgesWon = new LongAdder();
+    private final ExecutorService executor;
+
+    /**
+     * Creates the hedging executor.
+     *
+     * @param enabled     whether hedging is enabled at all
+     * @param percentile  the latency percentile after which a hedge is sent
+     * @param minDelay    the minimum delay before a hedge is sent
+     * @param budgetRatio the fraction of calls that may be hedged in the long run
+     * @param windowSize  the number of recent latencies the percentile is computed from
+     */
+    public HedgingExecutor(
+            @Value("${github.upstream.hedging.enabled:false}") final boolean enabled,
+            @Value("${github.upstream.hedging.percentile:95}") final double percentile,
+            @Value("${github.upstream.hedging.min-delay:50ms}") final Duration minDelay,
+            @Value("${github.upstream.hedging.budget-ratio:0.05}") final double budgetRatio,
+            @Value("${github.upstream.hedging.window-size:1024}") final int windowSize) {
+        this.enabled = enabled;
+        this.minDelayNanos = minDelay.toNanos();
+        this.earnPerCall = Math.round(budgetRatio * TOKEN_SCALE);
+        this.latencyTracker = new LatencyTracker(windowSize, percentile);
+        this.executor = enabled ? Executors.newVirtualThreadPerTaskExecutor() : null;
+    }
+
+    // ========== PUBLIC METHODS ==========
+
+    /**
+     * Runs the call, hedging it if it is slower than the tracked latency percentile.
+     *
+     * @param call the idempotent upstream call to run
+     * @param <T>  the result type
+     * @return the result of whichever attempt succeeded first
+     * @throws GitHubServiceException if all attempts fail or the calling thread is interrupted
+     */
+    public <T> T execute(final UpstreamCall<T> call) throws GitHubServiceException {
+        return execute(call, UnaryOperator.identity());
+    }
+
+    /**
+     * Runs the call, hedging it if it is slower than the tracked latency percentile. Each attempt is
+     * passed through {@code admission} (typically a wrapper that holds an upstream permit), and its
+     * latency is timed inside it.
+     *
+     * @param call      the idempotent upstream call to run
+     * @param admission wraps each timed attempt, for example in an upstream concurrency limit
+     * @param <T>       the result type
+     * @return the result of whichever attempt succeeded first
+     * @throws GitHubServiceException if all attempts fail or the calling thread is interrupted
+     */
+    public <T> T execute(final UpstreamCall<T> call, final UnaryOperator<UpstreamCall<T>> admission)
+            throws GitHubServiceException {
+        if (!enabled) {
+            return admission.apply(call).call();
+        }
+        earnBudget();
+        final CompletionService<T> attempts = new ExecutorCompletionService<>(executor);
+        final AtomicBoolean outraced = new AtomicBoolean();
+        final Future<T> primary = attempts.submit(() -> admission.apply(() -> timed(call, outraced)).call());
+        Future<T> hedge = null;
+        try {
+            Future<T> first = attempts.poll(hedgeDelayNanos(), TimeUnit.NANOSECONDS);
+            if (first == null && trySpendBudget()) {
+                hedgesSent.increment();
+                hedge = attempts.submit(() -> admission.apply(() -> timed(call, null)).call());
+            }
+            if (first == null) {
+                first = attempts.take();
+            }
+            return firstSuccess(attempts, first, hedge);
+        } catch (final InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            throw new GitHubServiceException("Interrupted while waiting for GitHub API", HttpStatus.SERVICE_UNAVAILABLE,
+                    interrupted);
+        } finally {
+            if (hedge != null) {
+                outraced.set(true);
+            }
+            primary.cancel(true);
+            if (hedge != null) {
+                hedge.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of hedge requests sent so far.
+     *
+     * @return the hedge count
+     */
+    public long getHedgesSent() {
+        return hedgesSent.sum();
+    }
+
+    /**
+     * Returns the number of hedge requests that answered before their primary.
+     *
+     * @return the count of winning hedges
+     */
+    public long getHedgesWon() {
+        return hedgesWon.sum();
+    }
+
+    /**
+     * Stops the hedging threads on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    // ========== PACKAGE-PRIVATE METHODS ==========
+
+    /**
+     * Returns the latency tracker that drives the hedge delay.
+     *
+     * @return the latency tracker
+     */
+    LatencyTracker getLatencyTracker() {
+        return latencyTracker;
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    /**
+     * Returns the result of the first successful attempt, falling back to the other attempt if the
+     * first one to finish failed.
+     */
+    private <T> T firstSuccess(final CompletionService<T> attempts, final Future<T> first, final Future<T> hedge)
+            throws GitHubServiceException, InterruptedException {
+        try {
+            final T result = first.get();
+            if (first == hedge) {
+                hedgesWon.increment();
+            }
+            return result;
+        } catch (final ExecutionException firstFailure) {
+            if (hedge == null) {
+                throw unwrap(firstFailure);
+            }
+            final Future<T> second = attempts.take();
+            try {
+                final T result = second.get();
+                if (second == hedge) {
+                    hedgesWon.increment();
+                }
+                return result;
+            } catch (final ExecutionException secondFailure) {
+                throw unwrap(firstFailure);
+            }
+        }
+    }
+
+    /**
+     * Runs one attempt and records its latency if GitHub answered it, successfully or not. A primary
+     * attempt that was outraced by its hedge is recorded however it ends: it was cancelled after
+     * running past the hedge delay, and leaving it out would bias the percentile low.
+     *
+     * @param outraced set once a hedge was sent and the call settled, or {@code null} for a hedge
+     */
+    private <T> T timed(final UpstreamCall<T> call, final AtomicBoolean outraced) throws GitHubServiceException {
+        final long start = System.nanoTime();
+        boolean answered = false;
+        try {
+            final T result = call.call();
+            answered = true;
+            return result;
+        } catch (final GitHubServiceException | RuntimeException failure) {
+            answered = hasResponse(failure);
+            throw failure;
+        } finally {
+            if (answered || outraced != null && outraced.get()) {
+                latencyTracker.record(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Returns whether a failure carries an HTTP response from GitHub, thrown directly or wrapped in
+     * a {@link GitHubServiceException}.
+     */
+    private static boolean hasResponse(final Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RestClientResponseException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns how long to wait for the primary attempt before hedging.
+     */
+    private long hedgeDelayNanos() {
+        final long percentileNanos = latencyTracker.getPercentileNanos();
+        // Until the window has enough samples there is no sensible threshold; wait for the primary
+        return percentileNanos < 0 ? Long.MAX_VALUE : Math.max(minDelayNanos, percentileNanos);
+    }
+
+    /**
+     * Adds this call's share of hedge tokens to the global budget.
+     */
+    private void earnBudget() {
+        budget.getAndUpdate(tokens -> Math.min(MAX_TOKENS, tokens + earnPerCall));
+    }
+
+    /**
+     * Spends one hedge token if the budget has one.
+     */
+    private boolean trySpendBudget() {
+        long tokens = budget.get();
+        while (tokens >= TOKEN_SCALE) {
+            if (budget.compareAndSet(tokens, tokens - TOKEN_SCALE)) {
+                return true;
+            }
+            tokens = budget.get();
+        }
+        return false;
+    }
+
+    /**
+     * Extracts the upstream failure from an attempt's {@code ExecutionException}.
+     */
+    private static GitHubServiceException unwrap(final ExecutionException failure) {
+        final Throwable cause = failure.getCause();
+        if (cause instanceof GitHubServiceException serviceException) {
+            return serviceException;
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new GitHubServiceException("GitHub API call failed", HttpStatus.BAD_GATEWAY, cause);
+    }
+}
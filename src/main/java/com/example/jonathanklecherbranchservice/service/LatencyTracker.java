@@ -0,0 +1,80 @@
+package com.example.jonathanklecherbranchservice.service;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Sliding window of recent upstream latencies with a cached percentile.
+ * <p>
+ * Recording is lock-free: each sample overwrites the oldest slot of a fixed ring buffer. Sorting
+ * the window on every request would be wasteful, so the requested percentile is recomputed only
+ * every {@code windowSize / 8} samples and read from a volatile field in between.
+ */
+public class LatencyTracker {
+
+    private static final int MIN_SAMPLES = 20;
+
+    private final AtomicLongArray window;
+    private final AtomicLong recorded = new AtomicLong();
+    private final double percentile;
+    private final int recomputeInterval;
+    private volatile long percentileNanos = -1;
+
+    /**
+     * Creates a tracker.
+     *
+     * @param windowSize the number of most recent samples to keep
+     * @param percentile the percentile to track, between 0 (exclusive) and 100 (inclusive)
+     */
+    public LatencyTracker(final int windowSize, final double percentile) {
+        if (windowSize < MIN_SAMPLES) {
+            throw new IllegalArgumentException("Latency window must hold at least " + MIN_SAMPLES + " samples");
+        }
+        if (percentile <= 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be in (0, 100]");
+        }
+        this.window = new AtomicLongArray(windowSize);
+        this.percentile = percentile;
+        this.recomputeInterval = Math.max(1, windowSize / 8);
+    }
+
+    /**
+     * Records one latency sample.
+     *
+     * @param nanos the observed latency in nanoseconds
+     */
+    public void record(final long nanos) {
+        final long index = recorded.getAndIncrement();
+        window.set((int) (index % window.length()), nanos);
+        final long count = index + 1;
+        if (count == MIN_SAMPLES || count % recomputeInterval == 0) {
+            recompute(count);
+        }
+    }
+
+    /**
+     * Returns the tracked percentile of the recent window.
+     *
+     * @return the percentile latency in nanoseconds, or {@code -1} until enough samples are recorded
+     */
+    public long getPercentileNanos() {
+        return percentileNanos;
+    }
+
+    /**
+     * Recomputes the cached percentile from a snapshot of the window.
+     *
+     * @param count the total number of samples recorded so far
+     */
+    private void recompute(final long count) {
+        final int size = (int) Math.min(count, window.length());
+        final long[] snapshot = new long[size];
+        for (int i = 0; i < size; i++) {
+            snapshot[i] = window.get(i);
+        }
+        Arrays.sort(snapshot);
+        final int rank = (int) Math.ceil(percentile / 100.0 * size) - 1;
+        percentileNanos = snapshot[Math.max(0, rank)];
+    }
+}
@@ -0,0 +1,335 @@
+package com.example.jonathanklecherbranchservice.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Retries upstream calls that failed for reasons that are likely to pass: brief GitHub 5xx
+ * responses, connection failures and rate limits that say when to come back.
+ * <p>
+ * A failure is retryable if GitHub answered with one of {@code retryable-statuses}, if it answered
+ * 403 or 429 with a {@code Retry-After} header (GitHub's secondary rate limits), or if the call threw
+ * one of {@code retryable-exceptions} (matched by class name, including superclasses). Failures raised
+ * inside this service, such as an exhausted token pool or a full upstream queue, are never retried.
+ * <p>
+ * Attempt {@code n} waits a random time between zero and {@code min(max-delay, base-delay * 2^n)}
+ * ("full jitter"), so clients that failed together do not retry together. A {@code Retry-After} is
+ * honored instead when present. No retry starts if its wait would end after the call's
+ * {@code deadline}, counted from the first attempt.
+ * <p>
+ * Retries are paid for from a global budget like hedges are: every call earns {@code budget-ratio}
+ * of a retry token (capped at a small burst) and every retry spends one whole token, so during an
+ * outage retries add at most about that fraction of extra GitHub calls instead of multiplying them.
+ * <p>
+ * Callers should run the retry policy outside the {@link UpstreamConcurrencyLimiter}, so an attempt
+ * waiting out its backoff does not hold an upstream permit.
+ */
+@Component
+public class RetryPolicy implements MeterBinder {
+
+    private static final long TOKEN_SCALE = 1_000;
+    private static final long MAX_TOKENS = 10 * TOKEN_SCALE;
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final String OUTCOME_TAG = "outcome";
+
+    private final int maxAttempts;
+    private final long baseDelayNanos;
+    private final long maxDelayNanos;
+    private final long deadlineNanos;
+    private final long earnPerCall;
+    private final Set<Integer> retryableStatuses;
+    private final Set<String> retryableExceptions;
+    private final Sleeper sleeper;
+    private final LongSupplier nanoClock;
+    private final LongSupplier wallClockMillis;
+    private final AtomicLong budget = new AtomicLong(MAX_TOKENS);
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder recovered = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+    private final LongAdder budgetDenied = new LongAdder();
+    private final LongAdder deadlineDenied = new LongAdder();
+
+    /**
+     * Waits between attempts; replaced in tests so they do not sleep.
+     */
+    @FunctionalInterface
+    interface Sleeper {
+
+        /**
+         * Blocks the calling thread.
+         *
+         * @param nanos how long to block
+         * @throws InterruptedException if the thread is interrupted while blocked
+         */
+        void sleep(long nanos) throws InterruptedException;
+    }
+
+    /**
+     * Creates the retry policy.
+     *
+     * @param enabled             whether failed calls are retried at all
+     * @param maxAttempts         the maximum number of attempts per call, including the first
+     * @param baseDelay           the backoff cap of the first retry, doubled for each further one
+     * @param maxDelay            the largest backoff cap
+     * @param deadline            how long after its first attempt a call may still be retried
+     * @param budgetRatio         the fraction of calls that may be retried in the long run
+     * @param retryableStatuses   the HTTP statuses that are always retried
+     * @param retryableExceptions fully qualified names of exception classes that are retried
+     */
+    @Autowired
+    public RetryPolicy(
+            @Value("${github.upstream.retry.enabled:true}") final boolean enabled,
+            @Value("${github.upstream.retry.max-attempts:3}") final int maxAttempts,
+            @Value("${github.upstream.retry.base-delay:100ms}") final Duration baseDelay,
+            @Value("${github.upstream.retry.max-delay:2s}") final Duration maxDelay,
+            @Value("${github.upstream.retry.deadline:5s}") final Duration deadline,
+            @Value("${github.upstream.retry.budget-ratio:0.1}") final double budgetRatio,
+            @Value("${github.upstream.retry.retryable-statuses:500,502,503,504}") final List<Integer> retryableStatuses,
+            @Value("${github.upstream.retry.retryable-exceptions:org.springframework.web.client.ResourceAccessException}")
+            final List<String> retryableExceptions) {
+        this(enabled ? maxAttempts : 1, baseDelay, maxDelay, deadline, budgetRatio, retryableStatuses, retryableExceptions,
+                TimeUnit.NANOSECONDS::sleep, System::nanoTime, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates the retry policy with explicit clocks and sleeper, for tests.
+     */
+    RetryPolicy(final int maxAttempts, final Duration baseDelay, final Duration maxDelay, final Duration deadline,
+                final double budgetRatio, final List<Integer> retryableStatuses, final List<String> retryableExceptions,
+                final Sleeper sleeper, final LongSupplier nanoClock, final LongSupplier wallClockMillis) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("github.upstream.retry.max-attempts must be at least 1");
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelayNanos = baseDelay.toNanos();
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.deadlineNanos = deadline.toNanos();
+        this.earnPerCall = Math.round(budgetRatio * TOKEN_SCALE);
+        this.retryableStatuses = Set.copyOf(retryableStatuses);
+        this.retryableExceptions = Set.copyOf(retryableExceptions);
+        this.sleeper = sleeper;
+        this.nanoClock = nanoClock;
+        this.wallClockMillis = wallClockMillis;
+    }
+
+    // ========== PUBLIC METHODS ==========
+
+    /**
+     * Runs the call, retrying retryable failures while attempts, deadline and budget allow.
+     *
+     * @param call the idempotent upstream call to run
+     * @param <T>  the result type
+     * @return the result of the first successful attempt
+     * @throws GitHubServiceException the last attempt's failure, or {@code 503} if the calling thread
+     *                                is interrupted while backing off
+     */
+    public <T> T execute(final UpstreamCall<T> call) throws GitHubServiceException {
+        if (maxAttempts == 1) {
+            return call.call();
+        }
+        earnBudget();
+        final long start = nanoClock.getAsLong();
+        for (int attempt = 1; ; attempt++) {
+            final long delayNanos;
+            try {
+                final T result = call.call();
+                if (attempt > 1) {
+                    recovered.increment();
+                }
+                return result;
+            } catch (final GitHubServiceException | RuntimeException failure) {
+                delayNanos = retryDelayNanos(failure, attempt, start);
+                if (delayNanos < 0) {
+                    throw failure;
+                }
+            }
+            retried.increment();
+            backOff(delayNanos);
+        }
+    }
+
+    /**
+     * Returns the number of retries sent so far.
+     *
+     * @return the retry count
+     */
+    public long getRetries() {
+        return retried.sum();
+    }
+
+    /**
+     * Returns the number of calls that succeeded after at least one retry.
+     *
+     * @return the count of recovered calls
+     */
+    public long getRecovered() {
+        return recovered.sum();
+    }
+
+    /**
+     * Publishes retry counts as {@code github.upstream.retries}, tagged by outcome.
+     *
+     * @param registry the registry to bind to
+     */
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        register(registry, retried, "retried", "Retries sent to GitHub");
+        register(registry, recovered, "recovered", "Calls that succeeded after a retry");
+        register(registry, exhausted, "exhausted", "Retryable calls that failed on their last attempt");
+        register(registry, budgetDenied, "budget", "Retries skipped because the retry budget was spent");
+        register(registry, deadlineDenied, "deadline", "Retries skipped because they would end after the deadline");
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    /**
+     * Decides whether and when a failed attempt is retried.
+     *
+     * @return the time to wait before the next attempt, or -1 to give up
+     */
+    private long retryDelayNanos(final Exception failure, final int attempt, final long start) {
+        final RestClientResponseException response = responseOf(failure);
+        final long retryAfterNanos = response == null ? -1 : retryAfterNanos(response.getResponseHeaders());
+        if (!isRetryable(failure, response, retryAfterNanos)) {
+            return -1;
+        }
+        if (attempt >= maxAttempts) {
+            exhausted.increment();
+            return -1;
+        }
+        final long delayNanos = retryAfterNanos >= 0 ? retryAfterNanos : jitteredBackoffNanos(attempt);
+        if (nanoClock.getAsLong() + delayNanos - start > deadlineNanos) {
+            deadlineDenied.increment();
+            return -1;
+        }
+        if (!trySpendBudget()) {
+            budgetDenied.increment();
+            return -1;
+        }
+        return delayNanos;
+    }
+
+    private boolean isRetryable(final Exception failure, final RestClientResponseException response,
+                                final long retryAfterNanos) {
+        if (response != null) {
+            final int status = response.getStatusCode().value();
+            return retryableStatuses.contains(status)
+                    || retryAfterNanos >= 0 && (status == HttpStatus.FORBIDDEN.value()
+                    || status == HttpStatus.TOO_MANY_REQUESTS.value());
+        }
+        if (failure instanceof GitHubServiceException) {
+            return false;
+        }
+        for (Class<?> type = failure.getClass(); type != null; type = type.getSuperclass()) {
+            if (retryableExceptions.contains(type.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds GitHub's error response behind a failure, which is either thrown directly or wrapped in a
+     * {@link GitHubServiceException}.
+     */
+    private static RestClientResponseException responseOf(final Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RestClientResponseException response) {
+                return response;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses a {@code Retry-After} header given in seconds or as an HTTP date.
+     *
+     * @return the wait in nanoseconds, or -1 if the header is missing or malformed
+     */
+    private long retryAfterNanos(final HttpHeaders headers) {
+        final String value = headers == null ? null : headers.getFirst(HttpHeaders.RETRY_AFTER);
+        if (value == null || value.isBlank()) {
+            return -1;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value.trim())) * NANOS_PER_SECOND;
+        } catch (final NumberFormatException notSeconds) {
+            try {
+                final long epochMillis = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME)
+                        .toInstant().toEpochMilli();
+                return TimeUnit.MILLISECONDS.toNanos(Math.max(0, epochMillis - wallClockMillis.getAsLong()));
+            } catch (final DateTimeParseException notDate) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Returns a uniformly random wait up to the exponential backoff cap of an attempt.
+     */
+    private long jitteredBackoffNanos(final int attempt) {
+        final int doublings = attempt - 1;
+        final long cap = doublings >= Long.numberOfLeadingZeros(baseDelayNanos) - 1
+                ? maxDelayNanos
+                : Math.min(maxDelayNanos, baseDelayNanos << doublings);
+        return cap <= 0 ? 0 : ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private void backOff(final long delayNanos) throws GitHubServiceException {
+        try {
+            sleeper.sleep(delayNanos);
+        } catch (final InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            throw new GitHubServiceException("Interrupted while waiting to retry a GitHub API call",
+                    HttpStatus.SERVICE_UNAVAILABLE, interrupted);
+        }
+    }
+
+    /**
+     * Adds this call's share of retry tokens to the global budget.
+     */
+    private void earnBudget() {
+        budget.getAndUpdate(tokens -> Math.min(MAX_TOKENS, tokens + earnPerCall));
+    }
+
+    /**
+     * Spends one retry token if the budget has one.
+     */
+    private boolean trySpendBudget() {
+        long tokens = budget.get();
+        while (tokens >= TOKEN_SCALE) {
+            if (budget.compareAndSet(tokens, tokens - TOKEN_SCALE)) {
+                return true;
+            }
+            tokens = budget.get();
+        }
+        return false;
+    }
+
+    private static void register(final MeterRegistry registry, final LongAdder counter, final String outcome,
+                                 final String description) {
+        FunctionCounter.builder("github.upstream.retries", counter, LongAdder::sum)
+                .description(description)
+                .tag(OUTCOME_TAG, outcome)
+                .register(registry);
+    }
+}
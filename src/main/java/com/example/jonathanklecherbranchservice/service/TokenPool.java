@@ -0,0 +1,284 @@
+package com.example.jonathanklecherbranchservice.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * A pool of GitHub API tokens that spreads upstream calls by remaining rate-limit budget.
+ * <p>
+ * Anonymous calls are limited to 60 per hour per IP and a single token to 5,000 per hour, so the
+ * service can be given several tokens ({@code github.api.tokens}, comma-separated). Each token's
+ * budget is tracked from the {@code X-RateLimit-Remaining}, {@code X-RateLimit-Limit} and
+ * {@code X-RateLimit-Reset} headers of the responses it received, and decremented when a call
+ * is started so that concurrent calls do not all pick the same token between responses.
+ * <p>
+ * Choosing a token is O(1): two random usable tokens are compared and the one with more remaining
+ * budget wins (the "power of two choices"), which keeps budgets close to even without scanning or
+ * sorting the pool. A token whose budget reaches zero is parked until its reset time; parking and
+ * unparking rebuild the array of usable tokens, which happens at most twice per token per hour.
+ * <p>
+ * With no tokens configured, {@link #acquire()} returns {@code null} and calls stay anonymous.
+ * GitHub keeps separate budgets for REST and GraphQL; a token's tracked budget follows whichever
+ * kind of response it saw last.
+ */
+@Component
+public class TokenPool implements MeterBinder {
+
+    private static final int DEFAULT_LIMIT = 5000;
+    private static final long MILLIS_PER_SECOND = 1000L;
+    private static final String TOKEN_TAG = "token";
+
+    private final Token[] tokens;
+    private final LongSupplier clock;
+    private final ReentrantLock parkingLock = new ReentrantLock();
+    private volatile Token[] usable;
+    private volatile long nextResetMillis = Long.MAX_VALUE;
+
+    /**
+     * Creates a pool from the configured tokens.
+     *
+     * @param tokens comma-separated API tokens, may be empty
+     * @param token  a single API token, used when {@code tokens} is empty; may be empty
+     */
+    @Autowired
+    public TokenPool(@Value("${github.api.tokens:}") final String tokens,
+                     @Value("${github.api.token:}") final String token) {
+        this(parse(tokens.isBlank() ? token : tokens), System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a pool with an explicit clock, for tests.
+     *
+     * @param secrets the API tokens
+     * @param clock   supplies the current time in epoch milliseconds
+     */
+    TokenPool(final List<String> secrets, final LongSupplier clock) {
+        this.tokens = new Token[secrets.size()];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = new Token("token-" + i, secrets.get(i));
+        }
+        this.clock = clock;
+        this.usable = tokens.clone();
+    }
+
+    // ========== PUBLIC METHODS ==========
+
+    /**
+     * Chooses the token for the next upstream call and reserves one unit of its budget.
+     *
+     * @return the token to use, or {@code null} if the pool is empty and the call should be anonymous
+     * @throws GitHubServiceException with {@code 429 Too Many Requests} if every token is parked
+     */
+    public Token acquire() throws GitHubServiceException {
+        if (tokens.length == 0) {
+            return null;
+        }
+        if (clock.getAsLong() >= nextResetMillis) {
+            unparkExpired();
+        }
+        final Token[] candidates = usable;
+        final Token chosen = switch (candidates.length) {
+            case 0 -> throw new GitHubServiceException("All GitHub API tokens are rate limited",
+                    HttpStatus.TOO_MANY_REQUESTS, null);
+            case 1 -> candidates[0];
+            default -> {
+                final ThreadLocalRandom random = ThreadLocalRandom.current();
+                final int first = random.nextInt(candidates.length);
+                int second = random.nextInt(candidates.length - 1);
+                if (second >= first) {
+                    second++;
+                }
+                yield candidates[first].remaining.get() >= candidates[second].remaining.get()
+                        ? candidates[first] : candidates[second];
+            }
+        };
+        chosen.remaining.decrementAndGet();
+        return chosen;
+    }
+
+    /**
+     * Updates a token's budget from the rate-limit headers of a response, parking it if exhausted.
+     *
+     * @param token   the token used for the call, may be {@code null} for anonymous calls
+     * @param headers the response headers, may be {@code null}
+     */
+    public void record(final Token token, final HttpHeaders headers) {
+        if (token == null || headers == null) {
+            return;
+        }
+        final String remaining = headers.getFirst("X-RateLimit-Remaining");
+        final String limit = headers.getFirst("X-RateLimit-Limit");
+        final String reset = headers.getFirst("X-RateLimit-Reset");
+        try {
+            if (limit != null) {
+                token.limit = Integer.parseInt(limit);
+            }
+            if (reset != null) {
+                token.resetMillis = Long.parseLong(reset) * MILLIS_PER_SECOND;
+            }
+            if (remaining != null) {
+                token.remaining.set(Integer.parseInt(remaining));
+            }
+        } catch (final NumberFormatException ignored) {
+            return;
+        }
+        if (token.remaining.get() <= 0) {
+            park(token);
+        }
+    }
+
+    /**
+     * Returns the number of configured tokens.
+     *
+     * @return the pool size
+     */
+    public int size() {
+        return tokens.length;
+    }
+
+    /**
+     * Publishes per-token remaining budget, limit and parked state, tagged by token index (never by
+     * the token itself).
+     *
+     * @param registry the registry to bind to
+     */
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        for (final Token token : tokens) {
+            Gauge.builder("github.tokens.remaining", token, candidate -> candidate.remaining.get())
+                    .description("Remaining GitHub API rate-limit budget of a token")
+                    .tag(TOKEN_TAG, token.label).register(registry);
+            Gauge.builder("github.tokens.limit", token, candidate -> candidate.limit)
+                    .description("GitHub API rate limit of a token per window")
+                    .tag(TOKEN_TAG, token.label).register(registry);
+            Gauge.builder("github.tokens.parked", token, candidate -> candidate.parked ? 1 : 0)
+                    .description("Whether a token is parked until its rate limit resets")
+                    .tag(TOKEN_TAG, token.label).register(registry);
+        }
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    private void park(final Token token) {
+        parkingLock.lock();
+        try {
+            if (!token.parked) {
+                token.parked = true;
+                nextResetMillis = Math.min(nextResetMillis, token.resetMillis);
+                rebuildUsable();
+            }
+        } finally {
+            parkingLock.unlock();
+        }
+    }
+
+    /**
+     * Returns parked tokens whose reset time has passed to the usable set with a full budget.
+     * Callers that lose the race for the lock keep using the current set.
+     */
+    private void unparkExpired() {
+        if (!parkingLock.tryLock()) {
+            return;
+        }
+        try {
+            final long now = clock.getAsLong();
+            long next = Long.MAX_VALUE;
+            for (final Token token : tokens) {
+                if (token.parked && token.resetMillis <= now) {
+                    token.parked = false;
+                    token.remaining.set(token.limit);
+                } else if (token.parked) {
+                    next = Math.min(next, token.resetMillis);
+                }
+            }
+            nextResetMillis = next;
+            rebuildUsable();
+        } finally {
+            parkingLock.unlock();
+        }
+    }
+
+    private void rebuildUsable() {
+        usable = Arrays.stream(tokens).filter(token -> !token.parked).toArray(Token[]::new);
+    }
+
+    private static List<String> parse(final String tokens) {
+        final List<String> secrets = new ArrayList<>();
+        for (final String token : tokens.split(",")) {
+            if (!token.isBlank()) {
+                secrets.add(token.trim());
+            }
+        }
+        return secrets;
+    }
+
+    // ========== NESTED TYPES ==========
+
+    /**
+     * One API token and its tracked rate-limit budget.
+     */
+    public static final class Token {
+
+        private final String label;
+        private final String secret;
+        private final AtomicInteger remaining = new AtomicInteger(DEFAULT_LIMIT);
+        private volatile int limit = DEFAULT_LIMIT;
+        private volatile long resetMillis;
+        private volatile boolean parked;
+
+        private Token(final String label, final String secret) {
+            this.label = label;
+            this.secret = secret;
+        }
+
+        /**
+         * Returns the token to send as the {@code Authorization: Bearer} credential.
+         *
+         * @return the token
+         */
+        public String getSecret() {
+            return secret;
+        }
+
+        /**
+         * Returns the token's label for logs and metrics, e.g. {@code token-0}.
+         *
+         * @return the label
+         */
+        public String getLabel() {
+            return label;
+        }
+
+        /**
+         * Returns the tracked remaining budget.
+         *
+         * @return the remaining number of calls
+         */
+        public int getRemaining() {
+            return remaining.get();
+        }
+
+        /**
+         * Returns whether the token is parked until its rate limit resets.
+         *
+         * @return {@code true} if parked
+         */
+        public boolean isParked() {
+            return parked;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.jonathanklecherbranchservice.service;
+
+/**
+ * A single unit of upstream work against the GitHub API.
+ * <p>
+ * Unlike {@link java.util.concurrent.Callable}, the only checked exception an upstream call
+ * may throw is {@link GitHubServiceException}, so wrappers such as the concurrency limiter can
+ * pass failures through without re-wrapping them and losing the HTTP status.
+ *
+ * @param <T> the type of the value produced by the call
+ */
+@FunctionalInterface
+public interface UpstreamCall<T> {
+
+    /**
+     * Performs the upstream call.
+     *
+     * @return the result of the call
+     * @throws GitHubServiceException if the call fails
+     */
+    T call() throws GitHubServiceException;
+}
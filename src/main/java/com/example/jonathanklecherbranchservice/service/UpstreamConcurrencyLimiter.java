@@ -0,0 +1,348 @@
+package com.example.jonathanklecherbranchservice.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caps the number of GitHub API calls in flight at once, and shares that capacity between
+ * {@link UpstreamLane lanes} of different priority.
+ * <p>
+ * With platform threads the Tomcat pool implicitly bounded upstream concurrency. Once requests run
+ * on virtual threads that bound disappears, so this limiter takes its place: every upstream call
+ * must hold one of {@code max-concurrent-calls} permits. Waiting for a permit parks the calling
+ * thread (a cheap unmount for virtual threads) rather than pinning a carrier, and callers that
+ * cannot get a permit within the configured timeout fail fast with {@code 503 Service Unavailable}.
+ * <p>
+ * Waiting callers queue per lane. Whenever a permit is free, it goes to the head of the lane with
+ * the lowest virtual time among the lanes below their own concurrency limit; a lane's virtual time
+ * advances by {@code 1 / weight} per permit (stride scheduling), so under contention lanes are
+ * served in proportion to their weights. A lane whose queue was empty re-enters at the current
+ * virtual time, so it neither claims a burst for the time it was idle nor waits out a lead it
+ * built up earlier; ties go to the higher-priority lane. With the defaults, interactive calls get
+ * 8 permits for every 2 batch and 1 background permit, and background work can hold at most a
+ * quarter of all permits, so a burst of refreshes can neither take the capacity interactive
+ * requests need nor jump their queue.
+ * Time spent queued is published per lane as {@code github.upstream.queue.time}.
+ */
+@Component
+public class UpstreamConcurrencyLimiter implements MeterBinder {
+
+    private static final long STRIDE_SCALE = 1_000_000L;
+    private static final int DEFAULT_INTERACTIVE_WEIGHT = 8;
+    private static final int DEFAULT_BATCH_WEIGHT = 2;
+    private static final int DEFAULT_BACKGROUND_WEIGHT = 1;
+    private static final String LANE_TAG = "lane";
+
+    private final int maxConcurrentCalls;
+    private final long acquireTimeoutNanos;
+    private final Lane[] lanes;
+    private final ReentrantLock lock = new ReentrantLock();
+    private int available;
+    private long virtualTime;
+
+    /**
+     * Creates a limiter with the given number of permits and per-lane weights and limits.
+     *
+     * @param maxConcurrentCalls       the maximum number of concurrent upstream calls
+     * @param acquireTimeout           how long a caller may wait for a permit before failing
+     * @param interactiveWeight        the scheduling weight of the interactive lane
+     * @param batchWeight              the scheduling weight of the batch lane
+     * @param backgroundWeight         the scheduling weight of the background lane
+     * @param interactiveMaxConcurrent the interactive lane's limit, or 0 for all permits
+     * @param batchMaxConcurrent       the batch lane's limit, or 0 for half of the permits
+     * @param backgroundMaxConcurrent  the background lane's limit, or 0 for a quarter of the permits
+     */
+    @Autowired
+    public UpstreamConcurrencyLimiter(
+            @Value("${github.upstream.max-concurrent-calls:64}") final int maxConcurrentCalls,
+            @Value("${github.upstream.acquire-timeout:2s}") final Duration acquireTimeout,
+            @Value("${github.upstream.lanes.interactive.weight:8}") final int interactiveWeight,
+            @Value("${github.upstream.lanes.batch.weight:2}") final int batchWeight,
+            @Value("${github.upstream.lanes.background.weight:1}") final int backgroundWeight,
+            @Value("${github.upstream.lanes.interactive.max-concurrent:0}") final int interactiveMaxConcurrent,
+            @Value("${github.upstream.lanes.batch.max-concurrent:0}") final int batchMaxConcurrent,
+            @Value("${github.upstream.lanes.background.max-concurrent:0}") final int backgroundMaxConcurrent) {
+        if (maxConcurrentCalls < 1) {
+            throw new IllegalArgumentException("github.upstream.max-concurrent-calls must be at least 1");
+        }
+        if (interactiveWeight < 1 || batchWeight < 1 || backgroundWeight < 1) {
+            throw new IllegalArgumentException("github.upstream.lanes.*.weight must be at least 1");
+        }
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        this.available = maxConcurrentCalls;
+        this.lanes = new Lane[] {
+                new Lane(UpstreamLane.INTERACTIVE, interactiveWeight, laneLimit(interactiveMaxConcurrent, 1)),
+                new Lane(UpstreamLane.BATCH, batchWeight, laneLimit(batchMaxConcurrent, 2)),
+                new Lane(UpstreamLane.BACKGROUND, backgroundWeight, laneLimit(backgroundMaxConcurrent, 4)),
+        };
+    }
+
+    /**
+     * Creates a limiter with the given number of permits and the default lane weights and limits.
+     *
+     * @param maxConcurrentCalls the maximum number of concurrent upstream calls
+     * @param acquireTimeout     how long a caller may wait for a permit before failing
+     */
+    public UpstreamConcurrencyLimiter(final int maxConcurrentCalls, final Duration acquireTimeout) {
+        this(maxConcurrentCalls, acquireTimeout, DEFAULT_INTERACTIVE_WEIGHT, DEFAULT_BATCH_WEIGHT,
+                DEFAULT_BACKGROUND_WEIGHT, 0, 0, 0);
+    }
+
+    // ========== PUBLIC METHODS ==========
+
+    /**
+     * Runs the given call in the interactive lane while holding an upstream permit.
+     *
+     * @param call the upstream call to run
+     * @param <T>  the result type
+     * @return the result of the call
+     * @throws GitHubServiceException if no permit becomes available in time, the calling thread is
+     *                                interrupted, or the call itself fails
+     */
+    public <T> T call(final UpstreamCall<T> call) throws GitHubServiceException {
+        return call(UpstreamLane.INTERACTIVE, call);
+    }
+
+    /**
+     * Runs the given call in a lane while holding an upstream permit.
+     *
+     * @param lane the priority class of the call
+     * @param call the upstream call to run
+     * @param <T>  the result type
+     * @return the result of the call
+     * @throws GitHubServiceException if no permit becomes available in time, the calling thread is
+     *                                interrupted, or the call itself fails
+     */
+    public <T> T call(final UpstreamLane lane, final UpstreamCall<T> call) throws GitHubServiceException {
+        final Lane target = lanes[lane.ordinal()];
+        acquire(target);
+        try {
+            return call.call();
+        } finally {
+            release(target);
+        }
+    }
+
+    /**
+     * Returns the configured maximum number of concurrent upstream calls.
+     *
+     * @return the permit count
+     */
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    /**
+     * Returns the number of upstream calls currently holding a permit.
+     *
+     * @return the number of calls in flight
+     */
+    public int getInFlightCalls() {
+        int inFlight = 0;
+        for (final Lane lane : lanes) {
+            inFlight += lane.inFlight.get();
+        }
+        return inFlight;
+    }
+
+    /**
+     * Returns the number of calls of a lane currently holding a permit.
+     *
+     * @param lane the lane
+     * @return the number of calls in flight in that lane
+     */
+    public int getInFlightCalls(final UpstreamLane lane) {
+        return lanes[lane.ordinal()].inFlight.get();
+    }
+
+    /**
+     * Returns the number of calls of a lane waiting for a permit.
+     *
+     * @param lane the lane
+     * @return the number of queued calls in that lane
+     */
+    public int getQueuedCalls(final UpstreamLane lane) {
+        return lanes[lane.ordinal()].queued.get();
+    }
+
+    /**
+     * Publishes per-lane queue time, queue depth, calls in flight and rejections.
+     *
+     * @param registry the registry to bind to
+     */
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        for (final Lane lane : lanes) {
+            final String tag = lane.lane.name().toLowerCase(Locale.ROOT);
+            lane.queueTimer = Timer.builder("github.upstream.queue.time")
+                    .description("Time upstream calls waited for a permit")
+                    .publishPercentiles(0.5, 0.99)
+                    .tag(LANE_TAG, tag)
+                    .register(registry);
+            Gauge.builder("github.upstream.queued", lane.queued, AtomicInteger::get)
+                    .description("Upstream calls waiting for a permit")
+                    .tag(LANE_TAG, tag).register(registry);
+            Gauge.builder("github.upstream.in.flight", lane.inFlight, AtomicInteger::get)
+                    .description("Upstream calls holding a permit")
+                    .tag(LANE_TAG, tag).register(registry);
+            FunctionCounter.builder("github.upstream.rejected", lane.rejected, LongAdder::sum)
+                    .description("Upstream calls that timed out waiting for a permit")
+                    .tag(LANE_TAG, tag).register(registry);
+        }
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    /**
+     * Queues for a permit in a lane, waiting at most the configured timeout.
+     *
+     * @throws GitHubServiceException with {@code 503} if no permit is available in time or the
+     *                                thread is interrupted while waiting
+     */
+    private void acquire(final Lane target) throws GitHubServiceException {
+        final long start = System.nanoTime();
+        lock.lock();
+        try {
+            final Waiter waiter = new Waiter(lock.newCondition());
+            if (target.waiting.isEmpty()) {
+                target.pass = virtualTime;
+            }
+            target.waiting.addLast(waiter);
+            target.queued.incrementAndGet();
+            dispatch();
+            long remaining = acquireTimeoutNanos;
+            while (!waiter.granted) {
+                if (remaining <= 0) {
+                    abandon(target, waiter);
+                    throw new GitHubServiceException("Too many concurrent GitHub API calls, try again later",
+                            HttpStatus.SERVICE_UNAVAILABLE, null);
+                }
+                try {
+                    remaining = waiter.ready.awaitNanos(remaining);
+                } catch (final InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    if (waiter.granted) {
+                        releaseLocked(target);
+                    } else {
+                        abandon(target, waiter);
+                    }
+                    throw new GitHubServiceException("Interrupted while waiting for a GitHub API slot",
+                            HttpStatus.SERVICE_UNAVAILABLE, interrupted);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        final Timer timer = target.queueTimer;
+        if (timer != null) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void release(final Lane target) {
+        lock.lock();
+        try {
+            releaseLocked(target);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void releaseLocked(final Lane target) {
+        target.inFlight.decrementAndGet();
+        available++;
+        dispatch();
+    }
+
+    private void abandon(final Lane target, final Waiter waiter) {
+        target.waiting.remove(waiter);
+        target.queued.decrementAndGet();
+        target.rejected.increment();
+    }
+
+    /**
+     * Hands free permits to waiting callers, lowest lane virtual time first. Must hold the lock.
+     */
+    private void dispatch() {
+        while (available > 0) {
+            Lane next = null;
+            for (final Lane lane : lanes) {
+                if (!lane.waiting.isEmpty() && lane.inFlight.get() < lane.maxConcurrent
+                        && (next == null || lane.pass < next.pass)) {
+                    next = lane;
+                }
+            }
+            if (next == null) {
+                return;
+            }
+            final Waiter waiter = next.waiting.pollFirst();
+            next.queued.decrementAndGet();
+            next.inFlight.incrementAndGet();
+            available--;
+            virtualTime = next.pass;
+            next.pass += next.stride;
+            waiter.granted = true;
+            waiter.ready.signal();
+        }
+    }
+
+    private int laneLimit(final int configured, final int defaultDivisor) {
+        final int limit = configured > 0 ? configured : maxConcurrentCalls / defaultDivisor;
+        return Math.clamp(limit, 1, maxConcurrentCalls);
+    }
+
+    // ========== NESTED TYPES ==========
+
+    /**
+     * Scheduling state of one lane. Queues, passes and the permit count are guarded by the lock;
+     * the counters are atomic so that metrics can read them without it.
+     */
+    private static final class Lane {
+
+        private final UpstreamLane lane;
+        private final long stride;
+        private final int maxConcurrent;
+        private final ArrayDeque<Waiter> waiting = new ArrayDeque<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final LongAdder rejected = new LongAdder();
+        private long pass;
+        private volatile Timer queueTimer;
+
+        private Lane(final UpstreamLane lane, final int weight, final int maxConcurrent) {
+            this.lane = lane;
+            this.stride = STRIDE_SCALE / weight;
+            this.maxConcurrent = maxConcurrent;
+        }
+    }
+
+    /**
+     * A caller parked until a permit is handed to it. Guarded by the lock.
+     */
+    private static final class Waiter {
+
+        private final Condition ready;
+        private boolean granted;
+
+        private Waiter(final Condition ready) {
+            this.ready = ready;
+        }
+    }
+}
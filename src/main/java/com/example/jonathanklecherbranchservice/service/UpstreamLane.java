@@ -0,0 +1,17 @@
+package com.example.jonathanklecherbranchservice.service;
+
+/**
+ * The priority class of an upstream GitHub call, used by the {@link UpstreamConcurrencyLimiter} to
+ * keep background work from delaying user requests.
+ */
+public enum UpstreamLane {
+
+    /** A user is waiting for the response. */
+    INTERACTIVE,
+
+    /** Bulk work requested by a caller, such as multi-user requests. */
+    BATCH,
+
+    /** Work nobody is waiting for: cache refreshes and warmups. */
+    BACKGROUND
+}
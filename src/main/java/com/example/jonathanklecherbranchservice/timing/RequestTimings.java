@@ -0,0 +1,171 @@
+package com.example.jonathanklecherbranchservice.timing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Request-scoped latency breakdown, rendered as a {@code Server-Timing} header.
+ * <p>
+ * The {@link ServerTimingFilter} binds an instance to the request thread; code on the request path
+ * (the controller and {@code GitHubService}) wraps each phase in a {@link Span}:
+ * <pre>{@code
+ * try (RequestTimings.Span ignored = RequestTimings.start("profile")) {
+ *     json = getJsonFromUrl(url);
+ * }
+ * }</pre>
+ * When the feature is disabled no instance is bound, and {@link #start(String)} returns a shared
+ * no-op span after a single thread-local lookup, so instrumented code costs next to nothing.
+ * Instances are confined to the request thread and are not thread-safe.
+ */
+public final class RequestTimings {
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+    private static final Span NOOP_SPAN = new Span(null, null, 0L);
+
+    private final long startNanos = System.nanoTime();
+    private final List<String> phases = new ArrayList<>(8);
+    private final List<long[]> durations = new ArrayList<>(8);
+    private long serializationStartNanos;
+
+    /**
+     * Creates an unbound timing record; use {@link #begin()} to bind one to the current thread.
+     */
+    RequestTimings() {
+    }
+
+    // ========== STATIC API USED BY INSTRUMENTED CODE ==========
+
+    /**
+     * Starts timing a phase of the current request.
+     *
+     * @param phase the phase name (a {@code Server-Timing} metric name, e.g. {@code "profile"})
+     * @return a span to close when the phase ends; a no-op span if timing is not active
+     */
+    public static Span start(final String phase) {
+        final RequestTimings timings = CURRENT.get();
+        return timings == null ? NOOP_SPAN : new Span(timings, phase, System.nanoTime());
+    }
+
+    /**
+     * Marks the moment the response body starts being serialized, if timing is active.
+     */
+    public static void markSerializationStart() {
+        final RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.serializationStartNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Binds a new timing record to the current thread.
+     *
+     * @return the bound record
+     */
+    static RequestTimings begin() {
+        final RequestTimings timings = new RequestTimings();
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    /**
+     * Unbinds the timing record from the current thread.
+     */
+    static void end() {
+        CURRENT.remove();
+    }
+
+    // ========== INSTANCE METHODS ==========
+
+    /**
+     * Adds a duration to a phase, merging repeated phases into one entry.
+     *
+     * @param phase the phase name
+     * @param nanos the duration in nanoseconds
+     */
+    void add(final String phase, final long nanos) {
+        final int index = phases.indexOf(phase);
+        if (index >= 0) {
+            durations.get(index)[0] += nanos;
+        } else {
+            phases.add(phase);
+            durations.add(new long[] {nanos});
+        }
+    }
+
+    /**
+     * Returns the time elapsed since the record was created.
+     *
+     * @return elapsed nanoseconds
+     */
+    long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Records the serialization phase (from the serialization mark until now) if it was marked.
+     */
+    void finishSerialization() {
+        if (serializationStartNanos != 0) {
+            add("serialize", System.nanoTime() - serializationStartNanos);
+            serializationStartNanos = 0;
+        }
+    }
+
+    /**
+     * Renders the phases and the given total as a {@code Server-Timing} header value,
+     * e.g. {@code validate;dur=0.1, profile;dur=120.4, total;dur=231.0}.
+     *
+     * @param totalNanos the total request duration in nanoseconds
+     * @return the header value
+     */
+    String toHeaderValue(final long totalNanos) {
+        final StringBuilder header = new StringBuilder(128);
+        for (int i = 0; i < phases.size(); i++) {
+            appendMetric(header, phases.get(i), durations.get(i)[0]);
+            header.append(", ");
+        }
+        appendMetric(header, "total", totalNanos);
+        return header.toString();
+    }
+
+    /**
+     * Appends one {@code name;dur=millis} metric with 0.1 ms precision.
+     */
+    private static void appendMetric(final StringBuilder header, final String name, final long nanos) {
+        final long tenthsOfMilli = nanos / 100_000L;
+        header.append(name).append(";dur=").append(tenthsOfMilli / 10).append('.').append(tenthsOfMilli % 10);
+    }
+
+    /**
+     * A running phase; closing it records its duration.
+     */
+    public static final class Span implements AutoCloseable {
+
+        private final RequestTimings timings;
+        private final String phase;
+        private final long startNanos;
+
+        /**
+         * Creates a span.
+         *
+         * @param timings    the owning record, or {@code null} for the no-op span
+         * @param phase      the phase name
+         * @param startNanos the phase start time
+         */
+        private Span(final RequestTimings timings, final String phase, final long startNanos) {
+            this.timings = timings;
+            this.phase = phase;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Ends the phase and records its duration.
+         */
+        @Override
+        public void close() {
+            if (timings != null) {
+                timings.add(phase, System.nanoTime() - startNanos);
+            }
+        }
+    }
+}
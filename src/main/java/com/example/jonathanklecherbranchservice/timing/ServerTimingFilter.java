@@ -0,0 +1,107 @@
+package com.example.jonathanklecherbranchservice.timing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Adds a {@code Server-Timing} header with the latency breakdown of every {@code /users} request.
+ * <p>
+ * The filter binds a {@link RequestTimings} record to the request thread, lets the controller and
+ * service record their phases, and buffers the response body so the header (which must precede
+ * the body) can include the serialization phase and the total. Requests slower than the
+ * configured threshold are logged as structured key-value events, sampled at the configured rate.
+ * <p>
+ * The filter only exists when {@code github.server-timing.enabled=true}; otherwise instrumented
+ * code falls through to {@link RequestTimings}' no-op span.
+ */
+@Component
+@ConditionalOnProperty(name = "github.server-timing.enabled", havingValue = "true")
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ServerTimingFilter.class);
+    private static final String SERVER_TIMING = "Server-Timing";
+
+    private final long slowThresholdNanos;
+    private final double slowLogSampleRate;
+
+    /**
+     * Creates the filter.
+     *
+     * @param slowThreshold     requests at least this slow are candidates for a log entry
+     * @param slowLogSampleRate the fraction of slow requests that are logged (0.0 - 1.0)
+     */
+    public ServerTimingFilter(
+            @Value("${github.server-timing.slow-threshold:1s}") final Duration slowThreshold,
+            @Value("${github.server-timing.slow-log-sample-rate:0.1}") final double slowLogSampleRate) {
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.slowLogSampleRate = slowLogSampleRate;
+    }
+
+    /**
+     * Only {@code /users} requests are timed.
+     *
+     * @param request the current request
+     * @return {@code true} for requests outside {@code /users}
+     */
+    @Override
+    protected boolean shouldNotFilter(final HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/users/");
+    }
+
+    /**
+     * Times the request and writes the {@code Server-Timing} header before the buffered body.
+     *
+     * @param request     the current request
+     * @param response    the current response
+     * @param filterChain the remaining filter chain
+     * @throws ServletException if the chain fails
+     * @throws IOException      if writing the response fails
+     */
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+        final RequestTimings timings = RequestTimings.begin();
+        final ContentCachingResponseWrapper bufferedResponse = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, bufferedResponse);
+        } finally {
+            RequestTimings.end();
+            timings.finishSerialization();
+            final long totalNanos = timings.elapsedNanos();
+            final String header = timings.toHeaderValue(totalNanos);
+            bufferedResponse.setHeader(SERVER_TIMING, header);
+            logIfSlow(request, bufferedResponse.getStatus(), totalNanos, header);
+            bufferedResponse.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * Logs a structured slow-request event for a sample of slow requests.
+     */
+    private void logIfSlow(final HttpServletRequest request, final int status, final long totalNanos,
+                           final String header) {
+        if (totalNanos >= slowThresholdNanos && ThreadLocalRandom.current().nextDouble() < slowLogSampleRate) {
+            LOGGER.atWarn()
+                    .setMessage("Slow request")
+                    .addKeyValue("method", request.getMethod())
+                    .addKeyValue("path", request.getRequestURI())
+                    .addKeyValue("status", status)
+                    .addKeyValue("total_ms", totalNanos / 1_000_000L)
+                    .addKeyValue("server_timing", header)
+                    .log();
+        }
+    }
+}
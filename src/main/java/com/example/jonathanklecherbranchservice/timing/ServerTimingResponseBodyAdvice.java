@@ -0,0 +1,54 @@
+package com.example.jonathanklecherbranchservice.timing;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Marks the start of response serialization for the {@code Server-Timing} breakdown.
+ * <p>
+ * Spring MVC calls this advice after the controller returns and right before the message
+ * converter writes the body, which is exactly where the "serialize" phase begins.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "github.server-timing.enabled", havingValue = "true")
+public class ServerTimingResponseBodyAdvice implements ResponseBodyAdvice<Object> {
+
+    /**
+     * Applies to every response body.
+     *
+     * @param returnType    the controller method return type
+     * @param converterType the selected converter
+     * @return always {@code true}
+     */
+    @Override
+    public boolean supports(final MethodParameter returnType,
+                            final Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    /**
+     * Records the serialization start and returns the body unchanged.
+     *
+     * @param body                  the body to be written
+     * @param returnType            the controller method return type
+     * @param selectedContentType   the negotiated content type
+     * @param selectedConverterType the selected converter
+     * @param request               the current request
+     * @param response              the current response
+     * @return the unchanged body
+     */
+    @Override
+    public Object beforeBodyWrite(final Object body, final MethodParameter returnType,
+                                  final MediaType selectedContentType,
+                                  final Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  final ServerHttpRequest request, final ServerHttpResponse response) {
+        RequestTimings.markSerializationStart();
+        return body;
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.jonathanklecherbranchservice.warmup;
+
+import com.example.jonathanklecherbranchservice.cache.GitHubInfoCache;
+import com.example.jonathanklecherbranchservice.entity.GitHubInfo;
+import com.example.jonathanklecherbranchservice.entity.GitHubRepository;
+import com.example.jonathanklecherbranchservice.mapper.GitHubInfoMapper;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Warms up the JIT before the service reports ready, so that the first real requests do not run
+ * interpreted code.
+ * <p>
+ * Runs as an {@link ApplicationRunner}: Spring Boot calls it once the embedded server is listening
+ * but before it publishes the {@code ACCEPTING_TRAFFIC} readiness state, so the readiness probe
+ * stays {@code OUT_OF_SERVICE} until warmup ends. Warmup never calls GitHub:
+ * <ol>
+ *   <li>Canned GitHub profile and repository payloads are parsed and mapped with the same Jackson
+ *       and {@link GitHubInfoMapper} calls the service uses for upstream responses</li>
+ *   <li>The results are cached under reserved {@code warmup-N} usernames</li>
+ *   <li>Those users are requested over loopback HTTP, so each request goes through Tomcat, the
+ *       filters, MVC dispatch, validation, the controller and message conversion. The mix covers
+ *       JSON, Smile and CBOR responses, repository queries, a {@code 304} revalidation and a
+ *       rejected username</li>
+ *   <li>The reserved users are removed from the cache again</li>
+ * </ol>
+ * Warmup stops after {@code github.warmup.iterations} rounds of that mix or when
+ * {@code github.warmup.time-budget} is spent, whichever comes first. Its outcome is logged, with the
+ * mean latency of the first and last rounds, and published as Micrometer gauges. The reserved
+ * users' hits are counted in the cache statistics.
+ * <p>
+ * Warmup is skipped when there is no embedded server, e.g. in mock-environment tests.
+ */
+@Component
+@ConditionalOnProperty(name = "github.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class StartupWarmup implements ApplicationRunner, MeterBinder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StartupWarmup.class);
+    private static final String USER_PREFIX = "warmup-";
+    private static final int USERS = 8;
+    private static final int REPORTED_ROUNDS = 50;
+    private static final String SMILE = "application/x-jackson-smile";
+    private static final String CBOR = "application/cbor";
+    private static final String PROFILE = """
+            {"login":"%s","id":583231,"name":"Warmup User","avatar_url":"https://avatars.githubusercontent.com/u/583231",\
+            "url":"https://api.github.com/users/%s","location":"Earth","email":null,"public_repos":8,\
+            "created_at":"2011-01-25T18:44:36Z","updated_at":"2024-01-01T00:00:00Z"}""";
+    private static final String REPOSITORY = """
+            {"name":"repo-%d","full_name":"%s/repo-%d","url":"https://api.github.com/repos/%s/repo-%d",\
+            "stargazers_count":%d,"forks_count":%d,"language":"Java","updated_at":"2024-01-0%dT00:00:00Z",\
+            "archived":false}""";
+
+    private final GitHubInfoCache cache;
+    private final Environment environment;
+    private final int iterations;
+    private final Duration timeBudget;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private volatile long elapsedNanos;
+
+    /**
+     * Creates the warmup.
+     *
+     * @param cache       the user cache the canned users are served from
+     * @param environment the environment the embedded server's port is read from
+     * @param iterations  the most rounds of the request mix to run
+     * @param timeBudget  the most time to spend
+     */
+    public StartupWarmup(final GitHubInfoCache cache,
+                         final Environment environment,
+                         @Value("${github.warmup.iterations:2000}") final int iterations,
+                         @Value("${github.warmup.time-budget:10s}") final Duration timeBudget) {
+        this.cache = cache;
+        this.environment = environment;
+        this.iterations = iterations;
+        this.timeBudget = timeBudget;
+    }
+
+    // ========== PUBLIC METHODS ==========
+
+    /**
+     * Runs the warmup, blocking startup until it ends.
+     *
+     * @param args the application arguments, unused
+     */
+    @Override
+    public void run(final ApplicationArguments args) {
+        final Integer port = environment.getProperty("local.server.port", Integer.class);
+        if (port == null || iterations < 1) {
+            LOGGER.debug("No embedded server or no iterations; skipping warmup");
+            return;
+        }
+        final String baseUrl = "http://127.0.0.1:" + port + "/users/";
+        final long start = System.nanoTime();
+        final long deadline = start + timeBudget.toNanos();
+        // The first rounds are summed; the last ones are kept in a ring and summed at the end
+        final long[] lastRoundNanos = new long[REPORTED_ROUNDS];
+        long firstRoundsNanos = 0;
+        int rounds = 0;
+        try (HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build()) {
+            while (rounds < iterations && System.nanoTime() - deadline < 0) {
+                final long roundStart = System.nanoTime();
+                round(httpClient, baseUrl, USER_PREFIX + rounds % USERS);
+                final long roundNanos = System.nanoTime() - roundStart;
+                if (rounds < REPORTED_ROUNDS) {
+                    firstRoundsNanos += roundNanos;
+                }
+                lastRoundNanos[rounds % REPORTED_ROUNDS] = roundNanos;
+                rounds++;
+            }
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (int i = 0; i < USERS; i++) {
+                cache.remove(USER_PREFIX + i);
+            }
+        }
+        elapsedNanos = System.nanoTime() - start;
+        final int reported = Math.max(1, Math.min(rounds, REPORTED_ROUNDS));
+        LOGGER.info("Warmup ran {} rounds ({} requests, {} failed) in {} ms; mean round took {} µs over the first {} "
+                        + "rounds and {} µs over the last {}",
+                rounds, getRequests(), getFailures(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                TimeUnit.NANOSECONDS.toMicros(firstRoundsNanos / reported), reported,
+                TimeUnit.NANOSECONDS.toMicros(Arrays.stream(lastRoundNanos).sum() / reported), reported);
+    }
+
+    /**
+     * Returns the number of warmup requests sent.
+     *
+     * @return the request count
+     */
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    /**
+     * Returns the number of warmup requests that failed or got an unexpected status.
+     *
+     * @return the failure count
+     */
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * Publishes {@code startup.warmup.requests}, {@code startup.warmup.failures} and
+     * {@code startup.warmup.duration}.
+     *
+     * @param registry the registry to bind to
+     */
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("startup.warmup.requests", this, StartupWarmup::getRequests)
+                .description("Synthetic requests sent during startup warmup")
+                .register(registry);
+        Gauge.builder("startup.warmup.failures", this, StartupWarmup::getFailures)
+                .description("Startup warmup requests that failed or got an unexpected status")
+                .register(registry);
+        TimeGauge.builder("startup.warmup.duration", this, TimeUnit.NANOSECONDS, warmup -> warmup.elapsedNanos)
+                .description("Time spent warming up before reporting ready")
+                .register(registry);
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    /**
+     * Runs one round of the request mix against one canned user.
+     */
+    private void round(final HttpClient httpClient, final String baseUrl, final String userName)
+            throws InterruptedException {
+        cache.put(userName, parseCanned(userName));
+        final String eTag = send(httpClient, baseUrl + userName, null, null, 200);
+        send(httpClient, baseUrl + userName, HttpHeaders.IF_NONE_MATCH, eTag, 304);
+        send(httpClient, baseUrl + userName, HttpHeaders.ACCEPT, SMILE, 200);
+        send(httpClient, baseUrl + userName + "/repos?sort=stars&limit=3", null, null, 200);
+        send(httpClient, baseUrl + userName + "/repos?prefix=repo-1", HttpHeaders.ACCEPT, CBOR, 200);
+        send(httpClient, baseUrl + "-" + userName, null, null, 400);
+    }
+
+    /**
+     * Parses canned upstream payloads the way {@code GitHubService} parses GitHub's responses.
+     */
+    private GitHubInfo parseCanned(final String userName) {
+        final StringBuilder repositories = new StringBuilder("[");
+        for (int i = 0; i < USERS; i++) {
+            repositories.append(i == 0 ? "" : ",")
+                    .append(REPOSITORY.formatted(i, userName, i, userName, i, i * 7, i, i + 1));
+        }
+        try {
+            final GitHubInfo info = GitHubInfoMapper.fromJsonNode(objectMapper.readTree(PROFILE.formatted(userName, userName)));
+            final JavaType listType = objectMapper.getTypeFactory().constructCollectionType(List.class, GitHubRepository.class);
+            final List<GitHubRepository> parsed = objectMapper.readValue(repositories.append(']').toString(), listType);
+            return info.withRepositories(parsed);
+        } catch (final IOException exception) {
+            throw new IllegalStateException("Canned warmup payloads should parse", exception);
+        }
+    }
+
+    /**
+     * Sends one request and counts it.
+     *
+     * @return the response's {@code ETag}, or {@code null}
+     */
+    private String send(final HttpClient httpClient, final String url, final String header, final String value,
+                        final int expectedStatus) throws InterruptedException {
+        final HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(5));
+        if (header != null && value != null) {
+            request.header(header, value);
+        }
+        requests.increment();
+        try {
+            final HttpResponse<byte[]> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != expectedStatus) {
+                failures.increment();
+            }
+            return response.headers().firstValue(HttpHeaders.ETAG).orElse(null);
+        } catch (final IOException exception) {
+            failures.increment();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.jonathanklecherbranchservice.webhook;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Receives GitHub webhook deliveries so that cached users are updated when their repositories
+ * change, instead of waiting for the cache TTL to expire.
+ * <p>
+ * Every delivery must carry a valid {@code X-Hub-Signature-256} for the configured
+ * {@code github.webhook.secret}; unsigned or forged deliveries are rejected with
+ * {@code 401 Unauthorized} before the body is parsed. Accepted deliveries are only queued here and
+ * answered with {@code 202 Accepted}; the {@link WebhookEventProcessor} applies them in batches on
+ * its own thread, so GitHub's delivery timeout is never spent on cache work.
+ * <p>
+ * Endpoint: POST /webhooks/github - Receive a GitHub webhook delivery
+ */
+@RestController
+@RequestMapping("/webhooks")
+@ConditionalOnProperty(name = "github.webhook.enabled", havingValue = "true")
+@Tag(name = "GitHub Webhooks", description = "Push-based cache invalidation from GitHub webhook deliveries")
+public class GitHubWebhookController {
+
+    private static final String ERROR = "error";
+    private static final String STATUS = "status";
+
+    private final WebhookSignatureVerifier verifier;
+    private final WebhookEventProcessor processor;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Creates the controller.
+     *
+     * @param secret    the secret configured on the GitHub webhook
+     * @param processor the processor that applies queued events
+     * @throws IllegalStateException if webhooks are enabled without a secret
+     */
+    public GitHubWebhookController(
+            @Value("${github.webhook.secret:}") final String secret,
+            final WebhookEventProcessor processor) {
+        if (secret.isBlank()) {
+            throw new IllegalStateException("github.webhook.secret must be set when github.webhook.enabled=true");
+        }
+        this.verifier = new WebhookSignatureVerifier(secret);
+        this.processor = processor;
+    }
+
+    // ========== PUBLIC METHODS ==========
+
+    /**
+     * Verifies and enqueues a GitHub webhook delivery.
+     *
+     * @param event      the {@code X-GitHub-Event} header, e.g. {@code repository}
+     * @param signature  the {@code X-Hub-Signature-256} header
+     * @param deliveryId the {@code X-GitHub-Delivery} header
+     * @param body       the raw request body, as signed by GitHub
+     * @return 202 if queued, 200 for {@code ping}, 401 for a bad signature, 400 for a malformed body,
+     *         or 503 if the queue is full (GitHub will redeliver)
+     */
+    @PostMapping("/github")
+    @Operation(summary = "Receive a GitHub webhook delivery",
+            description = "Verifies the HMAC signature and queues repository, public and member events for cache updates")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Delivery queued"),
+            @ApiResponse(responseCode = "200", description = "Ping acknowledged"),
+            @ApiResponse(responseCode = "400", description = "Malformed payload"),
+            @ApiResponse(responseCode = "401", description = "Missing or invalid signature"),
+            @ApiResponse(responseCode = "503", description = "Event queue is full")
+    })
+    public ResponseEntity<Map<String, Object>> receive(
+            @RequestHeader(name = "X-GitHub-Event", required = false) final String event,
+            @RequestHeader(name = "X-Hub-Signature-256", required = false) final String signature,
+            @RequestHeader(name = "X-GitHub-Delivery", required = false) final String deliveryId,
+            @RequestBody(required = false) final byte[] body) {
+        final byte[] payload = body == null ? new byte[0] : body;
+        if (!verifier.isValid(payload, signature)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(ERROR, "Invalid signature"));
+        }
+        if (event == null) {
+            return ResponseEntity.badRequest().body(Map.of(ERROR, "Missing X-GitHub-Event header"));
+        }
+        if ("ping".equals(event)) {
+            return ResponseEntity.ok(Map.of(STATUS, "pong"));
+        }
+        final JsonNode json;
+        try {
+            json = objectMapper.readTree(payload);
+        } catch (final IOException exception) {
+            return ResponseEntity.badRequest().body(Map.of(ERROR, "Malformed payload"));
+        }
+        if (json == null || !json.isObject()) {
+            return ResponseEntity.badRequest().body(Map.of(ERROR, "Malformed payload"));
+        }
+        if (!processor.submit(new WebhookEvent(event, deliveryId, json))) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of(ERROR, "Event queue is full"));
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(STATUS, "queued"));
+    }
+}
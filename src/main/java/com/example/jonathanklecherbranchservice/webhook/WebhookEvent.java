@@ -0,0 +1,47 @@
+package com.example.jonathanklecherbranchservice.webhook;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * A verified GitHub webhook delivery waiting to be applied to the cache.
+ */
+final class WebhookEvent {
+
+    private final String type;
+    private final String deliveryId;
+    private final JsonNode payload;
+
+    /**
+     * Creates an event.
+     *
+     * @param type       the {@code X-GitHub-Event} header, e.g. {@code repository}
+     * @param deliveryId the {@code X-GitHub-Delivery} header, may be {@code null}
+     * @param payload    the parsed request body
+     */
+    WebhookEvent(final String type, final String deliveryId, final JsonNode payload) {
+        this.type = type;
+        this.deliveryId = deliveryId;
+        this.payload = payload;
+    }
+
+    String getType() {
+        return type;
+    }
+
+    String getDeliveryId() {
+        return deliveryId;
+    }
+
+    JsonNode getPayload() {
+        return payload;
+    }
+
+    /**
+     * Returns the {@code action} of the event, e.g. {@code created}, or an empty string.
+     *
+     * @return the action
+     */
+    String getAction() {
+        return payload.path("action").asText("");
+    }
+}
@@ -0,0 +1,315 @@
+package com.example.jonathanklecherbranchservice.webhook;
+
+import com.example.jonathanklecherbranchservice.cache.GitHubInfoCache;
+import com.example.jonathanklecherbranchservice.entity.GitHubRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * Applies verified GitHub webhook events to the user cache, in batches, off the request thread.
+ * <p>
+ * The webhook controller only enqueues events; a single worker thread drains the queue in batches
+ * of up to {@code batch-size} events, waiting at most {@code batch-window} for a batch to fill.
+ * Within a batch, changes are grouped per user, so a burst of events for one user costs one cache
+ * write. Events map to cache changes as follows:
+ * <ul>
+ *   <li>{@code repository} created, edited, archived, unarchived, publicized: the repository is
+ *       added to or updated in its owner's cached list (removed instead if it is private)</li>
+ *   <li>{@code repository} deleted, privatized: the repository is removed from the list</li>
+ *   <li>{@code repository} renamed: the old name is replaced by the new repository</li>
+ *   <li>{@code repository} transferred: the repository moves from the previous owner to the new one</li>
+ *   <li>{@code public}: the repository is added to its owner's list</li>
+ *   <li>{@code member}: the added or removed collaborator's entry is invalidated</li>
+ * </ul>
+ * Only users already in the cache are patched; patching keeps the entry's fetch time. Other event
+ * types are ignored.
+ */
+@Component
+@ConditionalOnProperty(name = "github.webhook.enabled", havingValue = "true")
+public class WebhookEventProcessor implements MeterBinder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WebhookEventProcessor.class);
+    private static final String REPOSITORY = "repository";
+    private static final String LOGIN = "login";
+    private static final String EVENTS_METRIC = "github.webhook.events";
+    private static final String EVENTS_DESCRIPTION = "GitHub webhook events by outcome";
+    private static final String OUTCOME = "outcome";
+
+    private final GitHubInfoCache cache;
+    private final BlockingQueue<WebhookEvent> queue;
+    private final int batchSize;
+    private final Duration batchWindow;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder ignored = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private volatile Thread worker;
+
+    /**
+     * Creates the processor.
+     *
+     * @param cache         the user cache to patch
+     * @param queueCapacity how many events may wait to be applied before new ones are rejected
+     * @param batchSize     the maximum number of events applied together
+     * @param batchWindow   how long to wait for a batch to fill after its first event
+     */
+    public WebhookEventProcessor(
+            final GitHubInfoCache cache,
+            @Value("${github.webhook.queue-capacity:10000}") final int queueCapacity,
+            @Value("${github.webhook.batch-size:100}") final int batchSize,
+            @Value("${github.webhook.batch-window:200ms}") final Duration batchWindow) {
+        this.cache = cache;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.batchWindow = batchWindow;
+    }
+
+    // ========== LIFECYCLE ==========
+
+    /**
+     * Starts the worker thread.
+     */
+    @PostConstruct
+    public void start() {
+        worker = Thread.ofPlatform().name("github-webhook-batcher").daemon().start(this::drain);
+    }
+
+    /**
+     * Stops the worker thread; events still queued are discarded.
+     */
+    @PreDestroy
+    public void stop() {
+        final Thread current = worker;
+        if (current != null) {
+            current.interrupt();
+        }
+    }
+
+    // ========== PUBLIC METHODS ==========
+
+    /**
+     * Enqueues an event without blocking.
+     *
+     * @param event the verified event
+     * @return {@code false} if the queue is full and the event was dropped
+     */
+    public boolean submit(final WebhookEvent event) {
+        final boolean accepted = queue.offer(event);
+        if (!accepted) {
+            dropped.increment();
+        }
+        return accepted;
+    }
+
+    /**
+     * Publishes event counters and the queue depth.
+     *
+     * @param registry the registry to bind to
+     */
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("github.webhook.queue.size", queue, BlockingQueue::size)
+                .description("GitHub webhook events waiting to be applied")
+                .register(registry);
+        FunctionCounter.builder(EVENTS_METRIC, applied, LongAdder::sum)
+                .description(EVENTS_DESCRIPTION).tag(OUTCOME, "applied").register(registry);
+        FunctionCounter.builder(EVENTS_METRIC, ignored, LongAdder::sum)
+                .description(EVENTS_DESCRIPTION).tag(OUTCOME, "ignored").register(registry);
+        FunctionCounter.builder(EVENTS_METRIC, dropped, LongAdder::sum)
+                .description(EVENTS_DESCRIPTION).tag(OUTCOME, "dropped").register(registry);
+    }
+
+    // ========== PACKAGE-PRIVATE METHODS ==========
+
+    /**
+     * Applies a batch of events: collects the changes per user, then writes each user once.
+     * Invalidation wins over patches for the same user.
+     *
+     * @param batch the events, in delivery order
+     */
+    void processBatch(final List<WebhookEvent> batch) {
+        final Map<String, List<UnaryOperator<List<GitHubRepository>>>> patches = new LinkedHashMap<>();
+        final Set<String> invalidations = new HashSet<>();
+        for (final WebhookEvent event : batch) {
+            if (collectChanges(event, patches, invalidations)) {
+                applied.increment();
+            } else {
+                ignored.increment();
+            }
+        }
+        invalidations.forEach(cache::remove);
+        patches.forEach((userName, userPatches) -> {
+            if (!invalidations.contains(userName)) {
+                cache.patchRepositories(userName, inOrder(userPatches));
+            }
+        });
+    }
+
+    // ========== PRIVATE HELPER METHODS ==========
+
+    /**
+     * Worker loop: waits for events and applies them in batches until interrupted.
+     */
+    private void drain() {
+        final List<WebhookEvent> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                collectBatch(batch);
+                processBatch(batch);
+            } catch (final InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+            } catch (final RuntimeException exception) {
+                LOGGER.warn("Failed to apply a batch of {} webhook events", batch.size(), exception);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Blocks for the first event, then gathers more until the batch is full or the window closes.
+     */
+    private void collectBatch(final List<WebhookEvent> batch) throws InterruptedException {
+        batch.add(queue.take());
+        final long deadline = System.nanoTime() + batchWindow.toNanos();
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            final long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                break;
+            }
+            final WebhookEvent next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+    }
+
+    /**
+     * Translates one event into per-user patches or invalidations.
+     *
+     * @return {@code false} if the event does not affect the cache
+     */
+    private boolean collectChanges(final WebhookEvent event,
+                                   final Map<String, List<UnaryOperator<List<GitHubRepository>>>> patches,
+                                   final Set<String> invalidations) {
+        final JsonNode payload = event.getPayload();
+        final JsonNode repository = payload.path(REPOSITORY);
+        final String owner = repository.path("owner").path(LOGIN).asText(null);
+        final String name = repository.path("name").asText(null);
+        return switch (event.getType()) {
+            case REPOSITORY -> owner != null && name != null
+                    && collectRepositoryChanges(event.getAction(), payload, owner, name, patches);
+            case "public" -> owner != null && name != null
+                    && addPatch(patches, owner, upsertOrRemove(repository, name));
+            case "member" -> {
+                final String member = payload.path("member").path(LOGIN).asText(null);
+                yield member != null && invalidations.add(member.toLowerCase(Locale.ROOT));
+            }
+            default -> false;
+        };
+    }
+
+    private boolean collectRepositoryChanges(final String action, final JsonNode payload, final String owner,
+                                             final String name,
+                                             final Map<String, List<UnaryOperator<List<GitHubRepository>>>> patches) {
+        final JsonNode repository = payload.path(REPOSITORY);
+        final JsonNode changes = payload.path("changes");
+        switch (action) {
+            case "deleted", "privatized" -> addPatch(patches, owner, removeNamed(name));
+            case "renamed" -> {
+                addPatch(patches, owner, removeNamed(changes.path(REPOSITORY).path("name").path("from").asText(name)));
+                addPatch(patches, owner, upsertOrRemove(repository, name));
+            }
+            case "transferred" -> {
+                final JsonNode previousOwner = changes.path("owner").path("from");
+                final String previousLogin = previousOwner.path("user").path(LOGIN)
+                        .asText(previousOwner.path("organization").path(LOGIN).asText(null));
+                if (previousLogin != null) {
+                    addPatch(patches, previousLogin, removeNamed(name));
+                }
+                addPatch(patches, owner, upsertOrRemove(repository, name));
+            }
+            default -> addPatch(patches, owner, upsertOrRemove(repository, name));
+        }
+        return true;
+    }
+
+    private static boolean addPatch(final Map<String, List<UnaryOperator<List<GitHubRepository>>>> patches,
+                                    final String userName, final UnaryOperator<List<GitHubRepository>> patch) {
+        patches.computeIfAbsent(userName.toLowerCase(Locale.ROOT), ignoredKey -> new ArrayList<>()).add(patch);
+        return true;
+    }
+
+    /**
+     * Adds or replaces a public repository by name, or removes it if it is private. A replaced
+     * repository keeps its place; an added one is sorted in by name, case-insensitively, the order
+     * full and incremental fetches keep.
+     */
+    private UnaryOperator<List<GitHubRepository>> upsertOrRemove(final JsonNode repository, final String name) {
+        if (repository.path("private").asBoolean(false)) {
+            return removeNamed(name);
+        }
+        final GitHubRepository updated = objectMapper.convertValue(repository, GitHubRepository.class);
+        return repositories -> {
+            final List<GitHubRepository> result = new ArrayList<>(repositories.size() + 1);
+            boolean replaced = false;
+            for (final GitHubRepository existing : repositories) {
+                if (name.equalsIgnoreCase(existing.getName())) {
+                    result.add(updated);
+                    replaced = true;
+                } else {
+                    result.add(existing);
+                }
+            }
+            if (!replaced) {
+                result.add(updated);
+                result.sort(Comparator.comparing(GitHubRepository::getName, String.CASE_INSENSITIVE_ORDER));
+            }
+            return result;
+        };
+    }
+
+    private static UnaryOperator<List<GitHubRepository>> removeNamed(final String name) {
+        return repositories -> repositories.stream()
+                .filter(existing -> !name.equalsIgnoreCase(existing.getName()))
+                .toList();
+    }
+
+    private static UnaryOperator<List<GitHubRepository>> inOrder(final List<UnaryOperator<List<GitHubRepository>>> patches) {
+        return repositories -> {
+            List<GitHubRepository> result = repositories;
+            for (final UnaryOperator<List<GitHubRepository>> patch : patches) {
+                result = patch.apply(result);
+            }
+            return result;
+        };
+    }
+}
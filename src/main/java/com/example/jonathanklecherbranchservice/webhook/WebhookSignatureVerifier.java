@@ -0,0 +1,67 @@
+package com.example.jonathanklecherbranchservice.webhook;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * Verifies the {@code X-Hub-Signature-256} header GitHub sends with every webhook delivery.
+ * <p>
+ * The header is {@code sha256=} followed by the hex HMAC-SHA256 of the raw request body, keyed
+ * with the webhook secret. Signatures are compared in constant time so that response timing does
+ * not leak how much of a forged signature was correct.
+ */
+final class WebhookSignatureVerifier {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String PREFIX = "sha256=";
+
+    private final SecretKeySpec key;
+
+    /**
+     * Creates a verifier for a webhook secret.
+     *
+     * @param secret the secret configured on the GitHub webhook
+     */
+    WebhookSignatureVerifier(final String secret) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    }
+
+    /**
+     * Checks a delivery's signature.
+     *
+     * @param body      the raw request body
+     * @param signature the {@code X-Hub-Signature-256} header, may be {@code null}
+     * @return {@code true} if the signature matches the body
+     */
+    boolean isValid(final byte[] body, final String signature) {
+        if (signature == null || !signature.startsWith(PREFIX)) {
+            return false;
+        }
+        final byte[] expected = signatureOf(body).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Computes the signature header value for a body, as GitHub would.
+     *
+     * @param body the raw request body
+     * @return the {@code sha256=...} header value
+     */
+    String signatureOf(final byte[] body) {
+        return PREFIX + HexFormat.of().formatHex(sign(body));
+    }
+
+    private byte[] sign(final byte[] body) {
+        try {
+            final Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(body);
+        } catch (final GeneralSecurityException exception) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", exception);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.jonathanklecherbranchservice.archive;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the upstream response archive, on a temporary directory.
+ * Tests cover:
+ * - Responses read back with their status, headers and body, keyed by method, URL and request body
+ * - The latest recording of a request winning
+ * - Index growth past its initial capacity
+ * - Reopening an archive, with the index rebuilt or caught up from the log
+ * - A torn record at the end of the log cut off on reopen
+ */
+class UpstreamArchiveTest {
+
+    private static final String URL = "https://api.github.com/users/octocat";
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    @DisplayName("A recorded response should be read back with its status, headers and body")
+    void testRecordAndLookup() {
+        final UpstreamArchive archive = new UpstreamArchive(UpstreamArchive.Mode.RECORD, directory, 16);
+        final HttpHeaders headers = new HttpHeaders();
+        headers.set("X-RateLimit-Remaining", "4999");
+        headers.add("Vary", "Accept");
+        headers.add("Vary", "Authorization");
+
+        archive.record(HttpMethod.GET, URL, null, 200, headers, "{\"login\":\"octocat\"}");
+        archive.record(HttpMethod.POST, URL, "{\"query\":1}", 200, null, "{\"data\":1}");
+
+        final UpstreamArchive.ArchivedResponse response = archive.lookup(HttpMethod.GET, URL, null);
+        assertNotNull(response, "The recorded request should be found");
+        assertEquals(200, response.getStatus(), "The status should be archived");
+        assertEquals("{\"login\":\"octocat\"}", response.getBody(), "The body should be archived");
+        assertEquals("4999", response.getHeaders().getFirst("X-RateLimit-Remaining"), "Headers should be archived");
+        assertEquals(2, response.getHeaders().get("Vary").size(), "Repeated headers should keep every value");
+        assertEquals("{\"data\":1}", archive.lookup(HttpMethod.POST, URL, "{\"query\":1}").getBody(),
+                "The request body should be part of the key");
+        assertNull(archive.lookup(HttpMethod.POST, URL, "{\"query\":2}"), "Another request body should miss");
+        assertNull(archive.lookup(HttpMethod.GET, URL + "/repos", null), "An unrecorded URL should miss");
+        archive.close();
+    }
+
+    @Test
+    @DisplayName("Recording a request again should replace the archived response")
+    void testLatestWins() {
+        final UpstreamArchive archive = new UpstreamArchive(UpstreamArchive.Mode.RECORD, directory, 16);
+        archive.record(HttpMethod.GET, URL, null, 200, null, "old");
+        archive.record(HttpMethod.GET, URL, null, 200, null, "new");
+
+        assertEquals("new", archive.lookup(HttpMethod.GET, URL, null).getBody(), "The latest response should win");
+        assertEquals(1, archive.size(), "A request should have one entry");
+        archive.close();
+    }
+
+    @Test
+    @DisplayName("The index should grow past its initial capacity and survive a reopen")
+    void testGrowthAndReopen() {
+        final UpstreamArchive archive = new UpstreamArchive(UpstreamArchive.Mode.RECORD, directory, 16);
+        for (int i = 0; i < 1_000; i++) {
+            archive.record(HttpMethod.GET, URL + i, null, 200, null, "body-" + i);
+        }
+        assertEquals(1_000, archive.size(), "Every request should be indexed");
+        archive.close();
+
+        final UpstreamArchive reopened = new UpstreamArchive(UpstreamArchive.Mode.REPLAY, directory, 16);
+        assertEquals(1_000, reopened.size(), "The index should be reused");
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals("body-" + i, reopened.lookup(HttpMethod.GET, URL + i, null).getBody(),
+                    "Request " + i + " should be found after a reopen");
+        }
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("A missing index should be rebuilt from the log")
+    void testIndexRebuild() throws IOException {
+        final UpstreamArchive archive = new UpstreamArchive(UpstreamArchive.Mode.RECORD, directory, 16);
+        archive.record(HttpMethod.GET, URL, null, 200, null, "old");
+        archive.record(HttpMethod.GET, URL, null, 200, null, "new");
+        archive.record(HttpMethod.GET, URL + "/repos", null, 404, null, "{\"message\":\"Not Found\"}");
+        archive.close();
+        Files.delete(directory.resolve("responses.idx"));
+
+        final UpstreamArchive reopened = new UpstreamArchive(UpstreamArchive.Mode.REPLAY, directory, 16);
+        assertEquals(2, reopened.size(), "Both requests should be indexed again");
+        assertEquals("new", reopened.lookup(HttpMethod.GET, URL, null).getBody(), "The latest record should win");
+        assertEquals(404, reopened.lookup(HttpMethod.GET, URL + "/repos", null).getStatus(),
+                "Archived errors should keep their status");
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("A torn record at the end of the log should be cut off on reopen")
+    void testTornRecord() throws IOException {
+        final UpstreamArchive archive = new UpstreamArchive(UpstreamArchive.Mode.RECORD, directory, 16);
+        archive.record(HttpMethod.GET, URL, null, 200, null, "intact");
+        archive.close();
+        final Path log = directory.resolve("responses.log");
+        final long intactLength = Files.size(log);
+        Files.delete(directory.resolve("responses.idx"));
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 100, 1, 2, 3, 4, 5}));
+        }
+
+        final UpstreamArchive reopened = new UpstreamArchive(UpstreamArchive.Mode.FALLBACK, directory, 16);
+        assertEquals(intactLength, Files.size(log), "The torn record should be truncated");
+        assertEquals("intact", reopened.lookup(HttpMethod.GET, URL, null).getBody(), "Intact records should be kept");
+        reopened.record(HttpMethod.GET, URL + "/repos", null, 200, null, "[]");
+        assertEquals("[]", reopened.lookup(HttpMethod.GET, URL + "/repos", null).getBody(),
+                "Appends should continue after the intact records");
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("An archive that is off should open no files and find nothing")
+    void testOff() {
+        final UpstreamArchive archive = new UpstreamArchive(UpstreamArchive.Mode.OFF, directory.resolve("off"), 16);
+        archive.record(HttpMethod.GET, URL, null, 200, null, "ignored");
+
+        assertNull(archive.lookup(HttpMethod.GET, URL, null), "Nothing should be archived");
+        assertFalse(Files.exists(directory.resolve("off")), "No directory should be created");
+        archive.close();
+    }
+
+    @Test
+    @DisplayName("Unknown modes should be rejected")
+    void testUnknownMode() {
+        assertThrows(IllegalArgumentException.class, () -> new UpstreamArchive("rewind", directory.toString(), 16),
+                "Only off, record, replay and fallback should be accepted");
+    }
+}
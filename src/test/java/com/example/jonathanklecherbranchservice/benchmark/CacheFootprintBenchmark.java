@@ -0,0 +1,96 @@
+package com.example.jonathanklecherbranchservice.benchmark;
+
+import com.example.jonathanklecherbranchservice.cache.GitHubInfoCache;
+import com.example.jonathanklecherbranchservice.entity.GitHubInfo;
+import com.example.jonathanklecherbranchservice.entity.GitHubRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Heap footprint and GC benchmark for the user cache at 1M entries:
+ * - On-heap mode: every {@link GitHubInfo} and its repository list lives in a {@code ConcurrentHashMap}
+ * - Off-heap mode: entries are serialized into direct-memory slabs behind a 10k-entry on-heap L1
+ * For each mode it reports retained heap after filling the cache, the young/old GC count and time
+ * spent while filling and then serving a mixed read/overwrite workload, and the pause of an
+ * explicit full GC, which grows with the live heap the collector has to trace.
+ * Run with {@code ./gradlew benchmark}; it is excluded from the regular test task.
+ */
+@Tag("benchmark")
+class CacheFootprintBenchmark {
+
+    private static final int ENTRIES = 1_000_000;
+    private static final int OPERATIONS = 2_000_000;
+    private static final int REPOS_PER_USER = 5;
+
+    @Test
+    @DisplayName("ConcurrentHashMap vs off-heap slabs at 1M cached users")
+    void benchmark1m() {
+        run(false);
+        run(true);
+    }
+
+    private static void run(final boolean offHeap) {
+        final long baselineHeap = usedHeapAfterGc();
+        final long[] gcBefore = gcTotals();
+
+        final GitHubInfoCache cache = new GitHubInfoCache(Duration.ofMinutes(1), Duration.ofMinutes(5), offHeap, DataSize.ofMegabytes(64), 32, 0.5, 10_000);
+        for (int i = 0; i < ENTRIES; i++) {
+            cache.put("user-" + i, info(i));
+        }
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < OPERATIONS; i++) {
+            final int user = random.nextInt(ENTRIES);
+            if (random.nextInt(10) == 0) {
+                cache.put("user-" + user, info(user));
+            } else {
+                cache.get("user-" + user);
+            }
+        }
+
+        final long[] gcAfter = gcTotals();
+        final long retainedHeap = usedHeapAfterGc() - baselineHeap;
+        final long fullGcStart = System.nanoTime();
+        System.gc();
+        final double fullGcMillis = (System.nanoTime() - fullGcStart) / 1e6;
+        System.out.printf("mode=%s entries=%d retainedHeap=%dMB offHeap=%dMB gcCount=%d gcTime=%dms fullGcPause=%.1fms%n",
+                offHeap ? "off-heap" : "on-heap", cache.size(), retainedHeap >> 20, cache.getOffHeapBytes() >> 20,
+                gcAfter[0] - gcBefore[0], gcAfter[1] - gcBefore[1], fullGcMillis);
+        assertEquals(ENTRIES, cache.size(), "Every user should still be cached");
+    }
+
+    private static GitHubInfo info(final int id) {
+        final List<GitHubRepository> repositories = new ArrayList<>(REPOS_PER_USER);
+        for (int r = 0; r < REPOS_PER_USER; r++) {
+            repositories.add(new GitHubRepository("repo-" + r, "https://github.com/user-" + id + "/repo-" + r));
+        }
+        return new GitHubInfo("user-" + id, "User " + id, "https://avatars.githubusercontent.com/u/" + id,
+                "Earth", null, "https://api.github.com/users/user-" + id, "Tue, 25 Jan 2011 18:44:36 GMT",
+                repositories);
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static long[] gcTotals() {
+        long count = 0;
+        long millis = 0;
+        for (final GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return new long[] {count, millis};
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.jonathanklecherbranchservice.benchmark;
+
+import com.example.jonathanklecherbranchservice.cache.GitHubInfoCache;
+import com.example.jonathanklecherbranchservice.entity.GitHubInfo;
+import com.example.jonathanklecherbranchservice.entity.GitHubRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Latency benchmark for type-ahead repository search at 1M indexed repositories:
+ * 200k cached users with 5 randomly named repositories each are indexed, then two-character
+ * prefixes are searched with a limit of 10 while every tenth operation re-caches a user.
+ * It reports the mean search latency, which should stay in the low microseconds.
+ * Run with {@code ./gradlew benchmark}; it is excluded from the regular test task.
+ */
+@Tag("benchmark")
+class RepositorySearchBenchmark {
+
+    private static final int USERS = 200_000;
+    private static final int REPOS_PER_USER = 5;
+    private static final int SEARCHES = 1_000_000;
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz0123456789";
+
+    @Test
+    @DisplayName("Prefix search over 1M cached repository names")
+    void benchmark1m() {
+        final Random random = new Random(42);
+        final GitHubInfoCache cache = new GitHubInfoCache(Duration.ofMinutes(1), Duration.ofMinutes(5), false,
+                DataSize.ofMegabytes(64), 16, 0.5, 10_000);
+        for (int i = 0; i < USERS; i++) {
+            cache.put("user-" + i, info(i, random));
+        }
+
+        long searchNanos = 0;
+        long results = 0;
+        for (int i = 0; i < SEARCHES; i++) {
+            if (i % 10 == 0) {
+                final int user = random.nextInt(USERS);
+                cache.put("user-" + user, info(user, random));
+            }
+            final String prefix = "" + ALPHABET.charAt(random.nextInt(ALPHABET.length()))
+                    + ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+            final long start = System.nanoTime();
+            results += cache.searchRepositories(prefix, 10).size();
+            searchNanos += System.nanoTime() - start;
+        }
+        final double meanMicros = searchNanos / 1e3 / SEARCHES;
+        System.out.printf("repositories=%d searches=%d meanLatency=%.2fus results=%d%n",
+                USERS * REPOS_PER_USER, SEARCHES, meanMicros, results);
+        assertTrue(results > 0, "Random two-character prefixes should find repositories");
+    }
+
+    private static GitHubInfo info(final int id, final Random random) {
+        final List<GitHubRepository> repositories = new ArrayList<>(REPOS_PER_USER);
+        for (int r = 0; r < REPOS_PER_USER; r++) {
+            final String name = Long.toString(random.nextLong() & 0xFFFF_FFFFL, 36) + "-" + r;
+            repositories.add(new GitHubRepository(name, "https://api.github.com/repos/user-" + id + "/" + name));
+        }
+        return new GitHubInfo("user-" + id, "User " + id, null, null, null, null, null, repositories);
+    }
+}
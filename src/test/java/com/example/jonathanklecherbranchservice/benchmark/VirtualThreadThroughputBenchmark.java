@@ -0,0 +1,147 @@
+package com.example.jonathanklecherbranchservice.benchmark;
+
+import com.example.jonathanklecherbranchservice.archive.UpstreamArchive;
+import com.example.jonathanklecherbranchservice.config.GitHubClientConfig;
+import com.example.jonathanklecherbranchservice.service.GitHubService;
+import com.example.jonathanklecherbranchservice.service.GitHubServiceException;
+import com.example.jonathanklecherbranchservice.service.HedgingExecutor;
+import com.example.jonathanklecherbranchservice.service.RetryPolicy;
+import com.example.jonathanklecherbranchservice.service.TokenPool;
+import com.example.jonathanklecherbranchservice.service.UpstreamConcurrencyLimiter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Throughput benchmark comparing platform-thread and virtual-thread request execution.
+ * Each simulated request calls {@link GitHubService#getGitInfoWithRepos(String)} against a local
+ * stub that delays every response, so the run is dominated by blocking upstream I/O:
+ * - Platform mode: requests run on a fixed pool of 200 threads, like Tomcat's default
+ * - Virtual mode: one virtual thread per request, upstream concurrency bounded only by the limiter
+ * Pinned virtual threads are detected with the JFR {@code jdk.VirtualThreadPinned} event.
+ * Run with {@code ./gradlew benchmark}; it is excluded from the regular test task.
+ */
+@Tag("benchmark")
+class VirtualThreadThroughputBenchmark {
+
+    private static final Duration UPSTREAM_DELAY = Duration.ofMillis(100);
+    private static final int TOMCAT_DEFAULT_THREADS = 200;
+    private static final String PROFILE_JSON =
+            "{\"login\":\"bench\",\"name\":\"Bench\",\"created_at\":\"2011-01-25T18:44:36Z\"}";
+
+    private static HttpServer upstream;
+    private static ExecutorService upstreamExecutor;
+    private static String baseUrl;
+
+    @BeforeAll
+    static void startSlowUpstream() throws IOException {
+        upstreamExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 16_384);
+        upstream.setExecutor(upstreamExecutor);
+        upstream.createContext("/users/", VirtualThreadThroughputBenchmark::respondSlowly);
+        upstream.start();
+        baseUrl = "http://127.0.0.1:" + upstream.getAddress().getPort();
+    }
+
+    @AfterAll
+    static void stopSlowUpstream() {
+        upstream.stop(0);
+        upstreamExecutor.close();
+    }
+
+    @Test
+    @DisplayName("Platform vs virtual threads at 1k concurrent slow-upstream requests")
+    void benchmark1k() throws Exception {
+        compareModes(1_000);
+    }
+
+    @Test
+    @DisplayName("Platform vs virtual threads at 10k concurrent slow-upstream requests")
+    void benchmark10k() throws Exception {
+        compareModes(10_000);
+    }
+
+    private static void compareModes(final int concurrentRequests) throws Exception {
+        final double platform = run(false, concurrentRequests);
+        final double virtual = run(true, concurrentRequests);
+        System.out.printf("concurrency=%d platform=%.0f req/s virtual=%.0f req/s speedup=%.1fx%n",
+                concurrentRequests, platform, virtual, virtual / platform);
+    }
+
+    private static double run(final boolean virtualThreads, final int concurrentRequests) throws Exception {
+        final GitHubService service = new GitHubService(
+                new GitHubClientConfig().gitHubRestTemplate(virtualThreads, Duration.ofSeconds(5), Duration.ofSeconds(60)),
+                new UpstreamConcurrencyLimiter(concurrentRequests * 2, Duration.ofSeconds(60)),
+                new HedgingExecutor(false, 95, Duration.ofMillis(50), 0.05, 1024),
+                new RetryPolicy(false, 1, Duration.ZERO, Duration.ZERO, Duration.ZERO, 0, List.of(), List.of()),
+                new UpstreamArchive("off", "", 0),
+                baseUrl, "rest", new TokenPool("", ""), 100, true, Duration.ofHours(24));
+        final LongAdder pinned = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        try (RecordingStream recording = new RecordingStream();
+             ExecutorService requests = virtualThreads
+                     ? Executors.newVirtualThreadPerTaskExecutor()
+                     : Executors.newFixedThreadPool(TOMCAT_DEFAULT_THREADS)) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(1));
+            recording.onEvent("jdk.VirtualThreadPinned", event -> pinned.increment());
+            recording.startAsync();
+
+            final long start = System.nanoTime();
+            final List<Future<?>> futures = new ArrayList<>(concurrentRequests);
+            for (int i = 0; i < concurrentRequests; i++) {
+                futures.add(requests.submit(() -> {
+                    try {
+                        service.getGitInfoWithRepos("bench");
+                    } catch (final GitHubServiceException exception) {
+                        failures.increment();
+                    }
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+            final double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("mode=%s concurrency=%d elapsed=%.2fs pinned=%d failures=%d%n",
+                    virtualThreads ? "virtual" : "platform", concurrentRequests, seconds, pinned.sum(), failures.sum());
+            assertEquals(0, failures.sum(), "All benchmark requests should succeed");
+            if (virtualThreads) {
+                assertEquals(0, pinned.sum(), "No virtual thread should pin its carrier on upstream I/O");
+            }
+            return concurrentRequests / seconds;
+        }
+    }
+
+    private static void respondSlowly(final HttpExchange exchange) throws IOException {
+        try {
+            Thread.sleep(UPSTREAM_DELAY);
+        } catch (final InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        final byte[] body = (exchange.getRequestURI().getPath().endsWith("/repos") ? "[]" : PROFILE_JSON)
+                .getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.jonathanklecherbranchservice.cache;
+
+import com.example.jonathanklecherbranchservice.codec.BinaryFormat;
+import com.example.jonathanklecherbranchservice.entity.GitHubInfo;
+import com.example.jonathanklecherbranchservice.entity.GitHubRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for cache entry validators and freshness.
+ * Tests cover:
+ * - ETag stability across entries with equal content
+ * - ETag changes when content changes
+ * - Distinct ETags per response format
+ * - Repository-list ETags that ignore profile changes
+ * - Freshness and remaining TTL derived from the fetch time
+ * - Separate TTLs and partial refreshes of the profile and the repository list
+ */
+class CacheEntryTest {
+
+    @Test
+    @DisplayName("Entries with equal content should share an ETag")
+    void testETagStable() {
+        final CacheEntry first = new CacheEntry(info("Hello-World"), 1_000L);
+        final CacheEntry second = new CacheEntry(info("Hello-World"), 2_000L);
+        assertEquals(first.getETag(null), second.getETag(null), "Equal content should hash to the same ETag");
+        assertTrue(first.getETag(null).startsWith("\"") && first.getETag(null).endsWith("\""),
+                "The ETag should be a quoted strong entity tag");
+    }
+
+    @Test
+    @DisplayName("Changed content should change the ETag")
+    void testETagChangesWithContent() {
+        final CacheEntry before = new CacheEntry(info("Hello-World"), 1_000L);
+        final CacheEntry after = new CacheEntry(info("Spoon-Knife"), 1_000L);
+        assertNotEquals(before.getETag(null), after.getETag(null), "Different content should hash differently");
+    }
+
+    @Test
+    @DisplayName("Each response format should have its own ETag")
+    void testETagPerFormat() {
+        final CacheEntry entry = new CacheEntry(info("Hello-World"), 1_000L);
+        assertNotEquals(entry.getETag(null), entry.getETag(BinaryFormat.CBOR), "JSON and CBOR bodies differ");
+        assertNotEquals(entry.getETag(BinaryFormat.SMILE), entry.getETag(BinaryFormat.CBOR), "Smile and CBOR bodies differ");
+    }
+
+    @Test
+    @DisplayName("The repository list's ETag should ignore profile changes")
+    void testRepositoriesETag() {
+        final CacheEntry entry = new CacheEntry(info("Hello-World"), 1_000L);
+        final CacheEntry newProfile = entry.withProfile(new GitHubInfo("octocat", "Mona",
+                null, null, null, null, null, null), 2_000L);
+        assertNotEquals(entry.getETag(null), newProfile.getETag(null), "A profile change should change the user's ETag");
+        assertEquals(entry.getRepositoriesETag(null), newProfile.getRepositoriesETag(null),
+                "A profile change should keep the repository list's ETag");
+        assertEquals(entry.getRepositoriesETag(BinaryFormat.CBOR), newProfile.getRepositoriesETag(BinaryFormat.CBOR),
+                "A profile change should keep the repository list's binary ETag");
+        assertNotEquals(entry.getRepositoriesETag(null), entry.getETag(null),
+                "The repository list and the whole user are different representations");
+        assertNotEquals(entry.getRepositoriesETag(null),
+                new CacheEntry(info("Spoon-Knife"), 1_000L).getRepositoriesETag(null),
+                "Different repositories should hash differently");
+    }
+
+    @Test
+    @DisplayName("Entries should be fresh only within the TTL")
+    void testFreshness() {
+        final GitHubInfoCache cache = new GitHubInfoCache(Duration.ofMinutes(1), Duration.ofMinutes(5),
+                false, DataSize.ofMegabytes(1), 2, 0.5, 10);
+        final CacheEntry fresh = cache.put("octocat", info("Hello-World"));
+        final CacheEntry stale = new CacheEntry(info("Hello-World"), System.currentTimeMillis() - 120_000L);
+        assertTrue(cache.isFresh(fresh), "A just-fetched entry should be fresh");
+        assertTrue(cache.getRemainingTtl(fresh).compareTo(Duration.ofSeconds(55)) > 0,
+                "A just-fetched entry should have almost the whole TTL left");
+        assertFalse(cache.isFresh(stale), "An entry older than the TTL should be stale");
+        assertEquals(Duration.ZERO, cache.getRemainingTtl(stale), "A stale entry should have no TTL left");
+    }
+
+    @Test
+    @DisplayName("Profile and repositories should go stale independently")
+    void testSplitFreshness() {
+        final GitHubInfoCache cache = new GitHubInfoCache(Duration.ofMinutes(1), Duration.ofMinutes(10), Duration.ofMinutes(5),
+                false, DataSize.ofMegabytes(1), 2, 0.5, 10, true);
+        final long twoMinutesAgo = System.currentTimeMillis() - 120_000L;
+        final CacheEntry staleRepositories = new CacheEntry(info("Hello-World"), twoMinutesAgo);
+        assertTrue(cache.isProfileFresh(staleRepositories), "A profile should be fresh within its longer TTL");
+        assertFalse(cache.isRepositoriesFresh(staleRepositories), "Repositories older than the TTL should be stale");
+        assertFalse(cache.isFresh(staleRepositories), "An entry with a stale part should be stale");
+
+        final CacheEntry refreshed = cache.putRepositories("octocat", staleRepositories, List.of());
+        assertTrue(cache.isFresh(refreshed), "Refreshing the stale part should make the entry fresh");
+        assertEquals(twoMinutesAgo, refreshed.getProfileFetchedAtMillis(), "The profile should keep its fetch time");
+        assertEquals("The Octocat", refreshed.getInfo().getDisplayName(), "The profile should be kept");
+        assertEquals(twoMinutesAgo, refreshed.getFetchedAtMillis(), "The entry's fetch time should be the older part's");
+
+        final CacheEntry newProfile = cache.putProfile("octocat", refreshed, new GitHubInfo("octocat", "Mona",
+                null, null, null, null, null, null));
+        assertEquals("Mona", newProfile.getInfo().getDisplayName(), "The profile should be replaced");
+        assertEquals(List.of(), newProfile.getInfo().getRepositories(), "The repositories should be kept");
+        assertEquals(refreshed.getRepositoriesFetchedAtMillis(), newProfile.getRepositoriesFetchedAtMillis(),
+                "The repositories should keep their fetch time");
+    }
+
+    private static GitHubInfo info(final String repository) {
+        return new GitHubInfo("octocat", "The Octocat", null, null, null, "https://api.github.com/users/octocat",
+                "Tue, 25 Jan 2011 18:44:36 GMT",
+                List.of(new GitHubRepository(repository, "https://github.com/octocat/" + repository)));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.jonathanklecherbranchservice.cache;
+
+import com.example.jonathanklecherbranchservice.entity.GitHubInfo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the default web exposure of the cache actuator endpoint.
+ * Tests cover:
+ * - Read operations served on the application port
+ * - Invalidation and refresh rejected, leaving the cache untouched
+ */
+@SpringBootTest(properties = "github.api.base-url=http://127.0.0.1:9")
+@AutoConfigureMockMvc
+class GitHubCacheEndpointExposureTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private GitHubInfoCache cache;
+
+    @Test
+    @DisplayName("GET /actuator/gitcache should be served by default")
+    void testReadOperationsExposed() throws Exception {
+        cache.put("octocat", info("octocat"));
+        mockMvc.perform(get("/actuator/gitcache")).andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/gitcache/octocat")).andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("DELETE and POST on /actuator/gitcache should be rejected by default")
+    void testWriteOperationsNotExposed() throws Exception {
+        cache.put("octocat", info("octocat"));
+        mockMvc.perform(delete("/actuator/gitcache").param("prefix", "o")).andExpect(status().is4xxClientError());
+        mockMvc.perform(delete("/actuator/gitcache/octocat")).andExpect(status().is4xxClientError());
+        mockMvc.perform(post("/actuator/gitcache/octocat")).andExpect(status().is4xxClientError());
+        assertNotNull(cache.peek("octocat"), "The cached user should survive the rejected invalidations");
+    }
+
+    private static GitHubInfo info(final String userName) {
+        return new GitHubInfo(userName, null, null, null, null, null, null, List.of());
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.jonathanklecherbranchservice.cache;
+
+import com.example.jonathanklecherbranchservice.entity.GitHubInfo;
+import com.example.jonathanklecherbranchservice.service.GitHubService;
+import com.example.jonathanklecherbranchservice.service.UpstreamLane;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the cache actuator endpoint.
+ * Tests cover:
+ * - Statistics report contents
+ * - Single-entry details and 404 for unknown users
+ * - Single and prefix invalidation, including rejection of an empty prefix
+ * - Background refresh through the GitHub service
+ */
+class GitHubCacheEndpointTest {
+
+    private final GitHubInfoCache cache = new GitHubInfoCache(Duration.ofMinutes(1), Duration.ofMinutes(5),
+            false, DataSize.ofMegabytes(1), 2, 0.5, 10);
+    private final GitHubService gitHubService = mock(GitHubService.class);
+    private final GitHubCacheEndpoint endpoint = new GitHubCacheEndpoint(cache, gitHubService, 5, 100);
+
+    @Test
+    @DisplayName("Stats should report size, counters, age distribution and hot keys")
+    void testStats() {
+        cache.put("octocat", info("octocat"));
+        cache.get("octocat");
+        final Map<String, Object> stats = endpoint.stats();
+        assertEquals(1, stats.get("size"), "Stats should report the cache size");
+        assertEquals(1L, stats.get("hits"), "Stats should report hits");
+        assertTrue((Long) stats.get("estimatedBytes") > 0, "Stats should report estimated memory");
+        assertEquals(1, ((Map<?, ?>) stats.get("ageSeconds")).get("samples"), "Every entry of a small cache should be sampled");
+        assertNotNull(stats.get("hotKeys"), "Stats should report hot keys");
+    }
+
+    @Test
+    @DisplayName("Entry details should be reported for cached users only")
+    void testEntry() {
+        cache.put("octocat", info("octocat"));
+        assertEquals(true, endpoint.entry("octocat").get("fresh"), "A just-cached user should be fresh");
+        assertNull(endpoint.entry("hubot"), "An unknown user should yield no details (404)");
+        assertEquals(0, cache.getHits() + cache.getMisses(), "Introspection should not count as cache traffic");
+    }
+
+    @Test
+    @DisplayName("Invalidation should remove single users and users by prefix")
+    void testInvalidate() {
+        cache.put("octocat", info("octocat"));
+        cache.put("team-a", info("team-a"));
+        cache.put("team-b", info("team-b"));
+        assertEquals(1, endpoint.invalidate("octocat").get("invalidated"), "The cached user should be invalidated");
+        assertEquals(0, endpoint.invalidate("octocat").get("invalidated"), "A missing user should not be counted");
+        assertEquals(2, endpoint.invalidateByPrefix("team-").get("invalidated"), "Both team- users should be invalidated");
+        assertThrows(InvalidEndpointRequestException.class, () -> endpoint.invalidateByPrefix(""),
+                "An empty prefix would wipe the whole cache and should be rejected");
+        assertEquals(0, cache.size(), "The cache should be empty");
+    }
+
+    @Test
+    @DisplayName("Refresh should fetch the user in the background and replace the entry")
+    void testRefresh() throws Exception {
+        when(gitHubService.getGitInfoWithRepos("octocat", UpstreamLane.BACKGROUND)).thenReturn(info("octocat"));
+        assertEquals("scheduled", endpoint.refresh("octocat").get("refresh"), "The refresh should be acknowledged");
+        verify(gitHubService, timeout(5_000)).getGitInfoWithRepos("octocat", UpstreamLane.BACKGROUND);
+        for (int i = 0; i < 100 && cache.peek("octocat") == null; i++) {
+            Thread.sleep(10);
+        }
+        assertNotNull(cache.peek("octocat"), "The refreshed user should be cached");
+        endpoint.shutdown();
+    }
+
+    private static GitHubInfo info(final String userName) {
+        return new GitHubInfo(userName, null, null, null, null, null, null, List.of());
+    }
+}
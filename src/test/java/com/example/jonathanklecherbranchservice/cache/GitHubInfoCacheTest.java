@@ -0,0 +1,351 @@
+package com.example.jonathanklecherbranchservice.cache;
+
+import com.example.jonathanklecherbranchservice.entity.GitHubInfo;
+import com.example.jonathanklecherbranchservice.entity.GitHubRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the GitHub info cache.
+ * Tests cover:
+ * - Round trips through the default on-heap map
+ * - Round trips through the off-heap slab tier once the entry has left the L1
+ * - Preservation of the profile and repository fetch times across serialization
+ * - Removal from both tiers
+ * - Hit, miss and memory accounting
+ * - Invalidation by prefix in both modes
+ * - Sampled hot keys and entry ages
+ * - Case-insensitive user names
+ * - In-place repository patches in both modes, and patches racing writes in two-tier mode
+ * - Keeping the cross-user repository name index in step with writes, removals and evictions
+ * - Round trips through LZ4-compressed cold entries, the compression ratio, and weight eviction of
+ *   compressed entries
+ * - Entries compressed only when demoted from the L1, and held in one tier at a time
+ */
+class GitHubInfoCacheTest {
+
+    @Test
+    @DisplayName("On-heap cache should return the cached entry")
+    void testOnHeapRoundTrip() {
+        final GitHubInfoCache cache = newCache(false, 10);
+        final CacheEntry stored = cache.put("octocat", info("octocat"));
+        assertSame(stored, cache.get("octocat"), "The on-heap cache should return the stored entry");
+        assertFalse(cache.isOffHeap(), "The cache should be on-heap by default");
+        assertEquals(0, cache.getOffHeapBytes(), "No direct memory should be allocated on-heap");
+    }
+
+    @Test
+    @DisplayName("Off-heap cache should deserialize entries that fell out of the L1")
+    void testOffHeapRoundTrip() {
+        final GitHubInfoCache cache = newCache(true, 1);
+        final CacheEntry stored = cache.put("octocat", info("octocat"));
+        cache.put("hubot", info("hubot"));
+
+        final CacheEntry loaded = cache.get("octocat");
+        assertNotNull(loaded, "An entry evicted from the L1 should be loaded from the slabs");
+        assertNotSame(stored, loaded, "The entry should have been deserialized");
+        assertEquals("octocat", loaded.getInfo().getUserName(), "The user name should survive serialization");
+        assertEquals("octocat-repo", loaded.getInfo().getRepositories().get(0).getName(),
+                "Repositories should survive serialization");
+        assertEquals(stored.getFetchedAtMillis(), loaded.getFetchedAtMillis(), "The fetch time should survive serialization");
+        assertSame(loaded, cache.get("octocat"), "A loaded entry should be promoted to the L1");
+        assertEquals(2, cache.size(), "Both users should be cached");
+    }
+
+    @Test
+    @DisplayName("Off-heap entries should keep separate profile and repository fetch times")
+    void testOffHeapPartialRefresh() {
+        final GitHubInfoCache cache = newCache(true, 1);
+        final CacheEntry refreshed = cache.putRepositories("octocat", new CacheEntry(info("octocat"), 1_000L), List.of());
+        cache.put("hubot", info("hubot"));
+
+        final CacheEntry loaded = cache.get("octocat");
+        assertNotSame(refreshed, loaded, "The entry should have been deserialized");
+        assertEquals(1_000L, loaded.getProfileFetchedAtMillis(),
+                "The profile fetch time should survive serialization");
+        assertEquals(refreshed.getRepositoriesFetchedAtMillis(), loaded.getRepositoriesFetchedAtMillis(),
+                "The repository fetch time should survive serialization");
+        assertTrue(loaded.getInfo().getRepositories().isEmpty(), "The refreshed repositories should be stored");
+    }
+
+    @Test
+    @DisplayName("Removed users should be gone from both tiers")
+    void testOffHeapRemove() {
+        final GitHubInfoCache cache = newCache(true, 10);
+        cache.put("octocat", info("octocat"));
+        cache.remove("octocat");
+        assertNull(cache.get("octocat"), "A removed user should not be served from either tier");
+        assertEquals(0, cache.size(), "The cache should be empty after the removal");
+    }
+
+    @Test
+    @DisplayName("Lookups should be counted as hits or misses and memory should be estimated")
+    void testStatistics() {
+        final GitHubInfoCache cache = newCache(false, 10);
+        cache.put("octocat", info("octocat"));
+        cache.get("octocat");
+        cache.get("hubot");
+        assertEquals(1, cache.getHits(), "The cached user should count as a hit");
+        assertEquals(1, cache.getMisses(), "The unknown user should count as a miss");
+        final long oneEntry = cache.getEstimatedBytes();
+        assertTrue(oneEntry > 0, "A cached entry should take estimated memory");
+        cache.put("octocat", info("octocat"));
+        assertEquals(oneEntry, cache.getEstimatedBytes(), "Replacing an entry should not grow the estimate");
+        cache.remove("octocat");
+        assertEquals(0, cache.getEstimatedBytes(), "Removing the last entry should zero the estimate");
+    }
+
+    @Test
+    @DisplayName("Prefix invalidation should remove only matching users, in both modes")
+    void testRemoveByPrefix() {
+        for (final boolean offHeap : new boolean[] {false, true}) {
+            final GitHubInfoCache cache = newCache(offHeap, 10);
+            cache.put("team-a", info("team-a"));
+            cache.put("team-b", info("team-b"));
+            cache.put("teal", info("teal"));
+            assertEquals(2, cache.removeByPrefix("team-"), "Both team- users should be removed");
+            assertNull(cache.get("team-a"), "A matching user should be gone");
+            assertNotNull(cache.get("teal"), "A non-matching user should remain");
+            assertEquals(1, cache.size(), "Only the non-matching user should remain");
+        }
+    }
+
+    @Test
+    @DisplayName("The most read user should top the sampled hot keys")
+    void testHotKeys() {
+        final GitHubInfoCache cache = newCache(false, 10);
+        cache.put("octocat", info("octocat"));
+        cache.put("hubot", info("hubot"));
+        for (int i = 0; i < 10_000; i++) {
+            cache.get("octocat");
+            if (i % 10 == 0) {
+                cache.get("hubot");
+            }
+        }
+        assertEquals("octocat", cache.getHotKeys(1).keySet().iterator().next(), "octocat should be the hottest user");
+    }
+
+    @Test
+    @DisplayName("Age samples should cover every entry of a small cache, in ascending order")
+    void testSampleAges() {
+        final GitHubInfoCache cache = newCache(true, 1);
+        for (int i = 0; i < 20; i++) {
+            cache.put("user" + i, info("user" + i));
+        }
+        final long[] ages = cache.sampleAgesMillis(100);
+        assertEquals(20, ages.length, "A sample larger than the cache should cover every entry");
+        for (int i = 1; i < ages.length; i++) {
+            assertTrue(ages[i - 1] <= ages[i], "Sampled ages should be sorted");
+        }
+        assertEquals(5, cache.sampleAgesMillis(5).length, "The sample should be bounded by the sample size");
+    }
+
+    @Test
+    @DisplayName("User names differing only in case should share an entry")
+    void testCaseInsensitiveKeys() {
+        final GitHubInfoCache cache = newCache(false, 10);
+        final CacheEntry stored = cache.put("Octocat", info("Octocat"));
+        assertSame(stored, cache.get("octocat"), "A lower-case lookup should find the mixed-case entry");
+        assertTrue(cache.remove("OCTOCAT"), "An upper-case removal should remove the entry");
+        assertEquals(0, cache.size(), "The cache should be empty after the removal");
+    }
+
+    @Test
+    @DisplayName("Repository patches should replace the list and keep the fetch time, in both modes")
+    void testPatchRepositories() {
+        for (final boolean offHeap : new boolean[] {false, true}) {
+            final GitHubInfoCache cache = newCache(offHeap, 1);
+            final CacheEntry stored = cache.put("octocat", info("octocat"));
+            cache.put("hubot", info("hubot"));
+
+            assertTrue(cache.patchRepositories("octocat", repositories -> List.of(new GitHubRepository("new", "url"))),
+                    "A cached user should be patched");
+            final CacheEntry patched = cache.get("octocat");
+            assertEquals("new", patched.getInfo().getRepositories().get(0).getName(), "The patch should be applied");
+            assertEquals("octocat", patched.getInfo().getUserName(), "The profile should be kept");
+            assertEquals(stored.getFetchedAtMillis(), patched.getFetchedAtMillis(), "The fetch time should be kept");
+            assertFalse(cache.patchRepositories("nobody", repositories -> List.of()), "Unknown users should not be patched");
+            assertNull(cache.peek("nobody"), "A patch should never create an entry");
+        }
+    }
+
+    @Test
+    @DisplayName("A patch racing a write should never bring back the older repositories in two-tier mode")
+    void testPatchRacesWrite() throws InterruptedException {
+        final GitHubInfoCache cache = newCache(true, 1);
+        cache.put("octocat", info("octocat", "v0"));
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final Thread patcher = Thread.ofPlatform().start(() -> {
+            while (running.get()) {
+                cache.patchRepositories("octocat", repositories -> repositories);
+                cache.get("hubot");
+            }
+        });
+        int regressions = 0;
+        for (int version = 1; version <= 5_000; version++) {
+            cache.put("octocat", info("octocat", "v" + version));
+            // Evict octocat from the single-entry L1 so the patcher also goes through promotion
+            cache.put("hubot", info("hubot"));
+            final String read = cache.get("octocat").getInfo().getRepositories().get(0).getName();
+            if (Integer.parseInt(read.substring(1)) < version) {
+                regressions++;
+            }
+        }
+        running.set(false);
+        patcher.join();
+
+        assertEquals(0, regressions, "Reads after a write should never see an older repository list");
+    }
+
+    @Test
+    @DisplayName("Repository search should follow puts, patches and removals, in both modes")
+    void testRepositorySearch() {
+        for (final boolean offHeap : new boolean[] {false, true}) {
+            final GitHubInfoCache cache = newCache(offHeap, 1);
+            cache.put("octocat", info("octocat"));
+            cache.put("OctoDog", info("OctoDog"));
+            assertEquals(List.of("octocat/octocat-repo", "OctoDog/OctoDog-repo"), cache.searchRepositories("OCTO", 10),
+                    "Both users' repositories should match, ordered by name");
+            assertEquals(1, cache.searchRepositories("octo", 1).size(), "The limit should be applied");
+
+            cache.patchRepositories("octocat", repositories -> List.of(new GitHubRepository("spoon-knife", "url")));
+            assertEquals(List.of("octocat/spoon-knife"), cache.searchRepositories("spoon", 10), "Patched names should be indexed");
+            assertEquals(List.of("OctoDog/OctoDog-repo"), cache.searchRepositories("octo", 10),
+                    "Names removed by a patch should leave the index");
+
+            cache.remove("octodog");
+            assertTrue(cache.searchRepositories("octo", 10).isEmpty(), "A removed user's names should leave the index");
+        }
+    }
+
+    @Test
+    @DisplayName("Users evicted from the off-heap tier should leave the repository search index")
+    void testRepositorySearchAfterEviction() {
+        final GitHubInfoCache cache = newCache(true, 1);
+        for (int i = 0; i < 2_000; i++) {
+            cache.put("user-" + i, info("user-" + i));
+        }
+        assertTrue(cache.getEvictions() > 0, "Two 64KB slabs should not hold 2000 users");
+        assertTrue(cache.searchRepositories("user-0-", 10).isEmpty(), "An evicted user's names should leave the index");
+        assertEquals(List.of("user-1999/user-1999-repo"), cache.searchRepositories("user-1999-", 10),
+                "The newest user should still be searchable");
+
+        final GitHubInfoCache disabled = new GitHubInfoCache(Duration.ofMinutes(1), Duration.ofMinutes(1),
+                Duration.ofMinutes(5), false, DataSize.ofKilobytes(64), 2, 0.5, 1, false);
+        disabled.put("octocat", info("octocat"));
+        assertFalse(disabled.isRepositorySearchEnabled(), "Search should be reported as disabled");
+        assertTrue(disabled.searchRepositories("octo", 10).isEmpty(), "A disabled index should find nothing");
+    }
+
+    @Test
+    @DisplayName("Compressed cache should decompress cold entries and keep hot ones as objects")
+    void testCompressedRoundTrip() {
+        final GitHubInfoCache cache = newCompressedCache(1);
+        final CacheEntry stored = cache.put("octocat", info("octocat"));
+        final CacheEntry hot = cache.put("hubot", info("hubot"));
+
+        assertTrue(cache.isCompressed(), "The cache should report compression");
+        assertFalse(cache.isOffHeap(), "Compressed entries should stay on-heap without slabs");
+        assertEquals(0, cache.getOffHeapBytes(), "No direct memory should be allocated");
+        assertSame(hot, cache.get("hubot"), "A hot entry should be served as the stored object");
+        final CacheEntry loaded = cache.get("octocat");
+        assertNotNull(loaded, "An entry evicted from the L1 should be decompressed");
+        assertNotSame(stored, loaded, "The entry should have been deserialized");
+        assertEquals("octocat", loaded.getInfo().getUserName(), "The user name should survive compression");
+        assertEquals("octocat-repo", loaded.getInfo().getRepositories().get(0).getName(),
+                "Repositories should survive compression");
+        assertEquals(stored.getFetchedAtMillis(), loaded.getFetchedAtMillis(), "The fetch time should survive compression");
+        assertEquals(2, cache.size(), "Both users should be cached");
+
+        cache.remove("octocat");
+        assertNull(cache.get("octocat"), "A removed user should be gone from the compressed tier");
+    }
+
+    @Test
+    @DisplayName("Large repository lists should compress several times")
+    void testCompressionRatio() {
+        final GitHubInfoCache cache = newCompressedCache(1);
+        assertEquals(1.0, cache.getCompressionRatio(), "The ratio should be 1 before anything is compressed");
+        final List<GitHubRepository> repositories = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            repositories.add(new GitHubRepository("repo-" + i, "https://github.com/octocat/repo-" + i));
+        }
+        cache.put("octocat", info("octocat").withRepositories(repositories));
+        cache.put("hubot", info("hubot"));
+
+        assertTrue(cache.getCompressionRatio() > 3, "Repetitive repository lists should compress at least threefold");
+        assertEquals(200, cache.get("octocat").getInfo().getRepositories().size(), "Every repository should survive");
+        assertEquals(1.0, newCache(false, 1).getCompressionRatio(), "An uncompressed cache should report a ratio of 1");
+    }
+
+    @Test
+    @DisplayName("Entries should be compressed when they leave the L1, not on every write")
+    void testCompressOnDemotion() {
+        final GitHubInfoCache cache = newCompressedCache(2);
+        final List<GitHubRepository> repositories = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            repositories.add(new GitHubRepository("repo-" + i, "https://github.com/octocat/repo-" + i));
+        }
+        cache.put("octocat", info("octocat").withRepositories(repositories));
+        final CacheEntry octocat = cache.put("octocat", info("octocat").withRepositories(repositories));
+        final CacheEntry hubot = cache.put("hubot", info("hubot"));
+        assertEquals(1.0, cache.getCompressionRatio(), "Writes that stay in the L1 should not compress");
+        assertEquals(octocat.getEstimatedBytes() + hubot.getEstimatedBytes(), cache.getEstimatedBytes(),
+                "Hot entries should only be counted as objects");
+
+        final CacheEntry monalisa = cache.put("monalisa", info("monalisa"));
+
+        assertTrue(cache.getCompressionRatio() > 3, "The demoted entry should be compressed");
+        assertEquals(3, cache.size(), "Each user should be counted once");
+        assertTrue(cache.getEstimatedBytes() < octocat.getEstimatedBytes() + hubot.getEstimatedBytes()
+                + monalisa.getEstimatedBytes(), "The demoted entry should only be counted compressed");
+        assertEquals(200, cache.get("octocat").getInfo().getRepositories().size(),
+                "The demoted entry should be promoted again");
+        assertEquals(3, cache.size(), "A promoted entry should leave the cold tier");
+    }
+
+    @Test
+    @DisplayName("A target weight should evict compressed entries, not just trim the L1")
+    void testCompressedWeightEviction() {
+        final GitHubInfoCache cache = newCompressedCache(10);
+        for (int i = 0; i < 200; i++) {
+            cache.put("user-" + i, info("user-" + i));
+        }
+        final long weight = cache.getHeapWeight();
+
+        cache.setTargetWeight(weight / 2);
+
+        assertTrue(cache.getHeapWeight() <= weight / 2, "The compressed blobs should be evicted down to the target");
+        assertTrue(cache.size() < 200, "Some users should be evicted");
+        assertEquals(200 - cache.size(), cache.getEvictions(), "Every removal should count as an eviction");
+    }
+
+    private static GitHubInfoCache newCompressedCache(final int l1MaxEntries) {
+        return new GitHubInfoCache(Duration.ofMinutes(1), Duration.ofMinutes(1), Duration.ofMinutes(5), false,
+                DataSize.ofKilobytes(64), 2, 0.5, l1MaxEntries, true, true);
+    }
+
+    private static GitHubInfoCache newCache(final boolean offHeap, final int l1MaxEntries) {
+        return new GitHubInfoCache(Duration.ofMinutes(1), Duration.ofMinutes(5), offHeap, DataSize.ofKilobytes(64), 2, 0.5, l1MaxEntries);
+    }
+
+    private static GitHubInfo info(final String userName, final String repositoryName) {
+        return new GitHubInfo(userName, "Display " + userName, "https://avatars.example/" + userName, "Earth",
+                null, "https://api.github.com/users/" + userName, "Tue, 25 Jan 2011 18:44:36 GMT",
+                List.of(new GitHubRepository(repositoryName, "https://github.com/" + userName + "/" + repositoryName)));
+    }
+
+    private static GitHubInfo info(final String userName) {
+        return new GitHubInfo(userName, "Display " + userName, "https://avatars.example/" + userName, "Earth",
+                null, "https://api.github.com/users/" + userName, "Tue, 25 Jan 2011 18:44:36 GMT",
+                List.of(new GitHubRepository(userName + "-repo", "https://github.com/" + userName + "/repo")));
+    }
+}
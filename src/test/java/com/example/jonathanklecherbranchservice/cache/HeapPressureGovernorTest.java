@@ -0,0 +1,132 @@
+package com.example.jonathanklecherbranchservice.cache;
+
+import com.example.jonathanklecherbranchservice.entity.GitHubInfo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the heap pressure governor, driven with explicit old-gen occupancies.
+ * Tests cover:
+ * - The target weight starting at the maximum
+ * - Shrinking and evicting at the high-water mark, never below the minimum weight
+ * - Growing back gradually at the low-water mark, never above the maximum
+ * - Holding the target between the marks
+ * - Trimming the L1 in off-heap mode without losing entries from the slabs
+ * - Doing nothing when disabled
+ */
+class HeapPressureGovernorTest {
+
+    private static final long MAX_WEIGHT = 1 << 20;
+
+    @Test
+    @DisplayName("High occupancy should shrink the target and evict on-heap entries down to it")
+    void testShrinkAndEvict() {
+        final GitHubInfoCache cache = newCache(false);
+        final HeapPressureGovernor governor = new HeapPressureGovernor(cache, true, 0.8, 0.6, MAX_WEIGHT, 0, null);
+        fill(cache, 200);
+        final long weight = cache.getHeapWeight();
+        assertEquals(MAX_WEIGHT, cache.getTargetWeight(), "The target should start at the maximum");
+
+        governor.evaluate(0.9);
+
+        assertEquals(weight / 4 * 3, cache.getTargetWeight(), "The target should drop to three quarters of the weight");
+        assertTrue(cache.getHeapWeight() <= cache.getTargetWeight(), "The cache should evict down to the target");
+        assertTrue(cache.size() < 200 && cache.size() > 100, "About a quarter of the users should be evicted");
+        assertEquals(200 - cache.size(), cache.getEvictions(), "Every removal should count as an eviction");
+
+        cache.put("late", info("late"));
+        assertTrue(cache.getHeapWeight() <= cache.getTargetWeight(), "Writes should also stay under the target");
+    }
+
+    @Test
+    @DisplayName("The target should never shrink below the minimum weight")
+    void testMinimumWeight() {
+        final GitHubInfoCache cache = newCache(false);
+        fill(cache, 10);
+        final long minWeight = cache.getHeapWeight();
+        final HeapPressureGovernor governor = new HeapPressureGovernor(cache, true, 0.8, 0.6, MAX_WEIGHT, minWeight, null);
+
+        governor.evaluate(0.95);
+        governor.evaluate(0.95);
+
+        assertEquals(minWeight, cache.getTargetWeight(), "The target should stop at the minimum weight");
+        assertEquals(10, cache.size(), "Nothing should be evicted at the minimum weight");
+    }
+
+    @Test
+    @DisplayName("Low occupancy should grow the target back gradually, up to the maximum")
+    void testGrowth() {
+        final GitHubInfoCache cache = newCache(false);
+        final HeapPressureGovernor governor = new HeapPressureGovernor(cache, true, 0.8, 0.6, MAX_WEIGHT, 0, null);
+        governor.evaluate(0.9);
+        assertEquals(0, cache.getTargetWeight(), "An empty cache under pressure should get no room");
+
+        governor.evaluate(0.7);
+        assertEquals(0, cache.getTargetWeight(), "The target should hold between the marks");
+        governor.evaluate(0.5);
+        assertEquals(MAX_WEIGHT / 8, cache.getTargetWeight(), "The target should grow by an eighth of the maximum");
+        for (int i = 0; i < 10; i++) {
+            governor.evaluate(0.1);
+        }
+        assertEquals(MAX_WEIGHT, cache.getTargetWeight(), "The target should not grow past the maximum");
+    }
+
+    @Test
+    @DisplayName("In off-heap mode only the L1 should be trimmed")
+    void testOffHeapTrimsL1() {
+        final GitHubInfoCache cache = newCache(true);
+        final HeapPressureGovernor governor = new HeapPressureGovernor(cache, true, 0.8, 0.6, MAX_WEIGHT, 0, null);
+        fill(cache, 50);
+        final long weight = cache.getHeapWeight();
+
+        governor.evaluate(0.9);
+
+        assertTrue(cache.getHeapWeight() < weight, "The L1 should be trimmed");
+        assertEquals(50, cache.size(), "Every user should still be in the slabs");
+        assertNotNull(cache.get("user-0"), "A trimmed user should be loaded from the slabs");
+        assertEquals(0, cache.getEvictions(), "Trimming the L1 should not count as an eviction");
+    }
+
+    @Test
+    @DisplayName("A disabled governor should leave the cache uncapped")
+    void testDisabled() {
+        final GitHubInfoCache cache = newCache(false);
+        final HeapPressureGovernor governor = new HeapPressureGovernor(cache, false, 0.8, 0.6, MAX_WEIGHT, 0, null);
+        fill(cache, 10);
+
+        governor.evaluate(0.99);
+
+        assertEquals(Long.MAX_VALUE, cache.getTargetWeight(), "The cache should stay uncapped");
+        assertEquals(10, cache.size(), "Nothing should be evicted");
+        assertFalse(governor.isEnabled(), "The governor should report that it is disabled");
+    }
+
+    @Test
+    @DisplayName("Inconsistent water marks should be rejected")
+    void testInvalidMarks() {
+        final GitHubInfoCache cache = newCache(false);
+        assertThrows(IllegalArgumentException.class,
+                () -> new HeapPressureGovernor(cache, true, 0.6, 0.8, MAX_WEIGHT, 0, null),
+                "The low-water mark should be below the high-water mark");
+    }
+
+    private static void fill(final GitHubInfoCache cache, final int users) {
+        for (int i = 0; i < users; i++) {
+            cache.put("user-" + i, info("user-" + i));
+        }
+    }
+
+    private static GitHubInfoCache newCache(final boolean offHeap) {
+        return new GitHubInfoCache(Duration.ofMinutes(1), Duration.ofMinutes(5), offHeap, DataSize.ofMegabytes(1), 2, 0.5, 100);
+    }
+
+    private static GitHubInfo info(final String userName) {
+        return new GitHubInfo(userName, null, null, null, null, null, null, List.of());
+    }
+}
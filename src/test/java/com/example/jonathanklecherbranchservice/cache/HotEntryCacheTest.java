@@ -0,0 +1,85 @@
+package com.example.jonathanklecherbranchservice.cache;
+
+import com.example.jonathanklecherbranchservice.entity.GitHubInfo;
+import com.example.jonathanklecherbranchservice.entity.GitHubRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the L1 cache's CLOCK recency.
+ * Tests cover:
+ * - Picking the oldest unread entry as the victim, and giving read entries a second chance
+ * - Reporting overflow beyond the maximum entry count
+ * - Heap estimates following puts, replacements and removals
+ * - Replaced and removed entries never being picked as victims
+ */
+class HotEntryCacheTest {
+
+    @Test
+    @DisplayName("The victim should be the oldest entry not read since the hand last passed it")
+    void testSecondChance() {
+        final HotEntryCache cache = new HotEntryCache(2);
+        cache.put("a", entry("a"));
+        cache.put("b", entry("b"));
+        cache.put("c", entry("c"));
+        assertEquals(1, cache.overflow(), "Three entries should overflow a cache of two");
+
+        assertNotNull(cache.get("a"), "The first entry should be readable");
+        assertEquals("b", cache.victim(), "A read entry should get a second chance");
+        assertTrue(cache.remove("b"), "The victim should be removable");
+        assertEquals(0, cache.overflow(), "The cache should be back at its maximum");
+        assertEquals("c", cache.victim(), "The hand should move on past the second-chance entry");
+        assertEquals("a", cache.victim(), "A second-chance entry should be picked once its bit was cleared");
+    }
+
+    @Test
+    @DisplayName("Peeking should not protect an entry from eviction")
+    void testPeekDoesNotMark() {
+        final HotEntryCache cache = new HotEntryCache(2);
+        cache.put("a", entry("a"));
+        cache.put("b", entry("b"));
+        assertNotNull(cache.peek("a"), "Peek should find the entry");
+        assertEquals("a", cache.victim(), "A peeked entry should still be the victim");
+    }
+
+    @Test
+    @DisplayName("Heap estimates should follow puts, replacements and removals")
+    void testEstimatedBytes() {
+        final HotEntryCache cache = new HotEntryCache(10);
+        final CacheEntry first = entry("a");
+        final CacheEntry second = entry("a-with-a-longer-name");
+        cache.put("a", first);
+        assertEquals(first.getEstimatedBytes(), cache.getEstimatedBytes(), "A put should add the entry's size");
+        cache.put("a", second);
+        assertEquals(second.getEstimatedBytes(), cache.getEstimatedBytes(), "A replacement should swap the sizes");
+        assertTrue(cache.remove("a"), "The entry should be removed");
+        assertEquals(0, cache.getEstimatedBytes(), "A removal should subtract the entry's size");
+        assertFalse(cache.remove("a"), "A missing entry should not be removed twice");
+    }
+
+    @Test
+    @DisplayName("Replaced and removed entries should never be picked as victims")
+    void testDeadNodesSkipped() {
+        final HotEntryCache cache = new HotEntryCache(4);
+        for (int i = 0; i < 1_000; i++) {
+            cache.put("a", entry("a"));
+            cache.put("b" + i, entry("b"));
+            cache.remove("b" + i);
+        }
+        cache.put("c", entry("c"));
+        assertEquals("a", cache.victim(), "The only live entries are a and c, and a is older");
+        assertTrue(cache.remove("a"), "The victim should be live");
+        assertEquals("c", cache.victim(), "The remaining entry should be the next victim");
+        assertTrue(cache.remove("c"), "The victim should be live");
+        assertNull(cache.victim(), "An empty cache should have no victim");
+    }
+
+    private static CacheEntry entry(final String userName) {
+        return new CacheEntry(new GitHubInfo(userName, null, null, null, null, null, null,
+                List.of(new GitHubRepository(userName + "-repo", "https://github.com/" + userName))), 1_000L);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.jonathanklecherbranchservice.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the LZ4 block codec.
+ * Tests cover:
+ * - Round trips of empty, tiny, random and highly repetitive inputs
+ * - Literal and match lengths that need one or more extension bytes
+ * - Overlapping matches, i.e. runs of a repeated pattern
+ * - Decoding a block written by hand in the LZ4 format
+ * - Rejecting truncated and corrupt blocks
+ */
+class Lz4CodecTest {
+
+    @Test
+    @DisplayName("Empty and tiny inputs should round-trip as literals")
+    void testShortInputs() {
+        for (int length = 0; length < 20; length++) {
+            final byte[] input = new byte[length];
+            Arrays.fill(input, (byte) 'a');
+            assertRoundTrip(input);
+        }
+        assertArrayEquals(new byte[]{0}, Lz4Codec.compress(new byte[0]), "An empty block should be a single empty token");
+    }
+
+    @Test
+    @DisplayName("Random and repetitive inputs of many lengths should round-trip")
+    void testRoundTrips() {
+        final Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            final byte[] input = new byte[random.nextInt(4096)];
+            // A small alphabet gives a mix of literals and matches
+            final int alphabet = 1 + random.nextInt(256);
+            for (int j = 0; j < input.length; j++) {
+                input[j] = (byte) random.nextInt(alphabet);
+            }
+            assertRoundTrip(input);
+        }
+    }
+
+    @Test
+    @DisplayName("Long literal runs and long matches should use extension bytes")
+    void testLongLengths() {
+        final Random random = new Random(7);
+        final byte[] literals = new byte[1_000];
+        random.nextBytes(literals);
+        assertRoundTrip(literals);
+
+        final byte[] run = new byte[100_000];
+        Arrays.fill(run, (byte) 'x');
+        final byte[] compressed = assertRoundTrip(run);
+        assertTrue(compressed.length < 500, "A long run should compress to a few extension bytes");
+
+        final byte[] mixed = new byte[2 * 300 + 270];
+        random.nextBytes(mixed);
+        System.arraycopy(mixed, 0, mixed, 300, 300);
+        assertRoundTrip(mixed);
+    }
+
+    @Test
+    @DisplayName("Repetitive JSON should compress several times")
+    void testJsonRatio() {
+        final StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 200; i++) {
+            json.append("{\"name\":\"repo-").append(i).append("\",\"url\":\"https://github.com/octocat/repo-")
+                    .append(i).append("\",\"language\":\"Java\",\"stars\":").append(i * 7).append("},");
+        }
+        final byte[] input = json.append("{}]").toString().getBytes(StandardCharsets.UTF_8);
+        final byte[] compressed = assertRoundTrip(input);
+        assertTrue(input.length > 3 * compressed.length,
+                "Repository JSON should compress at least threefold, got " + input.length + " -> " + compressed.length);
+    }
+
+    @Test
+    @DisplayName("A block written by hand in the LZ4 format should decode")
+    void testReferenceBlock() {
+        // "abcd" as literals, then a match of 8 at offset 4, then "xyzzy" as the final literals
+        final byte[] block = {0x44, 'a', 'b', 'c', 'd', 4, 0, 0x50, 'x', 'y', 'z', 'z', 'y'};
+        assertEquals("abcdabcdabcdxyzzy", new String(Lz4Codec.decompress(block, 17), StandardCharsets.US_ASCII),
+                "The overlapping match should repeat the literals");
+    }
+
+    @Test
+    @DisplayName("Truncated and corrupt blocks should be rejected")
+    void testMalformedBlocks() {
+        final byte[] input = "abcdabcdabcdabcdabcdabcdabcdxyzzy".getBytes(StandardCharsets.US_ASCII);
+        final byte[] block = Lz4Codec.compress(input);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> Lz4Codec.decompress(Arrays.copyOf(block, block.length - 1), input.length),
+                "A truncated block should be rejected");
+        assertThrows(IllegalArgumentException.class, () -> Lz4Codec.decompress(block, input.length - 1),
+                "A block longer than the expected length should be rejected");
+        assertThrows(IllegalArgumentException.class, () -> Lz4Codec.decompress(block, input.length + 1),
+                "A block shorter than the expected length should be rejected");
+        final byte[] badOffset = {0x14, 'a', 9, 0, 0x50, 'x', 'y', 'z', 'z', 'y'};
+        assertThrows(IllegalArgumentException.class, () -> Lz4Codec.decompress(badOffset, 14),
+                "An offset before the start of the output should be rejected");
+    }
+
+    private static byte[] assertRoundTrip(final byte[] input) {
+        final byte[] compressed = Lz4Codec.compress(input);
+        assertTrue(compressed.length <= Lz4Codec.maxCompressedLength(input.length),
+                "The block should fit the worst-case bound");
+        assertArrayEquals(input, Lz4Codec.decompress(compressed, input.length),
+                "Input of length " + input.length + " should survive a round trip");
+        return compressed;
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.jonathanklecherbranchservice.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the off-heap slab store.
+ * Tests cover:
+ * - Storing, overwriting and removing values
+ * - Rejection of records larger than a slab
+ * - FIFO eviction of the oldest slab when no slab is sparse enough to compact
+ * - In-place compaction of a sparse slab, keeping its live records readable
+ * - Optimistic reads racing with writers that compact and evict
+ */
+class OffHeapSlabStoreTest {
+
+    // Every record below is 8 header bytes + 2-3 key bytes + 10 value bytes
+    private static final int SLAB_SIZE = 100;
+    private static final int VALUE_LENGTH = 10;
+
+    @Test
+    @DisplayName("Stored values should be readable and overwrites should replace them")
+    void testPutGetOverwrite() {
+        final OffHeapSlabStore store = new OffHeapSlabStore(SLAB_SIZE, 2, 0.5);
+        assertNull(store.get("k1"), "Unknown keys should return null");
+        assertTrue(store.put("k1", value("a")), "A small record should be stored");
+        assertArrayEquals(value("a"), store.get("k1"), "The stored value should be returned");
+        store.put("k1", value("b"));
+        assertArrayEquals(value("b"), store.get("k1"), "An overwrite should replace the value");
+        assertEquals(1, store.size(), "An overwrite should not add a key");
+    }
+
+    @Test
+    @DisplayName("Removed keys should no longer be readable")
+    void testRemove() {
+        final OffHeapSlabStore store = new OffHeapSlabStore(SLAB_SIZE, 2, 0.5);
+        store.put("k1", value("a"));
+        assertTrue(store.remove("k1"), "Removing a present key should report success");
+        assertFalse(store.remove("k1"), "Removing an absent key should report failure");
+        assertNull(store.get("k1"), "A removed key should return null");
+        assertEquals(0, store.size(), "The store should be empty after the removal");
+    }
+
+    @Test
+    @DisplayName("Records larger than a slab should be rejected")
+    void testRejectsOversizedRecord() {
+        final OffHeapSlabStore store = new OffHeapSlabStore(SLAB_SIZE, 2, 0.5);
+        assertFalse(store.put("big", new byte[SLAB_SIZE]), "A record larger than a slab should not be stored");
+        assertNull(store.get("big"), "A rejected record should not be readable");
+    }
+
+    @Test
+    @DisplayName("Fewer than two slabs should be rejected")
+    void testRejectsSingleSlab() {
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapSlabStore(SLAB_SIZE, 1, 0.5),
+                "A single slab leaves no room to compact or evict");
+    }
+
+    @Test
+    @DisplayName("Oldest slab should be evicted when every slab is full of live records")
+    void testEvictsOldestSlab() {
+        final OffHeapSlabStore store = new OffHeapSlabStore(SLAB_SIZE, 2, 0.5);
+        for (int i = 0; i < 10; i++) {
+            store.put("k" + i, value("v" + i));
+        }
+        store.put("k10", value("v10"));
+
+        for (int i = 0; i < 5; i++) {
+            assertNull(store.get("k" + i), "Records of the oldest slab should be evicted");
+        }
+        for (int i = 5; i <= 10; i++) {
+            assertArrayEquals(value("v" + i), store.get("k" + i), "Newer records should survive eviction");
+        }
+        assertEquals(5, store.getEvictions(), "Every live record of the evicted slab should be counted");
+        assertEquals(0, store.getCompactions(), "Full slabs should not be compacted");
+        assertEquals(2L * SLAB_SIZE, store.getAllocatedBytes(), "No more than max-slabs slabs should be allocated");
+    }
+
+    @Test
+    @DisplayName("Sparse slab should be compacted in place instead of evicted")
+    void testCompactsSparseSlab() {
+        final OffHeapSlabStore store = new OffHeapSlabStore(SLAB_SIZE, 2, 0.5);
+        for (int i = 0; i < 10; i++) {
+            store.put("k" + i, value("v" + i));
+        }
+        store.remove("k0");
+        store.remove("k1");
+        store.remove("k2");
+        store.put("k10", value("v10"));
+
+        assertEquals(1, store.getCompactions(), "The sparse first slab should be compacted");
+        assertEquals(0, store.getEvictions(), "Nothing should be evicted when compaction frees room");
+        for (int i = 3; i <= 10; i++) {
+            assertArrayEquals(value("v" + i), store.get("k" + i), "Live records should survive compaction");
+        }
+        assertEquals(8, store.size(), "Only removed keys should be missing");
+    }
+
+    @Test
+    @DisplayName("Concurrent reads should never observe another key's value while writers churn slabs")
+    void testReadsRaceWithCompactionAndEviction() throws InterruptedException {
+        final OffHeapSlabStore store = new OffHeapSlabStore(SLAB_SIZE, 3, 0.5);
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicInteger mismatches = new AtomicInteger();
+        final Thread reader = Thread.ofPlatform().start(() -> {
+            while (running.get()) {
+                for (int i = 0; i < 20; i++) {
+                    final byte[] read = store.get("k" + i);
+                    if (read != null && !new String(read, StandardCharsets.UTF_8).startsWith("k" + i + ":")) {
+                        mismatches.incrementAndGet();
+                    }
+                }
+            }
+        });
+        for (int round = 0; round < 20_000; round++) {
+            final int key = round % 20;
+            if (round % 3 == 0) {
+                store.remove("k" + key);
+            } else {
+                store.put("k" + key, value("k" + key + ":"));
+            }
+        }
+        running.set(false);
+        reader.join();
+
+        assertEquals(0, mismatches.get(), "Reads should return the value written for their own key");
+        assertTrue(store.getCompactions() + store.getEvictions() > 0, "The churn should have reclaimed slab space");
+    }
+
+    private static byte[] value(final String prefix) {
+        final byte[] value = new byte[VALUE_LENGTH];
+        final byte[] bytes = prefix.getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(bytes, 0, value, 0, bytes.length);
+        return value;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.jonathanklecherbranchservice.cache;
+
+import com.example.jonathanklecherbranchservice.entity.GitHubRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the per-user repository index.
+ * Tests cover:
+ * - Case-insensitive prefix ranges in name order
+ * - Top-N by stars and by update time, with ties broken by name
+ * - GitHub's original order when no sort is given
+ * - Agreement with a full filter-and-sort scan for dense and sparse prefixes
+ * - Parsing of sort parameters
+ */
+class RepositoryIndexTest {
+
+    @Test
+    @DisplayName("A prefix should select a case-insensitive range in name order")
+    void testPrefixByName() {
+        final RepositoryIndex index = new RepositoryIndex(List.of(repository("Spring-boot", 1, null),
+                repository("kafka", 2, null), repository("spring-ai", 3, null), repository("springer", 4, null)));
+        assertEquals(List.of("spring-ai", "Spring-boot", "springer"),
+                names(index.query("SPRING", RepositoryIndex.Sort.NAME, 0)), "The prefix should match regardless of case");
+        assertEquals(List.of("spring-ai"), names(index.query("spring", RepositoryIndex.Sort.NAME, 1)),
+                "The limit should cut the range");
+        assertTrue(index.query("zzz", RepositoryIndex.Sort.NAME, 0).isEmpty(), "An unmatched prefix should select nothing");
+    }
+
+    @Test
+    @DisplayName("Top-N by stars and by update time should follow the precomputed orders")
+    void testTopN() {
+        final RepositoryIndex index = new RepositoryIndex(List.of(repository("b", 5, "2024-01-01T00:00:00Z"),
+                repository("a", 5, null), repository("c", 9, "2024-03-01T00:00:00Z")));
+        assertEquals(List.of("c", "a"), names(index.query(null, RepositoryIndex.Sort.STARS, 2)),
+                "Most stars should come first, ties by name");
+        assertEquals(List.of("c", "b", "a"), names(index.query(null, RepositoryIndex.Sort.UPDATED, 0)),
+                "Most recent updates should come first, undated repositories last");
+        assertEquals(List.of("b", "a"), names(index.query(null, null, 2)), "No sort should keep GitHub's order");
+    }
+
+    @Test
+    @DisplayName("Every query should agree with a full filter-and-sort scan")
+    void testAgreesWithScan() {
+        final Random random = new Random(42);
+        final List<GitHubRepository> repositories = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            repositories.add(repository((random.nextBoolean() ? "Ab" : "x") + Integer.toString(random.nextInt(100_000), 36),
+                    random.nextInt(50), random.nextInt(5) == 0 ? null : "2024-0" + (1 + random.nextInt(9))));
+        }
+        final RepositoryIndex index = new RepositoryIndex(repositories);
+        final List<RepositoryIndex.Sort> sorts = new ArrayList<>(List.of(RepositoryIndex.Sort.values()));
+        sorts.add(null);
+        for (final String prefix : new String[] {null, "ab", "AB3", "x1", "zzz"}) {
+            for (final RepositoryIndex.Sort sort : sorts) {
+                for (final int limit : new int[] {0, 1, 5, 1000}) {
+                    assertEquals(scan(repositories, prefix, sort, limit), index.query(prefix, sort, limit),
+                            "prefix=" + prefix + " sort=" + sort + " limit=" + limit + " should match a full scan");
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Sort parameters should parse case-insensitively and reject unknown values")
+    void testParseSort() {
+        assertEquals(RepositoryIndex.Sort.STARS, RepositoryIndex.Sort.parse("Stars"), "Sort names should be case-insensitive");
+        assertThrows(IllegalArgumentException.class, () -> RepositoryIndex.Sort.parse("forks"),
+                "An unknown sort should be rejected");
+    }
+
+    private static List<GitHubRepository> scan(final List<GitHubRepository> repositories, final String prefix,
+                                               final RepositoryIndex.Sort sort, final int limit) {
+        final Comparator<GitHubRepository> byName = Comparator.comparing(r -> r.getName().toLowerCase(Locale.ROOT));
+        final List<GitHubRepository> matches = new ArrayList<>();
+        for (final GitHubRepository repository : repositories) {
+            if (prefix == null || repository.getName().toLowerCase(Locale.ROOT).startsWith(prefix.toLowerCase(Locale.ROOT))) {
+                matches.add(repository);
+            }
+        }
+        if (sort == RepositoryIndex.Sort.NAME) {
+            matches.sort(byName);
+        } else if (sort == RepositoryIndex.Sort.STARS) {
+            matches.sort(Comparator.comparingInt(GitHubRepository::getStars).reversed().thenComparing(byName));
+        } else if (sort == RepositoryIndex.Sort.UPDATED) {
+            matches.sort(Comparator.comparing(GitHubRepository::getUpdatedAt,
+                    Comparator.nullsLast(Comparator.<String>reverseOrder())).thenComparing(byName));
+        }
+        return limit > 0 && matches.size() > limit ? matches.subList(0, limit) : matches;
+    }
+
+    private static List<String> names(final List<GitHubRepository> repositories) {
+        return repositories.stream().map(GitHubRepository::getName).toList();
+    }
+
+    private static GitHubRepository repository(final String name, final int stars, final String updatedAt) {
+        final GitHubRepository repository = new GitHubRepository(name, "https://api.github.com/repos/octocat/" + name);
+        repository.setStars(stars);
+        repository.setUpdatedAt(updatedAt);
+        return repository;
+    }
+}
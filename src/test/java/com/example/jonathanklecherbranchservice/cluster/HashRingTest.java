@@ -0,0 +1,70 @@
+package com.example.jonathanklecherbranchservice.cluster;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the consistent-hash ring.
+ * Tests cover:
+ * - The same owner for a key whatever the member order, and case-insensitive keys
+ * - An even share of keys per member with virtual nodes
+ * - Only about 1/n of the keys moving, all to the new member, when a member joins
+ */
+class HashRingTest {
+
+    private static final List<String> MEMBERS = List.of("http://a:8080", "http://b:8080", "http://c:8080");
+    private static final int KEYS = 30_000;
+
+    @Test
+    @DisplayName("Owners should not depend on member order or key case")
+    void testDeterministic() {
+        final HashRing ring = new HashRing(MEMBERS, 128);
+        final HashRing reordered = new HashRing(List.of(MEMBERS.get(2), MEMBERS.get(0), MEMBERS.get(1)), 128);
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(ring.owner("user-" + i), reordered.owner("user-" + i), "Every replica should agree on owners");
+        }
+        assertEquals(ring.owner("octocat"), ring.owner("OctoCat"), "Usernames should be case-insensitive");
+    }
+
+    @Test
+    @DisplayName("Virtual nodes should spread keys evenly over the members")
+    void testBalance() {
+        final HashRing ring = new HashRing(MEMBERS, 128);
+        final Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(ring.owner("user-" + i), 1, Integer::sum);
+        }
+        assertEquals(MEMBERS.size(), counts.size(), "Every member should own keys");
+        for (final int count : counts.values()) {
+            assertTrue(count > KEYS / 3 * 0.8 && count < KEYS / 3 * 1.2, "Each member should own about a third: " + count);
+        }
+    }
+
+    @Test
+    @DisplayName("A joining member should take about 1/n of the keys, all from the others")
+    void testMinimalMovement() {
+        final HashRing before = new HashRing(MEMBERS, 128);
+        final HashRing after = new HashRing(List.of(MEMBERS.get(0), MEMBERS.get(1), MEMBERS.get(2), "http://d:8080"), 128);
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            final String owner = after.owner("user-" + i);
+            if (!owner.equals(before.owner("user-" + i))) {
+                moved++;
+                assertEquals("http://d:8080", owner, "Keys should only move to the new member");
+            }
+        }
+        assertTrue(moved > KEYS / 6 && moved < KEYS / 3, "About a quarter of the keys should move: " + moved);
+    }
+
+    @Test
+    @DisplayName("A ring without members should be rejected")
+    void testEmpty() {
+        assertThrows(IllegalArgumentException.class, () -> new HashRing(List.of(), 128), "A ring needs a member");
+    }
+}
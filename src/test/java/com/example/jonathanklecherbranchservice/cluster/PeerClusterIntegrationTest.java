@@ -0,0 +1,149 @@
+package com.example.jonathanklecherbranchservice.cluster;
+
+import com.example.jonathanklecherbranchservice.JonathanKleckerBranchServiceApplication;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for peer mode with three in-process replicas on localhost, sharing a stubbed
+ * GitHub API that counts its calls.
+ * Tests cover:
+ * - Every user fetched from GitHub once, whichever replicas it is requested from
+ * - Near-cached copies keeping the owner's fetch times
+ * - Unknown users reported as 404 through the owner
+ * - Replicas falling back to GitHub when the owner of a user is down
+ */
+class PeerClusterIntegrationTest {
+
+    private static final int REPLICAS = 3;
+    private static final int USERS = 12;
+
+    private final Map<String, AtomicInteger> gitHubCalls = new ConcurrentHashMap<>();
+    private final List<ConfigurableApplicationContext> replicas = new ArrayList<>();
+    private final List<String> urls = new ArrayList<>();
+    private final HttpClient client = HttpClient.newHttpClient();
+    private HttpServer gitHub;
+
+    @BeforeEach
+    void startCluster() throws IOException {
+        gitHub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        gitHub.createContext("/users/", this::respond);
+        gitHub.start();
+        final List<Integer> ports = new ArrayList<>();
+        for (int i = 0; i < REPLICAS; i++) {
+            try (ServerSocket socket = new ServerSocket(0)) {
+                ports.add(socket.getLocalPort());
+            }
+            urls.add("http://127.0.0.1:" + ports.get(i));
+        }
+        for (int i = 0; i < REPLICAS; i++) {
+            replicas.add(new SpringApplicationBuilder(JonathanKleckerBranchServiceApplication.class).properties(
+                    "server.port=" + ports.get(i),
+                    "spring.jmx.enabled=false",
+                    "github.warmup.enabled=false",
+                    "github.api.base-url=http://127.0.0.1:" + gitHub.getAddress().getPort(),
+                    "github.cluster.enabled=true",
+                    "github.cluster.self=" + urls.get(i),
+                    "github.cluster.peers=" + String.join(",", urls),
+                    "github.cluster.secret=cluster-test-secret").run());
+        }
+    }
+
+    @AfterEach
+    void stopCluster() {
+        replicas.forEach(ConfigurableApplicationContext::close);
+        gitHub.stop(0);
+    }
+
+    @Test
+    @DisplayName("Each user should be fetched from GitHub once across all replicas")
+    void testSingleUpstreamFetch() throws Exception {
+        for (int user = 0; user < USERS; user++) {
+            for (final String url : urls) {
+                final HttpResponse<String> response = get(url, "peer-user-" + user);
+                assertEquals(200, response.statusCode(), "Every replica should serve the user");
+                assertTrue(response.body().contains("peer-user-" + user), "The user should be returned");
+            }
+        }
+        for (int user = 0; user < USERS; user++) {
+            assertEquals(1, gitHubCalls.get("/users/peer-user-" + user).get(),
+                    "The profile of user " + user + " should be fetched once");
+        }
+    }
+
+    @Test
+    @DisplayName("Replicas should cache a user with the owner's fetch times")
+    void testOwnerFetchTimes() throws Exception {
+        final List<String> fetchedAt = new ArrayList<>();
+        for (final String url : urls) {
+            final HttpResponse<String> response = get(url, "timed-user");
+            assertEquals(200, response.statusCode(), "Every replica should serve the user");
+            fetchedAt.add(response.headers().firstValue(PeerRouter.PROFILE_FETCHED_AT_HEADER).orElse(null)
+                    + "/" + response.headers().firstValue(PeerRouter.REPOSITORIES_FETCHED_AT_HEADER).orElse(null));
+        }
+        assertFalse(fetchedAt.get(0).contains("null"), "Responses should carry both fetch times");
+        assertEquals(List.of(fetchedAt.get(0), fetchedAt.get(0), fetchedAt.get(0)), fetchedAt,
+                "Every replica should report when the owner fetched the user");
+    }
+
+    @Test
+    @DisplayName("Unknown users should be reported as 404 by every replica")
+    void testNotFound() throws Exception {
+        for (final String url : urls) {
+            assertEquals(404, get(url, "missing-user").statusCode(), "Every replica should report 404");
+        }
+    }
+
+    @Test
+    @DisplayName("Replicas should fetch from GitHub themselves when the owner is down")
+    void testOwnerDown() throws Exception {
+        replicas.get(0).close();
+        for (int user = 0; user < USERS; user++) {
+            assertEquals(200, get(urls.get(1), "down-user-" + user).statusCode(), "The user should still be served");
+        }
+    }
+
+    private HttpResponse<String> get(final String url, final String userName) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(url + "/users/" + userName)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private void respond(final HttpExchange exchange) throws IOException {
+        final String path = exchange.getRequestURI().getPath();
+        gitHubCalls.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+        final String login = path.substring("/users/".length()).split("/")[0];
+        final boolean missing = login.startsWith("missing");
+        final String body = missing ? "{\"message\":\"Not Found\"}"
+                : path.endsWith("/repos") ? "[]"
+                : "{\"login\":\"" + login + "\",\"name\":\"" + login + "\",\"created_at\":\"2011-01-25T18:44:36Z\"}";
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(missing ? 404 : 200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
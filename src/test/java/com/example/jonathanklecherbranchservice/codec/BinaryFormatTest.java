@@ -0,0 +1,80 @@
+package com.example.jonathanklecherbranchservice.codec;
+
+import com.example.jonathanklecherbranchservice.cache.CacheEntry;
+import com.example.jonathanklecherbranchservice.entity.GitHubInfo;
+import com.example.jonathanklecherbranchservice.entity.GitHubRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for binary response formats.
+ * Tests cover:
+ * - Accept header negotiation, including quality values, wildcards and malformed headers
+ * - Smile and CBOR encodings decoding to the same tree as the JSON response
+ * - Memoization of encodings on cache entries
+ */
+class BinaryFormatTest {
+
+    @Test
+    @DisplayName("Missing, JSON and wildcard Accept headers should negotiate JSON")
+    void testNegotiatesJson() {
+        assertNull(BinaryFormat.negotiate(null), "No Accept header should mean JSON");
+        assertNull(BinaryFormat.negotiate("application/json"), "application/json should mean JSON");
+        assertNull(BinaryFormat.negotiate("*/*"), "A wildcard should mean JSON");
+        assertNull(BinaryFormat.negotiate("not a media type;;"), "A malformed header should mean JSON");
+    }
+
+    @Test
+    @DisplayName("Binary media types should negotiate their format")
+    void testNegotiatesBinaryFormats() {
+        assertEquals(BinaryFormat.SMILE, BinaryFormat.negotiate("application/x-jackson-smile"),
+                "The Smile media type should negotiate Smile");
+        assertEquals(BinaryFormat.CBOR, BinaryFormat.negotiate("application/cbor"),
+                "The CBOR media type should negotiate CBOR");
+        assertEquals(BinaryFormat.CBOR, BinaryFormat.negotiate("application/cbor, application/json;q=0.5"),
+                "A preferred binary format should win over lower-quality JSON");
+    }
+
+    @Test
+    @DisplayName("Higher-quality JSON should win over a binary format")
+    void testQualityValuesRespected() {
+        assertNull(BinaryFormat.negotiate("application/cbor;q=0.2, application/json"),
+                "JSON with a higher quality value should win");
+        assertNull(BinaryFormat.negotiate("application/x-jackson-smile;q=0"),
+                "A format with quality 0 is not acceptable");
+    }
+
+    @Test
+    @DisplayName("Binary encodings should decode to the same tree as JSON")
+    void testSchemaMatchesJson() {
+        final GitHubInfo info = info();
+        final JsonNode json = JsonMapper.builder().build().valueToTree(info);
+        assertEquals(json, SmileMapper.builder().build().readTree(BinaryFormat.SMILE.encode(info)),
+                "Smile should carry the same fields and values as JSON");
+        assertEquals(json, CBORMapper.builder().build().readTree(BinaryFormat.CBOR.encode(info)),
+                "CBOR should carry the same fields and values as JSON");
+    }
+
+    @Test
+    @DisplayName("Cache entries should reuse their binary encodings")
+    void testEncodingMemoized() {
+        final CacheEntry entry = new CacheEntry(info(), System.currentTimeMillis());
+        final byte[] first = entry.getEncoding(BinaryFormat.SMILE);
+        assertSame(first, entry.getEncoding(BinaryFormat.SMILE), "The Smile encoding should be computed once");
+        assertNotSame(first, entry.getEncoding(BinaryFormat.CBOR), "Each format should have its own encoding");
+    }
+
+    private static GitHubInfo info() {
+        return new GitHubInfo("octocat", "The Octocat", "https://avatars.githubusercontent.com/u/583231", "San Francisco",
+                null, "https://api.github.com/users/octocat", "Tue, 25 Jan 2011 18:44:36 GMT",
+                List.of(new GitHubRepository("Hello-World", "https://github.com/octocat/Hello-World")));
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.jonathanklecherbranchservice.config;
+
+import com.example.jonathanklecherbranchservice.entity.GitHubInfo;
+import com.example.jonathanklecherbranchservice.entity.GitHubRepository;
+import io.swagger.v3.oas.models.OpenAPI;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the native-image runtime hints.
+ * Tests cover:
+ * - Reflection hints for the JSON entities
+ * - Reflection hints for the springdoc configuration and model
+ * - Resource hints for the Swagger UI assets
+ */
+class NativeHintsConfigTest {
+
+    private RuntimeHints hints;
+
+    @BeforeEach
+    void setUp() {
+        hints = new RuntimeHints();
+        new NativeHintsConfig.GitHubRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    @DisplayName("GitHubInfo should be registered for reflection")
+    void testGitHubInfoHint() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(GitHubInfo.class).test(hints),
+                "GitHubInfo should have a reflection hint");
+    }
+
+    @Test
+    @DisplayName("GitHubRepository should be registered for reflection")
+    void testGitHubRepositoryHint() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(GitHubRepository.class).test(hints),
+                "GitHubRepository should have a reflection hint");
+    }
+
+    @Test
+    @DisplayName("Springdoc configuration and OpenAPI model should be registered for reflection")
+    void testSpringdocHints() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(OpenAPIConfig.class).test(hints),
+                "OpenAPIConfig should have a reflection hint");
+        assertTrue(RuntimeHintsPredicates.reflection().onType(OpenAPI.class).test(hints),
+                "OpenAPI model should have a reflection hint");
+    }
+
+    @Test
+    @DisplayName("Swagger UI assets should be registered as resources")
+    void testSwaggerUiResourceHint() {
+        assertTrue(RuntimeHintsPredicates.resource()
+                        .forResource("META-INF/resources/webjars/swagger-ui/index.html").test(hints),
+                "Swagger UI assets should have a resource hint");
+    }
+}
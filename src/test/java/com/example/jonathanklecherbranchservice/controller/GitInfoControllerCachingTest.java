@@ -0,0 +1,126 @@
+package com.example.jonathanklecherbranchservice.controller;
+
+import com.example.jonathanklecherbranchservice.cache.GitHubInfoCache;
+import com.example.jonathanklecherbranchservice.entity.GitHubInfo;
+import com.example.jonathanklecherbranchservice.entity.GitHubRepository;
+import com.example.jonathanklecherbranchservice.service.GitHubService;
+import com.example.jonathanklecherbranchservice.service.GitHubServiceException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for HTTP caching on /users responses, with the GitHub service mocked.
+ * Tests cover:
+ * - ETag, Cache-Control and Vary headers on successful responses
+ * - 304 Not Modified with an empty body for a matching If-None-Match
+ * - Fresh cache entries served without calling GitHub
+ * - Server-side repository prefix, sort and limit on the cached list
+ * - Upstream failures counting as a single cache lookup
+ */
+@SpringBootTest(properties = {"github.cache.ttl=60s", "github.cache.stale-while-revalidate=300s"})
+@AutoConfigureMockMvc
+class GitInfoControllerCachingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private GitHubInfoCache cache;
+
+    @MockitoBean
+    private GitHubService gitHubService;
+
+    @Test
+    @DisplayName("A repeat request with a matching If-None-Match should get 304 without calling GitHub again")
+    @SuppressWarnings("PMD")
+    void testConditionalRequestNotModified() throws Exception {
+        when(gitHubService.getGitInfoWithRepos("cached-user")).thenReturn(new GitHubInfo(
+                "cached-user", "Cached User", null, null, null, null, null, List.of()));
+
+        final String eTag = mockMvc.perform(get("/users/cached-user"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("stale-while-revalidate=300")))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag, "A successful response should carry an ETag");
+
+        mockMvc.perform(get("/users/cached-user").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+
+        final String cborETag = mockMvc.perform(get("/users/cached-user").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(eTag, cborETag, "The CBOR representation should have its own ETag");
+
+        verify(gitHubService, times(1)).getGitInfoWithRepos("cached-user");
+    }
+
+    @Test
+    @DisplayName("Repository queries should be answered from the cached list by prefix, stars and limit")
+    void testRepositoryQuery() throws Exception {
+        when(gitHubService.getGitInfoWithRepos("query-user")).thenReturn(new GitHubInfo(
+                "query-user", "Query User", null, null, null, null, null,
+                List.of(repository("spring-boot", 70), repository("Spring-data", 3), repository("kafka", 90),
+                        repository("spring-ai", 12))));
+
+        mockMvc.perform(get("/users/query-user/repos").param("prefix", "spring").param("sort", "stars")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].name").value("spring-boot"))
+                .andExpect(jsonPath("$[1].name").value("spring-ai"));
+        mockMvc.perform(get("/users/query-user").param("sort", "name").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.display_name").value("Query User"))
+                .andExpect(jsonPath("$.repositories.length()").value(1))
+                .andExpect(jsonPath("$.repositories[0].name").value("kafka"));
+        mockMvc.perform(get("/users/query-user/repos").param("sort", "forks"))
+                .andExpect(status().isBadRequest());
+
+        verify(gitHubService, times(1)).getGitInfoWithRepos("query-user");
+    }
+
+    @Test
+    @DisplayName("A failed upstream call should count as one cache lookup, not two")
+    void testUpstreamFailureCountsOneLookup() throws Exception {
+        when(gitHubService.getGitInfoWithRepos("failing-user")).thenThrow(
+                new GitHubServiceException("GitHub API unavailable", HttpStatus.BAD_GATEWAY, null));
+        final long lookups = cache.getHits() + cache.getMisses();
+
+        mockMvc.perform(get("/users/failing-user"))
+                .andExpect(status().isBadGateway())
+                .andExpect(jsonPath("$.cached").value(false));
+
+        assertEquals(lookups + 1, cache.getHits() + cache.getMisses(), "The request should look the user up once");
+    }
+
+    private static GitHubRepository repository(final String name, final int stars) {
+        final GitHubRepository repository = new GitHubRepository(name, "https://api.github.com/repos/query-user/" + name);
+        repository.setStars(stars);
+        return repository;
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
 import org.springframework.test.web.servlet.MockMvc;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -17,6 +18,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * - HTTP endpoint behavior with real MockMvc testing
  * - Request validation at the HTTP level
  * - Response status codes for various input scenarios
+ * - Content negotiation of binary (CBOR) responses
  */
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -35,6 +37,15 @@ class GitInfoControllerIntegrationTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    @DisplayName("GET /users/octocat with Accept: application/cbor should return a CBOR body")
+    @SuppressWarnings("PMD")
+    void testGetGitInfoAsCbor() throws Exception {
+        mockMvc.perform(get("/users/" + VALID_USER).accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"));
+    }
+
     @Test
     @DisplayName("GET /users/{username} with non-existent user should return HTTP 404 Not Found")
     @SuppressWarnings("PMD")
@@ -0,0 +1,67 @@
+package com.example.jonathanklecherbranchservice.controller;
+
+import com.example.jonathanklecherbranchservice.entity.GitHubInfo;
+import com.example.jonathanklecherbranchservice.entity.GitHubRepository;
+import com.example.jonathanklecherbranchservice.service.GitHubService;
+import com.example.jonathanklecherbranchservice.service.UpstreamLane;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for refreshing the profile and repository list of a cached user separately,
+ * with the GitHub service mocked. Repository lists are stale at once and profiles stay fresh.
+ * Tests cover:
+ * - A stale repository list refreshed without refetching the fresh profile
+ * - The refreshed repositories combined with the cached profile in the response
+ */
+@SpringBootTest(properties = {"github.cache.ttl=0s", "github.cache.profile-ttl=10m"})
+@AutoConfigureMockMvc
+class GitInfoControllerPartialRefreshTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private GitHubService gitHubService;
+
+    @Test
+    @DisplayName("Only the stale repository list should be refetched for a cached user")
+    void testRepositoriesOnlyRefresh() throws Exception {
+        when(gitHubService.getGitInfoWithRepos("split-user")).thenReturn(new GitHubInfo(
+                "split-user", "Split User", null, null, null, null, null,
+                List.of(new GitHubRepository("old", "https://api.github.com/repos/split-user/old"))));
+        when(gitHubService.refreshGitRepoInfo(eq("split-user"), anyList(), anyLong(), eq(UpstreamLane.INTERACTIVE))).thenReturn(
+                List.of(new GitHubRepository("new", "https://api.github.com/repos/split-user/new")));
+
+        mockMvc.perform(get("/users/split-user"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.repositories[0].name").value("old"));
+        mockMvc.perform(get("/users/split-user"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.display_name").value("Split User"))
+                .andExpect(jsonPath("$.repositories[0].name").value("new"));
+
+        verify(gitHubService, times(1)).getGitInfoWithRepos("split-user");
+        verify(gitHubService, times(1)).refreshGitRepoInfo(eq("split-user"), anyList(), anyLong(), eq(UpstreamLane.INTERACTIVE));
+        verify(gitHubService, never()).getGitInfo(anyString());
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.jonathanklecherbranchservice.controller;
+
+import com.example.jonathanklecherbranchservice.entity.GitHubInfo;
+import com.example.jonathanklecherbranchservice.service.GitHubService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for per-client quotas on /users, with the GitHub service mocked and a quota
+ * of one uncached lookup per client.
+ * Tests cover:
+ * - 429 with Retry-After for a client over its quota
+ * - Fresh cache hits served to an over-quota client
+ * - Clients with a configured API key charged separately from their IP
+ */
+@SpringBootTest(properties = {"github.quota.enabled=true", "github.quota.requests-per-minute=1",
+        "github.quota.burst=1", "github.quota.api-keys=team-a", "github.cache.ttl=60s"})
+@AutoConfigureMockMvc
+class GitInfoControllerQuotaTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private GitHubService gitHubService;
+
+    @Test
+    @DisplayName("An over-quota client should get 429 for misses and keep getting cache hits")
+    void testOverQuota() throws Exception {
+        when(gitHubService.getGitInfoWithRepos(anyString())).thenAnswer(invocation -> new GitHubInfo(
+                invocation.getArgument(0), "User", null, null, null, null, null, List.of()));
+
+        mockMvc.perform(get("/users/quota-first").with(request -> {
+            request.setRemoteAddr("10.1.1.1");
+            return request;
+        })).andExpect(status().isOk());
+        mockMvc.perform(get("/users/quota-second").with(request -> {
+            request.setRemoteAddr("10.1.1.1");
+            return request;
+        }))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+                .andExpect(jsonPath("$.cached").value(false));
+        mockMvc.perform(get("/users/quota-first").with(request -> {
+            request.setRemoteAddr("10.1.1.1");
+            return request;
+        })).andExpect(status().isOk());
+        mockMvc.perform(get("/users/quota-second").header("X-API-Key", "team-a").with(request -> {
+            request.setRemoteAddr("10.1.1.1");
+            return request;
+        })).andExpect(status().isOk());
+    }
+}
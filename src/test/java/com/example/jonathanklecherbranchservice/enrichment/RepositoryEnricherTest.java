@@ -0,0 +1,129 @@
+package com.example.jonathanklecherbranchservice.enrichment;
+
+import com.example.jonathanklecherbranchservice.entity.GitHubInfo;
+import com.example.jonathanklecherbranchservice.entity.GitHubRepository;
+import com.example.jonathanklecherbranchservice.service.GitHubService;
+import com.example.jonathanklecherbranchservice.service.GitHubServiceException;
+import com.example.jonathanklecherbranchservice.service.UpstreamLane;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the repository enricher.
+ * Tests cover:
+ * - Enriching a copy without modifying the cached info
+ * - Reusing cached languages instead of calling GitHub again
+ * - Returning partial results when the deadline passes or a lookup fails
+ * - Bounding the number of concurrent lookups per request
+ */
+class RepositoryEnricherTest {
+
+    private static final Map<String, Long> JAVA = Map.of("Java", 1000L);
+
+    private final GitHubService gitHubService = mock(GitHubService.class);
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final RepositoryLanguagesCache languagesCache = new RepositoryLanguagesCache(100, 60_000L, now::get);
+    private RepositoryEnricher enricher;
+
+    @AfterEach
+    void tearDown() {
+        if (enricher != null) {
+            enricher.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Enrichment should return a copy with languages and leave the input untouched")
+    void testEnrichesCopy() throws GitHubServiceException {
+        when(gitHubService.getRepoLanguages("octocat", "hello", UpstreamLane.BATCH)).thenReturn(JAVA);
+        enricher = new RepositoryEnricher(gitHubService, 4, Duration.ofSeconds(5), languagesCache);
+        final GitHubInfo info = info("hello");
+
+        final GitHubInfo enriched = enricher.withLanguages(info);
+        assertEquals(JAVA, enriched.getRepositories().get(0).getLanguages(), "The copy should carry the languages");
+        assertNull(info.getRepositories().get(0).getLanguages(), "The input should not be modified");
+        assertEquals("octocat", enriched.getUserName(), "Profile fields should be copied");
+    }
+
+    @Test
+    @DisplayName("Cached languages should be reused until their TTL passes")
+    void testCache() throws GitHubServiceException {
+        when(gitHubService.getRepoLanguages("octocat", "hello", UpstreamLane.BATCH)).thenReturn(JAVA);
+        enricher = new RepositoryEnricher(gitHubService, 4, Duration.ofSeconds(5), languagesCache);
+
+        enricher.withLanguages(info("hello"));
+        enricher.withLanguages(info("hello"));
+        verify(gitHubService, times(1)).getRepoLanguages("octocat", "hello", UpstreamLane.BATCH);
+
+        now.addAndGet(60_000L);
+        enricher.withLanguages(info("hello"));
+        verify(gitHubService, times(2)).getRepoLanguages("octocat", "hello", UpstreamLane.BATCH);
+    }
+
+    @Test
+    @DisplayName("Slow and failed lookups should leave only those repositories without languages")
+    void testPartialResults() throws Exception {
+        final CountDownLatch never = new CountDownLatch(1);
+        when(gitHubService.getRepoLanguages("octocat", "fast", UpstreamLane.BATCH)).thenReturn(JAVA);
+        when(gitHubService.getRepoLanguages("octocat", "slow", UpstreamLane.BATCH)).thenAnswer(invocation -> {
+            never.await();
+            return JAVA;
+        });
+        when(gitHubService.getRepoLanguages("octocat", "broken", UpstreamLane.BATCH))
+                .thenThrow(new GitHubServiceException("boom", HttpStatus.BAD_GATEWAY, null));
+        enricher = new RepositoryEnricher(gitHubService, 4, Duration.ofMillis(200), languagesCache);
+
+        final long start = System.nanoTime();
+        final List<GitHubRepository> repositories = enricher.withLanguages(info("fast", "slow", "broken")).getRepositories();
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(2).toNanos(), "Enrichment should stop at the deadline");
+        assertEquals(JAVA, repositories.get(0).getLanguages(), "The fast repository should be enriched");
+        assertNull(repositories.get(1).getLanguages(), "The slow repository should be returned without languages");
+        assertNull(repositories.get(2).getLanguages(), "The failed repository should be returned without languages");
+        assertNull(languagesCache.get("octocat/broken"), "Failures should not be cached");
+    }
+
+    @Test
+    @DisplayName("No more than max-parallel lookups should run at once for a request")
+    void testBoundedParallelism() throws Exception {
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        when(gitHubService.getRepoLanguages(eq("octocat"), anyString(), eq(UpstreamLane.BATCH)))
+                .thenAnswer(invocation -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    Thread.sleep(20);
+                    inFlight.decrementAndGet();
+                    return JAVA;
+                });
+        enricher = new RepositoryEnricher(gitHubService, 2, Duration.ofSeconds(5), languagesCache);
+
+        final GitHubInfo enriched = enricher.withLanguages(info("a", "b", "c", "d", "e", "f"));
+        assertTrue(enriched.getRepositories().stream().allMatch(repository -> repository.getLanguages() != null),
+                "Every repository should be enriched within the deadline");
+        assertTrue(maxInFlight.get() <= 2, "At most two lookups should have run at once");
+    }
+
+    private static GitHubInfo info(final String... repositoryNames) {
+        final List<GitHubRepository> repositories = Arrays.stream(repositoryNames)
+                .map(name -> new GitHubRepository(name, "https://api.github.com/repos/octocat/" + name))
+                .toList();
+        return new GitHubInfo("octocat", "The Octocat", null, null, null, null, null, repositories);
+    }
+}
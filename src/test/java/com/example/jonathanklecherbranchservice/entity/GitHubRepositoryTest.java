@@ -1,9 +1,12 @@
 package com.example.jonathanklecherbranchservice.entity;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -12,6 +15,8 @@ import static org.junit.jupiter.api.Assertions.*;
  * - Default constructor initialization
  * - Individual setter methods for name and url properties
  * - Combined setter operations
+ * - Reading stars, forks, language, updated_at and archived from a GitHub /repos payload
+ * - Copy construction and omission of languages that were not enriched
  */
 class GitHubRepositoryTest {
 
@@ -88,5 +93,43 @@ class GitHubRepositoryTest {
 
         assertEquals(REPO_URL, repository.getUrl(), "url should be preserved");
     }
-}
 
+    @Test
+    @DisplayName("Deserializing a GitHub /repos item should read the extended fields")
+    void testDeserializeGitHubPayload() throws Exception {
+        final String json = "{\"name\":\"Hello-World\",\"url\":\"" + REPO_URL + "\",\"stargazers_count\":80,"
+                + "\"forks_count\":9,\"language\":\"C\",\"updated_at\":\"2011-01-26T19:14:43Z\","
+                + "\"archived\":true,\"owner\":{\"login\":\"octocat\"}}";
+        final GitHubRepository parsed = new ObjectMapper().readValue(json, GitHubRepository.class);
+
+        assertEquals(80, parsed.getStars(), "stars should be read from stargazers_count");
+        assertEquals(9, parsed.getForks(), "forks should be read from forks_count");
+        assertEquals("C", parsed.getLanguage(), "language should be read");
+        assertEquals("2011-01-26T19:14:43Z", parsed.getUpdatedAt(), "updated_at should be read");
+        assertTrue(parsed.isArchived(), "archived should be read");
+        assertNull(parsed.getLanguages(), "languages should be absent until enriched");
+    }
+
+    @Test
+    @DisplayName("Copy constructor should copy every field without sharing languages")
+    void testCopyConstructor() {
+        repository.setName(REPO_NAME);
+        repository.setStars(3);
+        repository.setLanguages(Map.of("Java", 100L));
+        final GitHubRepository copy = new GitHubRepository(repository);
+        copy.setLanguages(Map.of("Go", 5L));
+
+        assertEquals(REPO_NAME, copy.getName(), "name should be copied");
+        assertEquals(3, copy.getStars(), "stars should be copied");
+        assertEquals(Map.of("Java", 100L), repository.getLanguages(), "Changing the copy should not affect the source");
+    }
+
+    @Test
+    @DisplayName("Serialization should omit languages that were not enriched")
+    void testLanguagesOmittedWhenNull() throws Exception {
+        repository.setName(REPO_NAME);
+        final String json = new ObjectMapper().writeValueAsString(repository);
+        assertFalse(json.contains("languages"), "Unenriched repositories should not carry a languages field");
+        assertTrue(json.contains("\"stars\":0"), "stars should be serialized under its own name");
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.jonathanklecherbranchservice.limiter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the adaptive concurrency limiter.
+ * Tests cover:
+ * - Admission up to the current limit and rejection beyond it
+ * - Limit growth while latency stays at the baseline
+ * - Limit reduction when latency rises or upstream calls fail
+ * - Pass-through when the limiter is disabled
+ * - Metrics published for the limit and shed requests
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = 10_000_000L;
+
+    @Test
+    @DisplayName("Requests beyond the limit should be rejected")
+    void testRejectsBeyondLimit() {
+        final AdaptiveConcurrencyLimiter limiter = newLimiter(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire(), "Requests within the limit should be admitted");
+        }
+        assertFalse(limiter.tryAcquire(), "The request above the limit should be rejected");
+        limiter.onSuccess(FAST);
+        assertTrue(limiter.tryAcquire(), "A released slot should admit a new request");
+    }
+
+    @Test
+    @DisplayName("Limit should grow while saturated and latency stays at the baseline")
+    void testLimitGrowsWhenHealthy() {
+        final AdaptiveConcurrencyLimiter limiter = newLimiter(10);
+        for (int round = 0; round < 20; round++) {
+            saturateAndComplete(limiter, FAST);
+        }
+        assertTrue(limiter.getLimit() > 10, "Limit should grow under healthy, saturated load");
+    }
+
+    @Test
+    @DisplayName("Limit should shrink when latency rises far above the baseline")
+    void testLimitShrinksWhenLatencyRises() {
+        final AdaptiveConcurrencyLimiter limiter = newLimiter(100);
+        for (int round = 0; round < 5; round++) {
+            saturateAndComplete(limiter, FAST);
+        }
+        final int healthyLimit = limiter.getLimit();
+        for (int round = 0; round < 5; round++) {
+            saturateAndComplete(limiter, FAST * 20);
+        }
+        assertTrue(limiter.getLimit() < healthyLimit, "Limit should shrink when latency degrades");
+    }
+
+    @Test
+    @DisplayName("Dropped requests should back off the limit but never below the minimum")
+    void testDroppedRequestsBackOff() {
+        final AdaptiveConcurrencyLimiter limiter = newLimiter(20);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire(), "A request should be admitted while the limit is at least 4");
+            limiter.onDropped();
+        }
+        assertEquals(4, limiter.getLimit(), "Limit should bottom out at min-limit");
+        assertEquals(0, limiter.getInFlight(), "Every admitted request should have been released");
+    }
+
+    @Test
+    @DisplayName("Disabled limiter should admit every request")
+    void testDisabledAdmitsEverything() {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(false, 4, 4, 4, 2.0, 0.9,
+                Duration.ofSeconds(1));
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire(), "A disabled limiter should never shed");
+        }
+    }
+
+    @Test
+    @DisplayName("Limit and shed counts should be published as metrics")
+    void testMetrics() {
+        final AdaptiveConcurrencyLimiter limiter = newLimiter(8);
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        limiter.bindTo(registry);
+        limiter.recordRejected();
+        limiter.recordServedFromCache();
+        limiter.recordServedFromCache();
+
+        assertEquals(8.0, registry.get("users.concurrency.limit").gauge().value(), "Limit gauge should match");
+        assertEquals(1.0, registry.get("users.concurrency.shed").tag("outcome", "rejected").functionCounter().count(),
+                "Rejected count should match");
+        assertEquals(2.0, registry.get("users.concurrency.shed").tag("outcome", "cache").functionCounter().count(),
+                "Served-from-cache count should match");
+    }
+
+    private static AdaptiveConcurrencyLimiter newLimiter(final int initialLimit) {
+        return new AdaptiveConcurrencyLimiter(true, initialLimit, 4, 500, 2.0, 0.9, Duration.ofSeconds(1));
+    }
+
+    private static void saturateAndComplete(final AdaptiveConcurrencyLimiter limiter, final long rttNanos) {
+        int admitted = 0;
+        while (limiter.tryAcquire()) {
+            admitted++;
+        }
+        for (int i = 0; i < admitted; i++) {
+            limiter.onSuccess(rttNanos);
+        }
+    }
+}
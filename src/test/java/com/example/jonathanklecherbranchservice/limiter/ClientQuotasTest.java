@@ -0,0 +1,93 @@
+package com.example.jonathanklecherbranchservice.limiter;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for per-client quotas, with a fake clock.
+ * Tests cover:
+ * - A burst admitted at once and refilled at the sustained rate
+ * - The wait until the next token reported for rejected requests
+ * - Separate buckets per client
+ * - Clients identified by configured API key, and by IP address otherwise
+ * - Pass-through when quotas are disabled
+ */
+class ClientQuotasTest {
+
+    private final AtomicLong nanoTime = new AtomicLong(123_456_789L);
+
+    @Test
+    @DisplayName("A full burst should be admitted, then one request per refill interval")
+    void testBurstAndRefill() {
+        final ClientQuotas quotas = quotas(true);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, quotas.tryAcquire("ip:10.0.0.1"), "Requests within the burst should be admitted");
+        }
+        final long wait = quotas.tryAcquire("ip:10.0.0.1");
+        assertEquals(Duration.ofSeconds(1).toNanos(), wait, "The next token should be one interval away");
+
+        nanoTime.addAndGet(wait);
+        assertEquals(0, quotas.tryAcquire("ip:10.0.0.1"), "A refilled token should admit a request");
+        assertTrue(quotas.tryAcquire("ip:10.0.0.1") > 0, "Only one token should have been refilled");
+        assertEquals(4, quotas.getAdmitted(), "Admitted requests should be counted");
+        assertEquals(2, quotas.getRejected(), "Rejected requests should be counted");
+    }
+
+    @Test
+    @DisplayName("An idle client should not save up more than its burst")
+    void testBurstCap() {
+        final ClientQuotas quotas = quotas(true);
+        nanoTime.addAndGet(Duration.ofHours(1).toNanos());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, quotas.tryAcquire("ip:10.0.0.1"), "Requests within the burst should be admitted");
+        }
+        assertTrue(quotas.tryAcquire("ip:10.0.0.1") > 0, "Idle time should not raise the burst");
+    }
+
+    @Test
+    @DisplayName("Clients should have separate buckets")
+    void testSeparateClients() {
+        final ClientQuotas quotas = quotas(true);
+        for (int i = 0; i < 3; i++) {
+            quotas.tryAcquire("ip:10.0.0.1");
+        }
+        assertTrue(quotas.tryAcquire("ip:10.0.0.1") > 0, "The noisy client should be over quota");
+        assertEquals(0, quotas.tryAcquire("key:team-a"), "Another client should be unaffected");
+    }
+
+    @Test
+    @DisplayName("Clients should be identified by a configured API key, and by IP otherwise")
+    void testIdentify() {
+        final ClientQuotas quotas = quotas(true);
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.7");
+
+        assertEquals("ip:10.0.0.7", quotas.identify(request), "Requests without a key should be identified by IP");
+        request.addHeader("X-API-Key", "team-a");
+        assertEquals("key:team-a", quotas.identify(request), "A configured key should identify the client");
+        final MockHttpServletRequest unknown = new MockHttpServletRequest();
+        unknown.setRemoteAddr("10.0.0.7");
+        unknown.addHeader("X-API-Key", "random-key");
+        assertEquals("ip:10.0.0.7", quotas.identify(unknown), "Unknown keys should not escape the IP quota");
+    }
+
+    @Test
+    @DisplayName("Disabled quotas should admit every request")
+    void testDisabled() {
+        final ClientQuotas quotas = quotas(false);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, quotas.tryAcquire("ip:10.0.0.1"), "Every request should be admitted");
+        }
+    }
+
+    private ClientQuotas quotas(final boolean enabled) {
+        return new ClientQuotas(enabled, "X-API-Key", List.of("team-a", " "), 60, 3, 64, nanoTime::get);
+    }
+}
@@ -1,11 +1,14 @@
 package com.example.jonathanklecherbranchservice.mapper;
 
 import com.example.jonathanklecherbranchservice.entity.GitHubInfo;
+import com.example.jonathanklecherbranchservice.entity.GitHubRepository;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -15,6 +18,7 @@ import static org.junit.jupiter.api.Assertions.*;
  * - Handling null/missing fields gracefully
  * - Field name transformation (snake_case JSON to camelCase Java)
  * - JSON parsing with various data completeness scenarios
+ * - Mapping GraphQL user and repository nodes to the same entities as the REST API
  */
 class GitHubInfoMapperTest {
 
@@ -154,5 +158,61 @@ class GitHubInfoMapperTest {
         final GitHubInfo info = GitHubInfoMapper.fromJsonNode(node);
         assertNull(info.getEmail(), "email should be null when field is missing");
     }
-}
 
+    @Test
+    @DisplayName("fromGraphQlUser() should produce the same entity as the REST mapping")
+    void testMapGraphQlUser() throws Exception {
+        final JsonNode user = objectMapper.readTree("""
+                {
+                  "login": "octocat",
+                  "name": "The Octocat",
+                  "avatarUrl": "https://github.com/images/error/octocat_happy.gif",
+                  "location": "San Francisco",
+                  "email": "",
+                  "url": "https://github.com/octocat",
+                  "createdAt": "2011-01-25T18:44:36Z"
+                }
+                """);
+        final GitHubInfo graphQl = GitHubInfoMapper.fromGraphQlUser(user, "https://api.github.com");
+        final GitHubInfo rest = GitHubInfoMapper.fromJsonNode(objectMapper.readTree(JSON_NULL_EMAIL));
+        assertEquals(rest.getUserName(), graphQl.getUserName(), "userName should match the REST mapping");
+        assertEquals(rest.getDisplayName(), graphQl.getDisplayName(), "displayName should match the REST mapping");
+        assertEquals(rest.getAvatar(), graphQl.getAvatar(), "avatar should match the REST mapping");
+        assertEquals(rest.getGeoLocation(), graphQl.getGeoLocation(), "geoLocation should match the REST mapping");
+        assertEquals(rest.getUrl(), graphQl.getUrl(), "url should be the REST API user URL");
+        assertEquals(rest.getCreatedAt(), graphQl.getCreatedAt(), "createdAt should be formatted as for REST");
+        assertNull(graphQl.getEmail(), "An empty GraphQL email should map to null");
+    }
+
+    @Test
+    @DisplayName("repositoriesFromGraphQlNodes() should build REST API repository URLs")
+    void testMapGraphQlRepositories() throws Exception {
+        final JsonNode nodes = objectMapper.readTree("""
+                [{"name": "Hello-World", "nameWithOwner": "octocat/Hello-World"}]
+                """);
+        final List<GitHubRepository> repositories = GitHubInfoMapper.repositoriesFromGraphQlNodes(nodes, "https://api.github.com");
+        assertEquals(1, repositories.size(), "Every node should be mapped");
+        assertEquals("Hello-World", repositories.get(0).getName(), "The repository name should be mapped");
+        assertEquals("https://api.github.com/repos/octocat/Hello-World", repositories.get(0).getUrl(),
+                "url should be the REST API repository URL");
+    }
+
+    @Test
+    @DisplayName("repositoriesFromGraphQlNodes() should map stars, forks, language, updatedAt and archived")
+    void testMapGraphQlRepositoryDetails() throws Exception {
+        final JsonNode nodes = objectMapper.readTree("""
+                [{"name": "Hello-World", "nameWithOwner": "octocat/Hello-World", "stargazerCount": 80,
+                  "forkCount": 9, "primaryLanguage": {"name": "C"}, "updatedAt": "2011-01-26T19:14:43Z",
+                  "isArchived": true},
+                 {"name": "Empty", "nameWithOwner": "octocat/Empty", "primaryLanguage": null}]
+                """);
+        final List<GitHubRepository> repositories = GitHubInfoMapper.repositoriesFromGraphQlNodes(nodes, "https://api.github.com");
+        final GitHubRepository repository = repositories.get(0);
+        assertEquals(80, repository.getStars(), "stars should be mapped from stargazerCount");
+        assertEquals(9, repository.getForks(), "forks should be mapped from forkCount");
+        assertEquals("C", repository.getLanguage(), "language should be mapped from primaryLanguage.name");
+        assertEquals("2011-01-26T19:14:43Z", repository.getUpdatedAt(), "updatedAt should be mapped");
+        assertTrue(repository.isArchived(), "archived should be mapped from isArchived");
+        assertNull(repositories.get(1).getLanguage(), "A repository without a primary language should have none");
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.jonathanklecherbranchservice.service;
+
+import com.example.jonathanklecherbranchservice.archive.UpstreamArchive;
+import com.example.jonathanklecherbranchservice.entity.GitHubInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withResourceNotFound;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Unit tests for GitHubService with an upstream archive, against a stubbed GitHub API.
+ * Tests cover:
+ * - Responses recorded in record mode and replayed without any network call
+ * - Archived 404s replayed as unknown users, unarchived requests failing with 503
+ * - Archived successes served in fallback mode while GitHub fails
+ */
+class GitHubServiceArchiveTest {
+
+    private static final String BASE_URL = "http://github.stub";
+    private static final String USER_URL = BASE_URL + "/users/octocat";
+    private static final String PROFILE = "{\"login\":\"octocat\",\"name\":\"The Octocat\",\"created_at\":\"2011-01-25T18:44:36Z\"}";
+    private static final String REPOS = "[{\"name\":\"hello-world\",\"url\":\"" + BASE_URL + "/repos/octocat/hello-world\"}]";
+
+    @TempDir
+    private Path directory;
+
+    private RestTemplate restTemplate;
+    private MockRestServiceServer server;
+
+    @BeforeEach
+    void setUp() {
+        restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+    }
+
+    @Test
+    @DisplayName("Recorded responses should be replayed without calling GitHub")
+    void testRecordThenReplay() throws GitHubServiceException {
+        server.expect(requestTo(USER_URL)).andRespond(withSuccess(PROFILE, MediaType.APPLICATION_JSON));
+        server.expect(requestTo(USER_URL + "/repos?per_page=100&page=1")).andRespond(withSuccess(REPOS, MediaType.APPLICATION_JSON));
+        server.expect(requestTo(BASE_URL + "/users/ghost")).andRespond(withResourceNotFound());
+        final UpstreamArchive recording = new UpstreamArchive(UpstreamArchive.Mode.RECORD, directory, 16);
+        final GitHubInfo recorded = service(recording).getGitInfoWithRepos("octocat");
+        assertThrows(GitHubServiceException.class, () -> service(recording).getGitInfo("ghost"), "The user should not exist");
+        server.verify();
+        recording.close();
+
+        server.reset();
+        final UpstreamArchive replaying = new UpstreamArchive(UpstreamArchive.Mode.REPLAY, directory, 16);
+        final GitHubService replay = service(replaying);
+        final GitHubInfo replayed = replay.getGitInfoWithRepos("octocat");
+        final GitHubServiceException ghost = assertThrows(GitHubServiceException.class, () -> replay.getGitInfo("ghost"),
+                "An archived 404 should be replayed");
+        final GitHubServiceException unknown = assertThrows(GitHubServiceException.class, () -> replay.getGitInfo("hubot"),
+                "A request missing from the archive should fail");
+
+        server.verify();
+        assertEquals(recorded.getDisplayName(), replayed.getDisplayName(), "The profile should be replayed");
+        assertEquals("hello-world", replayed.getRepositories().get(0).getName(), "The repositories should be replayed");
+        assertEquals(HttpStatus.NOT_FOUND, ghost.getStatus(), "The archived user should still be unknown");
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, unknown.getStatus(), "A replay miss should be a 503");
+        replaying.close();
+    }
+
+    @Test
+    @DisplayName("Archived successes should be served while GitHub fails in fallback mode")
+    void testFallback() throws GitHubServiceException {
+        server.expect(requestTo(USER_URL)).andRespond(withSuccess(PROFILE, MediaType.APPLICATION_JSON));
+        server.expect(requestTo(USER_URL)).andRespond(withServerError());
+        server.expect(requestTo(BASE_URL + "/users/hubot")).andRespond(withServerError());
+        final UpstreamArchive archive = new UpstreamArchive(UpstreamArchive.Mode.FALLBACK, directory, 16);
+        final GitHubService service = service(archive);
+
+        service.getGitInfo("octocat");
+        final GitHubInfo fallback = service.getGitInfo("octocat");
+
+        assertEquals("The Octocat", fallback.getDisplayName(), "The archived profile should be served");
+        assertThrows(RuntimeException.class, () -> service.getGitInfo("hubot"),
+                "A failure without an archived success should be raised");
+        server.verify();
+        archive.close();
+    }
+
+    private GitHubService service(final UpstreamArchive archive) {
+        return new GitHubService(restTemplate,
+                new UpstreamConcurrencyLimiter(4, Duration.ofSeconds(1)),
+                new HedgingExecutor(false, 95, Duration.ofMillis(50), 0.05, 1024),
+                new RetryPolicy(false, 1, Duration.ZERO, Duration.ZERO, Duration.ZERO, 0, List.of(), List.of()),
+                archive, BASE_URL, "rest", new TokenPool(List.of(), System::currentTimeMillis), 100, true, Duration.ZERO);
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.jonathanklecherbranchservice.service;
+
+import com.example.jonathanklecherbranchservice.archive.UpstreamArchive;
+import com.example.jonathanklecherbranchservice.entity.GitHubInfo;
+import com.example.jonathanklecherbranchservice.entity.GitHubRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.jsonPath;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withUnauthorizedRequest;
+
+/**
+ * Unit tests for the GraphQL upstream strategy of GitHubService, against a stubbed GitHub API.
+ * Tests cover:
+ * - Profile and first repository page fetched with one authenticated query
+ * - Cursor paging through the repository connection
+ * - Unknown users reported as 404, like the REST strategy
+ * - HTTP errors from the GraphQL endpoint
+ * - Rejection of unknown strategies
+ */
+class GitHubServiceGraphQlTest {
+
+    private static final String BASE_URL = "http://github.stub";
+    private static final String GRAPHQL_URL = BASE_URL + "/graphql";
+    private static final String TOKEN = "test-token";
+
+    private MockRestServiceServer server;
+    private GitHubService service;
+
+    @BeforeEach
+    void setUp() {
+        final RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        service = new GitHubService(restTemplate,
+                new UpstreamConcurrencyLimiter(4, Duration.ofSeconds(1)),
+                new HedgingExecutor(false, 95, Duration.ofMillis(50), 0.05, 1024),
+                new RetryPolicy(false, 1, Duration.ZERO, Duration.ZERO, Duration.ZERO, 0, List.of(), List.of()),
+                new UpstreamArchive("off", "", 0),
+                BASE_URL, "graphql", new TokenPool(List.of(TOKEN), System::currentTimeMillis), 2, true, Duration.ZERO);
+    }
+
+    @Test
+    @DisplayName("A user with one repository page should take a single authenticated query")
+    void testSingleQuery() throws GitHubServiceException {
+        server.expect(requestTo(GRAPHQL_URL))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(header(HttpHeaders.AUTHORIZATION, "Bearer " + TOKEN))
+                .andExpect(jsonPath("$.variables.login").value("octocat"))
+                .andExpect(jsonPath("$.variables.first").value(2))
+                .andRespond(withSuccess(page("null", false, "Hello-World"), MediaType.APPLICATION_JSON));
+
+        final GitHubInfo info = service.getGitInfoWithRepos("octocat");
+
+        server.verify();
+        assertEquals("octocat", info.getUserName(), "userName should be mapped from login");
+        assertEquals("The Octocat", info.getDisplayName(), "displayName should be mapped from name");
+        assertEquals(BASE_URL + "/users/octocat", info.getUrl(), "url should be the REST API user URL");
+        assertEquals("Tue, 25 Jan 2011 18:44:36 GMT", info.getCreatedAt(), "createdAt should be formatted as for REST");
+        assertEquals(1, info.getRepositories().size(), "The single repository should be mapped");
+        assertEquals(BASE_URL + "/repos/octocat/Hello-World", info.getRepositories().get(0).getUrl(),
+                "The repository url should be the REST API repository URL");
+    }
+
+    @Test
+    @DisplayName("Further repository pages should be requested with the previous end cursor")
+    void testCursorPaging() throws GitHubServiceException {
+        server.expect(requestTo(GRAPHQL_URL))
+                .andExpect(jsonPath("$.variables.after").isEmpty())
+                .andRespond(withSuccess(page("\"cursor-1\"", true, "a", "b"), MediaType.APPLICATION_JSON));
+        server.expect(requestTo(GRAPHQL_URL))
+                .andExpect(jsonPath("$.variables.after").value("cursor-1"))
+                .andRespond(withSuccess(page("\"cursor-2\"", false, "c"), MediaType.APPLICATION_JSON));
+
+        final List<GitHubRepository> repositories = service.getGitInfoWithRepos("octocat").getRepositories();
+
+        server.verify();
+        assertEquals(List.of("a", "b", "c"), repositories.stream().map(GitHubRepository::getName).toList(),
+                "Repositories from every page should be returned in order");
+    }
+
+    @Test
+    @DisplayName("A NOT_FOUND GraphQL error should be reported as 404")
+    void testUnknownUser() {
+        server.expect(requestTo(GRAPHQL_URL)).andRespond(withSuccess(
+                "{\"data\":{\"user\":null},\"errors\":[{\"type\":\"NOT_FOUND\",\"message\":\"Could not resolve\"}]}",
+                MediaType.APPLICATION_JSON));
+
+        final GitHubServiceException exception = assertThrows(GitHubServiceException.class,
+                () -> service.getGitInfoWithRepos("nobody"), "An unknown user should fail");
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus(), "An unknown user should map to 404");
+    }
+
+    @Test
+    @DisplayName("HTTP errors from the GraphQL endpoint should keep their status")
+    void testHttpError() {
+        server.expect(requestTo(GRAPHQL_URL)).andRespond(withUnauthorizedRequest());
+
+        final GitHubServiceException exception = assertThrows(GitHubServiceException.class,
+                () -> service.getGitInfoWithRepos("octocat"), "A rejected query should fail");
+        assertEquals(HttpStatus.UNAUTHORIZED, exception.getStatus(), "The HTTP status should be propagated");
+    }
+
+    @Test
+    @DisplayName("An unknown strategy should be rejected at construction")
+    void testUnknownStrategy() {
+        assertThrows(IllegalArgumentException.class, () -> new GitHubService(new RestTemplate(),
+                new UpstreamConcurrencyLimiter(4, Duration.ofSeconds(1)),
+                new HedgingExecutor(false, 95, Duration.ofMillis(50), 0.05, 1024),
+                new RetryPolicy(false, 1, Duration.ZERO, Duration.ZERO, Duration.ZERO, 0, List.of(), List.of()),
+                new UpstreamArchive("off", "", 0),
+                BASE_URL, "soap", new TokenPool(List.of(), System::currentTimeMillis), 100, true, Duration.ZERO),
+                "Only rest and graphql should be accepted");
+    }
+
+    private static String page(final String endCursor, final boolean hasNextPage, final String... names) {
+        final StringBuilder nodes = new StringBuilder();
+        for (final String name : names) {
+            if (!nodes.isEmpty()) {
+                nodes.append(',');
+            }
+            nodes.append("{\"name\":\"").append(name).append("\",\"nameWithOwner\":\"octocat/").append(name).append("\"}");
+        }
+        return "{\"data\":{\"user\":{\"login\":\"octocat\",\"name\":\"The Octocat\",\"avatarUrl\":\"https://avatars.example/1\","
+                + "\"location\":\"San Francisco\",\"email\":\"\",\"createdAt\":\"2011-01-25T18:44:36Z\","
+                + "\"repositories\":{\"pageInfo\":{\"hasNextPage\":" + hasNextPage + ",\"endCursor\":" + endCursor + "},"
+                + "\"nodes\":[" + nodes + "]}}}}";
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.jonathanklecherbranchservice.service;
+
+import com.example.jonathanklecherbranchservice.archive.UpstreamArchive;
+import com.example.jonathanklecherbranchservice.entity.GitHubInfo;
+import com.example.jonathanklecherbranchservice.entity.GitHubRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Unit tests for incremental repository refreshes of GitHubService, against a stubbed GitHub API.
+ * Tests cover:
+ * - A mostly idle account refreshed with a single repository page
+ * - Paging on while a full page is newer than the previous snapshot
+ * - Updated repositories replacing their previous version, new ones merged in name order
+ * - Full fetches without a usable previous snapshot or with incremental refresh disabled
+ * - A full resync once the snapshot was fetched in an earlier resync window
+ * - Full fetches paging through the whole listing
+ */
+class GitHubServiceIncrementalRefreshTest {
+
+    private static final String BASE_URL = "http://github.stub";
+    private static final String USER_URL = BASE_URL + "/users/octocat";
+    private static final String UPDATED_URL = USER_URL + "/repos?sort=updated&direction=desc&per_page=100&page=";
+    private static final String FULL_URL = USER_URL + "/repos?per_page=100&page=";
+    private static final long NOW = System.currentTimeMillis();
+    private static final String PROFILE = "{\"login\":\"octocat\",\"name\":\"The Octocat\",\"created_at\":\"2011-01-25T18:44:36Z\"}";
+
+    private RestTemplate restTemplate;
+    private MockRestServiceServer server;
+    private GitHubService service;
+
+    @BeforeEach
+    void setUp() {
+        restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        service = service(true, Duration.ZERO);
+    }
+
+    @Test
+    @DisplayName("An idle account should be refreshed with one repository page")
+    void testSinglePage() throws GitHubServiceException {
+        server.expect(requestTo(USER_URL)).andRespond(withSuccess(PROFILE, MediaType.APPLICATION_JSON));
+        server.expect(requestTo(UPDATED_URL + 1)).andRespond(withSuccess(
+                repos(repo("beta", 7, "2024-05-01T00:00:00Z"), repo("alpha", 1, "2024-03-01T00:00:00Z"),
+                        repo("gamma", 1, "2024-01-01T00:00:00Z")), MediaType.APPLICATION_JSON));
+
+        final GitHubInfo info = service.refreshGitInfoWithRepos("octocat", previous(), NOW, UpstreamLane.BACKGROUND);
+
+        server.verify();
+        assertEquals("The Octocat", info.getDisplayName(), "The profile should be fetched again");
+        assertEquals(List.of("alpha", "beta", "gamma"), names(info.getRepositories()),
+                "The merged list should keep the previous order");
+        assertEquals(7, info.getRepositories().get(1).getStars(), "An updated repository should replace its previous version");
+    }
+
+    @Test
+    @DisplayName("Paging should continue while a full page is newer than the previous snapshot")
+    void testPagingAndNewRepositories() throws GitHubServiceException {
+        final List<String> firstPage = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            firstPage.add(repo(String.format("new-%03d", i), 0, "2024-06-01T00:00:00Z"));
+        }
+        server.expect(requestTo(USER_URL)).andRespond(withSuccess(PROFILE, MediaType.APPLICATION_JSON));
+        server.expect(requestTo(UPDATED_URL + 1))
+                .andRespond(withSuccess(repos(firstPage.toArray(new String[0])), MediaType.APPLICATION_JSON));
+        server.expect(requestTo(UPDATED_URL + 2)).andRespond(withSuccess(
+                repos(repo("Aardvark", 0, "2024-03-01T00:00:00Z"), repo("beta", 0, "2024-02-01T00:00:00Z")),
+                MediaType.APPLICATION_JSON));
+
+        final List<GitHubRepository> merged = service.refreshGitInfoWithRepos("octocat", previous(), NOW, UpstreamLane.BACKGROUND)
+                .getRepositories();
+
+        server.verify();
+        assertEquals(104, merged.size(), "New repositories should be added to the previous ones");
+        assertEquals(List.of("Aardvark", "alpha", "beta"), names(merged.subList(0, 3)),
+                "The merged list should be ordered by name, ignoring case");
+        assertEquals("new-000", merged.get(4).getName(), "New repositories should be merged in name order");
+    }
+
+    @Test
+    @DisplayName("A snapshot without update times should be refreshed with a full fetch")
+    void testFallbackWithoutUpdateTimes() throws GitHubServiceException {
+        final GitHubInfo previous = previous();
+        previous.getRepositories().get(0).setUpdatedAt(null);
+        server.expect(requestTo(USER_URL)).andRespond(withSuccess(PROFILE, MediaType.APPLICATION_JSON));
+        server.expect(requestTo(FULL_URL + 1))
+                .andRespond(withSuccess(repos(repo("alpha", 0, null)), MediaType.APPLICATION_JSON));
+
+        final GitHubInfo info = service.refreshGitInfoWithRepos("octocat", previous, NOW, UpstreamLane.BACKGROUND);
+
+        server.verify();
+        assertEquals(List.of("alpha"), names(info.getRepositories()), "A full fetch should replace the repositories");
+    }
+
+    @Test
+    @DisplayName("Refreshes should be full fetches when incremental refresh is disabled")
+    void testDisabled() throws GitHubServiceException {
+        server.expect(requestTo(USER_URL)).andRespond(withSuccess(PROFILE, MediaType.APPLICATION_JSON));
+        server.expect(requestTo(FULL_URL + 1))
+                .andRespond(withSuccess(repos(repo("alpha", 0, "2024-03-01T00:00:00Z")), MediaType.APPLICATION_JSON));
+
+        final GitHubInfo info = service(false, Duration.ZERO)
+                .refreshGitInfoWithRepos("octocat", previous(), NOW, UpstreamLane.BACKGROUND);
+
+        server.verify();
+        assertEquals(List.of("alpha"), names(info.getRepositories()), "A full fetch should replace the repositories");
+    }
+
+    @Test
+    @DisplayName("A snapshot from an earlier resync window should be refreshed with a full fetch")
+    void testPeriodicResync() throws GitHubServiceException {
+        server.expect(requestTo(USER_URL)).andRespond(withSuccess(PROFILE, MediaType.APPLICATION_JSON));
+        server.expect(requestTo(FULL_URL + 1))
+                .andRespond(withSuccess(repos(repo("alpha", 0, "2024-03-01T00:00:00Z")), MediaType.APPLICATION_JSON));
+        final long twoHoursAgo = System.currentTimeMillis() - Duration.ofHours(2).toMillis();
+
+        final GitHubInfo info = service(true, Duration.ofHours(1))
+                .refreshGitInfoWithRepos("octocat", previous(), twoHoursAgo, UpstreamLane.BACKGROUND);
+
+        server.verify();
+        assertEquals(List.of("alpha"), names(info.getRepositories()),
+                "A full resync should drop the repositories that left the listing");
+    }
+
+    @Test
+    @DisplayName("A full fetch should page through every repository")
+    void testFullFetchPaging() throws GitHubServiceException {
+        final List<String> firstPage = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            firstPage.add(repo(String.format("repo-%03d", i), 0, "2024-01-01T00:00:00Z"));
+        }
+        server.expect(requestTo(FULL_URL + 1))
+                .andRespond(withSuccess(repos(firstPage.toArray(new String[0])), MediaType.APPLICATION_JSON));
+        server.expect(requestTo(FULL_URL + 2))
+                .andRespond(withSuccess(repos(repo("repo-100", 0, "2024-01-01T00:00:00Z")), MediaType.APPLICATION_JSON));
+
+        final List<GitHubRepository> repositories = service.getGitRepoInfo("octocat");
+
+        server.verify();
+        assertEquals(101, repositories.size(), "Every page should be listed");
+        assertEquals("repo-100", repositories.get(100).getName(), "Pages should be listed in order");
+    }
+
+    private GitHubService service(final boolean incremental, final Duration fullResyncInterval) {
+        return new GitHubService(restTemplate,
+                new UpstreamConcurrencyLimiter(4, Duration.ofSeconds(1)),
+                new HedgingExecutor(false, 95, Duration.ofMillis(50), 0.05, 1024),
+                new RetryPolicy(false, 1, Duration.ZERO, Duration.ZERO, Duration.ZERO, 0, List.of(), List.of()),
+                new UpstreamArchive("off", "", 0),
+                BASE_URL, "rest", new TokenPool(List.of(), System::currentTimeMillis), 100, incremental, fullResyncInterval);
+    }
+
+    private static GitHubInfo previous() {
+        final List<GitHubRepository> repositories = new ArrayList<>();
+        repositories.add(repository("alpha", "2024-03-01T00:00:00Z"));
+        repositories.add(repository("beta", "2024-02-01T00:00:00Z"));
+        repositories.add(repository("gamma", "2024-01-01T00:00:00Z"));
+        return new GitHubInfo("octocat", "Octocat", null, null, null, null, null, repositories);
+    }
+
+    private static GitHubRepository repository(final String name, final String updatedAt) {
+        final GitHubRepository repository = new GitHubRepository(name, BASE_URL + "/repos/octocat/" + name);
+        repository.setUpdatedAt(updatedAt);
+        return repository;
+    }
+
+    private static String repo(final String name, final int stars, final String updatedAt) {
+        return "{\"name\":\"" + name + "\",\"url\":\"" + BASE_URL + "/repos/octocat/" + name + "\",\"stargazers_count\":" + stars
+                + ",\"updated_at\":" + (updatedAt == null ? "null" : "\"" + updatedAt + "\"") + "}";
+    }
+
+    private static String repos(final String... repos) {
+        return "[" + String.join(",", repos) + "]";
+    }
+
+    private static List<String> names(final List<GitHubRepository> repositories) {
+        return repositories.stream().map(GitHubRepository::getName).toList();
+    }
+}
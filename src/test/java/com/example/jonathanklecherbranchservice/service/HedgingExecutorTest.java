@@ -0,0 +1,156 @@
+package com.example.jonathanklecherbranchservice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for upstream request hedging.
+ * Tests cover:
+ * - Percentile tracking over the latency window
+ * - A slow primary attempt being raced and beaten by a hedge
+ * - Keeping cancelled hedges out of the latency percentile
+ * - Falling back to the other attempt when the first one fails
+ * - The global hedge budget capping extra calls
+ * - Pass-through behavior when hedging is disabled
+ */
+class HedgingExecutorTest {
+
+    private static final long ONE_MILLI = 1_000_000L;
+    // Large enough that the samples recorded by a test never trigger a percentile recompute
+    private static final int WINDOW_SIZE = 1_000;
+
+    private HedgingExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("LatencyTracker should report the configured percentile once enough samples exist")
+    void testLatencyTrackerPercentile() {
+        final LatencyTracker tracker = new LatencyTracker(80, 95);
+        assertEquals(-1, tracker.getPercentileNanos(), "Percentile should be unknown before any samples");
+        for (int i = 1; i <= 80; i++) {
+            tracker.record(i * ONE_MILLI);
+        }
+        assertEquals(76 * ONE_MILLI, tracker.getPercentileNanos(), "p95 of 1..80 ms should be 76 ms");
+    }
+
+    @Test
+    @DisplayName("A slow primary attempt should be beaten by the hedge")
+    void testHedgeWinsOverSlowPrimary() throws GitHubServiceException {
+        executor = newExecutor(0.05);
+        primeLatency(executor);
+        final AtomicInteger attempts = new AtomicInteger();
+
+        final String result = executor.execute(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                sleep(Duration.ofSeconds(10));
+                return "primary";
+            }
+            return "hedge";
+        });
+
+        assertEquals("hedge", result, "The fast hedge should win over the slow primary");
+        assertEquals(1, executor.getHedgesWon(), "The winning hedge should be counted");
+    }
+
+    @Test
+    @DisplayName("Cancelled hedges should not pull the latency percentile below the primary's latency")
+    void testCancelledHedgesNotRecorded() throws GitHubServiceException {
+        final Duration latency = Duration.ofMillis(50);
+        executor = new HedgingExecutor(true, 50, Duration.ofMillis(10), 1.0, 20);
+        for (int i = 0; i < 20; i++) {
+            executor.getLatencyTracker().record(20 * ONE_MILLI);
+        }
+
+        // Every attempt takes the same time, so the primary wins while its hedge is still in flight
+        for (int round = 0; round < 20; round++) {
+            executor.execute(() -> {
+                try {
+                    Thread.sleep(latency);
+                } catch (final InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new GitHubServiceException("aborted", HttpStatus.SERVICE_UNAVAILABLE, interrupted);
+                }
+                return "ok";
+            });
+        }
+
+        assertTrue(executor.getHedgesSent() > 0, "Hedges should have been sent while the primaries were slow");
+        assertTrue(executor.getLatencyTracker().getPercentileNanos() >= latency.toNanos(),
+                "The percentile should not fall below the primary's latency");
+    }
+
+    @Test
+    @DisplayName("A failed hedge should fall back to the primary attempt's result")
+    void testFallbackWhenHedgeFails() throws GitHubServiceException {
+        executor = newExecutor(0.05);
+        primeLatency(executor);
+        final AtomicInteger attempts = new AtomicInteger();
+
+        final String result = executor.execute(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                sleep(Duration.ofMillis(300));
+                return "primary";
+            }
+            throw new GitHubServiceException("hedge failed", HttpStatus.BAD_GATEWAY, null);
+        });
+
+        assertEquals("primary", result, "The primary result should be used when the hedge fails");
+    }
+
+    @Test
+    @DisplayName("Hedges should stop once the global budget is spent")
+    void testBudgetCapsHedges() throws GitHubServiceException {
+        executor = newExecutor(0.0);
+        primeLatency(executor);
+        for (int i = 0; i < 15; i++) {
+            executor.execute(() -> {
+                sleep(Duration.ofMillis(40));
+                return "ok";
+            });
+        }
+        assertEquals(10, executor.getHedgesSent(), "Only the initial burst of hedge tokens should be spent");
+    }
+
+    @Test
+    @DisplayName("Failures should propagate without hedging when hedging is disabled")
+    void testDisabledPassesThrough() {
+        executor = new HedgingExecutor(false, 95, Duration.ofMillis(10), 0.05, 100);
+        final GitHubServiceException exception = assertThrows(GitHubServiceException.class,
+                () -> executor.execute(() -> {
+                    throw new GitHubServiceException("not found", HttpStatus.NOT_FOUND, null);
+                }));
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus(), "The original status should be preserved");
+        assertEquals(0, executor.getHedgesSent(), "No hedges should be sent when disabled");
+    }
+
+    private static HedgingExecutor newExecutor(final double budgetRatio) {
+        return new HedgingExecutor(true, 95, Duration.ofMillis(10), budgetRatio, WINDOW_SIZE);
+    }
+
+    private static void primeLatency(final HedgingExecutor executor) {
+        for (int i = 0; i < WINDOW_SIZE; i++) {
+            executor.getLatencyTracker().record(ONE_MILLI);
+        }
+    }
+
+    private static void sleep(final Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (final InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.jonathanklecherbranchservice.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the upstream retry policy, with a fake clock and sleeper.
+ * Tests cover:
+ * - Retryable statuses and exceptions retried with jittered exponential backoff
+ * - Retry-After honored on secondary rate limits, in seconds and as an HTTP date
+ * - Non-retryable statuses and failures raised inside the service passed through at once
+ * - The attempt limit, the per-call deadline and the global retry budget
+ */
+class RetryPolicyTest {
+
+    private static final Duration BASE_DELAY = Duration.ofMillis(100);
+    private static final List<Integer> STATUSES = List.of(502, 503, 504);
+    private static final List<String> EXCEPTIONS = List.of(ResourceAccessException.class.getName());
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final List<Long> sleeps = new ArrayList<>();
+
+    @Test
+    @DisplayName("A 502 followed by a success should be retried once within the first backoff cap")
+    void testRetryableStatus() throws GitHubServiceException {
+        final RetryPolicy policy = policy(3, 0.1);
+        final AtomicInteger attempts = new AtomicInteger();
+
+        final String result = policy.execute(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw serverError(HttpStatus.BAD_GATEWAY, new HttpHeaders());
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result, "The retry's result should be returned");
+        assertEquals(2, attempts.get(), "The call should have been attempted twice");
+        assertTrue(sleeps.get(0) <= BASE_DELAY.toNanos(), "The first backoff should be at most the base delay");
+        assertEquals(1, policy.getRetries(), "One retry should be counted");
+        assertEquals(1, policy.getRecovered(), "The call should count as recovered");
+    }
+
+    @Test
+    @DisplayName("Backoff caps should double per attempt up to the maximum delay")
+    void testExponentialCap() {
+        final RetryPolicy policy = policy(6, 1.0);
+        assertThrows(HttpServerErrorException.class,
+                () -> policy.execute(() -> {
+                    throw serverError(HttpStatus.SERVICE_UNAVAILABLE, new HttpHeaders());
+                }), "The last failure should be rethrown");
+        assertEquals(5, sleeps.size(), "Six attempts should wait five times");
+        for (int i = 0; i < sleeps.size(); i++) {
+            final long cap = Math.min(Duration.ofMillis(400).toNanos(), BASE_DELAY.toNanos() << i);
+            assertTrue(sleeps.get(i) >= 0 && sleeps.get(i) <= cap, "Backoff " + i + " should be within its cap");
+        }
+    }
+
+    @Test
+    @DisplayName("A secondary rate limit 403 should be retried after its Retry-After")
+    void testRetryAfter() throws GitHubServiceException {
+        final RetryPolicy policy = policy(3, 0.1);
+        final HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "2");
+        final AtomicInteger attempts = new AtomicInteger();
+
+        final String result = policy.execute(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw wrapped(HttpClientErrorException.create(HttpStatus.FORBIDDEN, "Forbidden", headers, null, null));
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result, "The retry's result should be returned");
+        assertEquals(List.of(Duration.ofSeconds(2).toNanos()), sleeps, "Retry-After should replace the backoff");
+    }
+
+    @Test
+    @DisplayName("Retry-After given as an HTTP date should be converted to a wait")
+    void testRetryAfterDate() throws GitHubServiceException {
+        final RetryPolicy policy = policy(3, 0.1);
+        final HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "Thu, 01 Jan 1970 00:00:03 GMT");
+        final AtomicInteger attempts = new AtomicInteger();
+
+        policy.execute(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", headers, null, null);
+            }
+            return "ok";
+        });
+
+        assertEquals(List.of(Duration.ofSeconds(2).toNanos()), sleeps, "The wait should run until the given date");
+    }
+
+    @Test
+    @DisplayName("Non-retryable failures should be passed through without a retry")
+    void testNotRetryable() {
+        final RetryPolicy policy = policy(3, 0.1);
+        final AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(GitHubServiceException.class, () -> policy.execute(() -> {
+            attempts.incrementAndGet();
+            throw wrapped(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", new HttpHeaders(), null, null));
+        }), "A 404 should not be retried");
+        assertThrows(GitHubServiceException.class, () -> policy.execute(() -> {
+            attempts.incrementAndGet();
+            throw new GitHubServiceException("Too many concurrent GitHub API calls", HttpStatus.SERVICE_UNAVAILABLE, null);
+        }), "A failure raised inside the service should not be retried");
+        assertThrows(IllegalStateException.class, () -> policy.execute(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("bug");
+        }), "Unlisted exceptions should not be retried");
+        assertThrows(GitHubServiceException.class, () -> policy.execute(() -> {
+            attempts.incrementAndGet();
+            throw wrapped(HttpClientErrorException.create(HttpStatus.FORBIDDEN, "Forbidden", new HttpHeaders(), null, null));
+        }), "A 403 without Retry-After should not be retried");
+
+        assertEquals(4, attempts.get(), "Every call should have been attempted once");
+        assertTrue(sleeps.isEmpty(), "Nothing should have backed off");
+    }
+
+    @Test
+    @DisplayName("Listed exceptions should be retried until the attempt limit")
+    void testRetryableExceptionAndAttemptLimit() {
+        final RetryPolicy policy = policy(3, 0.1);
+        final AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(ResourceAccessException.class, () -> policy.execute(() -> {
+            attempts.incrementAndGet();
+            throw new ResourceAccessException("I/O error", new IOException("connection reset"));
+        }), "The last failure should be rethrown");
+
+        assertEquals(3, attempts.get(), "The call should stop at the attempt limit");
+    }
+
+    @Test
+    @DisplayName("A Retry-After beyond the deadline should not be waited for")
+    void testDeadline() {
+        final RetryPolicy policy = policy(3, 0.1);
+        final HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "60");
+
+        assertThrows(HttpServerErrorException.class, () -> policy.execute(() -> {
+            throw serverError(HttpStatus.SERVICE_UNAVAILABLE, headers);
+        }), "The failure should be returned at once");
+
+        assertTrue(sleeps.isEmpty(), "A wait past the deadline should not start");
+    }
+
+    @Test
+    @DisplayName("The global budget should cap retries during an outage")
+    void testBudget() {
+        final RetryPolicy policy = policy(2, 0);
+        final AtomicInteger attempts = new AtomicInteger();
+        for (int i = 0; i < 20; i++) {
+            assertThrows(HttpServerErrorException.class, () -> policy.execute(() -> {
+                attempts.incrementAndGet();
+                throw serverError(HttpStatus.BAD_GATEWAY, new HttpHeaders());
+            }), "Every call should fail");
+        }
+        assertEquals(10, policy.getRetries(), "Only the initial burst of retry tokens should be spent");
+        assertEquals(30, attempts.get(), "Calls after the budget ran out should be attempted once");
+    }
+
+    private RetryPolicy policy(final int maxAttempts, final double budgetRatio) {
+        return new RetryPolicy(maxAttempts, BASE_DELAY, Duration.ofMillis(400), Duration.ofSeconds(5), budgetRatio,
+                STATUSES, EXCEPTIONS, nanos -> {
+                    sleeps.add(nanos);
+                    nanoTime.addAndGet(nanos);
+                }, nanoTime::get, () -> 1_000L);
+    }
+
+    private static HttpServerErrorException serverError(final HttpStatus status, final HttpHeaders headers) {
+        return HttpServerErrorException.create(status, status.getReasonPhrase(), headers, null, null);
+    }
+
+    private static GitHubServiceException wrapped(final HttpClientErrorException exception) {
+        return new GitHubServiceException("GitHub request failed", HttpStatus.valueOf(exception.getStatusCode().value()),
+                exception);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.jonathanklecherbranchservice.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the rate-limit-aware token pool.
+ * Tests cover:
+ * - Anonymous calls when no tokens are configured
+ * - Preferring the token with more remaining budget
+ * - Parking exhausted tokens and failing with 429 when all are parked
+ * - Unparking tokens once their reset time has passed
+ * - Reading tokens from configuration
+ */
+class TokenPoolTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+
+    @Test
+    @DisplayName("An empty pool should leave calls anonymous")
+    void testEmptyPool() throws GitHubServiceException {
+        final TokenPool pool = new TokenPool(List.of(), now::get);
+        assertNull(pool.acquire(), "An empty pool should not return a token");
+    }
+
+    @Test
+    @DisplayName("The token with more remaining budget should be chosen")
+    void testPrefersRemainingBudget() throws GitHubServiceException {
+        final TokenPool pool = new TokenPool(List.of("a", "b"), now::get);
+        final TokenPool.Token first = pool.acquire();
+        final TokenPool.Token other = pool.acquire();
+        assertNotSame(first, other, "With equal budgets, the token not just used should be chosen next");
+        pool.record(first, headers(4000, 3600));
+        pool.record(other, headers(10, 3600));
+        final TokenPool.Token richer = first.getRemaining() > other.getRemaining() ? first : other;
+        for (int i = 0; i < 100; i++) {
+            assertSame(richer, pool.acquire(), "The token with more budget should win the comparison");
+        }
+        assertEquals(3900, richer.getRemaining(), "Each acquisition should reserve one unit of budget");
+    }
+
+    @Test
+    @DisplayName("Exhausted tokens should be parked until their reset time")
+    void testParking() throws GitHubServiceException {
+        final TokenPool pool = new TokenPool(List.of("a", "b"), now::get);
+        final TokenPool.Token first = pool.acquire();
+        pool.record(first, headers(0, 60));
+        assertTrue(first.isParked(), "A token with no remaining budget should be parked");
+        for (int i = 0; i < 10; i++) {
+            assertNotSame(first, pool.acquire(), "A parked token should not be chosen");
+        }
+
+        final TokenPool.Token second = pool.acquire();
+        pool.record(second, headers(0, 120));
+        final GitHubServiceException exception = assertThrows(GitHubServiceException.class, pool::acquire,
+                "Acquiring from a fully parked pool should fail");
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, exception.getStatus(), "A fully parked pool should map to 429");
+
+        now.addAndGet(61_000L);
+        assertSame(first, pool.acquire(), "A token should be unparked once its reset time has passed");
+        assertFalse(first.isParked(), "The unparked token should report as usable");
+        assertTrue(second.isParked(), "A token whose reset time has not passed should stay parked");
+    }
+
+    @Test
+    @DisplayName("Configured token lists should ignore blanks and fall back to the single token")
+    void testConfiguration() {
+        assertEquals(2, new TokenPool("a, ,b", "single").size(), "Blank entries should be ignored");
+        assertEquals(1, new TokenPool("", "single").size(), "The single token should be used when no list is set");
+        assertEquals(0, new TokenPool("", "").size(), "No configuration should mean an empty pool");
+    }
+
+    private HttpHeaders headers(final int remaining, final long resetInSeconds) {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.set("X-RateLimit-Limit", "5000");
+        headers.set("X-RateLimit-Remaining", Integer.toString(remaining));
+        headers.set("X-RateLimit-Reset", Long.toString(now.get() / 1000 + resetInSeconds));
+        return headers;
+    }
+}
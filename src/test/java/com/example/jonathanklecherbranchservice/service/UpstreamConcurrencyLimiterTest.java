@@ -0,0 +1,137 @@
+package com.example.jonathanklecherbranchservice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the lane-aware upstream concurrency limiter.
+ * Tests cover:
+ * - Failing fast with 503 when no permit frees up in time
+ * - Per-lane concurrency limits leaving room for interactive calls
+ * - Interactive waiters overtaking background waiters queued earlier
+ * - Weighted sharing of a saturated limiter between lanes
+ */
+class UpstreamConcurrencyLimiterTest {
+
+    private final ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void tearDown() {
+        threads.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("A call that cannot get a permit in time should fail with 503")
+    void testTimeout() throws Exception {
+        final UpstreamConcurrencyLimiter limiter = new UpstreamConcurrencyLimiter(1, Duration.ofMillis(50));
+        final CountDownLatch release = new CountDownLatch(1);
+        final Future<?> holder = threads.submit(() -> limiter.call(() -> await(release)));
+        awaitCondition(() -> limiter.getInFlightCalls() == 1);
+
+        final GitHubServiceException exception = assertThrows(GitHubServiceException.class,
+                () -> limiter.call(() -> "late"), "A call should fail when no permit frees up in time");
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatus(), "The timeout should map to 503");
+        assertEquals(0, limiter.getQueuedCalls(UpstreamLane.INTERACTIVE), "A timed-out call should leave the queue");
+
+        release.countDown();
+        holder.get();
+        assertEquals(0, limiter.getInFlightCalls(), "All permits should be returned");
+    }
+
+    @Test
+    @DisplayName("Background calls beyond their lane limit should not take permits from interactive calls")
+    void testLaneLimit() throws Exception {
+        final UpstreamConcurrencyLimiter limiter = new UpstreamConcurrencyLimiter(4, Duration.ofMillis(50));
+        final CountDownLatch release = new CountDownLatch(1);
+        final Future<?> background = threads.submit(() -> limiter.call(UpstreamLane.BACKGROUND, () -> await(release)));
+        awaitCondition(() -> limiter.getInFlightCalls(UpstreamLane.BACKGROUND) == 1);
+
+        assertThrows(GitHubServiceException.class, () -> limiter.call(UpstreamLane.BACKGROUND, () -> "second"),
+                "A second background call should exceed the lane's limit of one quarter of four permits");
+        assertEquals("interactive", limiter.call(() -> "interactive"),
+                "Interactive calls should still get the free permits");
+
+        release.countDown();
+        background.get();
+    }
+
+    @Test
+    @DisplayName("An interactive waiter should be served before a background waiter that queued first")
+    void testInteractiveOvertakesBackground() throws Exception {
+        final UpstreamConcurrencyLimiter limiter = new UpstreamConcurrencyLimiter(1, Duration.ofSeconds(5));
+        final List<UpstreamLane> order = new CopyOnWriteArrayList<>();
+        final CountDownLatch release = new CountDownLatch(1);
+        final Future<?> holder = threads.submit(() -> limiter.call(() -> await(release)));
+        awaitCondition(() -> limiter.getInFlightCalls() == 1);
+
+        final Future<?> background = threads.submit(() -> limiter.call(UpstreamLane.BACKGROUND,
+                () -> order.add(UpstreamLane.BACKGROUND)));
+        awaitCondition(() -> limiter.getQueuedCalls(UpstreamLane.BACKGROUND) == 1);
+        final Future<?> interactive = threads.submit(() -> limiter.call(UpstreamLane.INTERACTIVE,
+                () -> order.add(UpstreamLane.INTERACTIVE)));
+        awaitCondition(() -> limiter.getQueuedCalls(UpstreamLane.INTERACTIVE) == 1);
+
+        release.countDown();
+        holder.get();
+        background.get();
+        interactive.get();
+        assertEquals(List.of(UpstreamLane.INTERACTIVE, UpstreamLane.BACKGROUND), order,
+                "The interactive waiter should get the freed permit first");
+    }
+
+    @Test
+    @DisplayName("A saturated limiter should share permits between lanes by weight")
+    void testWeightedSharing() throws Exception {
+        final UpstreamConcurrencyLimiter limiter = new UpstreamConcurrencyLimiter(1, Duration.ofSeconds(5),
+                3, 1, 1, 0, 1, 1);
+        final List<UpstreamLane> order = new CopyOnWriteArrayList<>();
+        final CountDownLatch release = new CountDownLatch(1);
+        final Future<?> holder = threads.submit(() -> limiter.call(() -> await(release)));
+        awaitCondition(() -> limiter.getInFlightCalls() == 1);
+
+        for (int i = 0; i < 4; i++) {
+            for (final UpstreamLane lane : List.of(UpstreamLane.INTERACTIVE, UpstreamLane.BATCH)) {
+                final int queued = limiter.getQueuedCalls(lane);
+                threads.submit(() -> limiter.call(lane, () -> order.add(lane)));
+                awaitCondition(() -> limiter.getQueuedCalls(lane) == queued + 1);
+            }
+        }
+        release.countDown();
+        holder.get();
+        awaitCondition(() -> order.size() == 8);
+
+        assertEquals(3, order.subList(0, 4).stream().filter(lane -> lane == UpstreamLane.INTERACTIVE).count(),
+                "With weights 3:1, three of the first four permits should go to interactive calls");
+    }
+
+    private static String await(final CountDownLatch latch) throws GitHubServiceException {
+        try {
+            latch.await();
+            return "done";
+        } catch (final InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            throw new GitHubServiceException("interrupted", HttpStatus.SERVICE_UNAVAILABLE, interrupted);
+        }
+    }
+
+    private static void awaitCondition(final BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not reached in time");
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.jonathanklecherbranchservice.timing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the request-scoped Server-Timing breakdown.
+ * Tests cover:
+ * - No-op behavior when no timing record is bound
+ * - Header rendering with phase durations and the total
+ * - Merging of repeated phases
+ * - The serialization phase recorded from its mark
+ */
+class RequestTimingsTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestTimings.end();
+    }
+
+    @Test
+    @DisplayName("Spans should be no-ops when timing is not active")
+    void testSpanIsNoOpWhenInactive() {
+        try (RequestTimings.Span span = RequestTimings.start("profile")) {
+            assertNotNull(span, "start() should always return a span");
+        }
+        RequestTimings.markSerializationStart();
+    }
+
+    @Test
+    @DisplayName("Header should list recorded phases followed by the total")
+    void testHeaderFormat() {
+        final RequestTimings timings = RequestTimings.begin();
+        timings.add("validate", 150_000L);
+        timings.add("profile", 120_400_000L);
+        assertEquals("validate;dur=0.1, profile;dur=120.4, total;dur=200.0",
+                timings.toHeaderValue(200_000_000L), "Header should use Server-Timing syntax with 0.1 ms precision");
+    }
+
+    @Test
+    @DisplayName("Repeated phases should be merged into one metric")
+    void testRepeatedPhasesAreMerged() {
+        final RequestTimings timings = RequestTimings.begin();
+        timings.add("parse", 1_000_000L);
+        timings.add("parse", 2_000_000L);
+        assertEquals("parse;dur=3.0, total;dur=5.0", timings.toHeaderValue(5_000_000L),
+                "Both parse durations should be summed");
+    }
+
+    @Test
+    @DisplayName("Spans should record into the record bound to the current thread")
+    void testSpanRecordsIntoBoundRecord() {
+        final RequestTimings timings = RequestTimings.begin();
+        try (RequestTimings.Span ignored = RequestTimings.start("cache")) {
+            assertTrue(timings.elapsedNanos() >= 0, "Elapsed time should be non-negative");
+        }
+        RequestTimings.markSerializationStart();
+        timings.finishSerialization();
+        final String header = timings.toHeaderValue(1_000_000L);
+        assertTrue(header.startsWith("cache;dur="), "The cache phase should be recorded first");
+        assertTrue(header.contains("serialize;dur="), "The serialization phase should be recorded");
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.jonathanklecherbranchservice.warmup;
+
+import com.example.jonathanklecherbranchservice.cache.GitHubInfoCache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the startup warmup, on a real port with GitHub unreachable.
+ * Tests cover:
+ * - Every round of the request mix answered as expected without calling GitHub
+ * - The canned users removed from the cache once warmup ends
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "github.warmup.iterations=20", "github.warmup.time-budget=60s", "github.api.base-url=http://127.0.0.1:9"})
+class StartupWarmupTest {
+
+    @Autowired
+    private StartupWarmup warmup;
+
+    @Autowired
+    private GitHubInfoCache cache;
+
+    @Test
+    @DisplayName("Warmup should run every round from the cache and clean up after itself")
+    void testWarmup() {
+        assertEquals(20 * 6, warmup.getRequests(), "Every round should send the whole request mix");
+        assertEquals(0, warmup.getFailures(), "Every request should get its expected status without calling GitHub");
+        for (int i = 0; i < 8; i++) {
+            assertNull(cache.peek("warmup-" + i), "Canned user " + i + " should be removed after warmup");
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.jonathanklecherbranchservice.webhook;
+
+import com.example.jonathanklecherbranchservice.cache.GitHubInfoCache;
+import com.example.jonathanklecherbranchservice.entity.GitHubInfo;
+import com.example.jonathanklecherbranchservice.entity.GitHubRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the webhook event processor.
+ * Tests cover:
+ * - Adding, updating and removing repositories, keeping the list sorted by name
+ * - Renames and transfers between cached owners
+ * - Invalidation on member events
+ * - Several events for one user applied as a single batch
+ * - Users that are not cached and unknown event types
+ * - Bounded queueing
+ */
+class WebhookEventProcessorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private GitHubInfoCache cache;
+    private WebhookEventProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        cache = new GitHubInfoCache(Duration.ofMinutes(1), Duration.ofMinutes(5), false, DataSize.ofKilobytes(64), 2, 0.5, 10);
+        processor = new WebhookEventProcessor(cache, 2, 100, Duration.ofMillis(10));
+        cache.put("octocat", info("octocat", "hello-world"));
+        cache.put("hubot", info("hubot", "chat"));
+    }
+
+    @Test
+    @DisplayName("Created repositories should be sorted in by name and edited ones updated in place")
+    void testUpsert() {
+        processor.processBatch(List.of(
+                event("repository", "{\"action\":\"created\",\"repository\":" + repo("octocat", "spoon-knife", false) + "}"),
+                event("repository", "{\"action\":\"created\",\"repository\":" + repo("octocat", "Alpha", false) + "}"),
+                event("repository", "{\"action\":\"edited\",\"repository\":{\"name\":\"Hello-World\","
+                        + "\"url\":\"https://example/edited\",\"owner\":{\"login\":\"Octocat\"}}}")));
+
+        final List<GitHubRepository> repositories = repositories("octocat");
+        assertEquals(List.of("Alpha", "Hello-World", "spoon-knife"), names(repositories),
+                "The repository should be updated and the new ones sorted in by name, ignoring case");
+        assertEquals("https://example/edited", repositories.get(1).getUrl(), "The edited repository should be replaced");
+    }
+
+    @Test
+    @DisplayName("Deleted and privatized repositories should be removed")
+    void testRemove() {
+        processor.processBatch(List.of(
+                event("repository", "{\"action\":\"deleted\",\"repository\":" + repo("octocat", "hello-world", false) + "}"),
+                event("repository", "{\"action\":\"privatized\",\"repository\":" + repo("hubot", "chat", true) + "}")));
+
+        assertTrue(repositories("octocat").isEmpty(), "The deleted repository should be removed");
+        assertTrue(repositories("hubot").isEmpty(), "The privatized repository should be removed");
+    }
+
+    @Test
+    @DisplayName("Renames should replace the old name and transfers should move the repository")
+    void testRenameAndTransfer() {
+        processor.processBatch(List.of(
+                event("repository", "{\"action\":\"renamed\",\"repository\":" + repo("octocat", "hello-universe", false)
+                        + ",\"changes\":{\"repository\":{\"name\":{\"from\":\"hello-world\"}}}}"),
+                event("repository", "{\"action\":\"transferred\",\"repository\":" + repo("octocat", "chat", false)
+                        + ",\"changes\":{\"owner\":{\"from\":{\"user\":{\"login\":\"hubot\"}}}}}")));
+
+        assertEquals(List.of("chat", "hello-universe"), names(repositories("octocat")),
+                "The renamed and transferred repositories should belong to the new owner, sorted by name");
+        assertTrue(repositories("hubot").isEmpty(), "The transferred repository should leave the previous owner");
+    }
+
+    @Test
+    @DisplayName("Member events should invalidate the collaborator, even after patches in the same batch")
+    void testMemberInvalidates() {
+        processor.processBatch(List.of(
+                event("public", "{\"repository\":" + repo("hubot", "new-public", false) + "}"),
+                event("member", "{\"action\":\"added\",\"member\":{\"login\":\"HUBOT\"},\"repository\":"
+                        + repo("octocat", "hello-world", false) + "}")));
+
+        assertNull(cache.peek("hubot"), "The collaborator's entry should be invalidated");
+        assertEquals(List.of("hello-world"), names(repositories("octocat")), "The repository owner should be untouched");
+    }
+
+    @Test
+    @DisplayName("Events for uncached users and unknown event types should change nothing")
+    void testIgnored() {
+        processor.processBatch(List.of(
+                event("repository", "{\"action\":\"created\",\"repository\":" + repo("nobody", "thing", false) + "}"),
+                event("star", "{\"action\":\"created\",\"repository\":" + repo("octocat", "hello-world", false) + "}")));
+
+        assertNull(cache.peek("nobody"), "An uncached user should not be created by a patch");
+        assertEquals(2, cache.size(), "No entries should be added or removed");
+    }
+
+    @Test
+    @DisplayName("Events beyond the queue capacity should be rejected")
+    void testBoundedQueue() {
+        final WebhookEvent event = event("ping", "{}");
+        assertTrue(processor.submit(event), "The first event should be queued");
+        assertTrue(processor.submit(event), "The second event should be queued");
+        assertFalse(processor.submit(event), "An event beyond the capacity should be rejected");
+    }
+
+    private WebhookEvent event(final String type, final String json) {
+        try {
+            return new WebhookEvent(type, "delivery", objectMapper.readTree(json));
+        } catch (final Exception exception) {
+            throw new IllegalArgumentException(json, exception);
+        }
+    }
+
+    private List<GitHubRepository> repositories(final String userName) {
+        return cache.peek(userName).getInfo().getRepositories();
+    }
+
+    private static List<String> names(final List<GitHubRepository> repositories) {
+        return repositories.stream().map(GitHubRepository::getName).toList();
+    }
+
+    private static String repo(final String owner, final String name, final boolean isPrivate) {
+        return "{\"name\":\"" + name + "\",\"url\":\"https://api.github.com/repos/" + owner + "/" + name + "\","
+                + "\"private\":" + isPrivate + ",\"owner\":{\"login\":\"" + owner + "\"}}";
+    }
+
+    private static GitHubInfo info(final String userName, final String repository) {
+        return new GitHubInfo(userName, "Display " + userName, "https://avatars.example/" + userName, "Earth",
+                null, "https://api.github.com/users/" + userName, "Tue, 25 Jan 2011 18:44:36 GMT",
+                List.of(new GitHubRepository(repository, "https://api.github.com/repos/" + userName + "/" + repository)));
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.jonathanklecherbranchservice.webhook;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the webhook signature verifier.
+ * Tests cover:
+ * - The signature from GitHub's webhook documentation
+ * - Rejection of tampered bodies, other secrets and missing or malformed headers
+ */
+class WebhookSignatureVerifierTest {
+
+    private static final byte[] BODY = "Hello, World!".getBytes(StandardCharsets.UTF_8);
+    private static final String SIGNATURE = "sha256=757107ea0eb2509fc211221cce984b8a37570b6d7586c22c46f4379c8b043e17";
+
+    @Test
+    @DisplayName("The documented example signature should be valid")
+    void testDocumentedSignature() {
+        final WebhookSignatureVerifier verifier = new WebhookSignatureVerifier("It's a Secret to Everybody");
+        assertEquals(SIGNATURE, verifier.signatureOf(BODY), "The computed signature should match GitHub's example");
+        assertTrue(verifier.isValid(BODY, SIGNATURE), "The example signature should be accepted");
+    }
+
+    @Test
+    @DisplayName("Tampered bodies, other secrets and malformed headers should be rejected")
+    void testRejections() {
+        final WebhookSignatureVerifier verifier = new WebhookSignatureVerifier("It's a Secret to Everybody");
+        assertFalse(verifier.isValid("Hello, World?".getBytes(StandardCharsets.UTF_8), SIGNATURE),
+                "A tampered body should be rejected");
+        assertFalse(new WebhookSignatureVerifier("another secret").isValid(BODY, SIGNATURE),
+                "A signature made with another secret should be rejected");
+        assertFalse(verifier.isValid(BODY, null), "A missing header should be rejected");
+        assertFalse(verifier.isValid(BODY, SIGNATURE.substring("sha256=".length())),
+                "A header without the sha256= prefix should be rejected");
+    }
+}